@@ -0,0 +1,46 @@
+/**
+ * 构建产物预压缩（npm run build 之后自动执行）
+ *
+ * 为 build 目录下可压缩的文本资源生成 .br 与 .gz 两个版本，后端托管前端时按 Accept-Encoding
+ * 直接发送对应文件，运行时不再消耗 CPU 压缩。压缩收益不足 10% 的文件不生成压缩版本。
+ */
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const BUILD_DIR = path.resolve(__dirname, '..', 'build');
+const COMPRESSIBLE = /\.(html|js|css|json|svg|txt|map|ico|xml|webmanifest)$/i;
+const MIN_BYTES = 1024;
+const MIN_SAVING = 0.1;
+
+const walk = (dir) => fs.readdirSync(dir, { withFileTypes: true }).flatMap(entry => {
+    const full = path.join(dir, entry.name);
+    return entry.isDirectory() ? walk(full) : [full];
+});
+
+let originalBytes = 0;
+let brotliBytes = 0;
+let count = 0;
+
+for (const file of walk(BUILD_DIR)) {
+    if (!COMPRESSIBLE.test(file)) continue;
+    const source = fs.readFileSync(file);
+    if (source.length < MIN_BYTES) continue;
+
+    const br = zlib.brotliCompressSync(source, {
+        params: {
+            [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+            [zlib.constants.BROTLI_PARAM_SIZE_HINT]: source.length,
+        },
+    });
+    const gz = zlib.gzipSync(source, { level: zlib.constants.Z_BEST_COMPRESSION });
+
+    if (br.length <= source.length * (1 - MIN_SAVING)) fs.writeFileSync(`${file}.br`, br);
+    if (gz.length <= source.length * (1 - MIN_SAVING)) fs.writeFileSync(`${file}.gz`, gz);
+
+    originalBytes += source.length;
+    brotliBytes += Math.min(br.length, source.length);
+    count++;
+}
+
+console.log(`预压缩完成：${count} 个文件，${(originalBytes / 1024).toFixed(1)}KB -> br ${(brotliBytes / 1024).toFixed(1)}KB`);
@@ -6,4 +6,98 @@ export const login = (username: string, password: string) => {
 
 export const getSystemStatus = () => {
     return axios.get('/monitor/status');
-};
\ No newline at end of file
+};
+
+/** 断线重连的初始等待时间与上限（毫秒），每次失败翻倍并叠加随机抖动 */
+const RECONNECT_BASE_DELAY = 1000;
+const RECONNECT_MAX_DELAY = 30000;
+
+/** 令牌失效等无法通过重连恢复的错误 */
+class FatalStreamError extends Error {}
+
+/**
+ * 订阅系统状态推送流（SSE）
+ *
+ * 浏览器原生 EventSource 无法携带 Authorization 头，这里用 fetch 读取流并按 SSE 协议解析。
+ * 首条 snapshot 事件为完整状态，之后的 delta 事件只包含变化的字段。
+ *
+ * 连接断开（网络中断、服务端重启、连接超时）后按指数退避自动重连，
+ * 重连成功后服务端会重新下发 snapshot，调用方整体替换即可；
+ * 收到 snapshot 后退避时间复位。401 / 403 不重连，直接通过 onError 通知调用方。
+ *
+ * @returns 取消订阅函数
+ */
+export const subscribeSystemStatus = (
+    onEvent: (event: 'snapshot' | 'delta', data: any) => void,
+    onError?: (err: unknown) => void,
+) => {
+    const controller = new AbortController();
+    let attempt = 0;
+
+    const connect = async () => {
+        const token = localStorage.getItem('token');
+        const res = await fetch(`${axios.defaults.baseURL}/monitor/stream`, {
+            headers: token ? { Authorization: `Bearer ${token}` } : {},
+            signal: controller.signal,
+        });
+        if (res.status === 401 || res.status === 403) {
+            throw new FatalStreamError(`订阅失败: ${res.status}`);
+        }
+        if (!res.ok || !res.body) {
+            throw new Error(`订阅失败: ${res.status}`);
+        }
+
+        const reader = res.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                const block = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+
+                let event = 'message';
+                const dataLines: string[] = [];
+                block.split('\n').forEach(line => {
+                    if (line.startsWith('event:')) event = line.slice(6).trim();
+                    else if (line.startsWith('data:')) dataLines.push(line.slice(5));
+                });
+                if (dataLines.length && (event === 'snapshot' || event === 'delta')) {
+                    if (event === 'snapshot') attempt = 0;
+                    onEvent(event, JSON.parse(dataLines.join('\n')));
+                }
+            }
+        }
+    };
+
+    const wait = (ms: number) => new Promise<void>(resolve => {
+        const timer = setTimeout(resolve, ms);
+        controller.signal.addEventListener('abort', () => {
+            clearTimeout(timer);
+            resolve();
+        }, { once: true });
+    });
+
+    (async () => {
+        while (!controller.signal.aborted) {
+            try {
+                await connect();
+            } catch (err) {
+                if (controller.signal.aborted) return;
+                onError?.(err);
+                if (err instanceof FatalStreamError) return;
+            }
+            if (controller.signal.aborted) return;
+
+            const backoff = Math.min(RECONNECT_MAX_DELAY, RECONNECT_BASE_DELAY * 2 ** attempt);
+            attempt++;
+            await wait(backoff / 2 + Math.random() * backoff / 2);
+        }
+    })();
+
+    return () => controller.abort();
+};
@@ -1,7 +1,8 @@
 import axios from 'axios';
 
+// 默认与页面同源（后端托管前端，或开发时由 package.json 的 proxy 转发）；前端单独部署时在构建时通过 REACT_APP_API_BASE_URL 指定后端地址，见 .env.example 与 README
 const instance = axios.create({
-    baseURL: 'http://localhost:8080/api/v1',
+    baseURL: process.env.REACT_APP_API_BASE_URL || '/api/v1',
     timeout: 10000,
     headers: {
         'Content-Type': 'application/json',
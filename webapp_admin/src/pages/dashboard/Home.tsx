@@ -1,5 +1,5 @@
-import React, { useState, useEffect, useRef } from 'react';
-import { getSystemStatus } from '../../api/auth';
+import React, { useState, useEffect } from 'react';
+import { subscribeSystemStatus } from '../../api/auth';
 import DashboardLayout from '../../layout/DashboardLayout';
 import StarBackground from '../../components/StarBackground';
 import StatusCard, { StatusInfo } from '../../components/cards/StatusCard';
@@ -27,43 +27,42 @@ const Home: React.FC = () => {
     const [loading, setLoading] = useState(false);
     const [lastUpdate, setLastUpdate] = useState(new Date());
     const [isUpdating, setIsUpdating] = useState(false);
-    const intervalRef = useRef<NodeJS.Timeout | null>(null);
 
     const goToDocs = () => {
         console.log('Navigate to docs');
     };
 
     useEffect(() => {
-        const fetchStatus = async () => {
-            try {
-                if (!systemStatus) setLoading(true);
-                else setIsUpdating(true);
-
-                const res = await getSystemStatus();
-                const raw = res.data;
-                const payload: SystemStatus = {
-                    ...raw,
-                    ports: raw.ports.map((p: any) => ({
-                        name: p.name,
-                        port: p.port,
-                        status: p.status === '🟢' ? 'up' : 'down',
-                    })),
-                };
+        const normalize = (raw: any) => raw.ports
+            ? {
+                ...raw,
+                ports: raw.ports.map((p: any) => ({
+                    name: p.name,
+                    port: p.port,
+                    status: p.status === '🟢' ? 'up' : 'down',
+                })),
+            }
+            : raw;
 
-                setTimeout(() => {
-                    setSystemStatus(payload);
-                    setLastUpdate(new Date());
-                    setIsUpdating(false);
-                }, 300);
-            } catch (err) {
+        setLoading(true);
+        const unsubscribe = subscribeSystemStatus(
+            (event, data) => {
+                const payload = normalize(data);
+                setIsUpdating(true);
+                // snapshot 整体替换，delta 按字段合并
+                setSystemStatus(prev => (event === 'snapshot' || !prev ? payload : { ...prev, ...payload }));
+                setLastUpdate(new Date());
+                setLoading(false);
+                setTimeout(() => setIsUpdating(false), 300);
+            },
+            err => {
                 console.error('获取系统状态失败:', err);
-                setIsUpdating(false);
-            } finally {
                 setLoading(false);
-            }
-        };
+                setIsUpdating(false);
+            },
+        );
 
-        fetchStatus();
+        return unsubscribe;
     }, []);
 
     const getStatusColor = (status: string) => {
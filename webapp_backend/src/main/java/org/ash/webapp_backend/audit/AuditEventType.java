@@ -0,0 +1,27 @@
+package org.ash.webapp_backend.audit;
+
+/**
+ * 审计事件类型
+ *
+ * 以字符串形式存入 audit_events.type，新增类型直接追加即可。
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+public enum AuditEventType {
+
+    /** 登录成功 */
+    LOGIN_SUCCESS,
+
+    /** 登录失败（detail 记录原因：用户不存在 / 密码错误 / 账号禁用） */
+    LOGIN_FAILURE,
+
+    /** 登出 */
+    LOGOUT,
+
+    /** 注册成功 */
+    REGISTER,
+
+    /** 注册失败（detail 记录原因） */
+    REGISTER_FAILURE
+}
@@ -0,0 +1,210 @@
+package org.ash.webapp_backend.audit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计事件环形缓冲区（多生产者、单消费者，无锁）
+ *
+ * 槽位在构造时一次性分配，发布事件只是把字段写进已有槽位，稳定运行后不产生任何对象分配：
+ * - 生产者 CAS 推进 claimed 申请序号，写入槽位字段后把该序号写入 published[槽位]，作为“已发布”标记
+ * - 消费者从 consumed 开始按序读取，published[槽位] 等于期望序号才算可读，读完清空引用再推进 consumed
+ * - claimed - consumed 达到容量即为写满，由调用方按 {@link OverflowPolicy} 决定等待还是丢弃
+ *
+ * 某个生产者申请序号后尚未发布时，消费者会在该序号处停下，保证事件严格按序号顺序交付。
+ * 消费者空闲时挂起，生产者发布后发现消费者在等待才会唤醒它，忙时不产生任何 unpark 调用。
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+public class AuditRingBuffer {
+
+    /** 等待空位时单次挂起的最长时间 */
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 消费回调，参数即一条审计事件的各字段
+     */
+    @FunctionalInterface
+    public interface EventHandler {
+
+        void onEvent(long occurredAt, AuditEventType type, String username, String clientIp, String detail);
+    }
+
+    /**
+     * 预分配的槽位，字段由 published 的写入/读取保证可见性
+     */
+    private static final class Slot {
+        long occurredAt;
+        AuditEventType type;
+        String username;
+        String clientIp;
+        String detail;
+    }
+
+    private final Slot[] slots;
+
+    private final int mask;
+
+    /** 槽位 -> 最近一次发布到该槽位的序号，初始为 -1 */
+    private final AtomicLongArray published;
+
+    /** 下一个待申请的序号 */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** 消费者下一个要读取的序号，只由消费者推进 */
+    private final AtomicLong consumed = new AtomicLong();
+
+    private volatile Thread consumerThread;
+
+    private volatile boolean consumerWaiting;
+
+    /**
+     * @param capacity 槽位数，必须是 2 的幂
+     */
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("环形缓冲区容量必须是 2 的幂：" + capacity);
+        }
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * 发布一条事件
+     *
+     * @param timeoutNanos 写满时最多等待的时间，0 表示不等待
+     * @return 是否发布成功；写满且等待超时返回 false
+     */
+    public boolean publish(long occurredAt, AuditEventType type, String username, String clientIp, String detail,
+                           long timeoutNanos) {
+        long seq = claim();
+        if (seq < 0 && timeoutNanos > 0) {
+            long deadline = System.nanoTime() + timeoutNanos;
+            long backoff = 1_000;
+            while (seq < 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(Math.min(backoff, remaining));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                seq = claim();
+            }
+        }
+        if (seq < 0) {
+            return false;
+        }
+
+        int index = (int) seq & mask;
+        Slot slot = slots[index];
+        slot.occurredAt = occurredAt;
+        slot.type = type;
+        slot.username = username;
+        slot.clientIp = clientIp;
+        slot.detail = detail;
+        // volatile 写：既发布槽位字段，又与下面对 consumerWaiting 的读取构成全屏障，避免漏掉唤醒
+        published.set(index, seq);
+
+        if (consumerWaiting) {
+            Thread consumer = consumerThread;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 申请一个序号
+     *
+     * @return 申请到的序号；缓冲区已满返回 -1
+     */
+    private long claim() {
+        while (true) {
+            long seq = claimed.get();
+            if (seq - consumed.get() >= slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(seq, seq + 1)) {
+                return seq;
+            }
+        }
+    }
+
+    /**
+     * 按序号顺序取出已发布的事件（只能由单个消费者线程调用）
+     *
+     * @param handler 每条事件的回调
+     * @param max     本次最多取出的条数
+     * @return 实际取出的条数
+     */
+    public int drain(EventHandler handler, int max) {
+        long seq = consumed.get();
+        int count = 0;
+        while (count < max) {
+            int index = (int) seq & mask;
+            if (published.get(index) != seq) {
+                break;
+            }
+            Slot slot = slots[index];
+            handler.onEvent(slot.occurredAt, slot.type, slot.username, slot.clientIp, slot.detail);
+            slot.type = null;
+            slot.username = null;
+            slot.clientIp = null;
+            slot.detail = null;
+            seq++;
+            count++;
+        }
+        if (count > 0) {
+            consumed.set(seq);
+        }
+        return count;
+    }
+
+    /**
+     * 没有可读事件时挂起消费者，直到有新事件发布或超时（只能由消费者线程调用）
+     */
+    public void awaitPublished(long timeoutNanos) {
+        consumerThread = Thread.currentThread();
+        consumerWaiting = true;
+        try {
+            long seq = consumed.get();
+            if (published.get((int) seq & mask) != seq) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        } finally {
+            consumerWaiting = false;
+        }
+    }
+
+    /**
+     * 唤醒正在等待的消费者（关闭时使用）
+     */
+    public void wakeConsumer() {
+        Thread consumer = consumerThread;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * 当前积压的事件数（含已申请尚未发布的）
+     */
+    public int size() {
+        return (int) Math.max(0, claimed.get() - consumed.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,16 @@
+package org.ash.webapp_backend.audit;
+
+/**
+ * 审计环形缓冲区写满时的处理策略
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+public enum OverflowPolicy {
+
+    /** 发布线程等待消费者腾出空位（反压到请求线程），超过 audit.block-timeout-ms 仍无空位则丢弃 */
+    BLOCK,
+
+    /** 立即丢弃并计数，请求线程不受数据库写入速度影响 */
+    DROP
+}
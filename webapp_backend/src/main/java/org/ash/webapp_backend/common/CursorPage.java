@@ -0,0 +1,39 @@
+package org.ash.webapp_backend.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果（Keyset Pagination）
+ *
+ * 与 offset 分页不同，下一页通过上一页最后一条记录的主键定位，
+ * 无论翻到多深，数据库都只需沿索引扫描 size 行。
+ *
+ * 示例响应：
+ * {
+ *   "items": [...],
+ *   "nextCursor": 1024,
+ *   "hasMore": true
+ * }
+ *
+ * @param <T> 列表元素类型
+ * @author Ash
+ * @date 2025/6/22
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /** 当前页数据 */
+    private List<T> items;
+
+    /** 下一页游标（本页最后一条记录的 ID），没有更多数据时为 null */
+    private Long nextCursor;
+
+    /** 是否还有下一页 */
+    private boolean hasMore;
+}
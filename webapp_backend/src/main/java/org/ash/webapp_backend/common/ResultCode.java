@@ -40,7 +40,10 @@ public enum ResultCode {
     FORBIDDEN(403, "无权限访问"),
 
     /** 请求参数有误，客户端错误 */
-    BAD_REQUEST(400, "请求参数错误");
+    BAD_REQUEST(400, "请求参数错误"),
+
+    /** 服务过载，请求被限流丢弃 */
+    SERVICE_UNAVAILABLE(503, "服务繁忙，请稍后重试");
 
     /** 状态码 */
     private final int code;
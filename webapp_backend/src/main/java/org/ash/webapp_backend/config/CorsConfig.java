@@ -1,22 +1,46 @@
 package org.ash.webapp_backend.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.Arrays;
+
 /**
  * 全局跨域配置
  * 允许前端跨域访问后端接口（如 React/Vue 项目）
+ *
+ * 由后端托管前端构建产物（frontend.static.enabled=true）时页面与接口同源，
+ * 可将 cors.allowed-origin-patterns 置空以关闭跨域响应头。
+ *
+ * 允许携带凭据（allowCredentials）时，任意来源的页面都能以用户身份调用接口，
+ * 因此默认只放行本地开发服务器；来源中包含通配符 * 时不再允许携带凭据，并在启动时告警。
  */
 @Configuration
 public class CorsConfig implements WebMvcConfigurer {
 
+    private static final Logger log = LoggerFactory.getLogger(CorsConfig.class);
+
+    /** 允许的来源（逗号分隔），生产需指定前端域名，为空表示不允许跨域 */
+    @Value("${cors.allowed-origin-patterns:http://localhost:3000,http://127.0.0.1:3000}")
+    private String[] allowedOriginPatterns;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
+        if (allowedOriginPatterns.length == 0) {
+            return;
+        }
+        boolean wildcard = Arrays.asList(allowedOriginPatterns).contains("*");
+        if (wildcard) {
+            log.warn("⚠️ cors.allowed-origin-patterns 包含 *，跨域请求将不允许携带凭据，生产环境请改为前端域名");
+        }
         registry.addMapping("/**") // 所有接口
-                .allowedOriginPatterns("*") // 允许所有来源，生产建议指定前端域名
+                .allowedOriginPatterns(allowedOriginPatterns)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .allowCredentials(true); // 允许携带 Cookie 和 Token（重要）
+                .allowCredentials(!wildcard); // 允许携带 Cookie 和 Token（仅限明确列出的来源）
     }
 }
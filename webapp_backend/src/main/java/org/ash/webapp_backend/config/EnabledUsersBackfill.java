@@ -0,0 +1,83 @@
+package org.ash.webapp_backend.config;
+
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 历史用户启用状态回填（一次性）
+ *
+ * 登录开始校验 enabled 之前，注册流程从未设置该列，历史用户全部为 enabled = 0，升级后会被一并拒绝登录。
+ * 本类在所有单例初始化完成后（Web 服务器开始接收请求之前）执行一次：
+ * UPDATE users SET enabled = TRUE WHERE enabled = FALSE。
+ *
+ * 是否已执行记录在 app_migrations 表中：同一事务内先插入标记行，插入成功才执行回填，
+ * 标记已存在（之前的启动或其他节点已执行）则跳过。之后管理员禁用的账号不会在重启时被重新启用。
+ *
+ * 回填失败只记录日志，不阻止启动；此时历史用户仍无法登录，需手动执行上述 UPDATE。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Component
+public class EnabledUsersBackfill implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EnabledUsersBackfill.class);
+
+    /** app_migrations 中的标记名 */
+    static final String MIGRATION = "users-enabled-backfill";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${auth.login.enabled-backfill:true}")
+    private boolean backfillEnabled;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!backfillEnabled) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            log.error("💥 历史用户启用状态回填失败，历史用户将无法登录，请手动执行 UPDATE users SET enabled = TRUE: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * 执行回填
+     *
+     * @return 被启用的用户数，已执行过时返回 -1
+     */
+    public int backfill() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS app_migrations ("
+                + "name VARCHAR(100) NOT NULL PRIMARY KEY, applied_at TIMESTAMP NOT NULL)");
+        Integer enabled = transactionTemplate.execute(status -> {
+            try {
+                jdbcTemplate.update("INSERT INTO app_migrations (name, applied_at) VALUES (?, ?)",
+                        MIGRATION, Timestamp.valueOf(LocalDateTime.now()));
+            } catch (DuplicateKeyException e) {
+                return -1;
+            }
+            return jdbcTemplate.update("UPDATE users SET enabled = TRUE WHERE enabled = FALSE");
+        });
+        if (enabled != null && enabled >= 0) {
+            log.info("🩹 历史用户启用状态回填完成：启用 {} 个用户", enabled);
+        }
+        return enabled == null ? -1 : enabled;
+    }
+}
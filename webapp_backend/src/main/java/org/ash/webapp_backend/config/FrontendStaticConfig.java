@@ -0,0 +1,83 @@
+package org.ash.webapp_backend.config;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Host;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.ash.webapp_backend.frontend.StaticAssetServlet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 前端静态资源托管配置（frontend.static.enabled=true 时生效）
+ *
+ * 接口位于 server.servlet.context-path（/api/v1）下，前端构建产物挂在同一 Tomcat 的根上下文（/）：
+ * Tomcat 按最长上下文路径匹配，/api/v1/** 仍由 Spring 处理，其余路径由 {@link StaticAssetServlet} 直接应答，
+ * 不经过 Spring Security 与 DispatcherServlet。页面与接口同源，不再需要跨域预检。
+ *
+ * 前端构建命令（npm run build）的 postbuild 步骤会生成 .br / .gz 预压缩文件，见 webapp_admin/scripts/compress.js。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+@Configuration
+@ConditionalOnProperty(name = "frontend.static.enabled", havingValue = "true")
+public class FrontendStaticConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FrontendStaticConfig.class);
+
+    /** 前端构建产物目录 */
+    @Value("${frontend.static.dir:../webapp_admin/build}")
+    private String dir;
+
+    /** 不小于该大小的文件通过 sendfile 发送，更小的文件常驻内存 */
+    @Value("${frontend.static.sendfile-min-size:48KB}")
+    private DataSize sendfileMinSize;
+
+    /** 无扩展名的未知路径是否返回 index.html（前端使用 History 路由） */
+    @Value("${frontend.static.history-fallback:true}")
+    private boolean historyFallback;
+
+    /**
+     * Spring Boot 创建主上下文并加入 Host 之后才执行上下文定制器，此时可以向同一 Host 追加根上下文
+     *
+     * Servlet 不注册为 Spring Bean，否则会被 Spring Boot 自动注册进主上下文。
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> frontendContextCustomizer() {
+        return factory -> factory.addContextCustomizers(mainContext -> {
+            Path root = Path.of(dir).toAbsolutePath().normalize();
+            if (mainContext.getPath().isEmpty()) {
+                log.warn("⚠️ 接口未配置 server.servlet.context-path，根路径已被占用，跳过静态资源托管");
+                return;
+            }
+            if (!Files.isDirectory(root)) {
+                log.warn("⚠️ 前端构建目录不存在，跳过静态资源托管：{}", root);
+                return;
+            }
+            StaticAssetServlet servlet = new StaticAssetServlet(root, sendfileMinSize.toBytes(), historyFallback);
+            Host host = (Host) mainContext.getParent();
+            Context context = new StandardContext();
+            context.setName("frontend");
+            context.setPath("");
+            context.setDocBase(root.toString());
+            context.addLifecycleListener(new Tomcat.FixContextListener());
+            context.setParentClassLoader(getClass().getClassLoader());
+            Tomcat.addDefaultMimeTypeMappings(context);
+            Tomcat.addServlet(context, "frontend", servlet).setLoadOnStartup(1);
+            context.addServletMappingDecoded("/", "frontend");
+            host.addChild(context);
+            log.info("🌐 前端静态资源托管已启用：/ -> {}", root);
+        });
+    }
+}
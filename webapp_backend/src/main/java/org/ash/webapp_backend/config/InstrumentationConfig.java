@@ -0,0 +1,86 @@
+package org.ash.webapp_backend.config;
+
+import org.ash.webapp_backend.filter.ServerTimingFilter;
+import org.ash.webapp_backend.instrument.InstrumentedDataSource;
+import org.ash.webapp_backend.instrument.LatencyRecorder;
+import org.ash.webapp_backend.instrument.RedisLatencyListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import javax.sql.DataSource;
+
+/**
+ * 延迟埋点配置（instrument.enabled=true 时生效）
+ *
+ * 通过 BeanPostProcessor 在容器创建连接池与 Redis 连接工厂之后挂上埋点，业务代码无需改动：
+ * - DataSource 包装为 {@link InstrumentedDataSource}，统计每种 SQL 形态的耗时分布
+ * - LettuceConnectionFactory 的原生客户端注册 {@link RedisLatencyListener}，统计每个命令的耗时分布
+ * - 注册 {@link ServerTimingFilter}（instrument.server-timing.enabled=true 时），按请求输出各阶段耗时
+ *
+ * 统计结果通过 /monitor/latency 与 /monitor/slow-requests 查看。
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+@Configuration
+@ConditionalOnProperty(name = "instrument.enabled", havingValue = "true", matchIfMissing = true)
+public class InstrumentationConfig {
+
+    /**
+     * 延迟登记表，BeanPostProcessor 依赖它，因此声明为 static 并且不依赖其他业务 Bean
+     */
+    @Bean
+    public static LatencyRecorder latencyRecorder(Environment environment) {
+        return new LatencyRecorder(
+                environment.getProperty("instrument.jdbc.slow-ms", Long.class, 100L),
+                environment.getProperty("instrument.redis.slow-ms", Long.class, 20L),
+                environment.getProperty("instrument.slow-log-size", Integer.class, 200),
+                environment.getProperty("instrument.max-shapes", Integer.class, 500));
+    }
+
+    @Bean
+    public static BeanPostProcessor latencyInstrumentationPostProcessor(ObjectProvider<LatencyRecorder> recorderProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, recorderProvider.getObject());
+                }
+                if (bean instanceof LettuceConnectionFactory factory) {
+                    if (factory.getNativeClient() == null) {
+                        factory.start();
+                    }
+                    factory.getNativeClient().addListener(new RedisLatencyListener(recorderProvider.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Server-Timing 过滤器，排在 Spring Security 过滤链之前，使 JWT 校验与会话读取计入请求耗时
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "instrument.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+    static class ServerTimingConfig {
+
+        @Bean
+        public ServerTimingFilter serverTimingFilter() {
+            return new ServerTimingFilter();
+        }
+
+        @Bean
+        public FilterRegistrationBean<ServerTimingFilter> serverTimingFilterRegistration(ServerTimingFilter filter) {
+            FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(filter);
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+            return registration;
+        }
+    }
+}
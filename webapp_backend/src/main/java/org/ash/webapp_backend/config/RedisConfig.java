@@ -1,11 +1,27 @@
 package org.ash.webapp_backend.config;
 
+import org.ash.webapp_backend.instrument.LatencyRecorder;
+import org.ash.webapp_backend.instrument.RedisLatencyListener;
+import org.ash.webapp_backend.utils.ConsistentHashRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Redis 配置类，用于定义 RedisTemplate 的 Bean。
  *
@@ -16,6 +32,8 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  *
  * 如果你需要处理更复杂的对象（如 JSON），可以将序列化器改为 Jackson 等。
  *
+ * 会话类键可通过 redis.sharding.nodes 分布到多个独立 Redis 节点，见 {@link RedisShardRouter}。
+ *
  * 示例用途：
  * redisTemplate.opsForValue().set("key", "value");
  * String value = redisTemplate.opsForValue().get("key");
@@ -26,6 +44,8 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisConfig.class);
+
     /**
      * 配置 RedisTemplate Bean，指定 key 和 value 使用 String 序列化方式
      *
@@ -34,6 +54,64 @@ public class RedisConfig {
      */
     @Bean
     public RedisTemplate<String, String> redisTemplate(RedisConnectionFactory connectionFactory) {
+        return stringTemplate(connectionFactory);
+    }
+
+    /**
+     * 配置会话键分片路由
+     *
+     * redis.sharding.nodes 为逗号分隔的 host:port 列表，例如 localhost:6380,localhost:6381,localhost:6382，
+     * 各节点沿用 spring.data.redis 的密码、库编号与超时设置；留空则不分片。
+     *
+     * @param redisTemplate    默认实例的 RedisTemplate
+     * @param properties       spring.data.redis 配置
+     * @param nodes            分片节点列表
+     * @param virtualNodes     每个节点的虚拟节点数
+     * @param recorderProvider 延迟埋点（开启时为分片节点同样注册命令监听器）
+     */
+    @Bean
+    public RedisShardRouter redisShardRouter(RedisTemplate<String, String> redisTemplate,
+                                             RedisProperties properties,
+                                             @Value("${redis.sharding.nodes:}") List<String> nodes,
+                                             @Value("${redis.sharding.virtual-nodes:160}") int virtualNodes,
+                                             ObjectProvider<LatencyRecorder> recorderProvider) {
+        List<String> addresses = nodes.stream().map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        if (addresses.isEmpty()) {
+            return new RedisShardRouter(redisTemplate);
+        }
+
+        LatencyRecorder recorder = recorderProvider.getIfAvailable();
+        Map<String, RedisTemplate<String, String>> templates = new LinkedHashMap<>();
+        List<LettuceConnectionFactory> factories = new ArrayList<>();
+        for (String address : addresses) {
+            int colon = address.lastIndexOf(':');
+            RedisStandaloneConfiguration standalone = colon < 0
+                    ? new RedisStandaloneConfiguration(address)
+                    : new RedisStandaloneConfiguration(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+            standalone.setDatabase(properties.getDatabase());
+            if (properties.getPassword() != null && !properties.getPassword().isEmpty()) {
+                standalone.setPassword(properties.getPassword());
+            }
+
+            LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder();
+            if (properties.getTimeout() != null) {
+                client.commandTimeout(properties.getTimeout());
+            }
+            LettuceConnectionFactory factory = new LettuceConnectionFactory(standalone, client.build());
+            factory.afterPropertiesSet();
+            factory.start();
+            if (recorder != null) {
+                factory.getNativeClient().addListener(new RedisLatencyListener(recorder));
+            }
+            factories.add(factory);
+            templates.put(address, stringTemplate(factory));
+        }
+
+        log.info("🔀 会话键分片已启用：{} 个节点 {}，每节点 {} 个虚拟节点", addresses.size(), addresses, virtualNodes);
+        return new RedisShardRouter(redisTemplate, new ConsistentHashRing<>(templates, virtualNodes), factories);
+    }
+
+    private static RedisTemplate<String, String> stringTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, String> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
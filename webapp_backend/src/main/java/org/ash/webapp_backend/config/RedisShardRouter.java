@@ -0,0 +1,109 @@
+package org.ash.webapp_backend.config;
+
+import org.ash.webapp_backend.utils.ConsistentHashRing;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ArrayList;
+
+/**
+ * Redis 分片路由
+ *
+ * 会话类键（login:token:{username}、session:token:{token} 等）按路由键在一致性哈希环上分布到多个独立的 Redis 节点，
+ * 以突破单实例的吞吐上限：
+ * - 用户维度的键按用户名路由，同一用户的键总在同一节点
+ * - 不透明令牌的会话记录按令牌本身路由（解析时只有令牌）
+ *
+ * 未配置 redis.sharding.nodes 时不分片，所有键都落在默认的 spring.data.redis 实例上。
+ * 全局性质的键（如已注销令牌流 auth:revoked）始终使用默认实例，不经过本路由。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+public class RedisShardRouter implements DisposableBean {
+
+    private final RedisTemplate<String, String> defaultTemplate;
+
+    /** 分片环，未分片时为 null */
+    private final ConsistentHashRing<RedisTemplate<String, String>> ring;
+
+    /** 分片节点的连接工厂，随容器关闭一并释放 */
+    private final List<LettuceConnectionFactory> factories;
+
+    public RedisShardRouter(RedisTemplate<String, String> defaultTemplate) {
+        this(defaultTemplate, null, List.of());
+    }
+
+    public RedisShardRouter(RedisTemplate<String, String> defaultTemplate,
+                            ConsistentHashRing<RedisTemplate<String, String>> ring,
+                            List<LettuceConnectionFactory> factories) {
+        this.defaultTemplate = defaultTemplate;
+        this.ring = ring;
+        this.factories = factories;
+    }
+
+    /**
+     * 用户维度键（登录令牌等）所在的节点
+     */
+    public RedisTemplate<String, String> forUsername(String username) {
+        return route(username);
+    }
+
+    /**
+     * 不透明令牌会话记录所在的节点
+     */
+    public RedisTemplate<String, String> forToken(String token) {
+        return route(token);
+    }
+
+    /**
+     * 按路由键查找节点
+     */
+    public RedisTemplate<String, String> route(String routingKey) {
+        return ring == null ? defaultTemplate : ring.nodeFor(routingKey);
+    }
+
+    /**
+     * 将一批路由键按节点分组，便于每个节点只发一次 MGET 或一次管道
+     *
+     * @param routingKeys 路由键列表
+     * @return 节点 -> 该节点负责的下标列表（对应入参位置）
+     */
+    public Map<RedisTemplate<String, String>, List<Integer>> partition(List<String> routingKeys) {
+        Map<RedisTemplate<String, String>, List<Integer>> groups = new IdentityHashMap<>();
+        for (int i = 0; i < routingKeys.size(); i++) {
+            groups.computeIfAbsent(route(routingKeys.get(i)), t -> new ArrayList<>()).add(i);
+        }
+        return groups;
+    }
+
+    /**
+     * 是否启用了分片
+     */
+    public boolean isSharded() {
+        return ring != null;
+    }
+
+    /**
+     * 所有节点（未分片时只有默认实例）
+     */
+    public List<RedisTemplate<String, String>> nodes() {
+        return ring == null ? List.of(defaultTemplate) : ring.nodes();
+    }
+
+    /**
+     * 分片节点名称（host:port），未分片时为空
+     */
+    public List<String> nodeNames() {
+        return ring == null ? List.of() : ring.names();
+    }
+
+    @Override
+    public void destroy() {
+        factories.forEach(LettuceConnectionFactory::destroy);
+    }
+}
@@ -1,22 +1,38 @@
 package org.ash.webapp_backend.config;
 
 import jakarta.annotation.Resource;
+import jakarta.servlet.DispatcherType;
+import org.ash.webapp_backend.filter.ConcurrencyLimitFilter;
 import org.ash.webapp_backend.filter.JwtAuthenticationFilter;
 import org.ash.webapp_backend.handler.CustomAccessDeniedHandler;
+import org.ash.webapp_backend.security.PermissionAuthorizationManager;
+import org.ash.webapp_backend.security.RequiresPermission;
+import org.ash.webapp_backend.utils.PasswordHashCalibrator;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 /**
  * Spring Security 配置类，用于配置系统的安全认证策略。
  *
@@ -26,10 +42,10 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  * - 禁用默认的表单登录和 HTTP Basic 验证方式
  * - 关闭 CSRF 防护（因使用 JWT，不依赖 Cookie）
  * - 配置无状态 Session 策略
- * - 提供密码加密器（BCrypt）与认证管理器 Bean
+ * - 提供密码加密器（按机器校准成本的 BCrypt / Argon2id）与认证管理器 Bean
  *
  * 适用于前后端分离、基于 JWT 的身份认证方案。
- * 注意：如果将来需要支持角色权限、RBAC 等功能，可以在 `authorizeHttpRequests` 中扩展配置。
+ * 方法级权限控制使用 {@link RequiresPermission}，按预编译的权限位图判断，不走 SpEL。
  *
  * 示例用途：
  * - 登录成功后获取 JWT，前端将其附加在请求头中
@@ -46,6 +62,34 @@ public class SecurityConfig {
     @Resource
     private CustomAccessDeniedHandler customAccessDeniedHandler;
 
+    /** 新密码使用的哈希算法：bcrypt 或 argon2 */
+    @Value("${security.password.algorithm:bcrypt}")
+    private String passwordAlgorithm;
+
+    /** 是否在启动时按目标耗时校准哈希成本 */
+    @Value("${security.password.calibrate:true}")
+    private boolean calibratePassword;
+
+    /** 单次密码哈希的目标耗时（毫秒） */
+    @Value("${security.password.target-ms:50}")
+    private long passwordTargetMillis;
+
+    /** BCrypt 最低强度，校准结果不会低于该值 */
+    @Value("${security.password.bcrypt-min-strength:10}")
+    private int bcryptMinStrength;
+
+    /** Argon2id 内存成本（KiB） */
+    @Value("${security.password.argon2-memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    /** Argon2id 并行度 */
+    @Value("${security.password.argon2-parallelism:1}")
+    private int argon2Parallelism;
+
+    /** Argon2id 最低迭代次数，校准结果不会低于该值 */
+    @Value("${security.password.argon2-min-iterations:2}")
+    private int argon2MinIterations;
+
     /**
      * 配置 Spring Security 核心过滤链。
      *
@@ -54,6 +98,7 @@ public class SecurityConfig {
      * - 定义哪些路径可以匿名访问，哪些需要认证
      * - 设置 Session 策略为无状态（不存储登录状态）
      * - 注入自定义 JWT 认证过滤器，用于替代默认登录验证逻辑
+     * - 在 JWT 认证过滤器之前注入自适应并发限流过滤器
      *
      * @param http HttpSecurity 对象，由 Spring 注入
      * @return 配置完成的 SecurityFilterChain
@@ -70,11 +115,14 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
 
                 .authorizeHttpRequests(auth -> auth
+                        // 异步分派（流式导出等）沿用首次请求的鉴权结果，无需重复认证
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/auth/login",
                                 "/auth/logout",
                                 "/auth/register",
                                 "/auth/**",
+                                "/monitor/readiness",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
@@ -90,7 +138,9 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception
                         .accessDeniedHandler(customAccessDeniedHandler)
                 )
-                .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+                // 过载保护放在认证之前，被丢弃的请求不再消耗验签与 Redis 查询
+                .addFilterBefore(concurrencyLimitFilter(), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -113,14 +163,40 @@ public class SecurityConfig {
     /**
      * 配置密码加密方式。
      *
-     * 使用 BCryptPasswordEncoder 可确保密码存储时加盐加密，提升安全性。
-     * 登录时也会通过该加密器验证密码匹配。
+     * 使用 DelegatingPasswordEncoder 统一管理多种哈希算法，新密码以 {id} 前缀存储：
+     * - bcrypt：强度在启动时按 security.password.target-ms 校准
+     * - argon2：Argon2id，固定内存与并行度，迭代次数按目标耗时校准
      *
-     * @return BCryptPasswordEncoder 实例
+     * 历史数据中没有前缀的 BCrypt 哈希仍可正常校验；登录成功后，
+     * 若 {@link PasswordEncoder#upgradeEncoding(String)} 判定哈希需要升级（算法不同或成本更低），
+     * 由 AuthServiceImpl 透明地重新哈希并写回数据库。
+     *
+     * @return DelegatingPasswordEncoder 实例
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        boolean useArgon2 = "argon2".equals(passwordAlgorithm);
+
+        // 只校准用于新密码的算法，另一种算法仅用于校验已有哈希
+        int bcryptStrength = !useArgon2 && calibratePassword
+                ? PasswordHashCalibrator.calibrateBcryptStrength(passwordTargetMillis, bcryptMinStrength)
+                : bcryptMinStrength;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        int argon2Iterations = useArgon2 && calibratePassword
+                ? PasswordHashCalibrator.calibrateArgon2Iterations(
+                        passwordTargetMillis, argon2MemoryKib, argon2Parallelism, argon2MinIterations)
+                : argon2MinIterations;
+        PasswordEncoder argon2 = PasswordHashCalibrator.argon2(argon2MemoryKib, argon2Parallelism, argon2Iterations);
+
+        String idForEncode = useArgon2 ? "argon2" : "bcrypt";
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, Map.of(
+                "bcrypt", bcrypt,
+                "argon2", argon2
+        ));
+        // 兼容升级前写入的无前缀 BCrypt 哈希
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     /**
@@ -135,4 +211,42 @@ public class SecurityConfig {
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
     }
+
+    /**
+     * 注册自适应并发限流过滤器。
+     *
+     * 该过滤器只在 Spring Security 过滤链中生效（见 securityFilterChain），
+     * 不再由 Spring Boot 自动注册为全局 Servlet 过滤器，避免重复计数。
+     *
+     * @return ConcurrencyLimitFilter 实例
+     */
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter() {
+        return new ConcurrencyLimitFilter();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter filter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * 注册 {@link RequiresPermission} 方法鉴权拦截器。
+     *
+     * 匹配标注在方法或类上的 @RequiresPermission，由 {@link PermissionAuthorizationManager}
+     * 直接按权限位图判断，与 @PreAuthorize 共存。
+     * 必须声明为 static 且标记为基础设施 Bean，确保在方法安全代理创建前完成注册。
+     *
+     * @return 方法鉴权 Advisor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor requiresPermissionAuthorizationAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(
+                new AnnotationMatchingPointcut(null, RequiresPermission.class, true))
+                .union(new AnnotationMatchingPointcut(RequiresPermission.class, true));
+        return new AuthorizationManagerBeforeMethodInterceptor(pointcut, new PermissionAuthorizationManager());
+    }
 }
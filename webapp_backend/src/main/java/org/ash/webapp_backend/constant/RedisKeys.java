@@ -10,9 +10,17 @@ package org.ash.webapp_backend.constant;
  *
  * 命名规范示例：
  * - login:token:{username}       登录令牌
+ * - session:token:{token}       不透明令牌会话记录（Hash）
+ * - auth:revoked                已注销令牌流（Stream）
+ * - stats:users                 用户统计计数器（Hash）
  * - user:session:{userId}       用户会话信息
  * - sms:code:{phone}            手机验证码
  *
+ * 分片规则（配置 redis.sharding.nodes 时生效，见 RedisShardRouter）：
+ * - 用户维度的键（login:token、以及后续的限流等键）按 {username} 路由
+ * - session:token 按 {token} 路由
+ * - auth:revoked、stats:users 等全局键不分片，始终位于默认实例
+ *
  * 推荐配合 TTL 机制使用，并支持按前缀删除缓存。
  * 如需扩展更多功能模块（如：rate limit、cache 等），请继续在此类中添加静态方法。
  *
@@ -40,6 +48,52 @@ public class RedisKeys {
         return LOGIN_TOKEN_PREFIX + username;
     }
 
+    /**
+     * 获取不透明令牌会话记录的 Redis Key（Hash 结构）
+     *
+     * @param token 不透明令牌
+     * @return Redis Key，例如：session:token:Q2hhbmdlTWU...
+     */
+    public static String sessionToken(String token) {
+        return "session:token:" + token;
+    }
+
+    /**
+     * 获取已注销令牌流的 Redis Key（Stream 结构，无状态注销模式使用）
+     *
+     * @return Redis Key：auth:revoked
+     */
+    public static String revokedTokenStream() {
+        return "auth:revoked";
+    }
+
+    /**
+     * 获取用户统计计数器的 Redis Key（Hash 结构）
+     *
+     * @return Redis Key：stats:users
+     */
+    public static String userStats() {
+        return "stats:users";
+    }
+
+    /**
+     * 获取重建用户统计时使用的临时 Key，写完后 RENAME 为 {@link #userStats()}
+     *
+     * @return Redis Key：stats:users:rebuild
+     */
+    public static String userStatsRebuild() {
+        return "stats:users:rebuild";
+    }
+
+    /**
+     * 获取用户统计重建锁的 Redis Key，多节点同一时刻只有一个节点重建
+     *
+     * @return Redis Key：stats:users:rebuild-lock
+     */
+    public static String userStatsRebuildLock() {
+        return "stats:users:rebuild-lock";
+    }
+
     /**
      * 获取用户会话信息的 Redis Key
      *
@@ -1,10 +1,42 @@
 package org.ash.webapp_backend.controller;
 
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.ash.webapp_backend.common.CursorPage;
 import org.ash.webapp_backend.common.Result;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.ash.webapp_backend.common.ResultCode;
+import org.ash.webapp_backend.dto.BulkUserRequest;
+import org.ash.webapp_backend.dto.BulkUserResult;
+import org.ash.webapp_backend.dto.UserStats;
+import org.ash.webapp_backend.dto.UserSummary;
+import org.ash.webapp_backend.dto.UsernameSuggestion;
+import org.ash.webapp_backend.entity.AuditEvent;
+import org.ash.webapp_backend.security.Permission;
+import org.ash.webapp_backend.security.RequiresPermission;
+import org.ash.webapp_backend.security.SystemRole;
+import org.ash.webapp_backend.service.AuditService;
+import org.ash.webapp_backend.service.UserAdminService;
+import org.ash.webapp_backend.service.UserExportService;
+import org.ash.webapp_backend.service.UserSearchService;
+import org.ash.webapp_backend.service.UserStatsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Ash
@@ -15,10 +47,178 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/admin")
 public class AdminController {
 
-    @PreAuthorize("hasRole('ADMIN')")
+    @Resource
+    private UserAdminService userAdminService;
+
+    @Resource
+    private UserExportService userExportService;
+
+    @Resource
+    private UserSearchService userSearchService;
+
+    @Resource
+    private AuditService auditService;
+
+    @Resource
+    private UserStatsService userStatsService;
+
+    /** 单次批量操作的用户数上限 */
+    @Value("${admin.bulk.max-ids:200000}")
+    private int bulkMaxIds;
+
+    @RequiresPermission(Permission.ADMIN_ACCESS)
     @PostMapping("/data")
     public Result<String> onlyAdmin() {
         return Result.success("只有管理员能访问");
     }
 
+    /**
+     * 用户列表（游标分页）
+     *
+     * 首页不传 afterId，之后使用上一页返回的 nextCursor 作为 afterId。
+     *
+     * @param afterId 上一页最后一条记录的 ID
+     * @param size    每页条数，最大 100
+     * @param role    按角色过滤（可选）
+     * @param enabled 按启用状态过滤（可选）
+     * @return 用户精简信息分页结果
+     */
+    @RequiresPermission(Permission.USER_READ)
+    @GetMapping("/users")
+    public Result<CursorPage<UserSummary>> listUsers(@RequestParam(required = false) Long afterId,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     @RequestParam(required = false) String role,
+                                                     @RequestParam(required = false) Boolean enabled) {
+        return Result.success(userAdminService.listUsers(afterId, size, role, enabled));
+    }
+
+    /**
+     * 用户统计：总数、各角色人数、启用 / 禁用人数与最近每日注册数
+     *
+     * 由增量维护的计数器直接应答，不对 users 表做聚合查询。
+     */
+    @RequiresPermission(Permission.USER_READ)
+    @GetMapping("/users/stats")
+    public Result<UserStats> getUserStats() {
+        return Result.success(userStatsService.getStats());
+    }
+
+    /**
+     * 批量启用、禁用用户或变更角色
+     *
+     * 禁用与变更角色会注销受影响用户的全部会话，用户重新登录后令牌携带新角色。
+     *
+     * @param request 操作类型、目标用户 ID（不超过 admin.bulk.max-ids 个）与新角色
+     * @return 变更用户数、注销会话数与耗时
+     */
+    @RequiresPermission(Permission.USER_WRITE)
+    @PostMapping("/users/bulk")
+    public Result<BulkUserResult> bulkUpdateUsers(@RequestBody BulkUserRequest request) {
+        List<Long> ids = request.getIds();
+        if (request.getAction() == null || ids == null || ids.isEmpty() || ids.size() > bulkMaxIds
+                || ids.contains(null)) {
+            return Result.error(ResultCode.BAD_REQUEST);
+        }
+        if (request.getAction() == BulkUserRequest.Action.SET_ROLE && !isKnownRole(request.getRole())) {
+            return Result.error(ResultCode.BAD_REQUEST);
+        }
+        return Result.success(userAdminService.bulkUpdate(request));
+    }
+
+    private static boolean isKnownRole(String role) {
+        return Arrays.stream(SystemRole.values()).anyMatch(r -> r.name().equals(role));
+    }
+
+    /**
+     * 用户名联想搜索（前缀匹配，大小写不敏感）
+     *
+     * 由内存前缀索引应答，索引构建完成前回退到数据库查询。
+     *
+     * @param prefix 用户名前缀
+     * @param limit  最多返回条数，最大 50
+     * @return 按用户名排序的匹配结果
+     */
+    @RequiresPermission(Permission.USER_READ)
+    @GetMapping("/users/search")
+    public Result<List<UsernameSuggestion>> searchUsers(@RequestParam String prefix,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isEmpty() || prefix.length() > 64) {
+            return Result.error(ResultCode.BAD_REQUEST);
+        }
+        return Result.success(userSearchService.searchByPrefix(prefix, limit));
+    }
+
+    /**
+     * 用户名索引状态：是否就绪、构建耗时、用户数与内存占用
+     */
+    @RequiresPermission(Permission.USER_READ)
+    @GetMapping("/users/search/stats")
+    public Result<Map<String, Object>> getSearchIndexStats() {
+        return Result.success(userSearchService.getIndexStats());
+    }
+
+    /**
+     * 全量导出用户（流式）
+     *
+     * 数据边查边写，服务端内存占用与用户总数无关；客户端可随时断开以取消导出。
+     *
+     * @param format 导出格式：ndjson（默认）或 csv
+     * @return 流式响应体
+     */
+    @RequiresPermission(Permission.USER_EXPORT)
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        UserExportService.Format exportFormat = "csv".equalsIgnoreCase(format)
+                ? UserExportService.Format.CSV
+                : UserExportService.Format.NDJSON;
+        MediaType contentType = exportFormat == UserExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String filename = exportFormat == UserExportService.Format.CSV ? "users.csv" : "users.ndjson";
+
+        StreamingResponseBody body = out -> userExportService.exportUsers(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * 审计事件查询（按时间范围倒序，游标分页）
+     *
+     * 首页不传 cursor，之后使用上一页返回的 nextCursor。
+     * 时间使用 ISO 格式（如 2025-07-02T08:00:00），不传时默认查询最近 24 小时。
+     *
+     * @param from     起始时间（含）
+     * @param to       截止时间（不含）
+     * @param type     事件类型过滤（可选）：LOGIN_SUCCESS / LOGIN_FAILURE / LOGOUT / REGISTER / REGISTER_FAILURE
+     * @param username 用户名过滤（可选）
+     * @param cursor   上一页最后一条记录的 ID
+     * @param size     每页条数，最大 100
+     * @return 审计事件分页结果，新事件在前
+     */
+    @RequiresPermission(Permission.AUDIT_READ)
+    @GetMapping("/audit")
+    public Result<CursorPage<AuditEvent>> listAuditEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        LocalDateTime end = to == null ? LocalDateTime.now() : to;
+        LocalDateTime start = from == null ? end.minusDays(1) : from;
+        if (!start.isBefore(end)) {
+            return Result.error(ResultCode.BAD_REQUEST);
+        }
+        AuditEventType eventType = null;
+        if (type != null) {
+            eventType = Arrays.stream(AuditEventType.values()).filter(t -> t.name().equals(type)).findFirst().orElse(null);
+            if (eventType == null) {
+                return Result.error(ResultCode.BAD_REQUEST);
+            }
+        }
+        return Result.success(auditService.query(start, end, eventType, username, cursor, size));
+    }
+
 }
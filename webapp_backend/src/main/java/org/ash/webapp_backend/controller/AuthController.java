@@ -5,15 +5,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.ash.webapp_backend.common.Result;
+import org.ash.webapp_backend.common.ResultCode;
+import org.ash.webapp_backend.dto.IntrospectRequest;
 import org.ash.webapp_backend.dto.LoginRequest;
 import org.ash.webapp_backend.dto.RegisterRequest;
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.security.Permission;
+import org.ash.webapp_backend.security.RequiresPermission;
 import org.ash.webapp_backend.service.AuthService;
+import org.ash.webapp_backend.service.TokenService;
 import org.ash.webapp_backend.utils.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 用户认证控制器
  *
@@ -24,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
  * - POST /auth/login：用户登录，返回 JWT token
  * - POST /auth/logout：用户登出，清除 Redis 中的 token
  * - POST /auth/register：用户注册
+ * - POST /auth/introspect：批量校验令牌（需 TOKEN_INTROSPECT 权限，供下游服务使用）
  *
  * 日志用途：
  * - 追踪用户登录、登出和注册行为
@@ -43,22 +52,30 @@ public class AuthController {
     private AuthService authService;
 
     @Resource
-    private RedisTemplate<String, String> redisTemplate;
+    private JwtUtil jwtUtil;
 
     @Resource
-    private JwtUtil jwtUtil;
+    private TokenService tokenService;
+
+    /** 单次批量校验的令牌数量上限 */
+    @Value("${auth.introspect.max-batch:1000}")
+    private int introspectMaxBatch;
 
     /**
      * 登录接口
      *
-     * @param request 登录请求参数（用户名、密码）
+     * 客户端 IP 取自 getRemoteAddr()；部署在反向代理之后时，
+     * 需配置 server.forward-headers-strategy 使其反映 X-Forwarded-For 中的真实地址。
+     *
+     * @param request     登录请求参数（用户名、密码）
+     * @param httpRequest HTTP 请求对象，用于获取客户端 IP
      * @return 返回 JWT token 包装在 Result 中
      */
     @Operation(summary = "登录接口")
     @PostMapping("/login")
-    public Result<String> login(@RequestBody LoginRequest request) {
+    public Result<String> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         log.info("✅ 登录请求进入，用户名: {}", request.getUsername());
-        return authService.login(request);
+        return authService.login(request, httpRequest.getRemoteAddr());
     }
 
     /**
@@ -78,7 +95,7 @@ public class AuthController {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             log.debug("🔐 提取到 Token: {}", token);
-            authService.logout(token); // 把逻辑交给服务层处理
+            authService.logout(token, request.getRemoteAddr()); // 把逻辑交给服务层处理
         } else {
             log.warn("⚠️ 请求头中未找到合法的 Authorization 信息");
         }
@@ -90,13 +107,35 @@ public class AuthController {
      *
      * 接收用户注册信息并委托给服务层处理。
      *
-     * @param request 注册请求参数（用户名、密码等）
+     * @param request     注册请求参数（用户名、密码等）
+     * @param httpRequest HTTP 请求对象，用于获取客户端 IP
      * @return 注册成功响应
      */
     @Operation(summary = "注册接口")
     @PostMapping("/register")
-    public Result<Void> register(@RequestBody RegisterRequest request) {
+    public Result<Void> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
         log.info("✅ 收到注册请求，用户名: {}", request.getUsername());
-        return authService.register(request);
+        return authService.register(request, httpRequest.getRemoteAddr());
+    }
+
+    /**
+     * 批量令牌校验接口
+     *
+     * 下游服务一次提交一批令牌，整批只访问一次 Redis，
+     * 返回每个令牌的状态（ACTIVE / INVALID / EXPIRED / REVOKED）、用户名与角色。
+     *
+     * @param request 待校验的令牌列表，数量不超过 auth.introspect.max-batch
+     * @return 校验结果，顺序与请求一致
+     */
+    @Operation(summary = "批量令牌校验接口")
+    @RequiresPermission(Permission.TOKEN_INTROSPECT)
+    @PostMapping("/introspect")
+    public Result<List<TokenIntrospection>> introspect(@RequestBody IntrospectRequest request) {
+        List<String> tokens = request.getTokens();
+        if (tokens == null || tokens.isEmpty() || tokens.size() > introspectMaxBatch) {
+            log.warn("⚠️ 批量令牌校验请求数量非法：{}", tokens == null ? 0 : tokens.size());
+            return Result.error(ResultCode.BAD_REQUEST);
+        }
+        return Result.success(tokenService.introspect(tokens));
     }
 }
@@ -1,138 +1,210 @@
 package org.ash.webapp_backend.controller;
 
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.common.Result;
+import org.ash.webapp_backend.security.Permission;
+import org.ash.webapp_backend.security.RequiresPermission;
+import org.ash.webapp_backend.security.RevokedTokenRegistry;
+import org.ash.webapp_backend.service.JfrService;
+import org.ash.webapp_backend.service.MonitorService;
+import org.ash.webapp_backend.service.MonitorStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.lang.management.ManagementFactory;
-import java.net.*;
-import java.util.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/monitor")
 public class MonitorController {
 
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
+    @Resource
+    private MonitorService monitorService;
 
-    @Autowired
-    private StringRedisTemplate redisTemplate;
+    @Resource
+    private MonitorStreamService monitorStreamService;
 
-    private static final List<Integer> portsToCheck = List.of(3000, 8080, 6379);
+    @Resource
+    private JfrService jfrService;
+
+    @Resource
+    private ApplicationAvailability applicationAvailability;
+
+    /** 无状态注销模式下的本地注销登记表，默认模式下为 null */
+    @Autowired(required = false)
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    /**
+     * 就绪检查（匿名可访问）
+     *
+     * 启动预热完成前返回 503，供负载均衡 / K8s readinessProbe 使用。
+     * 无状态注销模式下，令牌注销流回放追平之前同样返回 503。
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<Result<String>> getReadiness() {
+        if (revokedTokenRegistry != null && !revokedTokenRegistry.isCaughtUp()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Result.success("REPLAYING_REVOCATIONS"));
+        }
+        ReadinessState state = applicationAvailability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Result.success(state.name()));
+    }
 
     @GetMapping("/status")
     public Map<String, Object> getSystemStatus() {
-        Map<String, Object> result = new LinkedHashMap<>();
-
-        // 1. 前端状态
-        result.put("frontend", checkUrl("http://localhost:3000"));
-
-        // 2. 后端状态
-        result.put("backend", Map.of("status", "up", "latency", 0));
-
-        // 3. 数据库状态
-        try {
-            long start = System.currentTimeMillis();
-            jdbcTemplate.execute("SELECT 1");
-            long latency = System.currentTimeMillis() - start;
-            result.put("database", Map.of("status", "up", "latency", latency));
-        } catch (Exception e) {
-            result.put("database", Map.of("status", "down", "error", e.getMessage()));
-        }
+        return monitorService.collectSystemStatus();
+    }
 
-        // 4. Redis 状态
-        try {
-            long start = System.currentTimeMillis();
-            String pong = redisTemplate.getConnectionFactory().getConnection().ping();
-            long latency = System.currentTimeMillis() - start;
-            result.put("redis", Map.of(
-                    "status", "PONG".equalsIgnoreCase(pong) ? "up" : "down",
-                    "latency", latency
-            ));
-        } catch (Exception e) {
-            result.put("redis", Map.of("status", "down", "error", e.getMessage()));
-        }
+    /**
+     * JDBC 语句与 Redis 命令的延迟分布、失败次数和最近的慢操作（参数已脱敏）
+     *
+     * @param top 每类返回的最大形态数
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/latency")
+    public Result<Map<String, Object>> getLatencyReport(@RequestParam(defaultValue = "20") int top) {
+        return Result.success(monitorService.collectLatencyReport(Math.max(1, Math.min(top, 200))));
+    }
 
-        // 5. 系统资源状态
-        com.sun.management.OperatingSystemMXBean sys =
-                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
-
-        double cpuLoad = sys.getSystemCpuLoad(); // 0.0 - 1.0
-        long totalMemory = sys.getTotalPhysicalMemorySize();
-        long freeMemory = sys.getFreePhysicalMemorySize();
-        long usedMemory = totalMemory - freeMemory;
-
-        result.put("system", Map.of(
-                "osName", sys.getName(),
-                "cpuUsagePercent", (int) (cpuLoad * 100),
-                "memoryUsagePercent", (int) (usedMemory * 100 / totalMemory),
-                "usedMemoryMB", usedMemory / 1024 / 1024,
-                "totalMemoryMB", totalMemory / 1024 / 1024
-        ));
-
-        // 6. 图表数据（当前值加扰动）
-        result.put("cpuUsage", generateRecentList((int) (cpuLoad * 100)));
-        result.put("memoryUsage", generateRecentList((int) (usedMemory * 100 / totalMemory)));
-
-        // 7. 端口检测
-        result.put("ports", checkPorts(portsToCheck));
-
-        return result;
-    }
-
-    private Map<String, Object> checkUrl(String urlStr) {
-        try {
-            long start = System.currentTimeMillis();
-            URL url = new URL(urlStr);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setConnectTimeout(1000);
-            conn.connect();
-            long latency = System.currentTimeMillis() - start;
-            int code = conn.getResponseCode();
-
-            return Map.of(
-                    "status", (code >= 200 && code < 400) ? "up" : "warn",
-                    "latency", latency
-            );
-        } catch (IOException e) {
-            return Map.of("status", "down", "error", e.getMessage());
-        }
+    /**
+     * 访问令牌拒绝计数：结构预检、验签、过期、注销各原因的累计次数
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/auth/rejects")
+    public Result<Map<String, Object>> getTokenRejectStats() {
+        return Result.success(monitorService.collectTokenRejectStats());
     }
 
-    private List<Map<String, Object>> checkPorts(List<Integer> ports) {
-        List<Map<String, Object>> results = new ArrayList<>();
-        for (int port : ports) {
-            boolean open = isPortListening("127.0.0.1", port);
-            results.add(Map.of(
-                    "name", "Port " + port,
-                    "port", port,
-                    "status", open ? "🟢" : "🔴"
-            ));
-        }
-        return results;
+    /**
+     * 自适应并发限流状态：当前上限、飞行中请求数与各优先级的丢弃次数
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/limiter")
+    public Result<Map<String, Object>> getLimiterStats() {
+        return Result.success(monitorService.collectLimiterStats());
     }
 
-    private boolean isPortListening(String host, int port) {
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port), 500);
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
+    /**
+     * 登录统计写回缓冲区：队列深度与回写耗时
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/login-stats")
+    public Result<Map<String, Object>> getLoginStatsBuffer() {
+        return Result.success(monitorService.collectLoginStatsBuffer());
+    }
+
+    /**
+     * 会话登记合并读取：每个分片的 MGET 批次数与平均批大小
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/session-lookup")
+    public Result<Map<String, Object>> getSessionLookupStats() {
+        return Result.success(monitorService.collectSessionLookupStats());
+    }
+
+    /**
+     * 会话存储状态：Redis 或嵌入式映射文件的容量与淘汰情况
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/session-store")
+    public Result<Map<String, Object>> getSessionStoreStats() {
+        return Result.success(monitorService.collectSessionStoreStats());
+    }
+
+    /**
+     * 审计事件管道：缓冲区积压、丢弃次数与批量写入情况
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/audit")
+    public Result<Map<String, Object>> getAuditStats() {
+        return Result.success(monitorService.collectAuditStats());
+    }
+
+    /**
+     * 慢请求采样：总耗时超过阈值的请求及其 jwt / session / db / bcrypt 各阶段耗时
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/slow-requests")
+    public Result<Map<String, Object>> getSlowRequests() {
+        return Result.success(monitorService.collectSlowRequests());
+    }
+
+    /**
+     * 监控数据推送流（SSE）
+     *
+     * 首条事件为 snapshot（完整状态），之后每个采集周期推送 delta（仅变化的字段），
+     * 客户端收到 snapshot 时整体替换，收到 delta 时按字段合并。
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSystemStatus() {
+        return monitorStreamService.subscribe();
+    }
+
+    /**
+     * 推送流运行指标：订阅者数量、发送延迟、丢弃帧数
+     */
+    @GetMapping("/stream/stats")
+    public Map<String, Object> getStreamStats() {
+        return monitorStreamService.getStreamStats();
+    }
+
+    /**
+     * 开启一次 JFR 按需录制
+     *
+     * @param durationSeconds 最长录制时间（秒），到期自动停止，最大 1 小时
+     * @param settings        default 或 profile
+     */
+    @RequiresPermission(Permission.MONITOR_ADMIN)
+    @PostMapping("/jfr/start")
+    public Result<Map<String, Object>> startJfrRecording(@RequestParam(defaultValue = "300") long durationSeconds,
+                                                         @RequestParam(defaultValue = "profile") String settings) {
+        Duration duration = Duration.ofSeconds(Math.max(1, Math.min(durationSeconds, 3600)));
+        return Result.success(jfrService.startRecording(duration, settings));
+    }
+
+    /**
+     * 停止 JFR 录制并下载 .jfr 文件（可用 JDK Mission Control 打开）
+     */
+    @RequiresPermission(Permission.MONITOR_ADMIN)
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<FileSystemResource> stopJfrRecording() {
+        Path file = jfrService.stopRecording();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * 当前 JFR 录制状态
+     */
+    @RequiresPermission(Permission.MONITOR_ADMIN)
+    @GetMapping("/jfr/status")
+    public Result<Map<String, Object>> getJfrStatus() {
+        return Result.success(jfrService.getRecordingStatus());
     }
 
-    private List<Integer> generateRecentList(int value) {
-        Random rand = new Random();
-        return List.of(
-                Math.max(0, value - 5 + rand.nextInt(5)),
-                Math.max(0, value - 3 + rand.nextInt(5)),
-                value,
-                Math.min(100, value + rand.nextInt(5)),
-                Math.min(100, value + 2 + rand.nextInt(5))
-        );
+    /**
+     * 常驻 JFR 事件流的滚动窗口汇总：GC 停顿、锁竞争、park 等待（已排除空闲等待）、分配热点、慢 Socket 读取
+     *
+     * @param top 每张表返回的最大条数
+     */
+    @RequiresPermission(Permission.MONITOR_READ)
+    @GetMapping("/jfr/summary")
+    public Result<Map<String, Object>> getJfrSummary(@RequestParam(defaultValue = "10") int top) {
+        return Result.success(jfrService.getEventSummary(Math.max(1, Math.min(top, 100))));
     }
 }
@@ -0,0 +1,41 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量用户操作请求参数对象
+ *
+ * 示例 JSON 请求体：
+ * {
+ *   "action": "SET_ROLE",
+ *   "ids": [1, 2, 3],
+ *   "role": "MANAGER"
+ * }
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Data
+public class BulkUserRequest {
+
+    /** 批量操作类型 */
+    public enum Action {
+        /** 启用账号 */
+        ENABLE,
+        /** 禁用账号，并注销其全部会话 */
+        DISABLE,
+        /** 变更角色，并注销其全部会话（令牌中携带的旧角色随之失效） */
+        SET_ROLE
+    }
+
+    /** 操作类型 */
+    private Action action;
+
+    /** 目标用户 ID，数量不超过 admin.bulk.max-ids */
+    private List<Long> ids;
+
+    /** 新角色，仅 SET_ROLE 时必填，取值见 SystemRole */
+    private String role;
+}
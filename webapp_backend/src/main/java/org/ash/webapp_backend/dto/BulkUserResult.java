@@ -0,0 +1,38 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量用户操作结果
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserResult {
+
+    /** 操作类型 */
+    private BulkUserRequest.Action action;
+
+    /** 请求中的用户数（去重后） */
+    private int requested;
+
+    /** 实际发生变更的用户数（已处于目标状态的用户不计入） */
+    private int updated;
+
+    /** 被注销的会话数 */
+    private long sessionsRevoked;
+
+    /** 已变更但会话注销失败的用户数（会话在 auth.session.ttl 内仍有效，可重试本次操作） */
+    private int revokeFailedUsers;
+
+    /** 分块执行的事务数 */
+    private int chunks;
+
+    /** 总耗时（毫秒） */
+    private long elapsedMillis;
+}
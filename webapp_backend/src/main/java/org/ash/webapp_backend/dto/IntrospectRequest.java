@@ -0,0 +1,23 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量令牌校验请求参数对象
+ *
+ * 示例 JSON 请求体：
+ * {
+ *   "tokens": ["eyJhbGciOi...", "eyJhbGciOi..."]
+ * }
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+@Data
+public class IntrospectRequest {
+
+    /** 待校验的访问令牌，响应按相同顺序返回 */
+    private List<String> tokens;
+}
@@ -11,7 +11,8 @@ import lombok.Data;
  * 示例 JSON 请求体：
  * {
  *   "username": "admin",
- *   "password": "123456"
+ *   "password": "123456",
+ *   "tokenType": "jwt"
  * }
  *
  * 该类通常用于与控制器层（Controller）配合处理用户登录逻辑。
@@ -27,4 +28,7 @@ public class LoginRequest {
 
     /** 密码（明文，通过接口加密或 HTTPS 保护传输） */
     private String password;
+
+    /** 令牌形式（可选）：jwt / opaque，不传时按 auth.token.mode 签发；需要自行解析令牌的第三方客户端传 jwt */
+    private String tokenType;
 }
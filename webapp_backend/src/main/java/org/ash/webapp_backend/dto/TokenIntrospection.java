@@ -0,0 +1,55 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ash.webapp_backend.security.AuthSession;
+
+/**
+ * 单个令牌的校验结果
+ *
+ * 供下游服务批量校验令牌使用，不回显令牌本身，调用方按请求中的顺序对应。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenIntrospection {
+
+    /** 令牌状态 */
+    public enum Status {
+        /** 有效 */
+        ACTIVE,
+        /** 格式错误或签名校验失败 */
+        INVALID,
+        /** 已过期 */
+        EXPIRED,
+        /** 已登出或被同一用户的新登录顶掉 */
+        REVOKED
+    }
+
+    /** 令牌是否有效（status == ACTIVE） */
+    private boolean active;
+
+    /** 令牌状态 */
+    private Status status;
+
+    /** 用户名，仅有效令牌返回 */
+    private String subject;
+
+    /** 角色，仅有效令牌返回 */
+    private String role;
+
+    /** 过期时间（毫秒时间戳），仅有效令牌返回 */
+    private Long expiresAt;
+
+    public static TokenIntrospection active(AuthSession session) {
+        return new TokenIntrospection(true, Status.ACTIVE, session.username(), session.role(), session.expiresAtMillis());
+    }
+
+    public static TokenIntrospection inactive(Status status) {
+        return new TokenIntrospection(false, status, null, null, null);
+    }
+}
@@ -0,0 +1,40 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 用户统计（管理后台仪表盘）
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+
+    /** 用户总数 */
+    private long total;
+
+    /** 启用的用户数 */
+    private long enabled;
+
+    /** 禁用的用户数 */
+    private long disabled;
+
+    /** 角色 -> 用户数 */
+    private Map<String, Long> byRole;
+
+    /** 日期（yyyy-MM-dd）-> 当天注册数，按日期升序，只含最近 stats.users.daily-days 天中有注册的日期 */
+    private Map<String, Long> registrationsPerDay;
+
+    /** 最近一次从数据库重建的时间（毫秒时间戳） */
+    private long rebuiltAt;
+
+    /** 计数器所在位置：redis / memory */
+    private String source;
+}
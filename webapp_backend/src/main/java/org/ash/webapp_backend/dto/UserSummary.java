@@ -0,0 +1,32 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户列表精简投影
+ *
+ * 仅包含管理后台列表展示所需的列，查询时通过 JPQL 构造表达式直接映射，
+ * 不加载完整的 User 实体，也不会读取密码哈希。
+ *
+ * @author Ash
+ * @date 2025/6/22
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+
+    /** 用户 ID */
+    private Long id;
+
+    /** 用户名 */
+    private String username;
+
+    /** 角色 */
+    private String role;
+
+    /** 是否启用 */
+    private boolean enabled;
+}
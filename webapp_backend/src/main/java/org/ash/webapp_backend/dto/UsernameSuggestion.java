@@ -0,0 +1,23 @@
+package org.ash.webapp_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户名联想结果
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsernameSuggestion {
+
+    /** 用户 ID */
+    private Long id;
+
+    /** 用户名 */
+    private String username;
+}
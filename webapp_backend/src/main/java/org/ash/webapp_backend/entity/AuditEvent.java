@@ -0,0 +1,63 @@
+package org.ash.webapp_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 审计事件实体类，对应数据库中的 audit_events 表（只追加）
+ *
+ * 写入只由 AuditService 的后台消费者通过多行 INSERT 完成，JPA 仅用于建表与查询，
+ * 实体标记为 @Immutable，任何更新都不会被刷回数据库。
+ *
+ * 表结构：
+ * - id：主键，自增，消费者按发布顺序写入，同一节点内与时间顺序一致
+ * - occurred_at：事件发生时间（发布时刻，而非入库时刻）
+ * - type：事件类型，见 {@link AuditEventType}
+ * - username / client_ip / detail：操作用户、客户端 IP 与补充说明（如失败原因）
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+@Entity
+@Immutable
+@Table(name = "audit_events", indexes = {
+        // 支撑按时间范围倒序的游标分页
+        @Index(name = "idx_audit_events_occurred_at_id", columnList = "occurred_at, id"),
+        // 支撑按用户查询其审计轨迹
+        @Index(name = "idx_audit_events_username_occurred_at", columnList = "username, occurred_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    /** 事件 ID，主键，自增 */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 事件发生时间 */
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    /** 事件类型 */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditEventType type;
+
+    /** 操作用户（登出时取自被注销的令牌） */
+    private String username;
+
+    /** 客户端 IP（IPv6 最长 45 个字符） */
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    /** 补充说明，如登录失败原因 */
+    private String detail;
+}
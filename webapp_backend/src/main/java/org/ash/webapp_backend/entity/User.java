@@ -3,6 +3,8 @@ package org.ash.webapp_backend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 /**
  * 用户实体类，对应数据库中的 users 表
  *
@@ -14,6 +16,8 @@ import lombok.*;
  * - username：用户名，唯一
  * - password：密码，加密存储
  * - enabled：账户是否启用
+ * - login_count / last_login_at / last_login_ip：登录统计，由 LoginStatsService 异步批量回写
+ * - created_at：注册时间，用于按天统计注册数（早于该列加入的历史用户为空）
  *
  * 注：密码字段应使用 BCrypt 等方式加密后存储。
  *
@@ -21,7 +25,12 @@ import lombok.*;
  * @date 2025/6/13 01:49
  */
 @Entity
-@Table(name = "users") // 指定数据库表名为 users
+@Table(name = "users", indexes = {
+        // 管理后台游标分页：每种过滤组合各有一个以 id 结尾的索引，等值定位后按 id 顺序范围扫描，不需要排序
+        @Index(name = "idx_users_role_enabled_id", columnList = "role, enabled, id"),
+        @Index(name = "idx_users_role_id", columnList = "role, id"),
+        @Index(name = "idx_users_enabled_id", columnList = "enabled, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,4 +55,25 @@ public class User {
     /** 用户的权限 示例值：ADMIN、USER、MANAGER */
     private String role;
 
+    /**
+     * 累计登录次数
+     *
+     * 登录统计三列只由 LoginStatsService 通过 JDBC 批量回写（updatable = false），
+     * 避免保存实体时用读取时的旧值覆盖尚未合并的统计。
+     */
+    @Column(name = "login_count", updatable = false)
+    private Long loginCount;
+
+    /** 最近一次登录时间 */
+    @Column(name = "last_login_at", updatable = false)
+    private LocalDateTime lastLoginAt;
+
+    /** 最近一次登录 IP（IPv6 最长 45 个字符） */
+    @Column(name = "last_login_ip", length = 45, updatable = false)
+    private String lastLoginIp;
+
+    /** 注册时间，写入后不再变更 */
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
 }
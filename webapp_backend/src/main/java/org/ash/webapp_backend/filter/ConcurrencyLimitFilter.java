@@ -0,0 +1,199 @@
+package org.ash.webapp_backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ash.webapp_backend.common.Result;
+import org.ash.webapp_backend.common.ResultCode;
+import org.ash.webapp_backend.utils.GradientConcurrencyLimit;
+import org.ash.webapp_backend.utils.RateLimitedLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限流过滤器（过载保护）
+ *
+ * 位于 Spring Security 过滤链中 JwtAuthenticationFilter 之前，按 {@link GradientConcurrencyLimit}
+ * 根据实际请求耗时动态调整允许的飞行中请求数；超出上限的请求立即返回 503 + Retry-After，
+ * 不再占用 Tomcat 线程等待已经变慢的 MySQL / Redis。
+ *
+ * 请求按路由分为三个优先级，低优先级只能使用上限的一部分，过载时最先被丢弃：
+ * - LOW：登录、注册（BCrypt 计算开销大，且客户端可重试）
+ * - NORMAL：写操作与匿名请求
+ * - HIGH：携带令牌的读请求
+ *
+ * 长连接接口（SSE 推送、流式导出）不计入并发，避免长期占用许可；OPTIONS 预检请求直接放行。
+ *
+ * 登录、注册的耗时主要是 BCrypt 计算而非下游等待，混入 RTT 样本会抬高基线、掩盖 MySQL / Redis 变慢，
+ * 因此这些路径（limiter.unsampled-paths）仍占用许可，但不向梯度算法提交样本，耗时单独按优先级统计。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    /** 丢弃日志每 10 秒最多输出一条 */
+    private static final RateLimitedLogger dropLog = new RateLimitedLogger(log, 10_000);
+
+    /** 请求优先级及其可使用的上限比例 */
+    public enum Priority {
+        LOW(0.7), NORMAL(0.9), HIGH(1.0);
+
+        private final double fraction;
+
+        Priority(double fraction) {
+            this.fraction = fraction;
+        }
+    }
+
+    @Value("${limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${limiter.initial-limit:100}")
+    private int initialLimit;
+
+    @Value("${limiter.min-limit:10}")
+    private int minLimit;
+
+    @Value("${limiter.max-limit:1000}")
+    private int maxLimit;
+
+    @Value("${limiter.tolerance:1.5}")
+    private double tolerance;
+
+    @Value("${limiter.window-ms:200}")
+    private long windowMillis;
+
+    @Value("${limiter.min-window-samples:10}")
+    private int minWindowSamples;
+
+    /** Retry-After 响应头（秒） */
+    @Value("${limiter.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    /** 不参与限流的路径前缀（长连接接口） */
+    @Value("${limiter.excluded-paths:/monitor/stream,/admin/users/export,/monitor/readiness}")
+    private List<String> excludedPaths;
+
+    /** 占用许可但不提交 RTT 样本的路径（耗时由自身计算决定，不反映下游健康状况） */
+    @Value("${limiter.unsampled-paths:/auth/login,/auth/register}")
+    private List<String> unsampledPaths;
+
+    private GradientConcurrencyLimit concurrencyLimit;
+
+    private final Map<Priority, LongAdder> accepted = new EnumMap<>(Priority.class);
+
+    private final Map<Priority, LongAdder> dropped = new EnumMap<>(Priority.class);
+
+    private final Map<Priority, LongAdder> rttNanos = new EnumMap<>(Priority.class);
+
+    /** 503 响应体固定不变，启动时序列化一次 */
+    private byte[] rejectBody;
+
+    @PostConstruct
+    public void init() throws IOException {
+        concurrencyLimit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance,
+                windowMillis, minWindowSamples);
+        for (Priority priority : Priority.values()) {
+            accepted.put(priority, new LongAdder());
+            dropped.put(priority, new LongAdder());
+            rttNanos.put(priority, new LongAdder());
+        }
+        rejectBody = new ObjectMapper().writeValueAsBytes(Result.error(ResultCode.SERVICE_UNAVAILABLE));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        for (String excluded : excludedPaths) {
+            if (path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Priority priority = classify(request);
+        int inflightAtStart = concurrencyLimit.tryAcquire(priority.fraction);
+        if (inflightAtStart < 0) {
+            dropped.get(priority).increment();
+            dropLog.warn("🚦 并发超过上限 {}，丢弃 {} 请求: {}", concurrencyLimit.getLimit(), priority, request.getServletPath());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", Integer.toString(retryAfterSeconds));
+            response.setContentType("application/json;charset=UTF-8");
+            response.getOutputStream().write(rejectBody);
+            return;
+        }
+
+        accepted.get(priority).increment();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long rtt = System.nanoTime() - start;
+            rttNanos.get(priority).add(rtt);
+            if (unsampledPaths.contains(request.getServletPath())) {
+                concurrencyLimit.releaseWithoutSample();
+            } else {
+                concurrencyLimit.release(rtt, inflightAtStart);
+            }
+        }
+    }
+
+    /**
+     * 按路由与请求方式划分优先级
+     */
+    private Priority classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals("/auth/login") || path.equals("/auth/register")) {
+            return Priority.LOW;
+        }
+        String method = request.getMethod();
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        if (read && request.getHeader("Authorization") != null) {
+            return Priority.HIGH;
+        }
+        return Priority.NORMAL;
+    }
+
+    /**
+     * 限流状态：当前上限、飞行中请求数、RTT 基线，以及各优先级的放行、丢弃次数与平均耗时
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.putAll(concurrencyLimit.snapshot());
+        Map<String, Object> byPriority = new LinkedHashMap<>();
+        for (Priority priority : Priority.values()) {
+            long count = accepted.get(priority).sum();
+            byPriority.put(priority.name(), Map.of(
+                    "fraction", priority.fraction,
+                    "accepted", count,
+                    "dropped", dropped.get(priority).sum(),
+                    "avgRttMicros", count == 0 ? 0 : rttNanos.get(priority).sum() / count / 1000));
+        }
+        stats.put("priorities", byPriority);
+        return stats;
+    }
+}
@@ -5,13 +5,19 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.ash.webapp_backend.utils.JwtUtil;
+import org.ash.webapp_backend.instrument.RequestTiming;
+import org.ash.webapp_backend.security.AuthSession;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.Permission;
+import org.ash.webapp_backend.security.RolePermissionRegistry;
+import org.ash.webapp_backend.security.TokenRejectReason;
+import org.ash.webapp_backend.security.TokenRejectStats;
+import org.ash.webapp_backend.service.TokenService;
+import org.ash.webapp_backend.utils.RateLimitedLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -24,14 +30,15 @@ import java.util.List;
  * JWT 认证过滤器
  *
  * 拦截每个 HTTP 请求：
- * - 检查请求头中是否携带有效 JWT Token
- * - 校验 Redis 中是否存在该 Token（防止登出后复用）
+ * - 检查请求头中是否携带有效 Token（JWT 或不透明令牌，由 TokenService 解析）
+ * - 校验 Redis 中是否存在对应会话（防止登出后复用）
  * - 验证通过后，设置 Spring Security 的认证上下文
  *
  * 特性：
  * - 每个请求仅执行一次（继承 OncePerRequestFilter）
  * - 忽略登录/登出接口
  * - 不处理权限，只负责认证
+ * - 无效令牌（结构预检失败、验签失败、过期、已注销）按原因计数，日志限频输出且不打印堆栈
  *
  * ⚠ 如需支持 Token 续期或黑名单机制，请在此扩展逻辑。
  *
@@ -43,11 +50,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    /** 已注销令牌日志每 10 秒最多输出一条 */
+    private static final RateLimitedLogger revokedLog = new RateLimitedLogger(log, 10_000);
+
+    /** 无效令牌日志每 10 秒最多输出一条，与已注销令牌分开限频，伪造令牌的洪流不会淹没注销日志 */
+    private static final RateLimitedLogger invalidLog = new RateLimitedLogger(log, 10_000);
+
+    @Resource
+    private TokenService tokenService;
+
     @Resource
-    private JwtUtil jwtUtil;
+    private RolePermissionRegistry rolePermissionRegistry;
 
     @Resource
-    private RedisTemplate<String, String> redisTemplate;
+    private TokenRejectStats tokenRejectStats;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -76,36 +92,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             try {
                 log.debug("🔍 解析 Token: {}", token);
-                String username = jwtUtil.getUsername(token);
-                log.debug("👤 解析出用户名: {}", username);
-
-                String redisToken = redisTemplate.opsForValue().get("login:token:" + username);
-                if (redisToken == null || !redisToken.equals(token)) {
-                    log.warn("❌ Token 被撤销或过期，用户名: {}", username);
+                AuthSession session = tokenService.resolve(token);
+                if (session == null) {
+                    tokenRejectStats.record(TokenRejectReason.REVOKED);
+                    revokedLog.warn("❌ Token 被撤销或过期");
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.setContentType("application/json;charset=UTF-8");
                     response.getWriter().write("{\"error\": \"Token 已失效，请重新登录\"}");
                     return;
                 }
 
-                // 验证通过，设置认证信息
-                // 验证通过，提取角色并设置认证信息
-                String role = jwtUtil.getClaim(token, "role");
-                log.debug("🛂 用户角色: {}", role);
+                // 验证通过，提取用户名与角色并设置认证信息
+                String username = session.username();
+                String role = session.role();
+                log.debug("👤 用户名: {}，🛂 用户角色: {}", username, role);
 
-                // 构造权限列表，必须加 "ROLE_" 前缀
-                List<GrantedAuthority> authorities = List.of(
-                        new SimpleGrantedAuthority("ROLE_" + role)
-                );
+                // 取出启动时按角色预构建的权限列表（含继承角色与权限位图）
+                List<GrantedAuthority> authorities = rolePermissionRegistry.authoritiesOf(role);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(username, null, authorities);
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                // 只有具备监控权限的用户才能在响应中看到 Server-Timing 阶段耗时
+                if ((rolePermissionRegistry.maskOf(role) & Permission.MONITOR_READ.mask()) != 0) {
+                    RequestTiming.allowHeader();
+                }
                 log.info("✅ 用户认证通过，用户名: {}，权限: {}", username, authorities);
 
 
+            } catch (InvalidTokenException e) {
+                tokenRejectStats.record(e.getReason());
+                invalidLog.warn("❌ 拒绝无效 Token，原因: {}，URI: {}", e.getReason(), path);
             } catch (Exception e) {
                 log.error("💥 Token 验证失败: {}", e.getMessage());
             }
@@ -0,0 +1,197 @@
+package org.ash.webapp_backend.filter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ash.webapp_backend.instrument.RequestTiming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求耗时分解过滤器（Server-Timing）
+ *
+ * 位于 Spring Security 过滤链之前，按 instrument.server-timing.sample-rate 抽样：
+ * - 被采样的请求在当前线程安装 {@link RequestTiming}，JWT 校验、会话读取、SQL 执行与密码哈希各自累加耗时
+ * - 开启 instrument.server-timing.header 后，对具备 MONITOR_READ 权限的已认证请求在响应提交前写入 Server-Timing 头
+ *   （如 jwt;dur=0.41, session;dur=0.87, db;dur=3.10;desc="x3", total;dur=5.83），浏览器开发者工具的 Timing 面板可直接查看；
+ *   匿名请求（包括 /auth/login）永远不输出，避免借 bcrypt 是否执行探测账号是否存在
+ * - 总耗时超过 instrument.server-timing.slow-ms 的请求写入固定大小的慢请求环形缓冲区，通过 /monitor/slow-requests 查看
+ *
+ * 未被采样的请求只多一次随机数判断，不读取时钟、不包装响应、不分配任何对象。
+ * 异步请求（SSE 推送、流式导出）在过滤器返回后才提交的响应不再追加响应头，只记录同步阶段的耗时。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private static final String HEADER = "Server-Timing";
+
+    /** 是否向具备监控权限的用户写入 Server-Timing 头；关闭时仍采样并记录慢请求 */
+    @Value("${instrument.server-timing.header:false}")
+    private boolean exposeHeader;
+
+    /** 采样比例，0 ~ 1 */
+    @Value("${instrument.server-timing.sample-rate:0.01}")
+    private double sampleRate;
+
+    /** 慢请求阈值（毫秒） */
+    @Value("${instrument.server-timing.slow-ms:500}")
+    private long slowMillis;
+
+    /** 慢请求环形缓冲区容量 */
+    @Value("${instrument.server-timing.slow-log-size:100}")
+    private int slowLogSize;
+
+    private long slowNanos;
+
+    private AtomicReferenceArray<SlowRequest> slowLog;
+
+    private final AtomicLong slowSequence = new AtomicLong();
+
+    private final LongAdder sampled = new LongAdder();
+
+    /**
+     * 慢请求记录
+     *
+     * @param timestamp 完成时间（毫秒）
+     * @param method    请求方法
+     * @param path      请求路径（不含查询参数）
+     * @param status    响应状态码
+     * @param micros    总耗时（微秒）
+     * @param stages    各阶段耗时（微秒）与次数
+     */
+    public record SlowRequest(long timestamp, String method, String path, int status, long micros,
+                              List<StageTiming> stages) {
+    }
+
+    /**
+     * 单个阶段的耗时
+     */
+    public record StageTiming(String stage, long micros, int count) {
+    }
+
+    @PostConstruct
+    public void init() {
+        slowNanos = slowMillis * 1_000_000;
+        slowLog = new AtomicReferenceArray<>(Math.max(1, slowLogSize));
+        RequestTiming.setEnabled(sampleRate > 0);
+        log.info("⏱️ Server-Timing 已开启：采样比例 {}，慢请求阈值 {}ms，响应头 {}",
+                sampleRate, slowMillis, exposeHeader ? "仅对监控权限用户开启" : "关闭");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        sampled.increment();
+        RequestTiming timing = RequestTiming.begin();
+        TimingResponse wrapped = exposeHeader ? new TimingResponse(response, timing) : null;
+        try {
+            filterChain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            if (wrapped != null) {
+                if (!response.isCommitted()) {
+                    wrapped.writeHeader();
+                }
+                // 计时实例随线程复用，异步阶段提交的响应不能再读取它
+                wrapped.detach();
+            }
+            long elapsed = timing.elapsedNanos();
+            if (elapsed >= slowNanos) {
+                addSlow(request, response.getStatus(), timing, elapsed);
+            }
+            RequestTiming.end();
+        }
+    }
+
+    private void addSlow(HttpServletRequest request, int status, RequestTiming timing, long elapsed) {
+        List<StageTiming> stages = new ArrayList<>(RequestTiming.Stage.values().length);
+        for (RequestTiming.Stage stage : RequestTiming.Stage.values()) {
+            int count = timing.count(stage);
+            if (count > 0) {
+                stages.add(new StageTiming(stage.metric(), timing.nanos(stage) / 1000, count));
+            }
+        }
+        int slot = (int) (slowSequence.getAndIncrement() % slowLog.length());
+        slowLog.set(slot, new SlowRequest(System.currentTimeMillis(), request.getMethod(), request.getRequestURI(),
+                status, elapsed / 1000, stages));
+    }
+
+    /**
+     * 慢请求列表（新的在前）与采样计数
+     */
+    public Map<String, Object> getSlowRequests() {
+        List<SlowRequest> slow = new ArrayList<>();
+        for (int i = 0; i < slowLog.length(); i++) {
+            SlowRequest request = slowLog.get(i);
+            if (request != null) {
+                slow.add(request);
+            }
+        }
+        slow.sort(Comparator.comparingLong(SlowRequest::timestamp).reversed());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sampleRate", sampleRate);
+        report.put("slowMs", slowMillis);
+        report.put("sampled", sampled.sum());
+        report.put("slowTotal", slowSequence.get());
+        report.put("slow", slow);
+        return report;
+    }
+
+    /**
+     * 在响应提交前写入 Server-Timing 头
+     *
+     * 能感知 flush、close、sendError、sendRedirect 与写满 Content-Length 时的提交；
+     * 未设置 Content-Length 且超出 Tomcat 输出缓冲区的大响应由容器自行提交，此时不再追加响应头。
+     */
+    private static final class TimingResponse extends OnCommittedResponseWrapper {
+
+        private RequestTiming timing;
+
+        TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (timing != null && timing.isHeaderAllowed() && !isDisableOnResponseCommitted()) {
+                setHeader(HEADER, timing.toHeader());
+                disableOnResponseCommitted();
+            }
+        }
+
+        void detach() {
+            timing = null;
+            disableOnResponseCommitted();
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package org.ash.webapp_backend.frontend;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Globals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 前端构建产物（SPA）静态资源 Servlet
+ *
+ * 挂在独立的 Tomcat 根上下文中，不经过 Spring Security 过滤器链与 DispatcherServlet，
+ * 与 /api/v1 下的接口同源，浏览器不再需要跨域预检。
+ *
+ * 启动时扫描构建目录建立只读索引，之后请求只查内存索引，不会访问索引之外的任何文件（天然防目录穿越）：
+ * - 预压缩：构建时生成的 .br / .gz 文件作为同一资源的编码变体，按 Accept-Encoding 协商（br 优先）
+ * - 零拷贝：超过 sendfile 阈值的文件交给 Tomcat sendfile 由内核直接发送；小文件常驻内存
+ * - 缓存：文件名带内容哈希（如 main.3f2a1b4c.js）的资源返回一年 immutable，其余资源 no-cache
+ * - ETag：按文件内容 SHA-256 生成强 ETag，每种编码变体各自不同；命中 If-None-Match 返回 304
+ * - History 回退：无扩展名且不存在的路径返回 index.html，交给前端路由处理
+ *
+ * 构建目录更新后需要重启服务（或重新部署）才会生效。
+ *
+ * HttpServlet 实现了 Serializable，但本 Servlet 只在内嵌 Tomcat 中注册一次，不会被序列化；
+ * 目录路径与资源索引（含 Path）标记为 transient，索引在 init() 中重建。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+public class StaticAssetServlet extends HttpServlet {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(StaticAssetServlet.class);
+
+    private static final String INDEX = "/index.html";
+
+    /** 文件名中的内容哈希段，如 main.3f2a1b4c.js、logo.6ce24c58023cc2f8fd88fe9d219db6c6.svg */
+    private static final Pattern FINGERPRINTED = Pattern.compile(".*\\.[0-9a-f]{8,}\\.[^./]+$");
+
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    private final transient Path root;
+
+    private final long sendfileMinBytes;
+
+    private final boolean historyFallback;
+
+    /** 请求路径 -> 资源，初始化后只读 */
+    private transient volatile Map<String, Asset> assets = Map.of();
+
+    private final LongAdder served = new LongAdder();
+
+    private final LongAdder notModified = new LongAdder();
+
+    private final LongAdder sendfiles = new LongAdder();
+
+    private final LongAdder compressed = new LongAdder();
+
+    /**
+     * 单个编码变体
+     *
+     * @param file  文件路径
+     * @param size  文件大小
+     * @param etag  强 ETag
+     * @param bytes 小文件的内容（常驻内存），大文件为 null
+     */
+    private record Variant(Path file, long size, String etag, byte[] bytes) {
+    }
+
+    /**
+     * 单个资源及其编码变体
+     */
+    private record Asset(String contentType, boolean immutable, Variant identity, Variant brotli, Variant gzip) {
+
+        boolean hasEncodings() {
+            return brotli != null || gzip != null;
+        }
+    }
+
+    /**
+     * @param root             构建产物目录（包含 index.html）
+     * @param sendfileMinBytes 大于等于该大小的文件走 sendfile，更小的文件常驻内存
+     * @param historyFallback  是否对无扩展名的未知路径返回 index.html
+     */
+    public StaticAssetServlet(Path root, long sendfileMinBytes, boolean historyFallback) {
+        this.root = root.toAbsolutePath().normalize();
+        this.sendfileMinBytes = sendfileMinBytes;
+        this.historyFallback = historyFallback;
+    }
+
+    @Override
+    public void init() {
+        long start = System.currentTimeMillis();
+        Map<String, Asset> index = new HashMap<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !isEncodedVariant(file))
+                    .forEach(file -> index.put(requestPath(file), load(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("扫描前端构建目录失败：" + root, e);
+        }
+        assets = Map.copyOf(index);
+        long encoded = index.values().stream().filter(Asset::hasEncodings).count();
+        log.info("🌐 前端静态资源已加载：{} 个文件（{} 个含预压缩版本），目录 {}，耗时 {}ms",
+                index.size(), encoded, root, System.currentTimeMillis() - start);
+        if (!index.containsKey(INDEX)) {
+            log.warn("⚠️ 前端构建目录中没有 index.html，History 回退不可用：{}", root);
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, false);
+    }
+
+    /**
+     * 运行指标
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "assets", assets.size(),
+                "served", served.sum(),
+                "notModified", notModified.sum(),
+                "sendfile", sendfiles.sum(),
+                "precompressed", compressed.sum());
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean body) throws IOException {
+        String path = request.getPathInfo() == null ? request.getServletPath() : request.getServletPath() + request.getPathInfo();
+        if (path.isEmpty() || "/".equals(path)) {
+            path = INDEX;
+        }
+        Asset asset = assets.get(path);
+        if (asset == null && historyFallback && !hasExtension(path)) {
+            asset = assets.get(INDEX);
+        }
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Variant variant = negotiate(asset, request.getHeader("Accept-Encoding"));
+        response.setHeader("Cache-Control", asset.immutable() ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        response.setHeader("ETag", variant.etag());
+        if (asset.hasEncodings()) {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+        if (matches(request.getHeader("If-None-Match"), variant.etag())) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(asset.contentType());
+        if (variant == asset.brotli()) {
+            response.setHeader("Content-Encoding", "br");
+        } else if (variant == asset.gzip()) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        if (variant != asset.identity()) {
+            compressed.increment();
+        }
+        response.setContentLengthLong(variant.size());
+        served.increment();
+        if (!body) {
+            return;
+        }
+
+        if (variant.bytes() != null) {
+            response.getOutputStream().write(variant.bytes());
+        } else if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            // 由 Tomcat 在 Servlet 返回后通过 sendfile 直接从页缓存发送，数据不经过用户态
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, variant.file().toString());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, 0L);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, variant.size());
+            sendfiles.increment();
+        } else {
+            try (OutputStream out = response.getOutputStream()) {
+                Files.copy(variant.file(), out);
+            }
+        }
+    }
+
+    /**
+     * 按 Accept-Encoding 选择编码变体：br 优先，其次 gzip，q=0 表示明确拒绝
+     */
+    private static Variant negotiate(Asset asset, String acceptEncoding) {
+        if (acceptEncoding == null || !asset.hasEncodings()) {
+            return asset.identity();
+        }
+        boolean br = false;
+        boolean gzip = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if ("br".equals(coding)) {
+                br = accepted;
+            } else if ("gzip".equals(coding)) {
+                gzip = accepted;
+            } else if ("*".equals(coding)) {
+                br |= accepted;
+                gzip |= accepted;
+            }
+        }
+        if (br && asset.brotli() != null) {
+            return asset.brotli();
+        }
+        if (gzip && asset.gzip() != null) {
+            return asset.gzip();
+        }
+        return asset.identity();
+    }
+
+    /**
+     * If-None-Match 比较（弱比较：忽略 W/ 前缀）
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Asset load(Path file) {
+        String name = file.getFileName().toString();
+        String contentType = getServletContext().getMimeType(name);
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        } else if (contentType.startsWith("text/") || contentType.endsWith("javascript") || contentType.endsWith("json")) {
+            contentType += ";charset=UTF-8";
+        }
+        String fingerprint = fingerprint(file);
+        return new Asset(contentType, FINGERPRINTED.matcher(name).matches(),
+                variant(file, fingerprint, ""),
+                variant(file.resolveSibling(name + ".br"), fingerprint, "-br"),
+                variant(file.resolveSibling(name + ".gz"), fingerprint, "-gz"));
+    }
+
+    private Variant variant(Path file, String fingerprint, String suffix) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            long size = Files.size(file);
+            byte[] bytes = size < sendfileMinBytes ? Files.readAllBytes(file) : null;
+            return new Variant(file, size, "\"" + fingerprint + suffix + "\"", bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 原始文件内容的 SHA-256 前 16 字节（十六进制），编码变体共用同一指纹再加后缀区分
+     */
+    private static String fingerprint(Path file) {
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            byte[] digest = ((DigestInputStream) in).getMessageDigest().digest();
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String requestPath(Path file) {
+        return "/" + root.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * .br / .gz 文件只作为对应原始文件的编码变体，不单独对外提供
+     */
+    private static boolean isEncodedVariant(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".br") && !name.endsWith(".gz")) {
+            return false;
+        }
+        return Files.isRegularFile(file.resolveSibling(name.substring(0, name.length() - 3)));
+    }
+
+    private static boolean hasExtension(String path) {
+        int slash = path.lastIndexOf('/');
+        return path.indexOf('.', slash + 1) >= 0;
+    }
+}
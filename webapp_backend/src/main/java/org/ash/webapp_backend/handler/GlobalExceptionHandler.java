@@ -3,6 +3,7 @@ package org.ash.webapp_backend.handler;
 import lombok.extern.slf4j.Slf4j;
 import org.ash.webapp_backend.common.Result;
 import org.ash.webapp_backend.common.ResultCode;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -27,4 +28,10 @@ public class GlobalExceptionHandler {
         return Result.error(ResultCode.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public Result<Void> handleAccessDeniedException(AccessDeniedException e) {
+        log.warn("权限不足：{}", e.getMessage());
+        return Result.error(ResultCode.FORBIDDEN);
+    }
+
 }
@@ -0,0 +1,159 @@
+package org.ash.webapp_backend.instrument;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * 带延迟统计的数据源包装
+ *
+ * 对连接池返回的 Connection 做动态代理，再对其创建的 Statement / PreparedStatement / CallableStatement 做代理：
+ * - execute* 方法计时，按 SQL 形态写入 {@link LatencyRecorder}
+ * - PreparedStatement 的 setXxx(index, value) 参数被记录下来，仅在慢语句时才渲染（并脱敏）
+ *
+ * ResultSet 不做代理，逐行读取没有额外开销；取数耗时不计入语句耗时。
+ * 语句耗时同时计入当前请求的 {@link RequestTiming}（db 阶段），用于 Server-Timing。
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final LatencyRecorder recorder;
+
+    public InstrumentedDataSource(DataSource target, LatencyRecorder recorder) {
+        super(target);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("prepareCall") && result instanceof CallableStatement statement) {
+                return proxy(statement, CallableStatement.class, (Connection) proxy, (String) args[0]);
+            }
+            if (name.equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                return proxy(statement, PreparedStatement.class, (Connection) proxy, (String) args[0]);
+            }
+            if (name.equals("createStatement") && result instanceof Statement statement) {
+                return proxy(statement, Statement.class, (Connection) proxy, null);
+            }
+            return result;
+        }
+
+        private Object proxy(Statement statement, Class<?> type, Connection connection, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, connection, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        private final Connection connection;
+
+        /** 预编译语句的 SQL；普通 Statement 为 null，从 execute 参数中取 */
+        private final String preparedSql;
+
+        private Object[] params;
+
+        private int paramCount;
+
+        StatementHandler(Statement target, Connection connection, String preparedSql) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return timed(method, args);
+            }
+            if (name.startsWith("set") && preparedSql != null && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params = null;
+                paramCount = 0;
+            } else if (name.equals("getConnection")) {
+                return connection;
+            }
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        private Object timed(Method method, Object[] args) throws Throwable {
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? s : "(batch)";
+            long start = System.nanoTime();
+            boolean error = false;
+            try {
+                return InstrumentedDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                error = true;
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                recorder.recordJdbc(sql, elapsed, error, params, paramCount);
+                RequestTiming.record(RequestTiming.Stage.DB, elapsed);
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1 || index > 1000) {
+                return;
+            }
+            if (params == null) {
+                params = new Object[Math.max(index, 8)];
+            } else if (index > params.length) {
+                params = Arrays.copyOf(params, Math.max(index, params.length * 2));
+            }
+            params[index - 1] = value;
+            paramCount = Math.max(paramCount, index);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.ash.webapp_backend.instrument;
+
+import org.ash.webapp_backend.utils.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JDBC 语句与 Redis 命令的延迟登记表
+ *
+ * - 按“形态”聚合：SQL 去掉字面量、合并 IN 列表后的文本；Redis 命令名
+ * - 每个形态一个 {@link LatencyHistogram}，记录耗时分布与失败次数
+ * - 超过阈值的操作写入固定大小的慢操作环形缓冲区，参数在写入前脱敏
+ *
+ * 形态数量有上限，超出后的新形态统一计入 "(other)"，避免拼接 SQL 导致内存无限增长。
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+public class LatencyRecorder {
+
+    public static final String JDBC = "jdbc";
+
+    public static final String REDIS = "redis";
+
+    private static final String OTHER_SHAPE = "(other)";
+
+    private final Map<String, LatencyHistogram> jdbcShapes = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyHistogram> redisCommands = new ConcurrentHashMap<>();
+
+    /** 原始 SQL → 形态 的缓存，预编译语句的 SQL 文本高度重复 */
+    private final Map<String, String> shapeCache = new ConcurrentHashMap<>();
+
+    private final AtomicReferenceArray<SlowOperation> slowLog;
+
+    private final AtomicLong slowSequence = new AtomicLong();
+
+    private final long slowJdbcNanos;
+
+    private final long slowRedisNanos;
+
+    private final int maxShapes;
+
+    /**
+     * 慢操作记录
+     *
+     * @param timestamp 完成时间（毫秒）
+     * @param kind      jdbc 或 redis
+     * @param shape     语句形态或命令名
+     * @param micros    耗时（微秒）
+     * @param error     是否失败
+     * @param detail    脱敏后的参数（JDBC）或键模式（Redis）
+     */
+    public record SlowOperation(long timestamp, String kind, String shape, long micros, boolean error, String detail) {
+    }
+
+    /**
+     * @param slowJdbcMillis  JDBC 慢语句阈值（毫秒）
+     * @param slowRedisMillis Redis 慢命令阈值（毫秒）
+     * @param slowLogSize     慢操作环形缓冲区容量
+     * @param maxShapes       每类最多登记的形态数量
+     */
+    public LatencyRecorder(long slowJdbcMillis, long slowRedisMillis, int slowLogSize, int maxShapes) {
+        this.slowJdbcNanos = slowJdbcMillis * 1_000_000;
+        this.slowRedisNanos = slowRedisMillis * 1_000_000;
+        this.slowLog = new AtomicReferenceArray<>(Math.max(1, slowLogSize));
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * 记录一次 JDBC 语句执行
+     *
+     * @param sql        原始 SQL
+     * @param nanos      耗时（纳秒）
+     * @param error      是否抛出异常
+     * @param params     绑定参数（可为 null），仅在慢语句时才会被渲染
+     * @param paramCount 有效参数个数
+     */
+    public void recordJdbc(String sql, long nanos, boolean error, Object[] params, int paramCount) {
+        String shape = shapeOf(sql);
+        histogram(jdbcShapes, shape).record(nanos, error);
+        if (nanos >= slowJdbcNanos) {
+            addSlow(JDBC, shape, nanos, error, redact(params, paramCount));
+        }
+    }
+
+    /**
+     * 记录一次 Redis 命令执行
+     *
+     * @param command    命令名
+     * @param nanos      耗时（纳秒）
+     * @param error      是否失败
+     * @param keyPattern 首个键的模式（业务标识已脱敏）
+     */
+    public void recordRedis(String command, long nanos, boolean error, String keyPattern) {
+        histogram(redisCommands, command).record(nanos, error);
+        if (nanos >= slowRedisNanos) {
+            addSlow(REDIS, command, nanos, error, keyPattern);
+        }
+    }
+
+    /**
+     * 是否达到 Redis 慢命令阈值，用于在调用方按需生成慢日志明细
+     */
+    public boolean isSlowRedis(long nanos) {
+        return nanos >= slowRedisNanos;
+    }
+
+    /**
+     * 导出延迟报告
+     *
+     * @param top 每类按总次数取前 N 个形态
+     * @return jdbc、redis、slow 三部分
+     */
+    public Map<String, Object> report(int top) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put(JDBC, topShapes(jdbcShapes, top));
+        report.put(REDIS, topShapes(redisCommands, top));
+
+        List<SlowOperation> slow = new ArrayList<>();
+        for (int i = 0; i < slowLog.length(); i++) {
+            SlowOperation op = slowLog.get(i);
+            if (op != null) {
+                slow.add(op);
+            }
+        }
+        slow.sort(Comparator.comparingLong(SlowOperation::timestamp).reversed());
+        report.put("slow", slow);
+        return report;
+    }
+
+    private LatencyHistogram histogram(Map<String, LatencyHistogram> shapes, String shape) {
+        LatencyHistogram histogram = shapes.get(shape);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (shapes.size() >= maxShapes) {
+            shape = OTHER_SHAPE;
+        }
+        return shapes.computeIfAbsent(shape, s -> new LatencyHistogram());
+    }
+
+    private String shapeOf(String sql) {
+        if (sql == null) {
+            return OTHER_SHAPE;
+        }
+        String shape = shapeCache.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapeCache.size() < maxShapes * 4) {
+                shapeCache.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private void addSlow(String kind, String shape, long nanos, boolean error, String detail) {
+        int slot = (int) (slowSequence.getAndIncrement() % slowLog.length());
+        slowLog.set(slot, new SlowOperation(System.currentTimeMillis(), kind, shape, nanos / 1000, error, detail));
+    }
+
+    private static List<Map<String, Object>> topShapes(Map<String, LatencyHistogram> shapes, int top) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        shapes.forEach((shape, histogram) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("shape", shape);
+            row.putAll(histogram.snapshot());
+            rows.add(row);
+        });
+        rows.sort(Comparator.comparingLong((Map<String, Object> row) -> (Long) row.get("count")).reversed());
+        return rows.size() > top ? rows.subList(0, top) : rows;
+    }
+
+    /**
+     * SQL 形态归一化：字符串与数字字面量替换为 ?，连续空白合并为一个空格，IN 列表中的多个 ? 合并为 ?...
+     */
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                appendPlaceholder(out);
+            } else if (Character.isDigit(c) && !isIdentifierTail(out)) {
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                appendPlaceholder(out);
+            } else if (c == '?') {
+                i++;
+                appendPlaceholder(out);
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!out.isEmpty() && out.charAt(out.length() - 1) != ' ') {
+                    out.append(' ');
+                }
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * 追加占位符；若前面紧跟 "?, " 或 "?,"（IN 列表、批量 VALUES），合并为 "?..."
+     */
+    private static void appendPlaceholder(StringBuilder out) {
+        int end = out.length();
+        int j = end - 1;
+        while (j >= 0 && out.charAt(j) == ' ') {
+            j--;
+        }
+        if (j >= 0 && out.charAt(j) == ',') {
+            int k = j - 1;
+            while (k >= 0 && out.charAt(k) == ' ') {
+                k--;
+            }
+            if (k >= 0 && out.charAt(k) == '?') {
+                out.setLength(k + 1);
+                out.append("...");
+                return;
+            }
+            if (k >= 3 && out.charAt(k) == '.' && out.substring(k - 3, k + 1).equals("?...")) {
+                out.setLength(k + 1);
+                return;
+            }
+        }
+        if (end >= 1 && out.charAt(end - 1) == '?') {
+            return;
+        }
+        out.append('?');
+    }
+
+    private static boolean isIdentifierTail(StringBuilder out) {
+        if (out.isEmpty()) {
+            return false;
+        }
+        char prev = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_' || prev == '$' || prev == '`';
+    }
+
+    /**
+     * 渲染慢语句的绑定参数：字符串与二进制只保留类型与长度，数值、布尔、时间等原样输出
+     */
+    private static String redact(Object[] params, int paramCount) {
+        if (params == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < paramCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object p = params[i];
+            if (p == null) {
+                sb.append("NULL");
+            } else if (p instanceof CharSequence s) {
+                sb.append("<string:").append(s.length()).append('>');
+            } else if (p instanceof byte[] b) {
+                sb.append("<bytes:").append(b.length).append('>');
+            } else if (p instanceof Number || p instanceof Boolean || p instanceof java.time.temporal.Temporal
+                    || p instanceof java.util.Date) {
+                sb.append(p);
+            } else {
+                sb.append('<').append(p.getClass().getSimpleName()).append('>');
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,69 @@
+package org.ash.webapp_backend.instrument;
+
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.lettuce.core.protocol.RedisCommand;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lettuce 命令监听器：按命令名记录 Redis 延迟
+ *
+ * 注册在连接工厂的原生客户端上，覆盖该工厂创建的所有连接（包括管道与事务中的命令）。
+ * 耗时为命令写出到收到响应的时间，与 Lettuce 自身的度量口径一致。
+ *
+ * 慢命令只记录首个键的模式：最后一个冒号之后的部分（用户名、令牌等）替换为 *，
+ * 例如 login:token:alice 记为 login:token:*。
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+public class RedisLatencyListener implements CommandListener {
+
+    private static final String START_NANOS = "latency.start";
+
+    private final LatencyRecorder recorder;
+
+    public RedisLatencyListener(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        event.getContext().put(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getCommand(), event.getDuration(TimeUnit.NANOSECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Object start = event.getContext().get(START_NANOS);
+        long nanos = start instanceof Long s ? System.nanoTime() - s : 0;
+        record(event.getCommand(), nanos, true);
+    }
+
+    private void record(RedisCommand<?, ?, ?> command, long nanos, boolean error) {
+        String key = recorder.isSlowRedis(nanos) ? keyPattern(command) : null;
+        recorder.recordRedis(command.getType().toString(), nanos, error, key);
+    }
+
+    private static String keyPattern(RedisCommand<?, ?, ?> command) {
+        if (command.getArgs() == null) {
+            return null;
+        }
+        ByteBuffer key = command.getArgs().getFirstEncodedKey();
+        if (key == null) {
+            return null;
+        }
+        String text = StandardCharsets.UTF_8.decode(key.duplicate()).toString();
+        int colon = text.lastIndexOf(':');
+        return colon < 0 ? "*" : text.substring(0, colon + 1) + "*";
+    }
+}
@@ -0,0 +1,201 @@
+package org.ash.webapp_backend.instrument;
+
+/**
+ * 单个请求内各阶段的耗时记录（线程内）
+ *
+ * 由 {@link org.ash.webapp_backend.filter.ServerTimingFilter} 在被采样的请求开始时安装到当前线程，业务代码在关键阶段前后调用：
+ * <pre>
+ *   long start = RequestTiming.start();
+ *   DecodedJWT jwt = jwtUtil.verify(token);
+ *   RequestTiming.stop(RequestTiming.Stage.JWT, start);
+ * </pre>
+ *
+ * 未开启或当前请求未被采样时，start() 返回 0，stop() 直接返回，不读取时钟也不分配任何对象。
+ * 每个线程复用同一个实例，同一阶段多次调用时耗时累加、次数加一。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+public final class RequestTiming {
+
+    /**
+     * 计时阶段，name 即 Server-Timing 中的指标名
+     */
+    public enum Stage {
+        JWT("jwt"), SESSION("session"), DB("db"), BCRYPT("bcrypt");
+
+        private final String metric;
+
+        Stage(String metric) {
+            this.metric = metric;
+        }
+
+        public String metric() {
+            return metric;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    /** 是否有过滤器启用了计时，未启用时所有静态方法第一步就返回 */
+    private static volatile boolean enabled;
+
+    /** 当前线程正在计时的请求，未采样时为 null */
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    /** 每个线程复用的实例 */
+    private static final ThreadLocal<RequestTiming> REUSABLE = ThreadLocal.withInitial(RequestTiming::new);
+
+    private final long[] nanos = new long[STAGES.length];
+
+    private final int[] counts = new int[STAGES.length];
+
+    private long startNanos;
+
+    /** 当前请求是否允许输出 Server-Timing 头，由认证过滤器在确认调用方具备监控权限后设置 */
+    private boolean headerAllowed;
+
+    private RequestTiming() {
+    }
+
+    /**
+     * 开启或关闭计时（由过滤器在初始化时调用）
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * 在当前线程开始计时一个请求，返回复用的实例
+     */
+    public static RequestTiming begin() {
+        RequestTiming timing = REUSABLE.get();
+        for (int i = 0; i < STAGES.length; i++) {
+            timing.nanos[i] = 0;
+            timing.counts[i] = 0;
+        }
+        timing.headerAllowed = false;
+        timing.startNanos = System.nanoTime();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * 结束当前线程的计时
+     */
+    public static void end() {
+        CURRENT.set(null);
+    }
+
+    /**
+     * 阶段开始
+     *
+     * @return 开始时间；当前请求未计时返回 0
+     */
+    public static long start() {
+        if (!enabled || CURRENT.get() == null) {
+            return 0L;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * 阶段结束，累加从 start 到现在的耗时
+     *
+     * @param stage 阶段
+     * @param start {@link #start()} 的返回值
+     */
+    public static void stop(Stage stage, long start) {
+        if (start == 0L) {
+            return;
+        }
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 直接累加一段已测得的耗时（调用方已经自行计时时使用）
+     */
+    public static void record(Stage stage, long elapsedNanos) {
+        if (!enabled) {
+            return;
+        }
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(stage, elapsedNanos);
+        }
+    }
+
+    /**
+     * 允许当前请求输出 Server-Timing 头（调用方已通过认证且具备监控权限时调用）
+     *
+     * 阶段耗时会暴露密码校验、数据库查询是否发生，匿名请求输出后可用于探测账号是否存在，因此默认不输出。
+     */
+    public static void allowHeader() {
+        if (!enabled) {
+            return;
+        }
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.headerAllowed = true;
+        }
+    }
+
+    public boolean isHeaderAllowed() {
+        return headerAllowed;
+    }
+
+    private void add(Stage stage, long elapsedNanos) {
+        nanos[stage.ordinal()] += elapsedNanos;
+        counts[stage.ordinal()]++;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long nanos(Stage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    public int count(Stage stage) {
+        return counts[stage.ordinal()];
+    }
+
+    /**
+     * 生成 Server-Timing 头，如 jwt;dur=0.412, db;dur=3.105;desc="x3", total;dur=5.830
+     */
+    public String toHeader() {
+        StringBuilder sb = new StringBuilder(96);
+        for (Stage stage : STAGES) {
+            int count = counts[stage.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            appendMetric(sb, stage.metric(), nanos[stage.ordinal()]);
+            if (count > 1) {
+                sb.append(";desc=\"x").append(count).append('"');
+            }
+        }
+        appendMetric(sb, "total", elapsedNanos());
+        return sb.toString();
+    }
+
+    private static void appendMetric(StringBuilder sb, String name, long nanos) {
+        if (!sb.isEmpty()) {
+            sb.append(", ");
+        }
+        long micros = nanos / 1000;
+        sb.append(name).append(";dur=").append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
@@ -0,0 +1,69 @@
+package org.ash.webapp_backend.repository;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.ash.webapp_backend.entity.AuditEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 审计事件持久层接口（只读查询）
+ *
+ * 写入由 AuditService 的后台消费者通过 JDBC 多行 INSERT 完成，不经过本接口。
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long>, JpaSpecificationExecutor<AuditEvent> {
+
+    /**
+     * 按时间范围倒序游标分页查询
+     *
+     * 排序键为 (occurred_at, id)，由同名联合索引支撑（按用户名过滤时由 (username, occurred_at, id) 索引支撑）；
+     * 游标为上一页最后一条记录的时间与 ID，首页两者都传 null。类型、用户名为可选过滤条件，传 null 表示不过滤。
+     *
+     * 查询条件按实际传入的参数动态拼装，SQL 中只出现生效的条件：
+     * 写成 (:type is null or a.type = :type) 时优化器无法按参数值裁剪条件，会放弃索引上的范围定位。
+     * 翻页条件写成 occurred_at <= 游标时间 and (occurred_at < 游标时间 or id < 游标 ID)，
+     * 前半部分给出索引扫描的上界，首页则只有时间范围条件。
+     *
+     * @param from     起始时间（含）
+     * @param to       截止时间（不含）
+     * @param type     事件类型过滤，可为 null
+     * @param username 用户名过滤，可为 null
+     * @param cursorAt 上一页最后一条记录的时间
+     * @param cursorId 上一页最后一条记录的 ID
+     * @param limit    最多返回的条数
+     * @return 审计事件列表，新事件在前
+     */
+    default List<AuditEvent> findPage(LocalDateTime from, LocalDateTime to, AuditEventType type, String username,
+                                      LocalDateTime cursorAt, Long cursorId, Limit limit) {
+        Specification<AuditEvent> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(5);
+            Path<LocalDateTime> occurredAt = root.get("occurredAt");
+            predicates.add(cb.greaterThanOrEqualTo(occurredAt, from));
+            predicates.add(cb.lessThan(occurredAt, to));
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            if (username != null) {
+                predicates.add(cb.equal(root.get("username"), username));
+            }
+            if (cursorId != null) {
+                predicates.add(cb.lessThanOrEqualTo(occurredAt, cursorAt));
+                predicates.add(cb.or(cb.lessThan(occurredAt, cursorAt), cb.lessThan(root.get("id"), cursorId)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        Sort sort = Sort.by(Sort.Order.desc("occurredAt"), Sort.Order.desc("id"));
+        return findBy(spec, q -> q.sortBy(sort).limit(limit.max()).all());
+    }
+}
@@ -1,8 +1,15 @@
 package org.ash.webapp_backend.repository;
 
+import org.ash.webapp_backend.dto.UserSummary;
+import org.ash.webapp_backend.dto.UsernameSuggestion;
 import org.ash.webapp_backend.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -30,4 +37,116 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return 匹配的用户对象（Optional 包装，避免空指针）
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * 升级密码哈希，只写 password 一列
+     *
+     * 不能 save 登录时读到的实体：save 会写回全部列，密码校验期间管理后台批量禁用或改角色提交后，
+     * 旧的 enabled、role 会被写回。仅当库中仍是旧哈希时更新，期间已改密码的不覆盖。
+     *
+     * @param id      用户 ID
+     * @param oldHash 登录时读到的哈希
+     * @param newHash 按当前配置重新计算的哈希
+     * @return 更新的行数，0 表示密码已被修改
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordHash(long id, String oldHash, String newHash);
+
+    /**
+     * 游标分页查询用户精简信息
+     *
+     * 按 ID 递增返回 afterId 之后的记录，只读取投影所需的列（不含密码）。
+     * 角色、启用状态为可选过滤条件，传 null 表示不过滤。
+     *
+     * 每种过滤组合对应一条独立的查询，SQL 中只出现实际生效的等值条件，并各自命中一个以 id 结尾的索引：
+     * 角色 + 状态走 (role, enabled, id)，只按角色走 (role, id)，只按状态走 (enabled, id)，不过滤走主键。
+     * 写成 (:role is null or u.role = :role) 时优化器无法按参数值裁剪条件，会放弃索引上的范围定位，退化为扫描。
+     *
+     * @param afterId 上一页最后一条记录的 ID，首页传 0
+     * @param role    角色过滤，可为 null
+     * @param enabled 启用状态过滤，可为 null
+     * @param limit   最多返回的条数
+     * @return 用户精简信息列表
+     */
+    default List<UserSummary> findSummariesAfter(long afterId, String role, Boolean enabled, Limit limit) {
+        if (role != null && enabled != null) {
+            return findSummariesByRoleAndEnabledAfter(afterId, role, enabled, limit);
+        }
+        if (role != null) {
+            return findSummariesByRoleAfter(afterId, role, limit);
+        }
+        if (enabled != null) {
+            return findSummariesByEnabledAfter(afterId, enabled, limit);
+        }
+        return findSummariesAfter(afterId, limit);
+    }
+
+    /**
+     * 游标分页查询全部用户（主键范围扫描）
+     */
+    @Query("""
+            select new org.ash.webapp_backend.dto.UserSummary(u.id, u.username, u.role, u.enabled)
+            from User u
+            where u.id > :afterId
+            order by u.id asc
+            """)
+    List<UserSummary> findSummariesAfter(long afterId, Limit limit);
+
+    /**
+     * 按角色与启用状态游标分页（(role, enabled, id) 联合索引的等值前缀 + id 范围）
+     */
+    @Query("""
+            select new org.ash.webapp_backend.dto.UserSummary(u.id, u.username, u.role, u.enabled)
+            from User u
+            where u.role = :role
+              and u.enabled = :enabled
+              and u.id > :afterId
+            order by u.id asc
+            """)
+    List<UserSummary> findSummariesByRoleAndEnabledAfter(long afterId, String role, boolean enabled, Limit limit);
+
+    /**
+     * 按角色游标分页（(role, id) 索引：role 等值 + id 范围）
+     *
+     * 不能复用 (role, enabled, id)：该索引在 role 之内按 (enabled, id) 排序，只按 role 定位时每页都要扫描并排序整个角色。
+     */
+    @Query("""
+            select new org.ash.webapp_backend.dto.UserSummary(u.id, u.username, u.role, u.enabled)
+            from User u
+            where u.role = :role
+              and u.id > :afterId
+            order by u.id asc
+            """)
+    List<UserSummary> findSummariesByRoleAfter(long afterId, String role, Limit limit);
+
+    /**
+     * 按启用状态游标分页（(enabled, id) 索引：enabled 等值 + id 范围）
+     */
+    @Query("""
+            select new org.ash.webapp_backend.dto.UserSummary(u.id, u.username, u.role, u.enabled)
+            from User u
+            where u.enabled = :enabled
+              and u.id > :afterId
+            order by u.id asc
+            """)
+    List<UserSummary> findSummariesByEnabledAfter(long afterId, boolean enabled, Limit limit);
+
+    /**
+     * 按用户名前缀查询（内存索引尚未构建完成时的回退路径）
+     *
+     * 转义字符使用 !，避免 MySQL 默认 SQL 模式下反斜杠在字符串字面量中的转义问题。
+     *
+     * @param prefix 已用 ! 转义 %、_ 与 ! 的前缀
+     * @param limit  最多返回的条数
+     * @return 按用户名排序的匹配结果
+     */
+    @Query("""
+            select new org.ash.webapp_backend.dto.UsernameSuggestion(u.id, u.username)
+            from User u
+            where u.username like concat(:prefix, '%') escape '!'
+            order by u.username asc
+            """)
+    List<UsernameSuggestion> findSuggestionsByPrefix(String prefix, Limit limit);
 }
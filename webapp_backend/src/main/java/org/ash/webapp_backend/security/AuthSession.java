@@ -0,0 +1,16 @@
+package org.ash.webapp_backend.security;
+
+/**
+ * 已认证会话信息
+ *
+ * 由 {@link org.ash.webapp_backend.service.TokenService} 解析令牌后得到，
+ * 无论使用 JWT 还是不透明令牌，过滤器只依赖这三个字段构建认证上下文。
+ *
+ * @param username        用户名
+ * @param role            角色，例如 ADMIN、USER
+ * @param expiresAtMillis 令牌过期时间（毫秒时间戳）
+ * @author Ash
+ * @date 2025/6/26
+ */
+public record AuthSession(String username, String role, long expiresAtMillis) {
+}
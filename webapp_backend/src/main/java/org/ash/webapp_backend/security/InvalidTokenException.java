@@ -0,0 +1,54 @@
+package org.ash.webapp_backend.security;
+
+import java.io.Serial;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 访问令牌无效异常（无堆栈）
+ *
+ * 垃圾令牌可能被大量提交，创建异常时填充堆栈、记录日志时打印堆栈的开销远大于校验本身。
+ * 该异常关闭了堆栈与 suppressed 记录，并且每种原因只有一个共享实例，抛出时没有任何分配。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+public final class InvalidTokenException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<TokenRejectReason, InvalidTokenException> INSTANCES = new EnumMap<>(TokenRejectReason.class);
+
+    static {
+        for (TokenRejectReason reason : TokenRejectReason.values()) {
+            INSTANCES.put(reason, new InvalidTokenException(reason));
+        }
+    }
+
+    private final TokenRejectReason reason;
+
+    private InvalidTokenException(TokenRejectReason reason) {
+        super("无效令牌：" + reason, null, false, false);
+        this.reason = reason;
+    }
+
+    /**
+     * 获取指定原因的共享异常实例
+     */
+    public static InvalidTokenException of(TokenRejectReason reason) {
+        return INSTANCES.get(reason);
+    }
+
+    public TokenRejectReason getReason() {
+        return reason;
+    }
+
+    /**
+     * 反序列化后替换为共享实例，保持每种原因只有一个实例
+     */
+    @Serial
+    private Object readResolve() {
+        return of(reason);
+    }
+}
@@ -0,0 +1,74 @@
+package org.ash.webapp_backend.security;
+
+/**
+ * 细粒度权限枚举
+ *
+ * 每个权限对应一个比特位（bit = ordinal），角色拥有的权限在启动时被编译为一个 long 位图，
+ * 鉴权时只需一次按位与运算，无需解析 SpEL 表达式。
+ *
+ * 新增权限直接在末尾追加即可，最多支持 64 个。
+ *
+ * 示例用途：
+ * <pre>
+ *   &#64;RequiresPermission(Permission.ADMIN_ACCESS)
+ *   public Result&lt;String&gt; onlyAdmin() { ... }
+ * </pre>
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+public enum Permission {
+
+    /** 查看用户信息 */
+    USER_READ,
+
+    /** 修改用户信息（启用/禁用、角色变更等） */
+    USER_WRITE,
+
+    /** 访问管理后台 */
+    ADMIN_ACCESS,
+
+    /** 查看监控数据 */
+    MONITOR_READ,
+
+    /** 执行监控诊断操作（如开启 JFR 录制） */
+    MONITOR_ADMIN,
+
+    /** 全量导出用户数据 */
+    USER_EXPORT,
+
+    /** 批量校验访问令牌（下游服务） */
+    TOKEN_INTROSPECT,
+
+    /** 查询审计事件 */
+    AUDIT_READ;
+
+    static {
+        if (values().length > Long.SIZE) {
+            throw new IllegalStateException("权限数量超过 64，无法用 long 位图表示");
+        }
+    }
+
+    /**
+     * 获取该权限对应的位掩码
+     *
+     * @return 1L << ordinal
+     */
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * 将一组权限合并为位掩码
+     *
+     * @param permissions 权限列表
+     * @return 合并后的位掩码
+     */
+    public static long maskOf(Permission... permissions) {
+        long mask = 0L;
+        for (Permission permission : permissions) {
+            mask |= permission.mask();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,83 @@
+package org.ash.webapp_backend.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link RequiresPermission} 的鉴权实现
+ *
+ * - 每个（方法, 目标类）所需的权限位掩码只解析一次，缓存在 ConcurrentHashMap 中；
+ *   类级注解按实际目标类解析，同一个继承来的方法在不同子类上可以要求不同权限
+ * - 从当前认证信息中找到 {@link RoleAuthority}，按位与判断是否拥有全部权限
+ *
+ * 整个判断过程不涉及 SpEL 解析与求值，也不产生额外对象。
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    /** (方法, 目标类) -> 所需权限位掩码 */
+    private final Map<MethodClassKey, Long> requiredMasks = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        Method method = invocation.getMethod();
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        long required = requiredMasks.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> resolveRequiredMask(method, targetClass));
+
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated()) {
+            return DENIED;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if (authority instanceof RoleAuthority roleAuthority && roleAuthority.hasAll(required)) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+
+    /**
+     * @deprecated 已由 {@link #authorize(Supplier, MethodInvocation)} 取代，仅为满足接口保留
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return (AuthorizationDecision) authorize(authentication, invocation);
+    }
+
+    /**
+     * 解析方法（或目标类）上声明的权限并合并为位掩码
+     */
+    private long resolveRequiredMask(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+
+        RequiresPermission annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresPermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresPermission.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("方法未声明 @RequiresPermission：" + method);
+        }
+        return Permission.maskOf(annotation.value());
+    }
+}
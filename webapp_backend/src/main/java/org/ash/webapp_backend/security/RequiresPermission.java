@@ -0,0 +1,27 @@
+package org.ash.webapp_backend.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 基于权限位图的方法鉴权注解
+ *
+ * 与 {@code @PreAuthorize("hasRole('ADMIN')")} 不同，该注解不解析任何表达式：
+ * 所需权限在首次调用时编译为位掩码并按方法缓存，之后每次调用仅做一次按位与判断。
+ *
+ * 可标注在方法或类上，方法上的注解优先；声明多个权限时需全部拥有。
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+
+    /** 所需权限（需全部拥有） */
+    Permission[] value();
+}
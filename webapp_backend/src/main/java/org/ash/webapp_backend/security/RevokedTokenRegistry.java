@@ -0,0 +1,298 @@
+package org.ash.webapp_backend.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.constant.RedisKeys;
+import org.ash.webapp_backend.utils.ExpiringLongSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已注销令牌登记表（无状态注销模式，auth.jwt.revocation=stateless）
+ *
+ * 默认模式下每个请求都要读一次 Redis 才能确认令牌没有被登出；
+ * 无状态模式改为：
+ * - 登出时将令牌的 jti 与过期时间追加到 Redis Stream（auth:revoked）
+ * - 每个节点订阅该 Stream，把已注销的 jti 放入本地 {@link ExpiringLongSet}
+ * - 请求鉴权时只在本地内存中判断 jti 是否已注销，不再访问 Redis
+ *
+ * 节点重启或重新加入时，从“当前时间 - 令牌最长有效期”对应的 Stream ID 开始回放，
+ * 更早的记录对应的令牌必然已经过期，无需关心；Stream 写入时也按该下限裁剪。
+ * 回放在后台线程中用 XRANGE 分批读到 Stream 末尾（Redis 不可用时持续重试），追平之后才从最后一条记录
+ * 开始阻塞订阅；追平前 {@link #isCaughtUp()} 为 false，就绪检查返回 503，
+ * 避免本地注销表尚不完整时放行已注销的令牌。
+ *
+ * 管理后台批量禁用或变更角色时，无法逐个列出用户已签发的令牌，改为登记“用户 -> 注销时间点”，
+ * 签发时间早于该时间点的令牌一律视为已注销；登记在时间点 + 令牌最长有效期之后自动清除。
+ *
+ * jti 被压缩为 64 位存储（UUID 取高低位异或），误判概率约为 已注销数量 / 2^64，可忽略。
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+@Component
+@ConditionalOnProperty(name = "auth.jwt.revocation", havingValue = "stateless")
+public class RevokedTokenRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenRegistry.class);
+
+    private static final String FIELD_JTI = "jti";
+
+    private static final String FIELD_EXPIRES = "exp";
+
+    private static final String FIELD_USERS = "users";
+
+    private static final String FIELD_CUTOFF = "cut";
+
+    /** 启动回放时每次 XRANGE 读取的记录数 */
+    private static final int REPLAY_BATCH = 1000;
+
+    /** 回放失败后的重试间隔 */
+    private static final long REPLAY_RETRY_MILLIS = 1000;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private RedisConnectionFactory redisConnectionFactory;
+
+    /** JWT 最长有效期（毫秒），决定回放起点与 Stream 裁剪下限 */
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMillis;
+
+    /** Stream 阻塞读取超时 */
+    @Value("${auth.jwt.revocation-poll-timeout:2s}")
+    private Duration pollTimeout;
+
+    private final ExpiringLongSet revokedJtis = new ExpiringLongSet();
+
+    /** 用户名 -> 注销时间点（毫秒），早于该时间签发的令牌失效 */
+    private final Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+
+    private volatile StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    /** 启动回放是否已追平 Stream 末尾 */
+    private volatile boolean caughtUp;
+
+    private volatile boolean stopped;
+
+    private Thread replayThread;
+
+    @PostConstruct
+    public void start() {
+        String startId = (System.currentTimeMillis() - tokenLifetimeMillis) + "-0";
+        replayThread = Thread.ofPlatform().daemon().name("revocation-replay").start(() -> replayThenFollow(startId));
+        log.info("🧾 无状态注销模式已启用，从 {} 开始回放令牌注销流", startId);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        if (replayThread != null) {
+            replayThread.interrupt();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    /**
+     * 启动回放是否已追平；追平前本地注销表可能不完整
+     */
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    /**
+     * 分批回放到 Stream 末尾，再从最后一条记录之后开始订阅
+     */
+    private void replayThenFollow(String startId) {
+        long start = System.currentTimeMillis();
+        String lastId = startId;
+        long replayed = 0;
+        while (!stopped) {
+            try {
+                List<MapRecord<String, Object, Object>> batch = redisTemplate.opsForStream().range(
+                        RedisKeys.revokedTokenStream(),
+                        Range.rightUnbounded(Range.Bound.inclusive(lastId)),
+                        Limit.limit().count(REPLAY_BATCH));
+                int applied = 0;
+                for (MapRecord<String, Object, Object> record : batch) {
+                    // 区间包含起点，上一批的最后一条会再次返回
+                    if (record.getId().getValue().equals(lastId)) {
+                        continue;
+                    }
+                    apply(record.getValue());
+                    lastId = record.getId().getValue();
+                    applied++;
+                }
+                replayed += applied;
+                if (batch.size() < REPLAY_BATCH) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                log.warn("⚠️ 回放令牌注销流失败，{}ms 后重试：{}", REPLAY_RETRY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(REPLAY_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+        follow(lastId);
+        caughtUp = true;
+        log.info("🧾 令牌注销流回放完成：{} 条记录，耗时 {}ms，开始订阅", replayed, System.currentTimeMillis() - start);
+    }
+
+    private synchronized void follow(String afterId) {
+        if (stopped) {
+            return;
+        }
+        container = StreamMessageListenerContainer.create(redisConnectionFactory,
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(pollTimeout)
+                        .build());
+        container.register(StreamMessageListenerContainer.StreamReadRequest
+                        .builder(StreamOffset.create(RedisKeys.revokedTokenStream(), ReadOffset.from(afterId)))
+                        .cancelOnError(e -> false)
+                        .errorHandler(e -> log.warn("⚠️ 读取令牌注销流失败，稍后重试：{}", e.getMessage()))
+                        .build(),
+                record -> apply(record.getValue()));
+        container.start();
+    }
+
+    /**
+     * 发布一条令牌注销记录，并立即写入本地登记表
+     *
+     * @param jti            令牌 ID
+     * @param expireAtMillis 令牌过期时间
+     * @throws IllegalArgumentException jti 为空（缺少 jti 的令牌无法单独注销）
+     */
+    public void revoke(String jti, long expireAtMillis) {
+        if (jti == null) {
+            throw new IllegalArgumentException("令牌缺少 jti，无法单独注销");
+        }
+        revokedJtis.add(hash(jti), expireAtMillis);
+
+        long now = System.currentTimeMillis();
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.none()
+                .minId(RecordId.of(now - tokenLifetimeMillis, 0))
+                .approximateTrimming(true);
+        redisTemplate.opsForStream().add(RedisKeys.revokedTokenStream(),
+                Map.of(FIELD_JTI, jti, FIELD_EXPIRES, Long.toString(expireAtMillis)), options);
+    }
+
+    /**
+     * 发布一条用户级注销记录：这些用户在 cutoffMillis 之前签发的令牌全部失效
+     *
+     * 整批用户写入同一条 Stream 记录（用户名以换行分隔），调用方负责控制单批大小。
+     *
+     * @param usernames    用户名列表
+     * @param cutoffMillis 注销时间点
+     */
+    public void revokeUsers(List<String> usernames, long cutoffMillis) {
+        usernames.forEach(username -> userCutoffs.merge(username, cutoffMillis, Math::max));
+
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.none()
+                .minId(RecordId.of(System.currentTimeMillis() - tokenLifetimeMillis, 0))
+                .approximateTrimming(true);
+        redisTemplate.opsForStream().add(RedisKeys.revokedTokenStream(),
+                Map.of(FIELD_USERS, String.join("\n", usernames), FIELD_CUTOFF, Long.toString(cutoffMillis)), options);
+    }
+
+    /**
+     * 令牌是否已被注销（纯内存判断）
+     *
+     * @param jti 令牌 ID
+     * @return 已注销返回 true；jti 为空时无法判断，同样返回 true
+     */
+    public boolean isRevoked(String jti) {
+        return jti == null || revokedJtis.contains(hash(jti));
+    }
+
+    /**
+     * 用户在 issuedAtMillis 签发的令牌是否已被用户级注销（纯内存判断）
+     *
+     * JWT 的签发时间只精确到秒，注销时间点同一秒内签发的新令牌也会被判为失效，用户重新登录即可。
+     *
+     * @param username       用户名
+     * @param issuedAtMillis 令牌签发时间
+     * @return 已注销返回 true
+     */
+    public boolean isUserRevoked(String username, long issuedAtMillis) {
+        if (userCutoffs.isEmpty() || username == null) {
+            return false;
+        }
+        Long cutoff = userCutoffs.get(username);
+        return cutoff != null && issuedAtMillis < cutoff;
+    }
+
+    /**
+     * 当前登记的未过期注销记录数
+     */
+    public int size() {
+        return revokedJtis.size();
+    }
+
+    /**
+     * 定期清理已过期的注销记录
+     */
+    @Scheduled(fixedDelayString = "${auth.jwt.revocation-purge-ms:600000}")
+    public void purgeExpired() {
+        revokedJtis.purge();
+        long oldestLiveCutoff = System.currentTimeMillis() - tokenLifetimeMillis;
+        userCutoffs.values().removeIf(cutoff -> cutoff <= oldestLiveCutoff);
+    }
+
+    private void apply(Map<?, ?> value) {
+        String jti = (String) value.get(FIELD_JTI);
+        String exp = (String) value.get(FIELD_EXPIRES);
+        if (jti != null && exp != null) {
+            revokedJtis.add(hash(jti), Long.parseLong(exp));
+        }
+        String users = (String) value.get(FIELD_USERS);
+        String cutoff = (String) value.get(FIELD_CUTOFF);
+        if (users != null && cutoff != null) {
+            long cutoffMillis = Long.parseLong(cutoff);
+            for (String username : users.split("\n")) {
+                userCutoffs.merge(username, cutoffMillis, Math::max);
+            }
+        }
+    }
+
+    private static long hash(String jti) {
+        try {
+            UUID uuid = UUID.fromString(jti);
+            return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        } catch (IllegalArgumentException e) {
+            // 非 UUID 格式的 jti：FNV-1a 64 位
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < jti.length(); i++) {
+                h ^= jti.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+}
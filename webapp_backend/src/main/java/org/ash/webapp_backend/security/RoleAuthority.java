@@ -0,0 +1,58 @@
+package org.ash.webapp_backend.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serial;
+
+/**
+ * 携带权限位图的角色授权对象
+ *
+ * getAuthority() 仍返回 "ROLE_xxx"，兼容 hasRole 等已有写法；
+ * 同时附带该角色（含继承）编译后的权限位图，供 {@link PermissionAuthorizationManager} 直接按位判断。
+ *
+ * 实例由 {@link RolePermissionRegistry} 按角色预先创建并复用，请求中不会重复构造。
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+public final class RoleAuthority implements GrantedAuthority {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String authority;
+
+    private final long permissionMask;
+
+    RoleAuthority(String role, long permissionMask) {
+        this.authority = "ROLE_" + role;
+        this.permissionMask = permissionMask;
+    }
+
+    @Override
+    public String getAuthority() {
+        return authority;
+    }
+
+    /**
+     * 获取权限位图
+     */
+    public long getPermissionMask() {
+        return permissionMask;
+    }
+
+    /**
+     * 是否拥有全部指定权限
+     *
+     * @param requiredMask 所需权限位图
+     * @return 全部拥有返回 true
+     */
+    public boolean hasAll(long requiredMask) {
+        return (permissionMask & requiredMask) == requiredMask;
+    }
+
+    @Override
+    public String toString() {
+        return authority;
+    }
+}
@@ -0,0 +1,90 @@
+package org.ash.webapp_backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 角色权限注册表
+ *
+ * 启动时将 {@link SystemRole} 的继承关系与权限声明编译为：
+ * - 每个角色一个 long 权限位图（自身权限 | 所有祖先角色权限）
+ * - 每个角色一份不可变的授权列表：{@link RoleAuthority}（携带位图）+ 被继承角色的 ROLE_xxx
+ *
+ * JwtAuthenticationFilter 按角色名直接取出预先构建好的授权列表，
+ * 不再在每个请求中创建 SimpleGrantedAuthority。
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+@Component
+public class RolePermissionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RolePermissionRegistry.class);
+
+    /** 角色名 -> 预构建的授权列表 */
+    private final Map<String, List<GrantedAuthority>> authoritiesByRole;
+
+    /** 角色名 -> 权限位图 */
+    private final Map<String, Long> masksByRole;
+
+    public RolePermissionRegistry() {
+        Map<String, List<GrantedAuthority>> authorities = new HashMap<>();
+        Map<String, Long> masks = new HashMap<>();
+
+        for (SystemRole role : SystemRole.values()) {
+            long mask = 0L;
+            List<GrantedAuthority> list = new ArrayList<>();
+            for (SystemRole r = role; r != null; r = r.getParent()) {
+                mask |= Permission.maskOf(r.getPermissions().toArray(Permission[]::new));
+                if (r != role) {
+                    list.add(new SimpleGrantedAuthority("ROLE_" + r.name()));
+                }
+            }
+            list.add(0, new RoleAuthority(role.name(), mask));
+
+            authorities.put(role.name(), Collections.unmodifiableList(list));
+            masks.put(role.name(), mask);
+            log.info("🧩 角色权限编译完成：{} -> {}，位图 0x{}", role, list, Long.toHexString(mask));
+        }
+
+        this.authoritiesByRole = Map.copyOf(authorities);
+        this.masksByRole = Map.copyOf(masks);
+    }
+
+    /**
+     * 获取角色对应的授权列表（不可变、全局共享）
+     *
+     * @param role 角色名，例如 ADMIN
+     * @return 授权列表；未知角色返回空列表
+     */
+    public List<GrantedAuthority> authoritiesOf(String role) {
+        if (role == null) {
+            return List.of();
+        }
+        List<GrantedAuthority> authorities = authoritiesByRole.get(role);
+        if (authorities == null) {
+            log.warn("⚠️ 未定义的角色：{}，不授予任何权限", role);
+            return List.of();
+        }
+        return authorities;
+    }
+
+    /**
+     * 获取角色对应的权限位图
+     *
+     * @param role 角色名
+     * @return 权限位图；未知角色返回 0
+     */
+    public long maskOf(String role) {
+        return role == null ? 0L : masksByRole.getOrDefault(role, 0L);
+    }
+}
@@ -0,0 +1,48 @@
+package org.ash.webapp_backend.security;
+
+import java.util.List;
+
+/**
+ * 系统角色定义（含继承关系）
+ *
+ * 每个角色声明自身直接拥有的权限，并继承父角色的全部权限：
+ * - USER：普通用户，可查看监控面板
+ * - MANAGER：继承 USER，可查看用户信息
+ * - ADMIN：继承 MANAGER，可访问管理后台、修改用户、导出用户、执行监控诊断、查询审计事件
+ * - SERVICE：下游服务账号，仅可批量校验访问令牌
+ *
+ * 角色名与 User.role 字段取值一致，由 {@link RolePermissionRegistry} 在启动时编译为位图。
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+public enum SystemRole {
+
+    USER(null, Permission.MONITOR_READ),
+
+    MANAGER(USER, Permission.USER_READ),
+
+    ADMIN(MANAGER, Permission.ADMIN_ACCESS, Permission.USER_WRITE, Permission.MONITOR_ADMIN,
+            Permission.USER_EXPORT, Permission.AUDIT_READ),
+
+    SERVICE(null, Permission.TOKEN_INTROSPECT);
+
+    /** 父角色，为 null 表示顶层角色 */
+    private final SystemRole parent;
+
+    /** 该角色直接声明的权限（不含继承） */
+    private final List<Permission> permissions;
+
+    SystemRole(SystemRole parent, Permission... permissions) {
+        this.parent = parent;
+        this.permissions = List.of(permissions);
+    }
+
+    public SystemRole getParent() {
+        return parent;
+    }
+
+    public List<Permission> getPermissions() {
+        return permissions;
+    }
+}
@@ -0,0 +1,39 @@
+package org.ash.webapp_backend.security;
+
+/**
+ * 访问令牌被拒绝的原因
+ *
+ * 前四项为结构预检（不做任何密码学运算），其余为验签、过期与注销校验的结果。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+public enum TokenRejectReason {
+
+    /** 长度超出合理范围 */
+    LENGTH,
+
+    /** 段数不对（JWT 必须是 header.payload.signature 三段） */
+    SEGMENTS,
+
+    /** 含有 Base64URL 字母表以外的字符 */
+    ALPHABET,
+
+    /** 头部与本服务签发的算法头不一致（如 alg=none 或其他算法） */
+    HEADER,
+
+    /** 签名校验失败 */
+    SIGNATURE,
+
+    /** 令牌已过期 */
+    EXPIRED,
+
+    /** 其他解析错误（如载荷不是合法 JSON） */
+    MALFORMED,
+
+    /** 缺少 jti：无状态注销模式下无法单独注销，一律拒绝（引入 jti 之前签发的旧令牌） */
+    MISSING_JTI,
+
+    /** 令牌已注销或被新登录顶掉 */
+    REVOKED
+}
@@ -0,0 +1,51 @@
+package org.ash.webapp_backend.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问令牌拒绝计数
+ *
+ * 按 {@link TokenRejectReason} 分别累计，计数器为 LongAdder，高并发下写入无竞争。
+ * 通过 /monitor/auth/rejects 查看，可用于发现撞库、伪造令牌或客户端缓存了过期令牌等问题。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+@Component
+public class TokenRejectStats {
+
+    private final Map<TokenRejectReason, LongAdder> counters = new EnumMap<>(TokenRejectReason.class);
+
+    public TokenRejectStats() {
+        for (TokenRejectReason reason : TokenRejectReason.values()) {
+            counters.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * 记录一次拒绝
+     */
+    public void record(TokenRejectReason reason) {
+        counters.get(reason).increment();
+    }
+
+    /**
+     * 各原因的累计次数与总数
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<TokenRejectReason, LongAdder> entry : counters.entrySet()) {
+            long count = entry.getValue().sum();
+            snapshot.put(entry.getKey().name(), count);
+            total += count;
+        }
+        snapshot.put("total", total);
+        return snapshot;
+    }
+}
@@ -0,0 +1,53 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.ash.webapp_backend.common.CursorPage;
+import org.ash.webapp_backend.entity.AuditEvent;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 审计事件服务接口
+ *
+ * 认证相关操作（登录成功/失败、登出、注册）在请求线程上只做一次内存发布，
+ * 由后台消费者批量持久化到只追加的 audit_events 表，不增加登录路径上的数据库写入。
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+public interface AuditService {
+
+    /**
+     * 发布一条审计事件（异步持久化）
+     *
+     * 缓冲区写满时按 audit.overflow-policy 等待或丢弃，不会抛出异常。
+     *
+     * @param type     事件类型
+     * @param username 操作用户，可为 null
+     * @param clientIp 客户端 IP，可为 null
+     * @param detail   补充说明，可为 null
+     */
+    void record(AuditEventType type, String username, String clientIp, String detail);
+
+    /**
+     * 按时间范围倒序游标分页查询
+     *
+     * @param from     起始时间（含）
+     * @param to       截止时间（不含）
+     * @param type     事件类型过滤，可为 null
+     * @param username 用户名过滤，可为 null
+     * @param cursor   上一页返回的 nextCursor，首页传 null
+     * @param size     每页条数，最大 100
+     * @return 审计事件分页结果，新事件在前
+     */
+    CursorPage<AuditEvent> query(LocalDateTime from, LocalDateTime to, AuditEventType type, String username,
+                                 Long cursor, int size);
+
+    /**
+     * 审计管道运行指标
+     *
+     * @return 缓冲区容量与积压、发布/丢弃/入库条数、批次数与平均批大小、写入耗时分布
+     */
+    Map<String, Object> getStats();
+}
@@ -19,7 +19,7 @@ import org.ash.webapp_backend.dto.RegisterRequest;
  *
  * 示例用法：
  * <pre>
- *   Result&lt;String&gt; result = authService.login(new LoginRequest("user", "pwd"));
+ *   Result&lt;String&gt; result = authService.login(new LoginRequest("user", "pwd"), "127.0.0.1");
  * </pre>
  *
  * @author Ash
@@ -30,12 +30,13 @@ public interface AuthService {
     /**
      * 用户登录
      *
-     * 验证用户名与密码是否匹配，认证通过后生成并返回 JWT Token。
+     * 验证用户名与密码是否匹配，认证通过后生成并返回 JWT Token，并记录登录统计。
      *
-     * @param request 登录请求参数（用户名和密码）
+     * @param request  登录请求参数（用户名和密码）
+     * @param clientIp 客户端 IP，用于登录统计与审计
      * @return 登录成功返回包含 JWT 的结果；失败返回错误信息
      */
-    Result<String> login(LoginRequest request);
+    Result<String> login(LoginRequest request, String clientIp);
 
     /**
      * 用户登出
@@ -43,17 +44,19 @@ public interface AuthService {
      * 接收前端传入的 JWT Token，进行解析后从 Redis 中删除对应记录，
      * 实现 Token 主动失效。
      *
-     * @param token 待注销的 JWT Token
+     * @param token    待注销的 JWT Token
+     * @param clientIp 客户端 IP，用于审计
      */
-    void logout(String token);
+    void logout(String token, String clientIp);
 
     /**
      * 用户注册
      *
      * 校验用户名是否唯一，密码进行加密后保存用户信息。
      *
-     * @param request 注册参数（用户名、密码）
+     * @param request  注册参数（用户名、密码）
+     * @param clientIp 客户端 IP，用于审计
      * @return 注册成功返回空结果，失败返回错误信息
      */
-    Result<Void> register(RegisterRequest request);
+    Result<Void> register(RegisterRequest request, String clientIp);
 }
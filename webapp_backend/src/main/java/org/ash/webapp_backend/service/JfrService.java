@@ -0,0 +1,52 @@
+package org.ash.webapp_backend.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * JDK Flight Recorder 诊断服务接口
+ *
+ * 提供两类能力：
+ * - 按需录制：管理员手动开启/停止一次 JFR 录制，停止后得到 .jfr 文件供 JMC 分析
+ * - 持续事件流：常驻的低开销 JFR 事件流，汇总 GC 停顿、锁竞争、分配热点与慢 Socket 读取，
+ *   以滚动窗口 Top-N 表的形式提供，无需挂载 profiler 即可定位卡顿
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.JfrServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/25
+ */
+public interface JfrService {
+
+    /**
+     * 开启一次按需录制（同一时间只允许一个）
+     *
+     * @param maxDuration 最长录制时间，到期自动停止
+     * @param settings    JFR 预置配置：default（约 1% 开销）或 profile（约 2% 开销，信息更全）
+     * @return 录制信息
+     */
+    Map<String, Object> startRecording(Duration maxDuration, String settings);
+
+    /**
+     * 停止当前录制并导出为 .jfr 文件
+     *
+     * @return 导出文件路径
+     */
+    Path stopRecording();
+
+    /**
+     * 当前录制状态
+     *
+     * @return 状态信息
+     */
+    Map<String, Object> getRecordingStatus();
+
+    /**
+     * 持续事件流的滚动窗口汇总
+     *
+     * @param limit 每张表返回的最大条数
+     * @return 各类事件的 Top-N 表
+     */
+    Map<String, Object> getEventSummary(int limit);
+}
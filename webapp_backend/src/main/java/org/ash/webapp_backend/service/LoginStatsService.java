@@ -0,0 +1,35 @@
+package org.ash.webapp_backend.service;
+
+import java.util.Map;
+
+/**
+ * 登录统计服务接口（写回缓冲）
+ *
+ * 登录成功时只在内存中合并登录次数、最近登录时间与 IP，由后台按周期或缓冲区大小阈值
+ * 批量回写 users 表，登录请求本身不产生任何额外的 MySQL 写入。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.LoginStatsServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+public interface LoginStatsService {
+
+    /**
+     * 记录一次成功登录
+     *
+     * @param userId   用户 ID
+     * @param clientIp 客户端 IP
+     */
+    void recordLogin(long userId, String clientIp);
+
+    /**
+     * 立即回写缓冲区中的全部统计
+     */
+    void flush();
+
+    /**
+     * 缓冲区运行指标：待回写用户数、累计记录 / 回写次数、回写耗时分布、失败次数
+     */
+    Map<String, Object> getBufferStats();
+}
@@ -0,0 +1,81 @@
+package org.ash.webapp_backend.service;
+
+import java.util.Map;
+
+/**
+ * 系统监控服务接口
+ *
+ * 负责采集前端、后端、数据库、Redis 的可用性与延迟，以及 CPU、内存、端口等系统资源状态。
+ * 采集结果同时供 /monitor/status 轮询接口与 /monitor/stream 推送流使用。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.MonitorServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/24
+ */
+public interface MonitorService {
+
+    /**
+     * 采集一次完整的系统状态快照
+     *
+     * @return 有序的状态字段映射（frontend、backend、database、redis、system、cpuUsage、memoryUsage、ports）
+     */
+    Map<String, Object> collectSystemStatus();
+
+    /**
+     * JDBC 语句与 Redis 命令的延迟报告
+     *
+     * @param top 每类返回的最大形态数
+     * @return jdbc、redis 两张耗时分布表与最近的慢操作列表；未开启埋点时 enabled=false
+     */
+    Map<String, Object> collectLatencyReport(int top);
+
+    /**
+     * 访问令牌拒绝计数（按原因）
+     *
+     * @return 各拒绝原因的累计次数与 total
+     */
+    Map<String, Object> collectTokenRejectStats();
+
+    /**
+     * 自适应并发限流状态
+     *
+     * @return 当前上限、飞行中请求数、RTT 基线与各优先级的放行 / 丢弃次数
+     */
+    Map<String, Object> collectLimiterStats();
+
+    /**
+     * 登录统计写回缓冲区指标
+     *
+     * @return 待回写用户数、累计记录 / 回写行数、回写耗时分布与失败次数
+     */
+    Map<String, Object> collectLoginStatsBuffer();
+
+    /**
+     * 会话登记合并读取指标
+     *
+     * @return 各分片的读取次数、MGET 次数、平均批大小与读取耗时分布
+     */
+    Map<String, Object> collectSessionLookupStats();
+
+    /**
+     * 会话存储状态
+     *
+     * @return 存储类型；嵌入式存储另含容量、文件大小、存活条目与淘汰次数；renewal 为滑动过期续期指标
+     */
+    Map<String, Object> collectSessionStoreStats();
+
+    /**
+     * 审计事件管道指标
+     *
+     * @return 缓冲区积压、发布/丢弃/入库条数、平均批大小与写入耗时分布
+     */
+    Map<String, Object> collectAuditStats();
+
+    /**
+     * 被采样请求中的慢请求
+     *
+     * @return 采样比例、慢请求阈值、采样次数与慢请求列表（含各阶段耗时）；未开启时仅返回 enabled=false
+     */
+    Map<String, Object> collectSlowRequests();
+}
@@ -0,0 +1,36 @@
+package org.ash.webapp_backend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+/**
+ * 监控数据推送服务接口（Server-Sent Events）
+ *
+ * 所有订阅者共享同一份定时采集的快照：每个周期只采集一次，
+ * 再将与上一周期相比发生变化的字段广播给全部订阅者，
+ * 采集开销不再随打开的监控面板数量增长。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.MonitorStreamServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/24
+ */
+public interface MonitorStreamService {
+
+    /**
+     * 新增一个订阅者
+     *
+     * 订阅后立即收到一条 snapshot 事件（完整状态），之后每个周期收到 delta 事件（仅变化字段）。
+     *
+     * @return SSE 发射器
+     */
+    SseEmitter subscribe();
+
+    /**
+     * 获取推送流运行指标：订阅者数量、发送延迟、丢弃次数等
+     *
+     * @return 指标映射
+     */
+    Map<String, Object> getStreamStats();
+}
@@ -0,0 +1,30 @@
+package org.ash.webapp_backend.service;
+
+import java.util.Map;
+
+/**
+ * 会话登记查询服务接口
+ *
+ * 为每个请求的鉴权读取 login:token:{username}。开启合并（auth.session.coalescing.enabled=true）时，
+ * 同一时刻到达的大量读取被合并为按 Redis 分片的 MGET 批量命令，否则逐个 GET。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.SessionLookupServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+public interface SessionLookupService {
+
+    /**
+     * 读取用户当前登记的令牌
+     *
+     * @param username 用户名
+     * @return 登记的令牌，不存在时为 null
+     */
+    String getLoginToken(String username);
+
+    /**
+     * 合并读取的运行指标（按分片）
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,41 @@
+package org.ash.webapp_backend.service;
+
+import java.util.Map;
+
+/**
+ * 会话滑动过期服务接口
+ *
+ * 登录登记 login:token:{username} 在签发时设置固定有效期（auth.session.ttl），活跃用户会在使用途中被登出。
+ * 本服务在鉴权通过后按需续期：只有剩余有效期低于阈值时才续期，续期请求先在本节点合并，
+ * 再由后台按周期批量写入会话存储，Redis 写入次数远低于请求数。
+ *
+ * 续期后的过期时间不会超过令牌自身的过期时间（JWT exp）。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.SessionRenewalServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+public interface SessionRenewalService {
+
+    /**
+     * 鉴权通过后调用，判断是否需要续期
+     *
+     * 不需要续期时只有一次本地哈希表查询，不访问会话存储。
+     *
+     * @param username             用户名
+     * @param issuedAtMillis       令牌签发时间（毫秒时间戳），用于推算签发时登记的过期时间
+     * @param tokenExpiresAtMillis 令牌自身的过期时间（毫秒时间戳），续期上限
+     */
+    void onAccess(String username, long issuedAtMillis, long tokenExpiresAtMillis);
+
+    /**
+     * 立即写入全部待续期的登记
+     */
+    void flush();
+
+    /**
+     * 运行指标：本地跟踪的会话数、待写入数、累计访问 / 续期 / 写入 / 因登记变更作废的次数、写入耗时分布
+     */
+    Map<String, Object> getStats();
+}
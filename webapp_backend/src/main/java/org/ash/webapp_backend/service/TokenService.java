@@ -0,0 +1,99 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.security.AuthSession;
+
+import java.util.List;
+
+/**
+ * 访问令牌服务接口
+ *
+ * 负责令牌的签发、解析与注销，屏蔽具体令牌形式：
+ * - jwt（默认）：签发 HMAC 签名的 JWT，Redis 中保存 login:token:{username} 用于登出失效，
+ *   适合需要自行解析令牌的第三方客户端
+ * - opaque：签发随机不透明令牌，会话记录（用户名、角色、过期时间）保存在 Redis Hash 中，
+ *   每次请求只需一次 Redis 查询，无需 HMAC 校验与 JSON 解析，适合第一方客户端
+ *
+ * 通过配置项 auth.token.mode 选择登录默认签发的令牌形式：
+ * {@link org.ash.webapp_backend.service.impl.JwtTokenServiceImpl}（始终存在）、
+ * {@link org.ash.webapp_backend.service.impl.OpaqueTokenServiceImpl}（opaque 模式下作为主实现）。
+ * opaque 模式下 JWT 的签发与校验仍然可用：第三方客户端登录时可指定 tokenType=jwt，
+ * 解析、注销与批量校验按令牌形态分派，JWT 交给 JWT 实现处理。
+ *
+ * @author Ash
+ * @date 2025/6/26
+ */
+public interface TokenService {
+
+    /**
+     * 令牌形式
+     */
+    enum Format {
+        /** 自包含的 JWT，第三方客户端可自行解析 */
+        JWT,
+        /** 不透明令牌，仅 auth.token.mode=opaque 时可用 */
+        OPAQUE
+    }
+
+    /**
+     * 为登录成功的用户签发令牌并登记会话
+     *
+     * 同一用户再次登录会使之前签发的令牌失效。
+     *
+     * @param user 登录用户
+     * @return 访问令牌
+     */
+    String issueToken(User user);
+
+    /**
+     * 按指定形式签发令牌
+     *
+     * 当前模式不支持的形式（jwt 模式下的 OPAQUE）按 auth.token.mode 签发。
+     *
+     * @param user   登录用户
+     * @param format 令牌形式，为 null 时与 {@link #issueToken(User)} 相同
+     * @return 访问令牌
+     */
+    String issueToken(User user, Format format);
+
+    /**
+     * 解析令牌并确认会话仍然有效
+     *
+     * @param token 访问令牌
+     * @return 会话信息；令牌已注销或过期时返回 null
+     * @throws org.ash.webapp_backend.security.InvalidTokenException 令牌结构不合法、签名校验失败或已过期（无堆栈）
+     */
+    AuthSession resolve(String token);
+
+    /**
+     * 注销令牌
+     *
+     * @param token 访问令牌
+     * @return 令牌所属的用户名；令牌对应的会话已不存在、没有可注销的内容时返回 null
+     * @throws org.ash.webapp_backend.security.InvalidTokenException JWT 签名校验失败或已过期
+     */
+    String revoke(String token);
+
+    /**
+     * 注销一批用户的全部会话（管理后台批量禁用、变更角色后调用）
+     *
+     * 按 Redis 分片分组，每个分片一次往返完成删除；用户需要重新登录，
+     * 新令牌会携带最新的角色。
+     *
+     * @param usernames 用户名列表
+     * @return 被注销的会话数
+     */
+    long revokeUsers(List<String> usernames);
+
+    /**
+     * 批量校验令牌（供下游服务使用）
+     *
+     * 与逐个调用 {@link #resolve(String)} 不同，整批令牌只访问一次 Redis，
+     * 格式错误、签名错误、过期的令牌不会抛出异常，而是体现在对应结果的状态中。
+     *
+     * @param tokens 访问令牌列表
+     * @return 校验结果，顺序与入参一致
+     */
+    List<TokenIntrospection> introspect(List<String> tokens);
+}
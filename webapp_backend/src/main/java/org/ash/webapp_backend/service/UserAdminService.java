@@ -0,0 +1,42 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.common.CursorPage;
+import org.ash.webapp_backend.dto.BulkUserRequest;
+import org.ash.webapp_backend.dto.BulkUserResult;
+import org.ash.webapp_backend.dto.UserSummary;
+
+/**
+ * 管理后台用户管理服务接口
+ *
+ * 提供面向管理员的用户查询与批量修改能力，列表查询采用游标分页（按 ID 递增），
+ * 返回精简投影，避免加载完整实体。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.UserAdminServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/22
+ */
+public interface UserAdminService {
+
+    /**
+     * 按游标分页查询用户列表
+     *
+     * @param afterId 上一页最后一条记录的 ID，首页传 null
+     * @param size    每页条数
+     * @param role    按角色过滤，为 null 表示不过滤
+     * @param enabled 按启用状态过滤，为 null 表示不过滤
+     * @return 游标分页结果
+     */
+    CursorPage<UserSummary> listUsers(Long afterId, int size, String role, Boolean enabled);
+
+    /**
+     * 批量启用、禁用用户或变更角色
+     *
+     * 按 admin.bulk.chunk-size 分块，每块一个事务内执行集合式 UPDATE，不加载实体；
+     * 禁用与变更角色会同时注销受影响用户的全部会话。
+     *
+     * @param request 操作类型、目标用户 ID 与新角色
+     * @return 执行结果
+     */
+    BulkUserResult bulkUpdate(BulkUserRequest request);
+}
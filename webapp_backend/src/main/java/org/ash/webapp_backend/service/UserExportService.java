@@ -0,0 +1,40 @@
+package org.ash.webapp_backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 用户数据导出服务接口
+ *
+ * 将 users 表全量数据以流的方式写入输出流，内存占用与表大小无关。
+ * 支持 NDJSON（每行一个 JSON 对象）与 CSV 两种格式。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.UserExportServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/23
+ */
+public interface UserExportService {
+
+    /**
+     * 导出格式
+     */
+    enum Format {
+        /** 每行一个 JSON 对象，Content-Type: application/x-ndjson */
+        NDJSON,
+        /** 逗号分隔，首行为表头，Content-Type: text/csv */
+        CSV
+    }
+
+    /**
+     * 将全部用户流式写入输出流
+     *
+     * 客户端中途断开时写入会抛出 IOException，导出查询先被取消再关闭游标，导出终止。
+     *
+     * @param format 导出格式
+     * @param out    输出流（通常为 HTTP 响应体）
+     * @return 实际写出的行数
+     * @throws IOException 写出失败或客户端取消
+     */
+    long exportUsers(Format format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,43 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.dto.UsernameSuggestion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户名联想搜索服务接口
+ *
+ * 管理后台输入框每次按键都会触发一次前缀查询，由内存前缀索引直接应答，不访问 MySQL；
+ * 索引在应用就绪后于后台构建，构建完成前回退到数据库 LIKE 'prefix%' 查询。
+ * 索引为每个节点独立的内存副本，其他节点注册的用户在一个刷新周期（search.index.refresh-interval-ms）内可见。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.UserSearchServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+public interface UserSearchService {
+
+    /**
+     * 按用户名前缀搜索（大小写不敏感）
+     *
+     * @param prefix 前缀，不能为空
+     * @param limit  最多返回条数，最大 50
+     * @return 按用户名排序的匹配结果
+     */
+    List<UsernameSuggestion> searchByPrefix(String prefix, int limit);
+
+    /**
+     * 新用户注册后加入索引
+     *
+     * @param id       用户 ID
+     * @param username 用户名
+     */
+    void onUserCreated(long id, String username);
+
+    /**
+     * 索引状态与内存占用
+     */
+    Map<String, Object> getIndexStats();
+}
@@ -0,0 +1,56 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.dto.UserStats;
+
+import java.util.Map;
+
+/**
+ * 用户统计服务接口（增量计数器）
+ *
+ * 管理后台仪表盘需要用户总数、各角色人数、启用 / 禁用人数与每日注册数。
+ * 这些数字不在每次刷新时对 users 表执行 COUNT(*) GROUP BY，而是由计数器增量维护：
+ * 注册与管理后台批量变更在写库成功后原子地调整计数器，读取只取一个小 Hash；
+ * 计数器定期从数据库重建，修正进程崩溃、Redis 故障等造成的漂移。
+ *
+ * 该接口的具体实现由 {@link org.ash.webapp_backend.service.impl.UserStatsServiceImpl} 提供。
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+public interface UserStatsService {
+
+    /**
+     * 新用户注册成功后调用
+     *
+     * @param role    用户角色
+     * @param enabled 是否启用
+     */
+    void onUserCreated(String role, boolean enabled);
+
+    /**
+     * 批量启用 / 禁用成功后调用
+     *
+     * @param enabled 新的启用状态
+     * @param count   实际发生变更的用户数
+     */
+    void onEnabledChanged(boolean enabled, int count);
+
+    /**
+     * 批量变更角色成功后调用
+     *
+     * @param previousRoles 原角色 -> 用户数（原角色为空的用户不计入）
+     * @param newRole       新角色
+     * @param count         实际发生变更的用户数
+     */
+    void onRoleChanged(Map<String, Long> previousRoles, String newRole, int count);
+
+    /**
+     * 读取当前统计，计数器不存在时先从数据库重建
+     */
+    UserStats getStats();
+
+    /**
+     * 从数据库重建计数器
+     */
+    void rebuild();
+}
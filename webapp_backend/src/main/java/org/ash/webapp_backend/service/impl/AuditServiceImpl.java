@@ -0,0 +1,345 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.ash.webapp_backend.audit.AuditRingBuffer;
+import org.ash.webapp_backend.audit.OverflowPolicy;
+import org.ash.webapp_backend.common.CursorPage;
+import org.ash.webapp_backend.entity.AuditEvent;
+import org.ash.webapp_backend.repository.AuditEventRepository;
+import org.ash.webapp_backend.service.AuditService;
+import org.ash.webapp_backend.utils.LatencyHistogram;
+import org.ash.webapp_backend.utils.RateLimitedLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 审计事件服务实现类（环形缓冲区 + 后台批量写入）
+ *
+ * - 请求线程把事件写入预分配的无锁环形缓冲区（{@link AuditRingBuffer}）后立即返回
+ * - 单个后台消费者线程每次取出当前积压的全部事件（最多 audit.batch-size 条），拼成一条多行 INSERT 写入：
+ *   负载低时一条事件一批、延迟最低，负载高时批次自动变大、写入次数随之减少，无需等待凑批
+ * - 写入失败按指数退避重试 audit.max-retries 次，期间缓冲区继续积压，写满后按 audit.overflow-policy
+ *   反压请求线程（BLOCK）或直接丢弃（DROP）；重试耗尽的批次记录日志后丢弃，不阻塞后续事件
+ * - 应用关闭时（@PreDestroy，早于数据源关闭）停止消费者并同步写完剩余事件
+ *
+ * 事件在入库前只存在于内存，进程崩溃会丢失尚未写入的部分（通常不超过一批）。
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+@Service
+public class AuditServiceImpl implements AuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditServiceImpl.class);
+
+    private static final RateLimitedLogger dropLog = new RateLimitedLogger(log, 10_000);
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO audit_events (occurred_at, type, username, client_ip, detail) VALUES ";
+
+    private static final int COLUMNS = 5;
+
+    /** 每页最大条数 */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /** username / detail 列的最大长度 */
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    /** 消费者空闲时单次挂起的最长时间，有新事件时由生产者提前唤醒 */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** 首次重试前的等待时间，之后每次翻倍 */
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private AuditEventRepository auditEventRepository;
+
+    /** 是否开启审计 */
+    @Value("${audit.enabled:true}")
+    private boolean enabled;
+
+    /** 环形缓冲区槽位数（2 的幂） */
+    @Value("${audit.ring-size:8192}")
+    private int ringSize;
+
+    /** 单条 INSERT 最多写入的事件数 */
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    /** 缓冲区写满时的处理策略 */
+    @Value("${audit.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    /** BLOCK 策略下发布线程最多等待的时间（毫秒） */
+    @Value("${audit.block-timeout-ms:20}")
+    private long blockTimeoutMs;
+
+    /** 单批写入失败后的重试次数 */
+    @Value("${audit.max-retries:3}")
+    private int maxRetries;
+
+    private AuditRingBuffer ringBuffer;
+
+    private Thread consumer;
+
+    private volatile boolean running;
+
+    private volatile boolean closed;
+
+    /** 当前批次的列值，只由消费者线程（或关闭时的调用线程）访问 */
+    private long[] batchOccurredAt;
+    private String[] batchType;
+    private String[] batchUsername;
+    private String[] batchClientIp;
+    private String[] batchDetail;
+    private int batchCount;
+
+    /** 行数 -> 多行 INSERT 语句，按需生成后复用 */
+    private String[] insertSql;
+
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder blocked = new LongAdder();
+
+    private final AtomicLong persisted = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    private final AtomicLong lostEvents = new AtomicLong();
+
+    private final AtomicLong lastFlushAt = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("📴 审计事件持久化未开启");
+            return;
+        }
+        ringBuffer = new AuditRingBuffer(ringSize);
+        batchOccurredAt = new long[batchSize];
+        batchType = new String[batchSize];
+        batchUsername = new String[batchSize];
+        batchClientIp = new String[batchSize];
+        batchDetail = new String[batchSize];
+        insertSql = new String[batchSize + 1];
+
+        running = true;
+        consumer = new Thread(this::consume, "audit-writer");
+        consumer.setDaemon(true);
+        consumer.start();
+        log.info("📝 审计事件管道已启动：缓冲区 {} 槽，单批最多 {} 条，写满策略 {}", ringSize, batchSize, overflowPolicy);
+    }
+
+    @Override
+    public void record(AuditEventType type, String username, String clientIp, String detail) {
+        if (ringBuffer == null || closed) {
+            return;
+        }
+        long timeoutNanos = 0;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            timeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            if (ringBuffer.size() >= ringBuffer.capacity()) {
+                blocked.increment();
+            }
+        }
+        if (ringBuffer.publish(System.currentTimeMillis(), type, truncate(username), clientIp, truncate(detail),
+                timeoutNanos)) {
+            published.increment();
+        } else {
+            dropped.increment();
+            dropLog.warn("⚠️ 审计缓冲区已满，事件被丢弃：{} {}", type, username);
+        }
+    }
+
+    /**
+     * 消费者主循环：有积压就整批写入，没有就挂起等待
+     */
+    private void consume() {
+        while (running) {
+            if (ringBuffer.drain(this::append, batchSize) > 0) {
+                writeBatch();
+            } else {
+                ringBuffer.awaitPublished(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void append(long occurredAt, AuditEventType type, String username, String clientIp, String detail) {
+        int i = batchCount++;
+        batchOccurredAt[i] = occurredAt;
+        batchType[i] = type.name();
+        batchUsername[i] = username;
+        batchClientIp[i] = clientIp;
+        batchDetail[i] = detail;
+    }
+
+    /**
+     * 用一条多行 INSERT 写入当前批次，失败时退避重试
+     */
+    private void writeBatch() {
+        int rows = batchCount;
+        String sql = insertSql(rows);
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                jdbcTemplate.update(sql, this::bindBatch);
+                insertLatency.record(System.nanoTime() - start, false);
+                persisted.addAndGet(rows);
+                batches.incrementAndGet();
+                lastFlushAt.set(System.currentTimeMillis());
+                break;
+            } catch (RuntimeException e) {
+                insertLatency.record(System.nanoTime() - start, true);
+                failedBatches.incrementAndGet();
+                if (attempt >= maxRetries) {
+                    lostEvents.addAndGet(rows);
+                    log.error("💥 审计事件写入失败，已重试 {} 次，丢弃 {} 条: {}", maxRetries, rows, e.getMessage());
+                    break;
+                }
+                log.warn("⚠️ 审计事件写入失败，第 {} 次重试: {}", attempt + 1, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        clearBatch();
+    }
+
+    private void bindBatch(PreparedStatement ps) throws SQLException {
+        int p = 1;
+        for (int i = 0; i < batchCount; i++) {
+            ps.setTimestamp(p++, new Timestamp(batchOccurredAt[i]));
+            ps.setString(p++, batchType[i]);
+            ps.setString(p++, batchUsername[i]);
+            ps.setString(p++, batchClientIp[i]);
+            ps.setString(p++, batchDetail[i]);
+        }
+    }
+
+    private void clearBatch() {
+        for (int i = 0; i < batchCount; i++) {
+            batchUsername[i] = null;
+            batchClientIp[i] = null;
+            batchDetail[i] = null;
+        }
+        batchCount = 0;
+    }
+
+    private String insertSql(int rows) {
+        String sql = insertSql[rows];
+        if (sql == null) {
+            StringBuilder builder = new StringBuilder(INSERT_PREFIX.length() + rows * (COLUMNS * 3 + 3));
+            builder.append(INSERT_PREFIX);
+            for (int i = 0; i < rows; i++) {
+                builder.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            }
+            sql = builder.toString();
+            insertSql[rows] = sql;
+        }
+        return sql;
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= MAX_TEXT_LENGTH ? value : value.substring(0, MAX_TEXT_LENGTH);
+    }
+
+    @Override
+    public CursorPage<AuditEvent> query(LocalDateTime from, LocalDateTime to, AuditEventType type, String username,
+                                        Long cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime cursorAt = null;
+        if (cursor != null) {
+            // 游标只对外暴露 ID，排序键中的时间取自该记录本身（主键点查）
+            Optional<AuditEvent> last = auditEventRepository.findById(cursor);
+            if (last.isEmpty()) {
+                return new CursorPage<>(List.of(), null, false);
+            }
+            cursorAt = last.get().getOccurredAt();
+        }
+
+        List<AuditEvent> rows = auditEventRepository.findPage(from, to, type, username, cursorAt, cursor,
+                Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<AuditEvent> items = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * 应用关闭时停止消费者并同步写完剩余事件
+     */
+    @PreDestroy
+    public void drain() throws InterruptedException {
+        if (ringBuffer == null) {
+            return;
+        }
+        closed = true;
+        running = false;
+        ringBuffer.wakeConsumer();
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+        if (consumer.isAlive()) {
+            log.warn("⚠️ 审计写入线程未能按时退出，剩余 {} 条事件未写入", ringBuffer.size());
+            return;
+        }
+        int remaining = ringBuffer.size();
+        while (ringBuffer.drain(this::append, batchSize) > 0) {
+            writeBatch();
+        }
+        log.info("💾 审计缓冲区已清空，关闭前写入 {} 条，累计入库 {} 条", remaining, persisted.get());
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ringBuffer != null);
+        if (ringBuffer == null) {
+            return stats;
+        }
+        long batchTotal = batches.get();
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("capacity", ringBuffer.capacity());
+        stats.put("queueDepth", ringBuffer.size());
+        stats.put("published", published.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("blocked", blocked.sum());
+        stats.put("persisted", persisted.get());
+        stats.put("batches", batchTotal);
+        stats.put("avgBatchSize", batchTotal == 0 ? 0 : (double) persisted.get() / batchTotal);
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("lostEvents", lostEvents.get());
+        stats.put("lastFlushAt", lastFlushAt.get());
+        stats.put("insertLatency", insertLatency.snapshot());
+        return stats;
+    }
+}
@@ -1,30 +1,38 @@
 package org.ash.webapp_backend.service.impl;
 
 import jakarta.annotation.Resource;
+import org.ash.webapp_backend.audit.AuditEventType;
 import org.ash.webapp_backend.common.Result;
+import org.ash.webapp_backend.common.ResultCode;
 import org.ash.webapp_backend.dto.LoginRequest;
 import org.ash.webapp_backend.dto.RegisterRequest;
 import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.instrument.RequestTiming;
 import org.ash.webapp_backend.repository.UserRepository;
+import org.ash.webapp_backend.service.AuditService;
 import org.ash.webapp_backend.service.AuthService;
-import org.ash.webapp_backend.utils.JwtUtil;
+import org.ash.webapp_backend.service.LoginStatsService;
+import org.ash.webapp_backend.service.TokenService;
+import org.ash.webapp_backend.service.UserSearchService;
+import org.ash.webapp_backend.service.UserStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
  * 用户认证服务实现类
  *
  * 提供注册、登录、登出等认证相关业务逻辑。
- * - 登录时校验用户名密码，生成 JWT，并缓存到 Redis 中。
- * - 登出时清除 Redis 中对应的 Token。
+ * - 登录时校验用户名密码与账号启用状态，通过 TokenService 签发令牌（JWT 或不透明令牌）；必要时透明升级密码哈希。
+ *   登录次数、时间与 IP 交给 LoginStatsService 异步批量回写。
+ * - 登出时通过 TokenService 注销令牌。
  * - 注册时校验用户名是否唯一，并持久化新用户。
+ * - 登录成功/失败、登出、注册均发布审计事件，由 AuditService 异步批量写入 audit_events 表。
  *
  * 本类配合 AuthController 与 JwtAuthenticationFilter 使用，构成完整的身份认证机制。
  *
@@ -44,42 +52,84 @@ public class AuthServiceImpl implements AuthService {
     private UserRepository userRepository;
 
     @Resource
-    private JwtUtil jwtUtil;
+    private TokenService tokenService;
 
     @Resource
     private PasswordEncoder passwordEncoder;
 
     @Resource
-    private RedisTemplate<String, String> redisTemplate;
+    private LoginStatsService loginStatsService;
+
+    @Resource
+    private UserSearchService userSearchService;
+
+    @Resource
+    private UserStatsService userStatsService;
+
+    @Resource
+    private AuditService auditService;
 
     /**
      * 用户登录处理逻辑
      *
-     * @param request 登录请求参数（用户名 + 密码）
+     * @param request  登录请求参数（用户名 + 密码）
+     * @param clientIp 客户端 IP
      * @return 登录成功返回 JWT Token，失败返回错误信息
      */
     @Override
-    public Result<String> login(LoginRequest request) {
+    public Result<String> login(LoginRequest request, String clientIp) {
         String username = request.getUsername();
         log.info("🔐 登录请求收到，用户名: {}", username);
 
+        TokenService.Format format;
+        try {
+            format = tokenFormat(request.getTokenType());
+        } catch (IllegalArgumentException e) {
+            log.warn("❌ 不支持的令牌形式：{}", request.getTokenType());
+            return Result.error(ResultCode.BAD_REQUEST);
+        }
+
         Optional<User> optionalUser = userRepository.findByUsername(username);
 
         if (optionalUser.isEmpty()) {
             log.warn("❌ 用户不存在：{}", username);
+            auditService.record(AuditEventType.LOGIN_FAILURE, username, clientIp, "用户不存在");
             return Result.error("用户名或密码错误");
         }
 
         User user = optionalUser.get();
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        long start = RequestTiming.start();
+        boolean matches = passwordEncoder.matches(request.getPassword(), user.getPassword());
+        RequestTiming.stop(RequestTiming.Stage.BCRYPT, start);
+        if (!matches) {
             log.warn("❌ 密码不匹配，用户名: {}", username);
+            auditService.record(AuditEventType.LOGIN_FAILURE, username, clientIp, "密码错误");
             return Result.error("用户名或密码错误");
         }
 
+        // 密码校验之后再判断，避免未掌握密码者借此探测账号状态
+        if (!user.isEnabled()) {
+            log.warn("❌ 账号已被禁用，用户名: {}", username);
+            auditService.record(AuditEventType.LOGIN_FAILURE, username, clientIp, "账号已禁用");
+            return Result.error("账号已被禁用");
+        }
+
+        // 哈希算法或成本已落后于当前配置，借助本次明文密码透明升级
+        // 只更新 password 一列，不用读到的实体覆盖期间被管理后台修改的 enabled、role
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            start = RequestTiming.start();
+            String upgraded = passwordEncoder.encode(request.getPassword());
+            RequestTiming.stop(RequestTiming.Stage.BCRYPT, start);
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), upgraded) == 1) {
+                user.setPassword(upgraded);
+                log.info("🔁 密码哈希已升级，用户名: {}", username);
+            }
+        }
+
         // 成功登录
-        Map<String, String> claims = Map.of("role", user.getRole());
-        String token = jwtUtil.generateToken(username, claims);
-        redisTemplate.opsForValue().set("login:token:" + username, token, Duration.ofHours(1));
+        String token = tokenService.issueToken(user, format);
+        loginStatsService.recordLogin(user.getId(), clientIp);
+        auditService.record(AuditEventType.LOGIN_SUCCESS, username, clientIp, null);
         log.info("✅ 用户登录成功，用户名: {}，Token 已写入 Redis", username);
         log.debug("🔑 Token 内容: {}", token);
 
@@ -88,16 +138,24 @@ public class AuthServiceImpl implements AuthService {
 
     /**
      * 用户登出逻辑
-     * 从 Redis 删除 Token
+     * 通过 TokenService 注销令牌
      *
-     * @param token 前端传来的 JWT
+     * /auth/logout 不经过 JwtAuthenticationFilter，没有认证信息；用户名取自被注销令牌本身
+     * （TokenService.revoke 的返回值），只在确实注销了会话时记录登出审计。
+     *
+     * @param token    前端传来的令牌
+     * @param clientIp 客户端 IP
      */
     @Override
-    public void logout(String token) {
+    public void logout(String token, String clientIp) {
         try {
-            String username = jwtUtil.getUsername(token);
-            redisTemplate.delete("login:token:" + username);
-            log.info("👋 用户登出，用户名: {}", username);
+            String username = tokenService.revoke(token);
+            if (username == null) {
+                log.info("👋 用户登出，令牌对应的会话已不存在");
+                return;
+            }
+            auditService.record(AuditEventType.LOGOUT, username, clientIp, null);
+            log.info("👋 用户登出，令牌已注销，用户名: {}", username);
         } catch (Exception e) {
             log.error("⚠️ 登出失败，Token 解析异常: {}", e.getMessage());
         }
@@ -106,26 +164,47 @@ public class AuthServiceImpl implements AuthService {
     /**
      * 用户注册逻辑
      *
-     * @param request 注册请求参数
+     * @param request  注册请求参数
+     * @param clientIp 客户端 IP
      * @return 成功或失败结果
      */
     @Override
-    public Result<Void> register(RegisterRequest request) {
+    public Result<Void> register(RegisterRequest request, String clientIp) {
         String username = request.getUsername();
         log.info("📝 注册请求收到，用户名: {}", username);
 
         if (userRepository.findByUsername(username).isPresent()) {
             log.warn("❌ 用户名已存在：{}", username);
+            auditService.record(AuditEventType.REGISTER_FAILURE, username, clientIp, "用户名已存在");
             return Result.error("用户名已存在");
         }
 
         User newUser = new User();
         newUser.setUsername(username);
+        long start = RequestTiming.start();
         newUser.setPassword(passwordEncoder.encode(request.getPassword()));
+        RequestTiming.stop(RequestTiming.Stage.BCRYPT, start);
         newUser.setRole("USER");
+        newUser.setEnabled(true);
+        newUser.setCreatedAt(LocalDateTime.now());
         userRepository.save(newUser);
+        userSearchService.onUserCreated(newUser.getId(), username);
+        userStatsService.onUserCreated(newUser.getRole(), newUser.isEnabled());
+        auditService.record(AuditEventType.REGISTER, username, clientIp, null);
 
         log.info("✅ 用户注册成功：{}", username);
         return Result.success();
     }
+
+    /**
+     * 解析登录请求中的令牌形式，未指定时返回 null（按 auth.token.mode 签发）
+     *
+     * @throws IllegalArgumentException 不支持的令牌形式
+     */
+    private static TokenService.Format tokenFormat(String tokenType) {
+        if (tokenType == null || tokenType.isBlank()) {
+            return null;
+        }
+        return TokenService.Format.valueOf(tokenType.trim().toUpperCase(Locale.ROOT));
+    }
 }
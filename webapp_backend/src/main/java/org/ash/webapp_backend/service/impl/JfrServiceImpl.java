@@ -0,0 +1,296 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.ash.webapp_backend.service.JfrService;
+import org.ash.webapp_backend.utils.RollingTopN;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JDK Flight Recorder 诊断服务实现类
+ *
+ * 持续事件流只订阅少量带阈值或限流的事件，开销可常驻生产：
+ * - jdk.GarbageCollection：按收集器汇总停顿时间
+ * - jdk.JavaMonitorEnter：超过阈值的 synchronized 锁竞争，按锁对象类型汇总
+ * - jdk.ThreadPark：超过阈值的 park 等待，单独汇总。park 既可能是 ReentrantLock 等显式锁的竞争，
+ *   也可能只是线程池工作线程在空队列上等任务，后者不代表竞争，按栈帧识别后丢弃、只计数
+ * - jdk.ObjectAllocationSample：限流采样，按首个业务栈帧汇总分配量
+ * - jdk.SocketRead：超过阈值的 Socket 读取，按远端地址汇总
+ *
+ * 汇总结果保存在 {@link RollingTopN} 中，默认窗口为最近 1 分钟。
+ *
+ * @author Ash
+ * @date 2025/6/25
+ */
+@Service
+public class JfrServiceImpl implements JfrService {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrServiceImpl.class);
+
+    /**
+     * 空闲等待点（类名.方法名）：栈中出现这些方法的 park 是线程在等待任务或数据，而不是在争抢锁
+     */
+    private static final Set<String> IDLE_PARK_METHODS = Set.of(
+            "java.util.concurrent.ThreadPoolExecutor.getTask",
+            "java.util.concurrent.ScheduledThreadPoolExecutor$DelayedWorkQueue.take",
+            "java.util.concurrent.ForkJoinPool.awaitWork",
+            "java.util.concurrent.LinkedBlockingQueue.take",
+            "java.util.concurrent.LinkedBlockingQueue.poll",
+            "java.util.concurrent.LinkedBlockingDeque.takeFirst",
+            "java.util.concurrent.LinkedBlockingDeque.pollFirst",
+            "java.util.concurrent.ArrayBlockingQueue.take",
+            "java.util.concurrent.ArrayBlockingQueue.poll",
+            "java.util.concurrent.SynchronousQueue.take",
+            "java.util.concurrent.SynchronousQueue.poll",
+            "java.util.concurrent.LinkedTransferQueue.take",
+            "java.util.concurrent.LinkedTransferQueue.poll",
+            "java.util.concurrent.DelayQueue.take",
+            "java.util.concurrent.DelayQueue.poll",
+            "java.lang.VirtualThread.sleepNanos");
+
+    /** 是否开启常驻事件流 */
+    @Value("${jfr.stream.enabled:true}")
+    private boolean streamEnabled;
+
+    /** 锁等待、Socket 读取的记录阈值（毫秒） */
+    @Value("${jfr.stream.threshold-ms:10}")
+    private long thresholdMillis;
+
+    /** 分配采样限流，例如 100/s */
+    @Value("${jfr.stream.allocation-throttle:100/s}")
+    private String allocationThrottle;
+
+    /** 滚动窗口单个桶时长（毫秒） */
+    @Value("${jfr.stream.bucket-ms:5000}")
+    private long bucketMillis;
+
+    /** 滚动窗口桶数量 */
+    @Value("${jfr.stream.buckets:12}")
+    private int bucketCount;
+
+    private RecordingStream stream;
+
+    private RollingTopN gcPauses;
+
+    private RollingTopN lockContention;
+
+    private RollingTopN parkedWaits;
+
+    /** 被识别为空闲等待而丢弃的 park 事件数 */
+    private final LongAdder idleParks = new LongAdder();
+
+    private RollingTopN allocations;
+
+    private RollingTopN socketReads;
+
+    /** 当前按需录制，同一时间最多一个 */
+    private Recording recording;
+
+    /** 上一次导出的录制文件，开启新录制时删除 */
+    private Path lastDump;
+
+    @PostConstruct
+    public void init() {
+        gcPauses = new RollingTopN(bucketMillis, bucketCount);
+        lockContention = new RollingTopN(bucketMillis, bucketCount);
+        parkedWaits = new RollingTopN(bucketMillis, bucketCount);
+        allocations = new RollingTopN(bucketMillis, bucketCount);
+        socketReads = new RollingTopN(bucketMillis, bucketCount);
+
+        if (!streamEnabled) {
+            return;
+        }
+
+        Duration threshold = Duration.ofMillis(thresholdMillis);
+        stream = new RecordingStream();
+        stream.enable("jdk.GarbageCollection");
+        stream.enable("jdk.JavaMonitorEnter").withThreshold(threshold).withStackTrace();
+        stream.enable("jdk.ThreadPark").withThreshold(threshold).withStackTrace();
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", allocationThrottle).withStackTrace();
+        stream.enable("jdk.SocketRead").withThreshold(threshold);
+
+        stream.onEvent("jdk.GarbageCollection", e ->
+                gcPauses.record(e.getString("name"), e.getDuration("sumOfPauses").toNanos()));
+        stream.onEvent("jdk.JavaMonitorEnter", e ->
+                lockContention.record(className(e, "monitorClass") + " @ " + topFrame(e), e.getDuration().toNanos()));
+        stream.onEvent("jdk.ThreadPark", e -> {
+            if (isIdlePark(e)) {
+                idleParks.increment();
+                return;
+            }
+            parkedWaits.record(className(e, "parkedClass") + " @ " + topFrame(e), e.getDuration().toNanos());
+        });
+        stream.onEvent("jdk.ObjectAllocationSample", e ->
+                allocations.record(className(e, "objectClass") + " @ " + topFrame(e), e.getLong("weight")));
+        stream.onEvent("jdk.SocketRead", e ->
+                socketReads.record(e.getString("host") + ":" + e.getInt("port"), e.getDuration().toNanos()));
+
+        stream.startAsync();
+        log.info("🛰 JFR 常驻事件流已启动，阈值 {}ms，分配采样 {}", thresholdMillis, allocationThrottle);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+        synchronized (this) {
+            if (recording != null) {
+                recording.close();
+            }
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> startRecording(Duration maxDuration, String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("已有录制正在进行");
+        }
+        closeRecording();
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration("profile".equals(settings) ? "profile" : "default");
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("无法加载 JFR 配置：" + settings, e);
+        }
+
+        recording = new Recording(configuration);
+        recording.setName("on-demand-" + Instant.now().toEpochMilli());
+        recording.setToDisk(true);
+        recording.setDuration(maxDuration);
+        recording.start();
+        log.info("⏺ JFR 按需录制已开始，配置: {}，最长 {}s", configuration.getName(), maxDuration.toSeconds());
+        return getRecordingStatus();
+    }
+
+    @Override
+    public synchronized Path stopRecording() {
+        if (recording == null) {
+            throw new IllegalStateException("当前没有录制");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        try {
+            deleteLastDump();
+            Path file = Files.createTempFile("webapp-", ".jfr");
+            recording.dump(file);
+            lastDump = file;
+            log.info("⏹ JFR 录制已停止并导出：{}（{} 字节）", file, Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeRecording();
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> getRecordingStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("name", recording.getName());
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("maxDurationSeconds", recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+        status.put("size", recording.getSize());
+        return status;
+    }
+
+    @Override
+    public Map<String, Object> getEventSummary(int limit) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("streamEnabled", streamEnabled);
+        summary.put("windowSeconds", bucketMillis * bucketCount / 1000);
+        summary.put("gcPausesNanos", gcPauses.top(limit));
+        summary.put("lockContentionNanos", lockContention.top(limit));
+        summary.put("parkedWaitsNanos", parkedWaits.top(limit));
+        summary.put("idleParksIgnored", idleParks.sum());
+        summary.put("allocationBytes", allocations.top(limit));
+        summary.put("slowSocketReadsNanos", socketReads.top(limit));
+        return summary;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void deleteLastDump() throws IOException {
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+            lastDump = null;
+        }
+    }
+
+    private static String className(RecordedEvent event, String field) {
+        var recordedClass = event.getClass(field);
+        return recordedClass == null ? "unknown" : recordedClass.getName();
+    }
+
+    /**
+     * 栈中是否包含空闲等待点
+     */
+    private static boolean isIdlePark(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return false;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (IDLE_PARK_METHODS.contains(frame.getMethod().getType().getName() + "." + frame.getMethod().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 取第一个非 JDK 的栈帧作为热点位置，全部为 JDK 栈帧时取栈顶
+     */
+    private static String topFrame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame chosen = frames.get(0);
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                chosen = frame;
+                break;
+            }
+        }
+        return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName()
+                + ":" + chosen.getLineNumber();
+    }
+}
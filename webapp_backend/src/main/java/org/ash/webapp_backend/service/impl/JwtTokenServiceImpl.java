@@ -0,0 +1,212 @@
+package org.ash.webapp_backend.service.impl;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.instrument.RequestTiming;
+import org.ash.webapp_backend.security.AuthSession;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.RevokedTokenRegistry;
+import org.ash.webapp_backend.security.TokenRejectReason;
+import org.ash.webapp_backend.service.SessionRenewalService;
+import org.ash.webapp_backend.service.TokenService;
+import org.ash.webapp_backend.session.SessionStore;
+import org.ash.webapp_backend.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * JWT 令牌服务实现
+ *
+ * auth.token.mode=jwt（默认）时为唯一的令牌服务；opaque 模式下仍然存在，
+ * 由 {@link OpaqueTokenServiceImpl} 把 JWT 形态的令牌及 tokenType=jwt 的签发委托过来，
+ * 第三方客户端的 JWT 校验不受令牌模式影响。
+ *
+ * 注销校验方式由 auth.jwt.revocation 决定：
+ * - redis（默认）：签发时将令牌登记到会话存储（login:token:{username}），每次请求比对登记的令牌，
+ *   注销时删除登记；同一用户再次登录会顶掉旧令牌。会话存储可以是 Redis 或嵌入式文件，见 {@link SessionStore}；
+ *   活跃用户的登记由 {@link SessionRenewalService} 滑动续期
+ * - stateless：签发与鉴权都不访问 Redis，只在本地 {@link RevokedTokenRegistry} 中判断 jti 是否已注销，
+ *   注销时通过 Redis Stream 广播 jti；该模式下同一用户可同时持有多个有效令牌。
+ *   没有登记可以续期或删除，令牌自身的 exp 就是会话期限，签发时按 auth.session.ttl 设置（exp = iat + ttl）；
+ *   不带 jti 的令牌无法单独注销，一律拒绝（{@link TokenRejectReason#MISSING_JTI}）
+ *
+ * @author Ash
+ * @date 2025/6/26
+ */
+@Service
+public class JwtTokenServiceImpl implements TokenService {
+
+    /** 批量校验时超过该数量才并行验签，小批量直接串行更快 */
+    private static final int PARALLEL_VERIFY_THRESHOLD = 16;
+
+    @Resource
+    private JwtUtil jwtUtil;
+
+    /** 登录登记 login:token:{username} 的存储 */
+    @Resource
+    private SessionStore sessionStore;
+
+    /** 无状态注销模式下的本地注销登记表，默认模式下为 null */
+    @Autowired(required = false)
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    /** 登录登记的滑动过期续期 */
+    @Resource
+    private SessionRenewalService sessionRenewalService;
+
+    /** Redis 中会话登记的有效期 */
+    @Value("${auth.session.ttl:1h}")
+    private Duration sessionTtl;
+
+    @Override
+    public String issueToken(User user) {
+        Map<String, String> claims = Map.of("role", user.getRole());
+        if (revokedTokenRegistry != null) {
+            return jwtUtil.generateToken(user.getUsername(), claims, sessionTtl.toMillis());
+        }
+        String token = jwtUtil.generateToken(user.getUsername(), claims);
+        String previous = sessionStore.swapLoginToken(user.getUsername(), token, sessionTtl);
+        if (previous != null && !JwtUtil.isJwtShaped(previous)) {
+            // opaque 模式下被顶掉的是不透明令牌：其会话记录独立于登录登记，需一并删除
+            sessionStore.removeSession(previous);
+        }
+        return token;
+    }
+
+    /**
+     * 始终签发 JWT；不透明令牌只能由 opaque 模式下的 {@link OpaqueTokenServiceImpl} 签发
+     */
+    @Override
+    public String issueToken(User user, Format format) {
+        return issueToken(user);
+    }
+
+    @Override
+    public AuthSession resolve(String token) {
+        long start = RequestTiming.start();
+        DecodedJWT jwt;
+        try {
+            jwt = jwtUtil.verify(token);
+        } finally {
+            RequestTiming.stop(RequestTiming.Stage.JWT, start);
+        }
+        String username = jwt.getSubject();
+
+        if (revokedTokenRegistry != null) {
+            if (jwt.getId() == null) {
+                throw InvalidTokenException.of(TokenRejectReason.MISSING_JTI);
+            }
+            return isRevokedLocally(jwt) ? null : toSession(jwt);
+        }
+
+        start = RequestTiming.start();
+        String registered = sessionStore.getLoginToken(username);
+        RequestTiming.stop(RequestTiming.Stage.SESSION, start);
+        if (registered == null || !registered.equals(token)) {
+            return null;
+        }
+        long expiresAt = jwt.getExpiresAt().getTime();
+        sessionRenewalService.onAccess(username, jwt.getIssuedAt().getTime(), expiresAt);
+        return new AuthSession(username, jwt.getClaim("role").asString(), expiresAt);
+    }
+
+    @Override
+    public String revoke(String token) {
+        DecodedJWT jwt = jwtUtil.decodeToken(token);
+        if (revokedTokenRegistry != null) {
+            // 缺少 jti 的令牌在鉴权时已被拒绝，无需注销
+            if (jwt.getId() == null) {
+                return null;
+            }
+            revokedTokenRegistry.revoke(jwt.getId(), jwt.getExpiresAt().getTime());
+            return jwt.getSubject();
+        }
+        sessionStore.removeLoginToken(jwt.getSubject());
+        return jwt.getSubject();
+    }
+
+    @Override
+    public long revokeUsers(List<String> usernames) {
+        if (usernames.isEmpty()) {
+            return 0;
+        }
+        if (revokedTokenRegistry != null) {
+            // 无状态模式下无法枚举已签发的令牌，改为登记用户的注销时间点，此前签发的令牌一律失效
+            revokedTokenRegistry.revokeUsers(usernames, System.currentTimeMillis());
+            return usernames.size();
+        }
+        return sessionStore.removeLoginTokens(usernames);
+    }
+
+    @Override
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        int n = tokens.size();
+        TokenIntrospection[] results = new TokenIntrospection[n];
+        DecodedJWT[] decoded = new DecodedJWT[n];
+
+        // 1. 验签：HMAC 计算是纯 CPU 操作，批量较大时并行执行
+        IntStream indexes = IntStream.range(0, n);
+        if (n >= PARALLEL_VERIFY_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            try {
+                decoded[i] = jwtUtil.verify(tokens.get(i));
+            } catch (InvalidTokenException e) {
+                results[i] = TokenIntrospection.inactive(e.getReason() == TokenRejectReason.EXPIRED
+                        ? TokenIntrospection.Status.EXPIRED
+                        : TokenIntrospection.Status.INVALID);
+            }
+        });
+
+        // 2. 注销校验：无状态模式查本地注销表，否则批量读取登记令牌（Redis 每个分片一次 MGET）
+        List<Integer> pending = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (decoded[i] == null) {
+                continue;
+            }
+            if (revokedTokenRegistry != null && decoded[i].getId() == null) {
+                results[i] = TokenIntrospection.inactive(TokenIntrospection.Status.INVALID);
+            } else if (revokedTokenRegistry != null) {
+                results[i] = isRevokedLocally(decoded[i])
+                        ? TokenIntrospection.inactive(TokenIntrospection.Status.REVOKED)
+                        : TokenIntrospection.active(toSession(decoded[i]));
+            } else {
+                pending.add(i);
+                usernames.add(decoded[i].getSubject());
+            }
+        }
+        if (!usernames.isEmpty()) {
+            List<String> registered = sessionStore.getLoginTokens(usernames);
+            for (int k = 0; k < pending.size(); k++) {
+                int i = pending.get(k);
+                results[i] = tokens.get(i).equals(registered.get(k))
+                        ? TokenIntrospection.active(toSession(decoded[i]))
+                        : TokenIntrospection.inactive(TokenIntrospection.Status.REVOKED);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private boolean isRevokedLocally(DecodedJWT jwt) {
+        Date issuedAt = jwt.getIssuedAt();
+        return revokedTokenRegistry.isRevoked(jwt.getId())
+                || revokedTokenRegistry.isUserRevoked(jwt.getSubject(), issuedAt == null ? 0 : issuedAt.getTime());
+    }
+
+    private static AuthSession toSession(DecodedJWT jwt) {
+        return new AuthSession(jwt.getSubject(), jwt.getClaim("role").asString(), jwt.getExpiresAt().getTime());
+    }
+}
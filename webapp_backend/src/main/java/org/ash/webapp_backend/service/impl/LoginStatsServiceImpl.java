@@ -0,0 +1,186 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.service.LoginStatsService;
+import org.ash.webapp_backend.utils.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录统计服务实现类（写回缓冲）
+ *
+ * - 缓冲区以用户 ID 为键，同一用户在一个周期内的多次登录合并为一条：次数累加，时间与 IP 取最新
+ * - 每隔 login-stats.flush-interval-ms 回写一次；待回写用户数达到 login-stats.flush-threshold 时立即触发回写
+ * - 回写使用 JdbcTemplate.batchUpdate，每批最多 login-stats.batch-size 行，login_count 在数据库侧累加
+ * - 回写失败时将本批统计合并回缓冲区，下个周期重试
+ * - 应用关闭时（@PreDestroy，早于数据源关闭）同步回写剩余统计
+ *
+ * 回写串行执行，后一次回写的时间与 IP 一定不早于前一次，不会出现新值被旧值覆盖。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Service
+public class LoginStatsServiceImpl implements LoginStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginStatsServiceImpl.class);
+
+    private static final String UPDATE_SQL = "UPDATE users SET login_count = COALESCE(login_count, 0) + ?, "
+            + "last_login_at = ?, last_login_ip = ? WHERE id = ?";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    /** 待回写用户数达到该值时立即回写 */
+    @Value("${login-stats.flush-threshold:1000}")
+    private int flushThreshold;
+
+    /** 单批 UPDATE 的最大行数 */
+    @Value("${login-stats.batch-size:500}")
+    private int batchSize;
+
+    /** 用户 ID -> 尚未回写的合并统计 */
+    private final ConcurrentHashMap<Long, PendingLogin> pending = new ConcurrentHashMap<>();
+
+    /** 达到阈值时触发回写的后台线程，避免在登录请求线程上执行 SQL */
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "login-stats-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final Object flushLock = new Object();
+
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    private final LongAdder recorded = new LongAdder();
+
+    private final LongAdder flushedRows = new LongAdder();
+
+    private final LongAdder failedFlushes = new LongAdder();
+
+    private final AtomicLong lastFlushAt = new AtomicLong();
+
+    /**
+     * 合并后的登录统计（不可变，合并时生成新对象）
+     */
+    private record PendingLogin(long count, long lastLoginAt, String lastLoginIp) {
+
+        PendingLogin merge(PendingLogin newer) {
+            return newer.lastLoginAt >= lastLoginAt
+                    ? new PendingLogin(count + newer.count, newer.lastLoginAt, newer.lastLoginIp)
+                    : new PendingLogin(count + newer.count, lastLoginAt, lastLoginIp);
+        }
+    }
+
+    @Override
+    public void recordLogin(long userId, String clientIp) {
+        pending.merge(userId, new PendingLogin(1, System.currentTimeMillis(), clientIp), PendingLogin::merge);
+        recorded.increment();
+        if (pending.size() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * 定时回写
+     */
+    @Scheduled(fixedDelayString = "${login-stats.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                flushBatch(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            }
+        }
+    }
+
+    private void flushBatch(List<Long> ids) {
+        List<Long> drainedIds = new ArrayList<>(ids.size());
+        List<PendingLogin> drained = new ArrayList<>(ids.size());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            PendingLogin login = pending.remove(id);
+            if (login != null) {
+                drainedIds.add(id);
+                drained.add(login);
+                args.add(new Object[]{login.count(), new Timestamp(login.lastLoginAt()), login.lastLoginIp(), id});
+            }
+        }
+        if (args.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            flushLatency.record(System.nanoTime() - start, false);
+            flushedRows.add(args.size());
+            lastFlushAt.set(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            flushLatency.record(System.nanoTime() - start, true);
+            failedFlushes.increment();
+            // 放回缓冲区，与期间新产生的统计合并，下个周期重试
+            for (int i = 0; i < drainedIds.size(); i++) {
+                pending.merge(drainedIds.get(i), drained.get(i), PendingLogin::merge);
+            }
+            log.error("💥 登录统计回写失败，{} 条记录将在下个周期重试: {}", args.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 应用关闭时同步回写剩余统计
+     */
+    @PreDestroy
+    public void drain() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        int remaining = pending.size();
+        flush();
+        log.info("💾 登录统计缓冲区已清空，关闭前回写 {} 个用户，剩余 {}", remaining, pending.size());
+    }
+
+    @Override
+    public Map<String, Object> getBufferStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", pending.size());
+        stats.put("flushThreshold", flushThreshold);
+        stats.put("recordedLogins", recorded.sum());
+        stats.put("flushedRows", flushedRows.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("lastFlushAt", lastFlushAt.get());
+        stats.put("flushLatency", flushLatency.snapshot());
+        return stats;
+    }
+}
@@ -0,0 +1,250 @@
+package org.ash.webapp_backend.service.impl;
+
+import org.ash.webapp_backend.filter.ConcurrencyLimitFilter;
+import org.ash.webapp_backend.filter.ServerTimingFilter;
+import org.ash.webapp_backend.instrument.LatencyRecorder;
+import org.ash.webapp_backend.security.TokenRejectStats;
+import org.ash.webapp_backend.service.AuditService;
+import org.ash.webapp_backend.service.LoginStatsService;
+import org.ash.webapp_backend.service.MonitorService;
+import org.ash.webapp_backend.service.SessionLookupService;
+import org.ash.webapp_backend.service.SessionRenewalService;
+import org.ash.webapp_backend.session.SessionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.*;
+import java.util.*;
+
+/**
+ * 系统监控服务实现类
+ *
+ * 原 MonitorController 中的探测逻辑，抽取后由轮询接口与推送流共用。
+ *
+ * @author Ash
+ * @date 2025/6/24
+ */
+@Service
+public class MonitorServiceImpl implements MonitorService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    /** 延迟埋点登记表，instrument.enabled=false 时不存在 */
+    @Autowired(required = false)
+    private LatencyRecorder latencyRecorder;
+
+    @Autowired
+    private TokenRejectStats tokenRejectStats;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private LoginStatsService loginStatsService;
+
+    /** 会话登记合并读取，嵌入式会话存储模式下不存在 */
+    @Autowired(required = false)
+    private SessionLookupService sessionLookupService;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private SessionRenewalService sessionRenewalService;
+
+    @Autowired
+    private AuditService auditService;
+
+    /** 请求耗时分解，instrument.server-timing.enabled=false 时不存在 */
+    @Autowired(required = false)
+    private ServerTimingFilter serverTimingFilter;
+
+    /** 前端构建产物是否由后端托管 */
+    @Value("${frontend.static.enabled:false}")
+    private boolean frontendEmbedded;
+
+    /** 会话存储类型：redis / embedded */
+    @Value("${session.store:redis}")
+    private String sessionStoreType;
+
+    private static final List<Integer> portsToCheck = List.of(3000, 8080, 6379);
+
+    @Override
+    public Map<String, Object> collectLatencyReport(int top) {
+        if (latencyRecorder == null) {
+            return Map.of("enabled", false);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", true);
+        report.putAll(latencyRecorder.report(top));
+        return report;
+    }
+
+    @Override
+    public Map<String, Object> collectTokenRejectStats() {
+        return tokenRejectStats.snapshot();
+    }
+
+    @Override
+    public Map<String, Object> collectLimiterStats() {
+        return concurrencyLimitFilter.getStats();
+    }
+
+    @Override
+    public Map<String, Object> collectLoginStatsBuffer() {
+        return loginStatsService.getBufferStats();
+    }
+
+    @Override
+    public Map<String, Object> collectSessionLookupStats() {
+        return sessionLookupService == null ? Map.of("enabled", false) : sessionLookupService.getStats();
+    }
+
+    @Override
+    public Map<String, Object> collectSessionStoreStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(sessionStore.getStats());
+        stats.put("renewal", sessionRenewalService.getStats());
+        return stats;
+    }
+
+    @Override
+    public Map<String, Object> collectAuditStats() {
+        return auditService.getStats();
+    }
+
+    @Override
+    public Map<String, Object> collectSlowRequests() {
+        return serverTimingFilter == null ? Map.of("enabled", false) : serverTimingFilter.getSlowRequests();
+    }
+
+    @Override
+    public Map<String, Object> collectSystemStatus() {
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        // 1. 前端状态（由后端托管时与后端同进程）
+        result.put("frontend", frontendEmbedded
+                ? Map.of("status", "up", "latency", 0, "mode", "embedded")
+                : checkUrl("http://localhost:3000"));
+
+        // 2. 后端状态
+        result.put("backend", Map.of("status", "up", "latency", 0));
+
+        // 3. 数据库状态
+        try {
+            long start = System.currentTimeMillis();
+            jdbcTemplate.execute("SELECT 1");
+            long latency = System.currentTimeMillis() - start;
+            result.put("database", Map.of("status", "up", "latency", latency));
+        } catch (Exception e) {
+            result.put("database", Map.of("status", "down", "error", e.getMessage()));
+        }
+
+        // 4. Redis 状态（嵌入式会话存储模式下不使用 Redis）
+        if ("embedded".equals(sessionStoreType)) {
+            result.put("redis", Map.of("status", "disabled"));
+        } else {
+            result.put("redis", checkRedis());
+        }
+
+        // 5. 系统资源状态
+        com.sun.management.OperatingSystemMXBean sys =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+        double cpuLoad = sys.getSystemCpuLoad(); // 0.0 - 1.0
+        long totalMemory = sys.getTotalPhysicalMemorySize();
+        long freeMemory = sys.getFreePhysicalMemorySize();
+        long usedMemory = totalMemory - freeMemory;
+
+        result.put("system", Map.of(
+                "osName", sys.getName(),
+                "cpuUsagePercent", (int) (cpuLoad * 100),
+                "memoryUsagePercent", (int) (usedMemory * 100 / totalMemory),
+                "usedMemoryMB", usedMemory / 1024 / 1024,
+                "totalMemoryMB", totalMemory / 1024 / 1024
+        ));
+
+        // 6. 图表数据（当前值加扰动）
+        result.put("cpuUsage", generateRecentList((int) (cpuLoad * 100)));
+        result.put("memoryUsage", generateRecentList((int) (usedMemory * 100 / totalMemory)));
+
+        // 7. 端口检测
+        result.put("ports", checkPorts(portsToCheck));
+
+        return result;
+    }
+
+    private Map<String, Object> checkRedis() {
+        try {
+            long start = System.currentTimeMillis();
+            String pong = redisTemplate.getConnectionFactory().getConnection().ping();
+            long latency = System.currentTimeMillis() - start;
+            return Map.of(
+                    "status", "PONG".equalsIgnoreCase(pong) ? "up" : "down",
+                    "latency", latency
+            );
+        } catch (Exception e) {
+            return Map.of("status", "down", "error", e.getMessage());
+        }
+    }
+
+    private Map<String, Object> checkUrl(String urlStr) {
+        try {
+            long start = System.currentTimeMillis();
+            URL url = new URL(urlStr);
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(1000);
+            conn.connect();
+            long latency = System.currentTimeMillis() - start;
+            int code = conn.getResponseCode();
+
+            return Map.of(
+                    "status", (code >= 200 && code < 400) ? "up" : "warn",
+                    "latency", latency
+            );
+        } catch (IOException e) {
+            return Map.of("status", "down", "error", e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> checkPorts(List<Integer> ports) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int port : ports) {
+            boolean open = isPortListening("127.0.0.1", port);
+            results.add(Map.of(
+                    "name", "Port " + port,
+                    "port", port,
+                    "status", open ? "🟢" : "🔴"
+            ));
+        }
+        return results;
+    }
+
+    private boolean isPortListening(String host, int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private List<Integer> generateRecentList(int value) {
+        Random rand = new Random();
+        return List.of(
+                Math.max(0, value - 5 + rand.nextInt(5)),
+                Math.max(0, value - 3 + rand.nextInt(5)),
+                value,
+                Math.min(100, value + rand.nextInt(5)),
+                Math.min(100, value + 2 + rand.nextInt(5))
+        );
+    }
+}
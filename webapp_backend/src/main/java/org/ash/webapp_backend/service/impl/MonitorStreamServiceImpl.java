@@ -0,0 +1,259 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.service.MonitorService;
+import org.ash.webapp_backend.service.MonitorStreamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监控数据推送服务实现类
+ *
+ * 工作方式：
+ * - 定时任务每个周期采集一次快照（无订阅者时跳过采集），与上一份快照逐字段比较得到增量
+ * - 每个订阅者拥有一个有界队列和一个独立的虚拟线程负责发送，慢客户端不会阻塞广播
+ * - 队列写满说明客户端消费跟不上：清空积压的增量，改为投递一条完整快照，
+ *   保证客户端收到的状态始终可以拼接完整，且积压量有上限
+ *
+ * 新订阅者的首帧快照与广播共用同一把锁：加入订阅列表与读取 latestSnapshot 在锁内一起完成，
+ * 广播也在锁内更新 latestSnapshot 并投递增量，订阅者不会错过首帧快照之后的任何一次增量。
+ *
+ * 对外暴露订阅者数量、发送延迟（入队到写出的耗时）与丢弃次数，便于观察推送健康状况。
+ *
+ * @author Ash
+ * @date 2025/6/24
+ */
+@Service
+public class MonitorStreamServiceImpl implements MonitorStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorStreamServiceImpl.class);
+
+    private static final String EVENT_SNAPSHOT = "snapshot";
+
+    private static final String EVENT_DELTA = "delta";
+
+    @Resource
+    private MonitorService monitorService;
+
+    /** 每个订阅者的发送队列容量 */
+    @Value("${monitor.stream.buffer-size:16}")
+    private int bufferSize;
+
+    /** SSE 连接超时时间（毫秒），超时后客户端需重新订阅 */
+    @Value("${monitor.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** 保护 latestSnapshot 的切换与订阅者加入，保证首帧快照与后续增量衔接 */
+    private final Object publishLock = new Object();
+
+    /** 最近一次广播的完整快照，新订阅者直接复用 */
+    private volatile Map<String, Object> latestSnapshot;
+
+    private final AtomicLong ticks = new AtomicLong();
+
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    private volatile long lastCollectMillis;
+
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        synchronized (publishLock) {
+            Map<String, Object> snapshot = latestSnapshot;
+            if (snapshot == null) {
+                // 尚无广播快照（首个订阅者）：下一次广播以 null 为基准，会把完整快照作为增量发出
+                snapshot = monitorService.collectSystemStatus();
+            }
+            subscriber.offer(new Frame(EVENT_SNAPSHOT, snapshot, System.nanoTime()));
+            subscribers.add(subscriber);
+        }
+        subscriber.start();
+        log.info("📡 监控推送新增订阅者，当前订阅数: {}", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * 定时采集并广播
+     */
+    @Scheduled(fixedDelayString = "${monitor.stream.interval-ms:2000}")
+    public void tick() {
+        if (subscribers.isEmpty()) {
+            synchronized (publishLock) {
+                if (subscribers.isEmpty()) {
+                    latestSnapshot = null;
+                }
+            }
+            return;
+        }
+
+        // 采集在锁外进行，锁内只做快照切换与入队
+        long start = System.currentTimeMillis();
+        Map<String, Object> snapshot = monitorService.collectSystemStatus();
+        lastCollectMillis = System.currentTimeMillis() - start;
+
+        synchronized (publishLock) {
+            Map<String, Object> previous = latestSnapshot;
+            latestSnapshot = snapshot;
+            ticks.incrementAndGet();
+
+            Map<String, Object> delta = diff(previous, snapshot);
+            if (delta.isEmpty()) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            Frame deltaFrame = new Frame(EVENT_DELTA, delta, now);
+            Frame snapshotFrame = new Frame(EVENT_SNAPSHOT, snapshot, now);
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(deltaFrame)) {
+                    // 消费跟不上：丢弃积压的增量，用一份完整快照替代
+                    droppedFrames.addAndGet(subscriber.resetWith(snapshotFrame));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStreamStats() {
+        long maxLag = 0;
+        long totalLag = 0;
+        int backlog = 0;
+        for (Subscriber subscriber : subscribers) {
+            maxLag = Math.max(maxLag, subscriber.lastLagMicros);
+            totalLag += subscriber.lastLagMicros;
+            backlog += subscriber.queue.size();
+        }
+        int count = subscribers.size();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", count);
+        stats.put("ticks", ticks.get());
+        stats.put("lastCollectMillis", lastCollectMillis);
+        stats.put("maxSendLagMicros", maxLag);
+        stats.put("avgSendLagMicros", count == 0 ? 0 : totalLag / count);
+        stats.put("backlog", backlog);
+        stats.put("droppedFrames", droppedFrames.get());
+        return stats;
+    }
+
+    /**
+     * 计算两份快照间变化的顶层字段
+     */
+    private static Map<String, Object> diff(Map<String, Object> previous, Map<String, Object> current) {
+        if (previous == null) {
+            return current;
+        }
+        Map<String, Object> delta = new LinkedHashMap<>();
+        current.forEach((key, value) -> {
+            if (!Objects.equals(previous.get(key), value)) {
+                delta.put(key, value);
+            }
+        });
+        return delta;
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.stop();
+            log.info("📴 监控推送订阅者断开，当前订阅数: {}", subscribers.size());
+        }
+    }
+
+    /**
+     * 待发送的事件帧
+     *
+     * @param event         事件名
+     * @param data          事件数据
+     * @param enqueuedNanos 入队时间，用于计算发送延迟
+     */
+    private record Frame(String event, Object data, long enqueuedNanos) {
+    }
+
+    /**
+     * 单个订阅者：有界发送队列 + 专属发送线程
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Frame> queue;
+
+        private Thread sender;
+
+        /** 最近一次发送的延迟（微秒） */
+        private volatile long lastLagMicros;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        boolean offer(Frame frame) {
+            return queue.offer(frame);
+        }
+
+        /**
+         * 清空积压并放入一帧完整快照
+         *
+         * @return 被丢弃的帧数
+         */
+        int resetWith(Frame frame) {
+            List<Frame> dropped = new ArrayList<>(queue.size());
+            queue.drainTo(dropped);
+            queue.offer(frame);
+            return dropped.size();
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("monitor-sse-sender").start(this::drain);
+        }
+
+        void stop() {
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Frame frame = queue.take();
+                    emitter.send(SseEmitter.event()
+                            .name(frame.event())
+                            .data(frame.data(), MediaType.APPLICATION_JSON));
+                    lastLagMicros = (System.nanoTime() - frame.enqueuedNanos()) / 1000;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("监控推送发送失败，关闭订阅：{}", e.getMessage());
+                emitter.completeWithError(e);
+                remove(this);
+            }
+        }
+    }
+}
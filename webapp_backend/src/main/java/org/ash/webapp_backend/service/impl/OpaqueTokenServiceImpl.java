@@ -0,0 +1,191 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.instrument.RequestTiming;
+import org.ash.webapp_backend.security.AuthSession;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.RevokedTokenRegistry;
+import org.ash.webapp_backend.security.TokenRejectReason;
+import org.ash.webapp_backend.service.TokenService;
+import org.ash.webapp_backend.session.SessionStore;
+import org.ash.webapp_backend.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 不透明令牌服务实现（auth.token.mode=opaque）
+ *
+ * 令牌为 32 字节随机数的 Base64URL 编码（43 个字符），本身不携带任何信息。
+ * 会话记录（用户名、角色、过期时间）保存在 {@link SessionStore} 中，
+ * 每次请求只需一次会话查询即可还原会话，无需 HMAC 校验与 JSON 解析，请求头也更短。
+ * 同时维护 login:token:{username} -> 当前令牌，用于同一用户再次登录时踢掉旧会话。
+ *
+ * 该模式下 JWT 仍然可用：登录指定 tokenType=jwt 时签发 JWT，JWT 形态的令牌在解析、注销与批量校验时
+ * 委托给 {@link JwtTokenServiceImpl}，需要自行解析令牌的第三方客户端不受影响。
+ * 两种令牌共用同一条登录登记，同一用户任一形式的再次登录都会顶掉之前的会话。
+ *
+ * @author Ash
+ * @date 2025/6/26
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "auth.token.mode", havingValue = "opaque")
+public class OpaqueTokenServiceImpl implements TokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    /** 32 字节 Base64URL 无填充编码后的长度 */
+    private static final int TOKEN_LENGTH = 43;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+    @Resource
+    private SessionStore sessionStore;
+
+    /** JWT 的签发与校验 */
+    @Resource
+    private JwtTokenServiceImpl jwtTokenService;
+
+    /** 无状态注销模式下的本地注销登记表（JWT 用），默认模式下为 null */
+    @Autowired(required = false)
+    private RevokedTokenRegistry revokedTokenRegistry;
+
+    /** 会话有效期 */
+    @Value("${auth.session.ttl:1h}")
+    private Duration sessionTtl;
+
+    @Override
+    public String issueToken(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = encoder.encodeToString(bytes);
+
+        AuthSession session = new AuthSession(user.getUsername(), user.getRole(),
+                System.currentTimeMillis() + sessionTtl.toMillis());
+        String previous = sessionStore.swapLoginToken(user.getUsername(), token, sessionTtl);
+        // 被顶掉的是 JWT 时没有会话记录可删，登录登记已被覆盖，该 JWT 随之失效
+        sessionStore.putSession(token, session, sessionTtl,
+                previous != null && !JwtUtil.isJwtShaped(previous) ? previous : null);
+        return token;
+    }
+
+    @Override
+    public String issueToken(User user, Format format) {
+        return format == Format.JWT ? jwtTokenService.issueToken(user) : issueToken(user);
+    }
+
+    @Override
+    public AuthSession resolve(String token) {
+        if (JwtUtil.isJwtShaped(token)) {
+            return jwtTokenService.resolve(token);
+        }
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            throw InvalidTokenException.of(TokenRejectReason.LENGTH);
+        }
+        if (!isWellFormed(token)) {
+            throw InvalidTokenException.of(TokenRejectReason.ALPHABET);
+        }
+        long start = RequestTiming.start();
+        AuthSession session = sessionStore.getSession(token);
+        RequestTiming.stop(RequestTiming.Stage.SESSION, start);
+        return session;
+    }
+
+    @Override
+    public String revoke(String token) {
+        if (JwtUtil.isJwtShaped(token)) {
+            return jwtTokenService.revoke(token);
+        }
+        String username = sessionStore.removeSession(token);
+        if (username != null) {
+            sessionStore.removeLoginToken(username, token);
+        }
+        return username;
+    }
+
+    /**
+     * 先取出并删除这些用户的登录登记，再删除登记指向的会话记录
+     *
+     * 登记指向 JWT 时删除登记即可使其失效；无状态注销模式下的 JWT 不登记，另行写入注销表。
+     */
+    @Override
+    public long revokeUsers(List<String> usernames) {
+        List<String> tokens = sessionStore.takeLoginTokens(usernames);
+        long revoked = tokens.isEmpty() ? 0 : sessionStore.removeSessions(tokens);
+        if (revokedTokenRegistry != null) {
+            jwtTokenService.revokeUsers(usernames);
+        }
+        return revoked;
+    }
+
+    @Override
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        List<Integer> pending = new ArrayList<>();
+        List<String> candidates = new ArrayList<>();
+        List<Integer> jwtIndexes = new ArrayList<>();
+        List<String> jwts = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (JwtUtil.isJwtShaped(token)) {
+                results.add(null);
+                jwtIndexes.add(i);
+                jwts.add(token);
+            } else if (isWellFormed(token)) {
+                results.add(null);
+                pending.add(i);
+                candidates.add(token);
+            } else {
+                results.add(TokenIntrospection.inactive(TokenIntrospection.Status.INVALID));
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            List<AuthSession> sessions = sessionStore.getSessions(candidates);
+            for (int k = 0; k < candidates.size(); k++) {
+                AuthSession session = sessions.get(k);
+                results.set(pending.get(k), session != null
+                        ? TokenIntrospection.active(session)
+                        : TokenIntrospection.inactive(TokenIntrospection.Status.REVOKED));
+            }
+        }
+        if (!jwts.isEmpty()) {
+            List<TokenIntrospection> jwtResults = jwtTokenService.introspect(jwts);
+            for (int k = 0; k < jwts.size(); k++) {
+                results.set(jwtIndexes.get(k), jwtResults.get(k));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 令牌是否符合签发格式（43 位 Base64URL），不符合的无需查询 Redis
+     */
+    private static boolean isWellFormed(String token) {
+        if (token == null || token.length() != TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            char c = token.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
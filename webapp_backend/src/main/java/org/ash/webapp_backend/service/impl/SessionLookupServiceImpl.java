@@ -0,0 +1,113 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.config.RedisShardRouter;
+import org.ash.webapp_backend.constant.RedisKeys;
+import org.ash.webapp_backend.service.SessionLookupService;
+import org.ash.webapp_backend.session.MgetCoalescer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 会话登记查询服务实现类
+ *
+ * 每个 Redis 分片一个 {@link MgetCoalescer}，读取按用户名路由到分片后进入对应的合并队列。
+ * 未开启合并时（默认）直接逐个 GET，行为与改造前一致；合并会给每次鉴权增加最多 max-wait-micros 的排队延迟，
+ * 只在 Redis 命令数成为瓶颈时开启。
+ *
+ * 调用方等待超时取 Redis 命令超时（spring.data.redis.timeout）加排队余量，
+ * Redis 变慢时由客户端先报告超时，与逐个 GET 的失败方式一致。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Service
+@ConditionalOnProperty(name = "session.store", havingValue = "redis", matchIfMissing = true)
+public class SessionLookupServiceImpl implements SessionLookupService {
+
+    @Resource
+    private RedisShardRouter redisShardRouter;
+
+    /** 排队与分发的等待余量（毫秒），叠加在 Redis 命令超时之上 */
+    private static final long QUEUE_SLACK_MILLIS = 500;
+
+    @Value("${auth.session.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    /** 凑批最长等待时间（微秒） */
+    @Value("${auth.session.coalescing.max-wait-micros:200}")
+    private long maxWaitMicros;
+
+    /** 单条 MGET 最大键数 */
+    @Value("${auth.session.coalescing.max-batch:128}")
+    private int maxBatch;
+
+    /** 每个分片的分发线程数 */
+    @Value("${auth.session.coalescing.dispatchers:2}")
+    private int dispatchers;
+
+    /** 每个分片的等待队列容量，写满后直接逐个 GET */
+    @Value("${auth.session.coalescing.queue-capacity:4096}")
+    private int queueCapacity;
+
+    /** Redis 命令超时，调用方等待超时以此为准 */
+    @Value("${spring.data.redis.timeout:5s}")
+    private Duration redisTimeout;
+
+    /** 分片 -> 合并读取器 */
+    private final Map<RedisTemplate<String, String>, MgetCoalescer> coalescers = new IdentityHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!coalescingEnabled) {
+            return;
+        }
+        long timeoutMillis = redisTimeout.toMillis() + QUEUE_SLACK_MILLIS;
+        List<RedisTemplate<String, String>> nodes = redisShardRouter.nodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            coalescers.put(nodes.get(i),
+                    new MgetCoalescer(nodes.get(i), maxWaitMicros, maxBatch, dispatchers, queueCapacity,
+                            timeoutMillis, "session-mget-" + i));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coalescers.values().forEach(MgetCoalescer::close);
+    }
+
+    @Override
+    public String getLoginToken(String username) {
+        RedisTemplate<String, String> shard = redisShardRouter.forUsername(username);
+        String key = RedisKeys.loginToken(username);
+        MgetCoalescer coalescer = coalescers.get(shard);
+        return coalescer != null ? coalescer.get(key) : shard.opsForValue().get(key);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", coalescingEnabled);
+        stats.put("maxWaitMicros", maxWaitMicros);
+        stats.put("maxBatch", maxBatch);
+        List<RedisTemplate<String, String>> nodes = redisShardRouter.nodes();
+        List<String> names = redisShardRouter.nodeNames();
+        for (int i = 0; i < nodes.size(); i++) {
+            MgetCoalescer coalescer = coalescers.get(nodes.get(i));
+            if (coalescer != null) {
+                stats.put(names.isEmpty() ? "default" : names.get(i), coalescer.stats());
+            }
+        }
+        return stats;
+    }
+}
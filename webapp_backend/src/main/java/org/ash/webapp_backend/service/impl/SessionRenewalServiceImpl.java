@@ -0,0 +1,266 @@
+package org.ash.webapp_backend.service.impl;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.service.SessionRenewalService;
+import org.ash.webapp_backend.session.SessionStore;
+import org.ash.webapp_backend.utils.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 会话滑动过期服务实现类
+ *
+ * - 本节点为每个用户记录已知的登记过期时间：签发时为 iat + auth.session.ttl（由令牌推算，无需额外状态），
+ *   续期后为续期写入的值；跨节点不共享，各节点独立判断
+ * - 剩余有效期不低于 auth.session.sliding.refresh-below 时直接返回，热路径只有一次 ConcurrentHashMap 查询
+ * - 需要续期时以 CAS 更新已知过期时间，同一用户的并发请求只产生一次续期；新的过期时间为
+ *   min(now + ttl, JWT exp)
+ * - 续期请求按用户名合并到待写入表，并带上触发续期的令牌签发时间（iat），每隔
+ *   auth.session.sliding.flush-interval-ms 批量写入，Redis 模式下每个分片一次 MGET 与一次 PEXPIREAT 管道往返
+ * - 写入前先读取当前登记：登记已被删除，或已换成另一次登录签发的令牌（iat 不同）时丢弃该续期，
+ *   旧令牌推算的过期时间不会缩短或延长新登录的登记
+ * - 写入失败时放回待写入表，下个周期重试；已注销的登记不会被续期复活
+ *
+ * 以默认配置（ttl 1h，阈值 30m）计，一个持续活跃的用户在每个节点上每 30 分钟最多产生一次 Redis 写入。
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+@Service
+public class SessionRenewalServiceImpl implements SessionRenewalService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionRenewalServiceImpl.class);
+
+    /** 每隔多少个写入周期清理一次本地已过期的跟踪记录 */
+    private static final int SWEEP_EVERY_FLUSHES = 60;
+
+    @Resource
+    private SessionStore sessionStore;
+
+    /** 是否启用滑动过期 */
+    @Value("${auth.session.sliding.enabled:true}")
+    private boolean enabled;
+
+    /** 会话登记的有效期，与签发时一致 */
+    @Value("${auth.session.ttl:1h}")
+    private Duration sessionTtl;
+
+    /** 剩余有效期低于该值时续期 */
+    @Value("${auth.session.sliding.refresh-below:30m}")
+    private Duration refreshBelow;
+
+    /** 单批写入的最大登记数 */
+    @Value("${auth.session.sliding.batch-size:500}")
+    private int batchSize;
+
+    /** 用户名 -> 本节点已知的登记过期时间 */
+    private final ConcurrentHashMap<String, Long> knownExpiry = new ConcurrentHashMap<>();
+
+    /** 用户名 -> 尚未写入的续期 */
+    private final ConcurrentHashMap<String, PendingRenewal> pending = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    private final LongAdder accesses = new LongAdder();
+
+    private final LongAdder renewals = new LongAdder();
+
+    private final LongAdder writtenRenewals = new LongAdder();
+
+    private final LongAdder staleRenewals = new LongAdder();
+
+    private final LongAdder failedFlushes = new LongAdder();
+
+    private final AtomicLong lastFlushAt = new AtomicLong();
+
+    private long flushes;
+
+    /**
+     * 待写入的续期
+     *
+     * @param issuedAtMillis 触发续期的令牌签发时间，写入前与当前登记的令牌比对
+     * @param expireAtMillis 新的过期时间
+     */
+    private record PendingRenewal(long issuedAtMillis, long expireAtMillis) {
+
+        /**
+         * 合并同一用户的两次续期：签发时间较新的登录优先，同一次登录取较晚的过期时间
+         */
+        static PendingRenewal merge(PendingRenewal a, PendingRenewal b) {
+            if (a.issuedAtMillis != b.issuedAtMillis) {
+                return a.issuedAtMillis > b.issuedAtMillis ? a : b;
+            }
+            return a.expireAtMillis >= b.expireAtMillis ? a : b;
+        }
+    }
+
+    @Override
+    public void onAccess(String username, long issuedAtMillis, long tokenExpiresAtMillis) {
+        if (!enabled) {
+            return;
+        }
+        accesses.increment();
+        long now = System.currentTimeMillis();
+        long ttl = sessionTtl.toMillis();
+        Long known = knownExpiry.get(username);
+        // 同一用户重新登录后登记被新令牌覆盖，签发推算值更大，取两者较大者
+        long expiry = known == null ? issuedAtMillis + ttl : Math.max(known, issuedAtMillis + ttl);
+        if (expiry - now >= refreshBelow.toMillis()) {
+            return;
+        }
+        long renewed = Math.min(now + ttl, tokenExpiresAtMillis);
+        if (renewed <= expiry) {
+            // 已到令牌过期上限，无需续期
+            return;
+        }
+        boolean claimed = known == null
+                ? knownExpiry.putIfAbsent(username, renewed) == null
+                : knownExpiry.replace(username, known, renewed);
+        if (!claimed) {
+            // 并发请求已完成本次续期
+            return;
+        }
+        pending.merge(username, new PendingRenewal(issuedAtMillis, renewed), PendingRenewal::merge);
+        renewals.increment();
+    }
+
+    /**
+     * 定时写入
+     */
+    @Scheduled(fixedDelayString = "${auth.session.sliding.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            if (++flushes % SWEEP_EVERY_FLUSHES == 0) {
+                long now = System.currentTimeMillis();
+                knownExpiry.values().removeIf(expiry -> expiry <= now);
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> usernames = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < usernames.size(); from += batchSize) {
+                flushBatch(usernames.subList(from, Math.min(from + batchSize, usernames.size())));
+            }
+        }
+    }
+
+    private void flushBatch(List<String> usernames) {
+        Map<String, PendingRenewal> batch = new LinkedHashMap<>(usernames.size() * 2);
+        for (String username : usernames) {
+            PendingRenewal renewal = pending.remove(username);
+            if (renewal != null) {
+                batch.put(username, renewal);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Map<String, Long> expireAt = currentRegistrations(batch);
+            if (!expireAt.isEmpty()) {
+                sessionStore.expireLoginTokens(expireAt);
+            }
+            flushLatency.record(System.nanoTime() - start, false);
+            writtenRenewals.add(expireAt.size());
+            lastFlushAt.set(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            flushLatency.record(System.nanoTime() - start, true);
+            failedFlushes.increment();
+            // 放回待写入表，与期间新产生的续期合并，下个周期重试
+            batch.forEach((username, renewal) -> pending.merge(username, renewal, PendingRenewal::merge));
+            log.error("💥 会话续期写入失败，{} 个登记将在下个周期重试: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 只保留登记仍是同一次登录的续期
+     *
+     * 登记已被删除（登出、管理员撤销、过期），或被重新登录签发的令牌覆盖时，该续期作废。
+     * 登记的令牌由本服务签发，只读取载荷中的 iat，不再验签。
+     *
+     * @return 用户名 -> 新的过期时间
+     */
+    private Map<String, Long> currentRegistrations(Map<String, PendingRenewal> batch) {
+        List<String> usernames = new ArrayList<>(batch.keySet());
+        List<String> registered = sessionStore.getLoginTokens(usernames);
+        Map<String, Long> expireAt = new HashMap<>(usernames.size() * 2);
+        for (int i = 0; i < usernames.size(); i++) {
+            PendingRenewal renewal = batch.get(usernames.get(i));
+            if (issuedAtOf(registered.get(i)) == renewal.issuedAtMillis()) {
+                expireAt.put(usernames.get(i), renewal.expireAtMillis());
+            } else {
+                staleRenewals.increment();
+            }
+        }
+        return expireAt;
+    }
+
+    /**
+     * 登记令牌的签发时间；登记不存在或不是 JWT 时返回 -1
+     */
+    private static long issuedAtOf(String token) {
+        if (token == null) {
+            return -1;
+        }
+        try {
+            Date issuedAt = JWT.decode(token).getIssuedAt();
+            return issuedAt == null ? -1 : issuedAt.getTime();
+        } catch (JWTDecodeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 应用关闭时同步写入剩余续期
+     */
+    @PreDestroy
+    public void drain() {
+        int remaining = pending.size();
+        flush();
+        log.info("⏳ 会话续期已写入，关闭前写入 {} 个登记，剩余 {}", remaining, pending.size());
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttlMs", sessionTtl.toMillis());
+        stats.put("refreshBelowMs", refreshBelow.toMillis());
+        stats.put("trackedSessions", knownExpiry.size());
+        stats.put("pending", pending.size());
+        stats.put("accesses", accesses.sum());
+        stats.put("renewals", renewals.sum());
+        stats.put("writtenRenewals", writtenRenewals.sum());
+        stats.put("staleRenewals", staleRenewals.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("lastFlushAt", lastFlushAt.get());
+        stats.put("flushLatency", flushLatency.snapshot());
+        return stats;
+    }
+}
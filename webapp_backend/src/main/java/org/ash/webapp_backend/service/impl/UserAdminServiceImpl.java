@@ -0,0 +1,176 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.common.CursorPage;
+import org.ash.webapp_backend.dto.BulkUserRequest;
+import org.ash.webapp_backend.dto.BulkUserResult;
+import org.ash.webapp_backend.dto.UserSummary;
+import org.ash.webapp_backend.repository.UserRepository;
+import org.ash.webapp_backend.service.TokenService;
+import org.ash.webapp_backend.service.UserAdminService;
+import org.ash.webapp_backend.service.UserStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管理后台用户管理服务实现类
+ *
+ * 游标分页实现方式：多查询一条记录判断是否还有下一页，
+ * 下一页游标取本页最后一条记录的 ID。
+ *
+ * 批量操作实现方式：
+ * - 目标 ID 去重后按 admin.bulk.chunk-size 分块，每块一个短事务，避免长事务持有大量行锁
+ * - 块内先 SELECT ... FOR UPDATE 取出尚未处于目标状态的用户名，再对这些 ID 执行一条 UPDATE，
+ *   已处于目标状态的用户既不写库也不注销会话
+ * - 事务提交后将本块用户名交给 TokenService.revokeUsers，每个 Redis 分片一次往返删除会话，
+ *   并按本块的变更调整 UserStatsService 计数器（变更角色时按加锁读取到的原角色扣减）
+ * - 会话注销失败（如 Redis 不可用）不回滚已提交的块，也不中断后续块，失败的用户数计入 revokeFailedUsers；
+ *   重试同一请求时这些用户已处于目标状态，不会再次注销，需等待会话自然过期或由用户登出
+ *
+ * @author Ash
+ * @date 2025/6/22
+ */
+@Service
+public class UserAdminServiceImpl implements UserAdminService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAdminServiceImpl.class);
+
+    /** 每页最大条数 */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Resource
+    private UserRepository userRepository;
+
+    @Resource
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private TokenService tokenService;
+
+    @Resource
+    private UserStatsService userStatsService;
+
+    /** 批量操作每个事务处理的用户数 */
+    @Value("${admin.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 一块内实际发生变更的用户
+     *
+     * @param usernames     用户名
+     * @param previousRoles 原角色 -> 用户数（仅变更角色时填充）
+     */
+    private record ChunkChange(List<String> usernames, Map<String, Long> previousRoles) {
+    }
+
+    @Override
+    public CursorPage<UserSummary> listUsers(Long afterId, int size, String role, Boolean enabled) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long cursor = afterId == null ? 0L : afterId;
+
+        List<UserSummary> rows = userRepository.findSummariesAfter(cursor, role, enabled, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    public BulkUserResult bulkUpdate(BulkUserRequest request) {
+        long start = System.nanoTime();
+        BulkUserRequest.Action action = request.getAction();
+        List<Long> ids = request.getIds().stream().distinct().toList();
+
+        int updated = 0;
+        long revoked = 0;
+        int revokeFailed = 0;
+        int chunks = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            ChunkChange change = transactionTemplate.execute(status -> applyChunk(action, chunk, request.getRole()));
+            chunks++;
+            if (change == null || change.usernames().isEmpty()) {
+                continue;
+            }
+            List<String> changed = change.usernames();
+            updated += changed.size();
+            if (action == BulkUserRequest.Action.SET_ROLE) {
+                userStatsService.onRoleChanged(change.previousRoles(), request.getRole(), changed.size());
+            } else {
+                userStatsService.onEnabledChanged(action == BulkUserRequest.Action.ENABLE, changed.size());
+            }
+            // 启用前账号无法登录，不存在需要注销的会话
+            if (action != BulkUserRequest.Action.ENABLE) {
+                try {
+                    revoked += tokenService.revokeUsers(changed);
+                } catch (RuntimeException e) {
+                    revokeFailed += changed.size();
+                    log.error("💥 批量用户操作 {} 第 {} 块会话注销失败，{} 个用户的会话仍有效: {}",
+                            action, chunks, changed.size(), e.getMessage());
+                }
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("🛠️ 批量用户操作 {} 完成：请求 {} 个，变更 {} 个，注销会话 {} 个，注销失败 {} 个，{} 个事务，耗时 {}ms",
+                action, ids.size(), updated, revoked, revokeFailed, chunks, elapsedMillis);
+        return new BulkUserResult(action, ids.size(), updated, revoked, revokeFailed, chunks, elapsedMillis);
+    }
+
+    /**
+     * 在当前事务内变更一块用户
+     *
+     * @return 实际发生变更的用户名及其原角色分布
+     */
+    private ChunkChange applyChunk(BulkUserRequest.Action action, List<Long> ids, String role) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        String pending;
+        String update;
+        switch (action) {
+            case ENABLE, DISABLE -> {
+                params.addValue("enabled", action == BulkUserRequest.Action.ENABLE);
+                pending = "enabled <> :enabled";
+                update = "UPDATE users SET enabled = :enabled WHERE id IN (:changed)";
+            }
+            case SET_ROLE -> {
+                params.addValue("role", role);
+                pending = "(role IS NULL OR role <> :role)";
+                update = "UPDATE users SET role = :role WHERE id IN (:changed)";
+            }
+            default -> throw new IllegalArgumentException("未知的批量操作：" + action);
+        }
+
+        List<Long> changedIds = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
+        Map<String, Long> previousRoles = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, username, role FROM users WHERE id IN (:ids) AND " + pending + " FOR UPDATE",
+                params, rs -> {
+                    changedIds.add(rs.getLong(1));
+                    usernames.add(rs.getString(2));
+                    String previousRole = rs.getString(3);
+                    if (previousRole != null) {
+                        previousRoles.merge(previousRole, 1L, Long::sum);
+                    }
+                });
+        if (!changedIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(update, params.addValue("changed", changedIds));
+        }
+        return new ChunkChange(usernames, previousRoles);
+    }
+}
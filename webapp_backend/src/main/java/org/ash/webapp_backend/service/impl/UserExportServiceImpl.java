@@ -0,0 +1,201 @@
+package org.ash.webapp_backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.service.UserExportService;
+import org.ash.webapp_backend.utils.JdbcStreaming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 用户数据导出服务实现类
+ *
+ * 实现要点：
+ * - 直接使用 JDBC 读取，不经过 JPA，实体不会进入持久化上下文
+ * - 语句由 {@link JdbcStreaming} 创建：MySQL 下逐行流式读取，不把整个结果集缓存在内存中；
+ *   其他驱动按 export.fetch-size 分批拉取
+ * - NDJSON 使用 Jackson 流式 JsonGenerator 逐行写出，CSV 手写转义，均不构造中间对象
+ * - 每写出 export.flush-rows 行主动 flush 一次，客户端能持续收到数据
+ * - 客户端断开时 flush 抛出异常，此时先对语句调用 cancel() 让数据库停止执行，再关闭游标：
+ *   MySQL 流式结果集关闭时驱动会读完并丢弃剩余的所有行，不先取消时被放弃的导出会一直占用连接与数据库，直到整表读完
+ *
+ * @author Ash
+ * @date 2025/6/23
+ */
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserExportServiceImpl.class);
+
+    private static final String EXPORT_SQL = "SELECT id, username, role, enabled FROM users ORDER BY id";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /** 非 MySQL 驱动下游标每次从数据库拉取的行数 */
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    /** 每写出多少行 flush 一次响应 */
+    @Value("${export.flush-rows:1000}")
+    private int flushRows;
+
+    @Override
+    public long exportUsers(Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] rows = {0};
+        PreparedStatement[] statement = new PreparedStatement[1];
+
+        try {
+            writer.begin();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = JdbcStreaming.prepare(con, EXPORT_SQL, fetchSize);
+                statement[0] = ps;
+                return ps;
+            }, rs -> {
+                try {
+                    writer.write(rs);
+                    if (++rows[0] % flushRows == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    // 必须在 JdbcTemplate 关闭结果集之前取消，否则关闭时会先把剩余的行全部读完
+                    cancel(statement[0]);
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            log.warn("⚠️ 用户导出中断，已写出 {} 行：{}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        log.info("📤 用户导出完成，格式: {}，行数: {}，耗时: {}ms", format, rows[0], System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    /**
+     * 请求数据库停止执行导出查询，失败只记录日志，不掩盖客户端断开的原始异常
+     */
+    private static void cancel(PreparedStatement ps) {
+        try {
+            ps.cancel();
+        } catch (SQLException e) {
+            log.warn("⚠️ 取消导出查询失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 单行写出器，避免在循环内判断格式
+     */
+    private interface RowWriter {
+
+        void begin() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * NDJSON 写出器：每行一个 JSON 对象
+     */
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong(1));
+            generator.writeStringField("username", rs.getString(2));
+            generator.writeStringField("role", rs.getString(3));
+            generator.writeBooleanField("enabled", rs.getBoolean(4));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * CSV 写出器：首行为表头，字段按 RFC 4180 转义
+     */
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write("id,username,role,enabled\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writeField(rs.getString(2));
+            writer.write(',');
+            writeField(rs.getString(3));
+            writer.write(',');
+            writer.write(rs.getBoolean(4) ? "true" : "false");
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
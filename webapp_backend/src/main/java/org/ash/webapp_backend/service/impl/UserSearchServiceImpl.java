@@ -0,0 +1,217 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.dto.UsernameSuggestion;
+import org.ash.webapp_backend.repository.UserRepository;
+import org.ash.webapp_backend.service.UserSearchService;
+import org.ash.webapp_backend.utils.JdbcStreaming;
+import org.ash.webapp_backend.utils.UsernamePrefixIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户名联想搜索服务实现类
+ *
+ * - 应用就绪后在后台虚拟线程中流式读取 users 表（id, username），构建 {@link UsernamePrefixIndex}；
+ *   语句由 {@link JdbcStreaming} 创建，MySQL 下逐行读取，不会在构建前把整张表读入堆内存
+ * - 构建期间注册的用户先暂存，构建完成后补入索引；之后注册的用户直接写入索引的增量表
+ * - 增量表超过 search.index.compact-threshold 时合并为新的主体数组并整体替换引用
+ * - 构建期间扫描到的用户与暂存的用户可能重复，查询时按 ID 去重
+ * - 索引未就绪时回退到数据库前缀查询
+ *
+ * 索引是每个节点各自的内存副本，onUserCreated 只会收到本节点的注册。多节点部署时，
+ * 每隔 search.index.refresh-interval-ms 按 ID 增量扫描一次（id 大于上次扫描到的最大 ID），
+ * 补入其他节点注册的用户；本节点已写入的用户会再次出现在扫描结果中，由索引按 用户名 + ID 去重。
+ * 用户名不可修改、用户不会被删除，因此增量扫描足以让各节点的索引在一个刷新周期内一致。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Service
+public class UserSearchServiceImpl implements UserSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchServiceImpl.class);
+
+    private static final String SCAN_SQL = "SELECT id, username FROM users";
+
+    private static final String REFRESH_SQL = "SELECT id, username FROM users WHERE id > ? ORDER BY id";
+
+    private static final int MAX_LIMIT = 50;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private UserRepository userRepository;
+
+    /** 非 MySQL 驱动下构建索引时每次拉取的行数 */
+    @Value("${search.index.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${search.index.enabled:true}")
+    private boolean indexEnabled;
+
+    /** 增量表达到该大小时合并进主体数组 */
+    @Value("${search.index.compact-threshold:10000}")
+    private int compactThreshold;
+
+    /** 当前索引，构建完成前为 null */
+    private volatile UsernamePrefixIndex index;
+
+    /** 索引构建期间注册的用户（由 this 锁保护） */
+    private final List<UsernameSuggestion> createdDuringBuild = new ArrayList<>();
+
+    private volatile long buildMillis = -1;
+
+    /** 构建与增量扫描读到的最大用户 ID（由 this 锁保护） */
+    private long scannedMaxId;
+
+    private volatile long lastRefreshAdded;
+
+    /**
+     * 应用就绪后在后台构建索引，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexAsync() {
+        if (indexEnabled) {
+            Thread.ofVirtual().name("username-index-build").start(this::buildIndex);
+        }
+    }
+
+    private void buildIndex() {
+        long start = System.currentTimeMillis();
+        try {
+            UsernamePrefixIndex.Builder builder = UsernamePrefixIndex.builder(1024);
+            long[] maxId = {0};
+            jdbcTemplate.query(con -> JdbcStreaming.prepare(con, SCAN_SQL, fetchSize), rs -> {
+                long id = rs.getLong(1);
+                builder.add(id, rs.getString(2));
+                maxId[0] = Math.max(maxId[0], id);
+            });
+            UsernamePrefixIndex built = builder.build();
+
+            synchronized (this) {
+                createdDuringBuild.forEach(user -> built.add(user.getId(), user.getUsername()));
+                createdDuringBuild.clear();
+                scannedMaxId = maxId[0];
+                index = built;
+            }
+            buildMillis = System.currentTimeMillis() - start;
+            log.info("🔎 用户名前缀索引构建完成：{} 个用户，耗时 {}ms，内存 {}",
+                    built.size(), buildMillis, built.memoryStats().get("arrayBytes"));
+        } catch (Exception e) {
+            log.error("💥 用户名前缀索引构建失败，继续使用数据库查询: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时补入其他节点注册的用户
+     */
+    @Scheduled(initialDelayString = "${search.index.refresh-interval-ms:30000}",
+            fixedDelayString = "${search.index.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (index == null) {
+            return;
+        }
+        long afterId;
+        synchronized (this) {
+            afterId = scannedMaxId;
+        }
+        List<UsernameSuggestion> created = new ArrayList<>();
+        try {
+            jdbcTemplate.query(REFRESH_SQL, rs -> {
+                created.add(new UsernameSuggestion(rs.getLong(1), rs.getString(2)));
+            }, afterId);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ 用户名前缀索引增量扫描失败，下个周期重试: {}", e.getMessage());
+            return;
+        }
+        if (created.isEmpty()) {
+            lastRefreshAdded = 0;
+            return;
+        }
+        synchronized (this) {
+            for (UsernameSuggestion user : created) {
+                addToIndex(user.getId(), user.getUsername());
+                scannedMaxId = Math.max(scannedMaxId, user.getId());
+            }
+        }
+        lastRefreshAdded = created.size();
+        log.debug("🔎 用户名前缀索引增量扫描：{} 个用户", created.size());
+    }
+
+    @Override
+    public List<UsernameSuggestion> searchByPrefix(String prefix, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        UsernamePrefixIndex current = index;
+        if (current == null) {
+            return userRepository.findSuggestionsByPrefix(escapeLike(prefix), Limit.of(size));
+        }
+        List<UsernamePrefixIndex.Match> matches = current.search(prefix, size);
+        List<UsernameSuggestion> result = new ArrayList<>(matches.size());
+        for (UsernamePrefixIndex.Match match : matches) {
+            result.add(new UsernameSuggestion(match.id(), match.username()));
+        }
+        return result;
+    }
+
+    /**
+     * 注册频率受限于密码哈希，远低于查询频率，因此新增与合并直接串行执行；查询始终无锁
+     */
+    @Override
+    public synchronized void onUserCreated(long id, String username) {
+        UsernamePrefixIndex current = index;
+        if (current == null) {
+            if (indexEnabled) {
+                createdDuringBuild.add(new UsernameSuggestion(id, username));
+            }
+            return;
+        }
+        addToIndex(id, username);
+    }
+
+    /**
+     * 写入增量表，达到阈值时合并；调用方持有 this 锁
+     */
+    private void addToIndex(long id, String username) {
+        UsernamePrefixIndex current = index;
+        current.add(id, username);
+        if (current.deltaSize() >= compactThreshold) {
+            UsernamePrefixIndex compacted = current.compact();
+            index = compacted;
+            log.info("🔎 用户名前缀索引增量合并完成：{} 个用户", compacted.size());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getIndexStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        UsernamePrefixIndex current = index;
+        stats.put("ready", current != null);
+        stats.put("buildMillis", buildMillis);
+        stats.put("lastRefreshAdded", lastRefreshAdded);
+        if (current != null) {
+            stats.putAll(current.memoryStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 转义 LIKE 通配符（转义字符为 !）
+     */
+    private static String escapeLike(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
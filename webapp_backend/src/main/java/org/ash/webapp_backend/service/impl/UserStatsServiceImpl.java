@@ -0,0 +1,308 @@
+package org.ash.webapp_backend.service.impl;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.constant.RedisKeys;
+import org.ash.webapp_backend.dto.UserStats;
+import org.ash.webapp_backend.service.UserStatsService;
+import org.ash.webapp_backend.utils.RateLimitedLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户统计服务实现类（增量计数器）
+ *
+ * 计数器字段：total、enabled、disabled、role:{角色}、daily:{yyyy-MM-dd}、rebuiltAt。
+ *
+ * - session.store=redis（默认）：计数器为全局 Hash stats:users，多节点共享；
+ *   增量通过 Lua 脚本在一次调用内原子地执行多条 HINCRBY，计数器不存在时不累加，避免生成残缺的 Hash
+ * - session.store=embedded：不依赖 Redis，计数器保存在本进程内存中
+ *
+ * 重建：应用就绪后与每隔 stats.users.rebuild-interval-ms 各执行一次，对 users 表执行两条 GROUP BY，
+ * 结果写入临时键后 RENAME 覆盖正式键，读取方不会看到写了一半的计数器；多节点通过 SET NX 锁只由一个节点重建，
+ * 锁的值为本次重建的随机令牌，释放时用 Lua 脚本比对后删除，重建超过锁有效期时不会误删其他节点的锁。
+ * 定时重建运行在 spring.task.scheduling 线程池中，不会推迟同一调度器上的会话续期与登录统计回写。
+ * 重建查询与 RENAME 之间发生的增量会被覆盖，偏差留到下一次重建修正。
+ *
+ * 计数器更新失败不影响注册与批量操作本身，只记录限频日志。
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+@Service
+public class UserStatsServiceImpl implements UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsServiceImpl.class);
+
+    private static final RateLimitedLogger failureLog = new RateLimitedLogger(log, 10_000);
+
+    private static final String FIELD_TOTAL = "total";
+
+    private static final String FIELD_ENABLED = "enabled";
+
+    private static final String FIELD_DISABLED = "disabled";
+
+    private static final String FIELD_REBUILT_AT = "rebuiltAt";
+
+    private static final String ROLE_PREFIX = "role:";
+
+    private static final String DAILY_PREFIX = "daily:";
+
+    /** 重建锁的有效期，重建节点异常退出时锁自动释放 */
+    private static final Duration REBUILD_LOCK_TTL = Duration.ofMinutes(1);
+
+    /** KEYS[1] 为计数器，ARGV 为 字段, 增量 交替排列；计数器不存在时返回 0 且不做任何修改 */
+    private static final RedisScript<Long> INCREMENT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            for i = 1, #ARGV, 2 do
+                redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            return 1
+            """, Long.class);
+
+    /** KEYS[1] 为重建锁，ARGV[1] 为加锁时写入的令牌；仍是本节点的锁时才删除 */
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    /** 会话存储类型：redis / embedded，embedded 模式下计数器保存在内存中 */
+    @Value("${session.store:redis}")
+    private String sessionStoreType;
+
+    /** 每日注册数保留的天数 */
+    @Value("${stats.users.daily-days:30}")
+    private int dailyDays;
+
+    /** 内存计数器，重建时整体替换；重建前为 null */
+    private volatile ConcurrentHashMap<String, Long> localCounters;
+
+    private final Object rebuildLock = new Object();
+
+    @Override
+    public void onUserCreated(String role, boolean enabled) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        deltas.put(FIELD_TOTAL, 1L);
+        deltas.put(enabled ? FIELD_ENABLED : FIELD_DISABLED, 1L);
+        if (role != null) {
+            deltas.put(ROLE_PREFIX + role, 1L);
+        }
+        deltas.put(DAILY_PREFIX + LocalDate.now(), 1L);
+        increment(deltas);
+    }
+
+    @Override
+    public void onEnabledChanged(boolean enabled, int count) {
+        if (count <= 0) {
+            return;
+        }
+        long delta = enabled ? count : -count;
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        deltas.put(FIELD_ENABLED, delta);
+        deltas.put(FIELD_DISABLED, -delta);
+        increment(deltas);
+    }
+
+    @Override
+    public void onRoleChanged(Map<String, Long> previousRoles, String newRole, int count) {
+        if (count <= 0) {
+            return;
+        }
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        previousRoles.forEach((role, n) -> deltas.merge(ROLE_PREFIX + role, -n, Long::sum));
+        deltas.merge(ROLE_PREFIX + newRole, (long) count, Long::sum);
+        increment(deltas);
+    }
+
+    private void increment(Map<String, Long> deltas) {
+        if (isEmbedded()) {
+            ConcurrentHashMap<String, Long> counters = localCounters;
+            if (counters != null) {
+                deltas.forEach((field, delta) -> counters.merge(field, delta, Long::sum));
+            }
+            return;
+        }
+
+        Object[] args = new Object[deltas.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            args[i++] = delta.getKey();
+            args[i++] = Long.toString(delta.getValue());
+        }
+        try {
+            redisTemplate.execute(INCREMENT, List.of(RedisKeys.userStats()), args);
+        } catch (RuntimeException e) {
+            failureLog.warn("⚠️ 用户统计计数器更新失败，偏差将在下次重建时修正: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public UserStats getStats() {
+        Map<String, Long> counters = readCounters();
+        if (counters == null) {
+            rebuild();
+            counters = readCounters();
+        }
+        return toStats(counters == null ? Map.of() : counters);
+    }
+
+    private Map<String, Long> readCounters() {
+        if (isEmbedded()) {
+            return localCounters;
+        }
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(RedisKeys.userStats());
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Map<String, Long> counters = new HashMap<>(entries.size() * 2);
+        entries.forEach((field, value) -> counters.put((String) field, Long.parseLong((String) value)));
+        return counters;
+    }
+
+    private UserStats toStats(Map<String, Long> counters) {
+        String firstDay = LocalDate.now().minusDays(dailyDays - 1L).toString();
+        Map<String, Long> byRole = new TreeMap<>();
+        Map<String, Long> perDay = new TreeMap<>();
+        counters.forEach((field, value) -> {
+            if (field.startsWith(ROLE_PREFIX)) {
+                if (value != 0) {
+                    byRole.put(field.substring(ROLE_PREFIX.length()), value);
+                }
+            } else if (field.startsWith(DAILY_PREFIX)) {
+                // yyyy-MM-dd 的字典序即日期顺序；超出保留天数的字段在下次重建时清除
+                String day = field.substring(DAILY_PREFIX.length());
+                if (day.compareTo(firstDay) >= 0) {
+                    perDay.put(day, value);
+                }
+            }
+        });
+        return new UserStats(
+                counters.getOrDefault(FIELD_TOTAL, 0L),
+                counters.getOrDefault(FIELD_ENABLED, 0L),
+                counters.getOrDefault(FIELD_DISABLED, 0L),
+                byRole,
+                perDay,
+                counters.getOrDefault(FIELD_REBUILT_AT, 0L),
+                isEmbedded() ? "memory" : "redis");
+    }
+
+    /**
+     * 应用就绪后在后台首次重建，不阻塞启动
+     *
+     * 重建在 synchronized 块内执行阻塞 JDBC，虚拟线程会钉住载体线程，因此使用平台线程。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAsync() {
+        Thread.ofPlatform().daemon().name("user-stats-rebuild").start(this::scheduledRebuild);
+    }
+
+    /**
+     * 定时重建
+     */
+    @Scheduled(initialDelayString = "${stats.users.rebuild-interval-ms:600000}",
+            fixedDelayString = "${stats.users.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("💥 用户统计重建失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            if (isEmbedded()) {
+                localCounters = new ConcurrentHashMap<>(loadFromDatabase());
+                return;
+            }
+
+            String lockKey = RedisKeys.userStatsRebuildLock();
+            String lockToken = UUID.randomUUID().toString();
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, lockToken, REBUILD_LOCK_TTL))) {
+                log.debug("⏭️ 其他节点正在重建用户统计，跳过本次重建");
+                return;
+            }
+            try {
+                Map<String, String> hash = new HashMap<>();
+                loadFromDatabase().forEach((field, value) -> hash.put(field, Long.toString(value)));
+                String tempKey = RedisKeys.userStatsRebuild();
+                redisTemplate.delete(tempKey);
+                redisTemplate.opsForHash().putAll(tempKey, hash);
+                redisTemplate.rename(tempKey, RedisKeys.userStats());
+            } finally {
+                Long released = redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), lockToken);
+                if (released == null || released == 0) {
+                    log.warn("⚠️ 用户统计重建耗时超过锁有效期 {}，锁已过期或被其他节点持有", REBUILD_LOCK_TTL);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从 users 表统计全部计数器
+     */
+    private Map<String, Long> loadFromDatabase() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> counters = new HashMap<>();
+        counters.put(FIELD_TOTAL, 0L);
+        counters.put(FIELD_ENABLED, 0L);
+        counters.put(FIELD_DISABLED, 0L);
+        jdbcTemplate.query("SELECT role, enabled, COUNT(*) FROM users GROUP BY role, enabled", rs -> {
+            String role = rs.getString(1);
+            long count = rs.getLong(3);
+            counters.merge(FIELD_TOTAL, count, Long::sum);
+            counters.merge(rs.getBoolean(2) ? FIELD_ENABLED : FIELD_DISABLED, count, Long::sum);
+            if (role != null) {
+                counters.merge(ROLE_PREFIX + role, count, Long::sum);
+            }
+        });
+
+        LocalDate firstDay = LocalDate.now().minusDays(dailyDays - 1L);
+        jdbcTemplate.query("SELECT CAST(created_at AS DATE), COUNT(*) FROM users WHERE created_at >= ? "
+                        + "GROUP BY CAST(created_at AS DATE)",
+                rs -> {
+                    counters.put(DAILY_PREFIX + rs.getDate(1).toLocalDate(), rs.getLong(2));
+                },
+                Timestamp.valueOf(firstDay.atStartOfDay()));
+
+        long now = System.currentTimeMillis();
+        counters.put(FIELD_REBUILT_AT, now);
+        log.info("📊 用户统计已重建：共 {} 个用户，{} 个计数器，耗时 {}ms",
+                counters.get(FIELD_TOTAL), counters.size(), now - start);
+        return counters;
+    }
+
+    private boolean isEmbedded() {
+        return "embedded".equals(sessionStoreType);
+    }
+}
@@ -0,0 +1,493 @@
+package org.ash.webapp_backend.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * 基于内存映射文件的定长槽位哈希表（字符串键值，按条目过期）
+ *
+ * 数据全部位于映射文件的页缓存中，不占用 Java 堆，GC 完全感知不到；进程重启后重新映射同一文件即可恢复。
+ *
+ * 文件布局：
+ * - 64 字节文件头：魔数、版本、槽位大小、每桶槽位数、桶数
+ * - 之后为 桶数 × 每桶槽位数 个定长槽位，槽位结构：
+ *   [过期时间 long，0 表示空槽][键哈希 int][键长度 short][值长度 short][键字节][值字节]
+ *
+ * 查找方式：每个键有两个候选桶（由同一哈希值的两种扰动得到），只在这两个桶的 8 个槽位中线性比较。
+ * 新键写入空闲槽位较多的候选桶（two-choice），负载 50% 时桶溢出的概率可忽略；
+ * 两个桶都满时优先复用已过期的槽位，否则淘汰最早过期的条目（计入 evictions）。
+ *
+ * 并发模型：桶按下标映射到固定数量的 {@link StampedLock} 分段锁，两个候选桶的锁按分段下标顺序获取。
+ * 读取先走乐观读，拷出数据后校验版本戳，期间有写入才退化为读锁重试；写入持有分段写锁。
+ * 乐观读期间可能读到正在写入的槽位，长度字段会先做越界裁剪，校验失败的结果直接丢弃。
+ *
+ * 写入顺序：先把过期时间清零使槽位失效，再写键、值与长度，最后写入过期时间。
+ * 覆盖已有键时也是如此，进程在写入中途崩溃后，重新映射看到的要么是完整的新条目，
+ * 要么是空槽（该键丢失，相当于会话过期），不会把旧的过期时间与写了一半的新值拼成一个“有效”条目。
+ *
+ * 同一文件只允许一个进程打开（文件锁），不支持多进程共享。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+public final class MappedHashTable implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedHashTable.class);
+
+    private static final int MAGIC = 0x53455353;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+
+    private static final int BUCKET_SLOTS = 8;
+
+    private static final int OFF_EXPIRE = 0;
+
+    private static final int OFF_HASH = 8;
+
+    private static final int OFF_KEY_LEN = 12;
+
+    private static final int OFF_VALUE_LEN = 14;
+
+    private static final int OFF_DATA = 16;
+
+    /** 分段锁数量（2 的幂） */
+    private static final int STRIPES = 256;
+
+    private final FileChannel channel;
+
+    private final FileLock fileLock;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slotBytes;
+
+    private final int buckets;
+
+    private final StampedLock[] locks = new StampedLock[STRIPES];
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder optimisticRetries = new LongAdder();
+
+    /**
+     * 打开（不存在时创建）映射文件
+     *
+     * 已有文件的槽位大小或容量与配置不一致时，原有数据作废并按新配置重建。
+     *
+     * @param path      映射文件路径
+     * @param capacity  最大条目数，向上取整到 8 的倍数
+     * @param slotBytes 单个槽位字节数，键与值的 UTF-8 编码总长不能超过 slotBytes - 16
+     * @throws IOException 文件无法创建、映射或已被其他进程占用
+     */
+    public MappedHashTable(Path path, int capacity, int slotBytes) throws IOException {
+        if (slotBytes <= OFF_DATA || slotBytes > OFF_DATA + 0xFFFF) {
+            throw new IllegalArgumentException("槽位大小非法：" + slotBytes);
+        }
+        this.slotBytes = slotBytes;
+        this.buckets = Math.max(1, (capacity + BUCKET_SLOTS - 1) / BUCKET_SLOTS);
+        long size = HEADER_BYTES + (long) buckets * BUCKET_SLOTS * slotBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("映射文件超过 2GB，请减小容量或槽位大小");
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new StampedLock();
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fileLock = channel.tryLock();
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException("会话文件已被其他进程占用：" + path);
+        }
+        boolean reuse = channel.size() == size;
+        if (!reuse) {
+            channel.truncate(0);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (reuse && !headerMatches()) {
+            log.warn("⚠️ 会话文件格式与当前配置不一致，已重建：{}", path);
+            reuse = false;
+            for (int i = 0; i < capacity(); i++) {
+                buffer.putLong(HEADER_BYTES + i * slotBytes + OFF_EXPIRE, 0L);
+            }
+        }
+        if (!reuse) {
+            writeHeader();
+        }
+    }
+
+    /**
+     * 读取未过期的值
+     *
+     * @param key 键
+     * @return 值，不存在或已过期时返回 null
+     */
+    public String get(String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(k);
+        int first = firstBucket(hash);
+        int second = secondBucket(hash);
+        StampedLock firstLock = lockOf(first);
+        StampedLock secondLock = lockOf(second);
+
+        long firstStamp = firstLock.tryOptimisticRead();
+        long secondStamp = secondLock == firstLock ? firstStamp : secondLock.tryOptimisticRead();
+        if (firstStamp != 0 && secondStamp != 0) {
+            byte[] value = readValue(first, second, hash, k);
+            if (firstLock.validate(firstStamp) && secondLock.validate(secondStamp)) {
+                return value == null ? null : new String(value, StandardCharsets.UTF_8);
+            }
+            optimisticRetries.increment();
+        }
+
+        StampedLock lower = lockOf(Math.min(first & (STRIPES - 1), second & (STRIPES - 1)));
+        StampedLock upper = lower == firstLock ? secondLock : firstLock;
+        long lowerStamp = lower.readLock();
+        long upperStamp = upper == lower ? 0 : upper.readLock();
+        try {
+            byte[] value = readValue(first, second, hash, k);
+            return value == null ? null : new String(value, StandardCharsets.UTF_8);
+        } finally {
+            if (upper != lower) {
+                upper.unlockRead(upperStamp);
+            }
+            lower.unlockRead(lowerStamp);
+        }
+    }
+
+    /**
+     * 写入键值
+     *
+     * 键不存在时写入两个候选桶中空闲槽位较多的一个；两个桶都满时淘汰其中最早过期的条目。
+     *
+     * @param key            键
+     * @param value          值
+     * @param expireAtMillis 过期时间（毫秒时间戳）
+     * @return 被覆盖的未过期旧值，没有时返回 null
+     * @throws IllegalArgumentException 键值总长超过槽位容量
+     */
+    public String put(String key, String value, long expireAtMillis) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = value.getBytes(StandardCharsets.UTF_8);
+        if (k.length + v.length > slotBytes - OFF_DATA) {
+            throw new IllegalArgumentException("键值长度 " + (k.length + v.length) + " 超过槽位容量 " + (slotBytes - OFF_DATA));
+        }
+        int hash = hash(k);
+        int first = firstBucket(hash);
+        int second = secondBucket(hash);
+        return withWriteLocks(first, second, () -> {
+            long now = System.currentTimeMillis();
+            String previous = null;
+            int target = findSlot(first, hash, k);
+            if (target < 0 && second != first) {
+                target = findSlot(second, hash, k);
+            }
+            if (target >= 0) {
+                if (buffer.getLong(target + OFF_EXPIRE) > now) {
+                    previous = new String(copyValue(target), StandardCharsets.UTF_8);
+                }
+            } else {
+                target = chooseSlot(first, second, now);
+            }
+            writeSlot(target, hash, k, v, expireAtMillis);
+            return previous;
+        });
+    }
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     * @return 被删除的未过期值，不存在时返回 null
+     */
+    public String remove(String key) {
+        return remove(key, null);
+    }
+
+    /**
+     * 删除键；expectedValue 不为 null 时仅在当前值等于它时删除
+     *
+     * @param key           键
+     * @param expectedValue 期望的当前值，为 null 表示无条件删除
+     * @return 被删除的未过期值，未删除时返回 null
+     */
+    public String remove(String key, String expectedValue) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(k);
+        int first = firstBucket(hash);
+        int second = secondBucket(hash);
+        return withWriteLocks(first, second, () -> {
+            int slot = findSlot(first, hash, k);
+            if (slot < 0 && second != first) {
+                slot = findSlot(second, hash, k);
+            }
+            if (slot < 0) {
+                return null;
+            }
+            String current = buffer.getLong(slot + OFF_EXPIRE) > System.currentTimeMillis()
+                    ? new String(copyValue(slot), StandardCharsets.UTF_8)
+                    : null;
+            if (expectedValue != null && !expectedValue.equals(current)) {
+                return null;
+            }
+            buffer.putLong(slot + OFF_EXPIRE, 0L);
+            return current;
+        });
+    }
+
+    /**
+     * 修改未过期条目的过期时间
+     *
+     * @param key            键
+     * @param expireAtMillis 新的过期时间（毫秒时间戳）
+     * @return 条目存在且未过期时返回 true；已过期或不存在的条目不会被复活
+     */
+    public boolean expire(String key, long expireAtMillis) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(k);
+        int first = firstBucket(hash);
+        int second = secondBucket(hash);
+        return withWriteLocks(first, second, () -> {
+            int slot = findSlot(first, hash, k);
+            if (slot < 0 && second != first) {
+                slot = findSlot(second, hash, k);
+            }
+            if (slot < 0 || buffer.getLong(slot + OFF_EXPIRE) <= System.currentTimeMillis()) {
+                return false;
+            }
+            buffer.putLong(slot + OFF_EXPIRE, expireAtMillis);
+            return true;
+        });
+    }
+
+    /**
+     * 统计未过期条目数（全表扫描，仅用于监控）
+     */
+    public int size() {
+        long now = System.currentTimeMillis();
+        int live = 0;
+        int total = buckets * BUCKET_SLOTS;
+        for (int i = 0; i < total; i++) {
+            if (buffer.getLong(HEADER_BYTES + i * slotBytes + OFF_EXPIRE) > now) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /** 槽位总数 */
+    public int capacity() {
+        return buckets * BUCKET_SLOTS;
+    }
+
+    /** 映射文件大小（字节） */
+    public long fileBytes() {
+        return buffer.capacity();
+    }
+
+    /** 桶满时被淘汰的未过期条目数 */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /** 乐观读校验失败后退化为读锁的次数 */
+    public long optimisticRetries() {
+        return optimisticRetries.sum();
+    }
+
+    /**
+     * 将脏页刷入磁盘（进程正常退出时页缓存由操作系统负责落盘，此方法用于应对机器掉电）
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        fileLock.release();
+        channel.close();
+    }
+
+    /**
+     * 在两个候选桶内查找键并拷出值；长度字段先做越界裁剪，保证乐观读时读到半写入的槽位也不会越界
+     */
+    private byte[] readValue(int first, int second, int hash, byte[] key) {
+        long now = System.currentTimeMillis();
+        int slot = findSlot(first, hash, key);
+        if (slot < 0 && second != first) {
+            slot = findSlot(second, hash, key);
+        }
+        return slot >= 0 && buffer.getLong(slot + OFF_EXPIRE) > now ? copyValue(slot) : null;
+    }
+
+    /**
+     * 在桶内查找键所在的槽位（含已过期但未被复用的槽位）
+     *
+     * @return 槽位偏移，不存在时返回 -1
+     */
+    private int findSlot(int bucket, int hash, byte[] key) {
+        int base = slotOffset(bucket, 0);
+        for (int i = 0; i < BUCKET_SLOTS; i++) {
+            int slot = base + i * slotBytes;
+            if (buffer.getLong(slot + OFF_EXPIRE) != 0 && keyEquals(slot, hash, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 为新键选择槽位：空闲槽位较多的桶优先；两个桶都满时淘汰最早过期的条目
+     */
+    private int chooseSlot(int first, int second, long now) {
+        int free = -1;
+        int freeCount = -1;
+        int oldest = -1;
+        long oldestExpire = Long.MAX_VALUE;
+        for (int bucket : second == first ? new int[]{first} : new int[]{first, second}) {
+            int base = slotOffset(bucket, 0);
+            int bucketFree = -1;
+            int count = 0;
+            for (int i = 0; i < BUCKET_SLOTS; i++) {
+                int slot = base + i * slotBytes;
+                long expire = buffer.getLong(slot + OFF_EXPIRE);
+                if (expire <= now) {
+                    count++;
+                    if (bucketFree < 0) {
+                        bucketFree = slot;
+                    }
+                } else if (expire < oldestExpire) {
+                    oldestExpire = expire;
+                    oldest = slot;
+                }
+            }
+            if (count > freeCount && bucketFree >= 0) {
+                free = bucketFree;
+                freeCount = count;
+            }
+        }
+        if (free >= 0) {
+            return free;
+        }
+        evictions.increment();
+        return oldest;
+    }
+
+    /**
+     * 按分段下标顺序获取两个候选桶的写锁（同一分段只加一次），避免死锁
+     */
+    private <T> T withWriteLocks(int first, int second, Supplier<T> action) {
+        StampedLock lower = lockOf(Math.min(first & (STRIPES - 1), second & (STRIPES - 1)));
+        StampedLock upper = lower == lockOf(first) ? lockOf(second) : lockOf(first);
+        long lowerStamp = lower.writeLock();
+        long upperStamp = upper == lower ? 0 : upper.writeLock();
+        try {
+            return action.get();
+        } finally {
+            if (upper != lower) {
+                upper.unlockWrite(upperStamp);
+            }
+            lower.unlockWrite(lowerStamp);
+        }
+    }
+
+    private boolean keyEquals(int slot, int hash, byte[] key) {
+        if (buffer.getInt(slot + OFF_HASH) != hash || (buffer.getShort(slot + OFF_KEY_LEN) & 0xFFFF) != key.length) {
+            return false;
+        }
+        int data = slot + OFF_DATA;
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(data + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] copyValue(int slot) {
+        int keyLength = buffer.getShort(slot + OFF_KEY_LEN) & 0xFFFF;
+        int valueLength = buffer.getShort(slot + OFF_VALUE_LEN) & 0xFFFF;
+        int payload = slotBytes - OFF_DATA;
+        if (keyLength > payload || valueLength > payload - keyLength) {
+            return new byte[0];
+        }
+        byte[] value = new byte[valueLength];
+        buffer.get(slot + OFF_DATA + keyLength, value);
+        return value;
+    }
+
+    private void writeSlot(int slot, int hash, byte[] key, byte[] value, long expireAtMillis) {
+        buffer.putLong(slot + OFF_EXPIRE, 0L);
+        buffer.putInt(slot + OFF_HASH, hash);
+        buffer.putShort(slot + OFF_KEY_LEN, (short) key.length);
+        buffer.putShort(slot + OFF_VALUE_LEN, (short) value.length);
+        buffer.put(slot + OFF_DATA, key);
+        buffer.put(slot + OFF_DATA + key.length, value);
+        buffer.putLong(slot + OFF_EXPIRE, expireAtMillis);
+    }
+
+    private boolean headerMatches() {
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(8) == slotBytes
+                && buffer.getInt(12) == BUCKET_SLOTS && buffer.getInt(16) == buckets;
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slotBytes);
+        buffer.putInt(12, BUCKET_SLOTS);
+        buffer.putInt(16, buckets);
+    }
+
+    private int slotOffset(int bucket, int index) {
+        return HEADER_BYTES + (bucket * BUCKET_SLOTS + index) * slotBytes;
+    }
+
+    private int firstBucket(int hash) {
+        return (hash & 0x7FFFFFFF) % buckets;
+    }
+
+    /** 第二候选桶由哈希值再扰动一次得到，与第一候选桶相互独立 */
+    private int secondBucket(int hash) {
+        return ((Integer.rotateLeft(hash, 16) * 0x9E3779B9) & 0x7FFFFFFF) % buckets;
+    }
+
+    private StampedLock lockOf(int bucket) {
+        return locks[bucket & (STRIPES - 1)];
+    }
+
+    /**
+     * FNV-1a 32 位哈希再做一次扰动；结果需要跨进程重启保持稳定，因此不能使用带随机种子的哈希
+     */
+    private static int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,210 @@
+package org.ash.webapp_backend.session;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.ash.webapp_backend.constant.RedisKeys;
+import org.ash.webapp_backend.security.AuthSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 嵌入式会话存储（session.store=embedded）
+ *
+ * 面向边缘部署与本地压测的单节点模式，不需要 Redis：会话保存在 {@link MappedHashTable} 中，
+ * 数据位于堆外的内存映射文件，查询在进程内完成（亚微秒级），重启后会话仍然有效。
+ *
+ * 键沿用 Redis 中的命名（login:token:{username}、session:token:{token}），
+ * 会话记录编码为一个字符串：角色 \0 过期时间 \0 用户名。
+ *
+ * 容量由 session.embedded.capacity 决定，桶满时淘汰最早过期的会话（相当于被动登出），
+ * 淘汰次数可在监控接口中查看，持续增长说明需要扩容。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "embedded")
+public class MappedSessionStore implements SessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedSessionStore.class);
+
+    private static final char SEPARATOR = '\0';
+
+    /** 映射文件路径 */
+    @Value("${session.embedded.path:./data/sessions.db}")
+    private String path;
+
+    /** 最大会话条目数（登录登记与会话记录各占一条） */
+    @Value("${session.embedded.capacity:131072}")
+    private int capacity;
+
+    /** 单个槽位字节数，需容纳键与完整 JWT */
+    @Value("${session.embedded.slot-bytes:512}")
+    private int slotBytes;
+
+    private MappedHashTable table;
+
+    @PostConstruct
+    public void open() throws IOException {
+        table = new MappedHashTable(Path.of(path), capacity, slotBytes);
+        log.info("💾 嵌入式会话存储已打开：{}，容量 {}，槽位 {} 字节，文件 {}MB，现有会话 {} 条",
+                path, table.capacity(), slotBytes, table.fileBytes() >> 20, table.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (table != null) {
+            table.close();
+        }
+    }
+
+    @Override
+    public String getLoginToken(String username) {
+        return table.get(RedisKeys.loginToken(username));
+    }
+
+    @Override
+    public List<String> getLoginTokens(List<String> usernames) {
+        List<String> tokens = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            tokens.add(getLoginToken(username));
+        }
+        return tokens;
+    }
+
+    @Override
+    public void putLoginToken(String username, String token, Duration ttl) {
+        table.put(RedisKeys.loginToken(username), token, expireAt(ttl));
+    }
+
+    @Override
+    public String swapLoginToken(String username, String token, Duration ttl) {
+        return table.put(RedisKeys.loginToken(username), token, expireAt(ttl));
+    }
+
+    @Override
+    public void removeLoginToken(String username) {
+        table.remove(RedisKeys.loginToken(username));
+    }
+
+    @Override
+    public void removeLoginToken(String username, String token) {
+        table.remove(RedisKeys.loginToken(username), token);
+    }
+
+    @Override
+    public long removeLoginTokens(List<String> usernames) {
+        long removed = 0;
+        for (String username : usernames) {
+            if (table.remove(RedisKeys.loginToken(username)) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public List<String> takeLoginTokens(List<String> usernames) {
+        List<String> tokens = new ArrayList<>();
+        for (String username : usernames) {
+            String token = table.remove(RedisKeys.loginToken(username));
+            if (token != null) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    public void expireLoginTokens(Map<String, Long> expireAtMillis) {
+        expireAtMillis.forEach((username, expireAt) -> table.expire(RedisKeys.loginToken(username), expireAt));
+    }
+
+    @Override
+    public void putSession(String token, AuthSession session, Duration ttl, String replacedToken) {
+        String record = session.role() + SEPARATOR + session.expiresAtMillis() + SEPARATOR + session.username();
+        table.put(RedisKeys.sessionToken(token), record, expireAt(ttl));
+        if (replacedToken != null) {
+            table.remove(RedisKeys.sessionToken(replacedToken));
+        }
+    }
+
+    @Override
+    public AuthSession getSession(String token) {
+        return decode(table.get(RedisKeys.sessionToken(token)));
+    }
+
+    @Override
+    public List<AuthSession> getSessions(List<String> tokens) {
+        List<AuthSession> sessions = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            sessions.add(getSession(token));
+        }
+        return sessions;
+    }
+
+    @Override
+    public String removeSession(String token) {
+        AuthSession session = decode(table.remove(RedisKeys.sessionToken(token)));
+        return session == null ? null : session.username();
+    }
+
+    @Override
+    public long removeSessions(List<String> tokens) {
+        long removed = 0;
+        for (String token : tokens) {
+            if (table.remove(RedisKeys.sessionToken(token)) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "embedded");
+        stats.put("path", path);
+        stats.put("capacity", table.capacity());
+        stats.put("slotBytes", slotBytes);
+        stats.put("fileBytes", table.fileBytes());
+        stats.put("liveEntries", table.size());
+        stats.put("evictions", table.evictions());
+        stats.put("optimisticRetries", table.optimisticRetries());
+        return stats;
+    }
+
+    private static long expireAt(Duration ttl) {
+        return System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    /**
+     * 还原会话记录；记录不存在、格式不符或已过期时返回 null
+     */
+    private static AuthSession decode(String record) {
+        if (record == null) {
+            return null;
+        }
+        int first = record.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : record.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            return null;
+        }
+        long expiresAt = Long.parseLong(record, first + 1, second, 10);
+        if (expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        return new AuthSession(record.substring(second + 1), record.substring(0, first), expiresAt);
+    }
+}
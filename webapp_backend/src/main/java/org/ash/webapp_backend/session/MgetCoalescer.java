@@ -0,0 +1,205 @@
+package org.ash.webapp_backend.session;
+
+import org.ash.webapp_backend.utils.LatencyHistogram;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 合并并发 GET 为 MGET 的 Redis 读取器（单个 Redis 节点）
+ *
+ * 请求线程调用 {@link #get(String)} 时只把键放入队列并等待结果；
+ * 分发线程取出第一个键后，最多再等待 maxWaitMicros 微秒或凑满 maxBatch 个键，
+ * 去重后发送一条 MGET，再把结果分发给所有等待者。
+ *
+ * 在分发线程等待上一条 MGET 返回期间到达的请求会自然攒成下一批，
+ * 因此负载越高批次越大，Redis 命令数与往返次数随之成倍下降；低负载时额外延迟不超过 maxWaitMicros。
+ *
+ * 等待队列有界：Redis 变慢导致队列写满时，新的读取不再排队，直接在调用线程上执行单条 GET，
+ * 避免无界堆积的等待者占满内存后集中超时。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+public class MgetCoalescer implements AutoCloseable {
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final long maxWaitNanos;
+
+    private final int maxBatch;
+
+    private final long timeoutMillis;
+
+    private final BlockingQueue<Lookup> queue;
+
+    private final List<Thread> dispatchers = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder distinctKeys = new LongAdder();
+
+    private final LongAdder overflows = new LongAdder();
+
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+
+    private record Lookup(String key, long enqueuedAt, CompletableFuture<String> result) {
+    }
+
+    /**
+     * @param redisTemplate   目标 Redis 节点
+     * @param maxWaitMicros   凑批的最长等待时间（微秒）
+     * @param maxBatch        单条 MGET 的最大键数
+     * @param dispatcherCount 分发线程数，多个线程可同时有多条 MGET 在途
+     * @param queueCapacity   等待队列容量，写满后直接逐个 GET
+     * @param timeoutMillis   调用方等待结果的超时时间（毫秒），应不小于 Redis 命令超时，由 Redis 客户端先报告超时
+     * @param name            线程名前缀
+     */
+    public MgetCoalescer(RedisTemplate<String, String> redisTemplate, long maxWaitMicros, int maxBatch,
+                         int dispatcherCount, int queueCapacity, long timeoutMillis, String name) {
+        this.redisTemplate = redisTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxWaitNanos = maxWaitMicros * 1000;
+        this.maxBatch = maxBatch;
+        this.timeoutMillis = timeoutMillis;
+        for (int i = 0; i < dispatcherCount; i++) {
+            Thread thread = new Thread(this::dispatchLoop, name + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            dispatchers.add(thread);
+        }
+    }
+
+    /**
+     * 读取一个字符串键，与同时到达的其他读取合并为一条 MGET
+     *
+     * @param key Redis 键
+     * @return 值，不存在时为 null
+     */
+    public String get(String key) {
+        Lookup lookup = new Lookup(key, System.nanoTime(), new CompletableFuture<>());
+        lookups.increment();
+        if (!queue.offer(lookup)) {
+            overflows.increment();
+            return redisTemplate.opsForValue().get(key);
+        }
+        try {
+            return lookup.result().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待 Redis 批量读取结果时被中断", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("等待 Redis 批量读取结果超时（" + timeoutMillis + "ms）", e);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Lookup> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Lookup first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                long deadline = first.enqueuedAt() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Lookup next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void execute(List<Lookup> batch) {
+        // 同一个键在一批内只读取一次
+        Map<String, List<Lookup>> byKey = new LinkedHashMap<>();
+        for (Lookup lookup : batch) {
+            byKey.computeIfAbsent(lookup.key(), k -> new ArrayList<>(1)).add(lookup);
+        }
+        List<String> keys = new ArrayList<>(byKey.keySet());
+        batches.increment();
+        distinctKeys.add(keys.size());
+
+        List<String> values;
+        try {
+            values = keys.size() == 1
+                    ? Collections.singletonList(redisTemplate.opsForValue().get(keys.get(0)))
+                    : redisTemplate.opsForValue().multiGet(keys);
+        } catch (RuntimeException e) {
+            for (Lookup lookup : batch) {
+                lookup.result().completeExceptionally(e);
+            }
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            for (Lookup lookup : byKey.get(keys.get(i))) {
+                lookup.result().complete(value);
+                lookupLatency.record(now - lookup.enqueuedAt(), false);
+            }
+        }
+    }
+
+    /**
+     * 运行指标：读取次数、MGET 批次数、平均批大小、去重后的键数、队列写满后直接 GET 的次数、读取耗时分布
+     */
+    public Map<String, Object> stats() {
+        long lookupCount = lookups.sum();
+        long overflowCount = overflows.sum();
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lookups", lookupCount);
+        stats.put("redisCommands", batchCount + overflowCount);
+        stats.put("distinctKeys", distinctKeys.sum());
+        stats.put("overflows", overflowCount);
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : (double) (lookupCount - overflowCount) / batchCount);
+        stats.put("queueDepth", queue.size());
+        stats.put("lookupLatency", lookupLatency.snapshot());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatchers.forEach(Thread::interrupt);
+        List<Lookup> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        IllegalStateException closed = new IllegalStateException("Redis 批量读取器已关闭");
+        remaining.forEach(lookup -> lookup.result().completeExceptionally(closed));
+    }
+}
@@ -0,0 +1,275 @@
+package org.ash.webapp_backend.session;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.config.RedisShardRouter;
+import org.ash.webapp_backend.constant.RedisKeys;
+import org.ash.webapp_backend.security.AuthSession;
+import org.ash.webapp_backend.service.SessionLookupService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Redis 会话存储（session.store=redis，默认）
+ *
+ * 登录登记 login:token:{username} 按用户名路由、会话记录 session:token:{token} 按令牌路由，
+ * 启用分片时两者可能位于不同节点，批量操作按分片分组，每个分片一次往返。
+ *
+ * 会话记录为 Hash，字段精简为：
+ * - u：用户名
+ * - r：角色
+ * - e：过期时间（毫秒时间戳）
+ *
+ * 单个登录登记的读取交给 {@link SessionLookupService}，并发读取会被合并为 MGET。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+@Component
+@ConditionalOnProperty(name = "session.store", havingValue = "redis", matchIfMissing = true)
+public class RedisSessionStore implements SessionStore {
+
+    private static final String FIELD_USERNAME = "u";
+
+    private static final String FIELD_ROLE = "r";
+
+    private static final String FIELD_EXPIRES = "e";
+
+    /**
+     * 登录登记仍是指定令牌时才删除，比对与删除在 Redis 内一次完成；
+     * KEYS[1] 为登录登记，ARGV[1] 为令牌
+     */
+    private static final RedisScript<Long> REMOVE_IF_MATCHES = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    @Resource
+    private RedisShardRouter redisShardRouter;
+
+    @Resource
+    private SessionLookupService sessionLookupService;
+
+    @Override
+    public String getLoginToken(String username) {
+        return sessionLookupService.getLoginToken(username);
+    }
+
+    @Override
+    public List<String> getLoginTokens(List<String> usernames) {
+        String[] tokens = new String[usernames.size()];
+        redisShardRouter.partition(usernames).forEach((shard, positions) -> {
+            List<String> keys = positions.stream().map(p -> RedisKeys.loginToken(usernames.get(p))).toList();
+            List<String> registered = shard.opsForValue().multiGet(keys);
+            for (int k = 0; k < positions.size(); k++) {
+                tokens[positions.get(k)] = registered == null ? null : registered.get(k);
+            }
+        });
+        return Arrays.asList(tokens);
+    }
+
+    @Override
+    public void putLoginToken(String username, String token, Duration ttl) {
+        redisShardRouter.forUsername(username).opsForValue().set(RedisKeys.loginToken(username), token, ttl);
+    }
+
+    @Override
+    public String swapLoginToken(String username, String token, Duration ttl) {
+        return redisShardRouter.forUsername(username).opsForValue().setGet(RedisKeys.loginToken(username), token, ttl);
+    }
+
+    @Override
+    public void removeLoginToken(String username) {
+        redisShardRouter.forUsername(username).delete(RedisKeys.loginToken(username));
+    }
+
+    /**
+     * 比对与删除走同一个 Lua 脚本，GET 与 DEL 之间不会插入同一用户的新登录
+     */
+    @Override
+    public void removeLoginToken(String username, String token) {
+        redisShardRouter.forUsername(username)
+                .execute(REMOVE_IF_MATCHES, List.of(RedisKeys.loginToken(username)), token);
+    }
+
+    @Override
+    public long removeLoginTokens(List<String> usernames) {
+        long removed = 0;
+        for (Map.Entry<RedisTemplate<String, String>, List<Integer>> entry
+                : redisShardRouter.partition(usernames).entrySet()) {
+            List<String> keys = entry.getValue().stream().map(p -> RedisKeys.loginToken(usernames.get(p))).toList();
+            Long deleted = entry.getKey().delete(keys);
+            removed += deleted == null ? 0 : deleted;
+        }
+        return removed;
+    }
+
+    /**
+     * 每个分片一次管道往返，逐个 GETDEL
+     */
+    @Override
+    public List<String> takeLoginTokens(List<String> usernames) {
+        List<String> tokens = new ArrayList<>();
+        redisShardRouter.partition(usernames).forEach((shard, positions) -> {
+            List<Object> previous = pipelined(shard, operations -> {
+                for (int position : positions) {
+                    operations.opsForValue().getAndDelete(RedisKeys.loginToken(usernames.get(position)));
+                }
+            });
+            for (Object token : previous) {
+                if (token != null) {
+                    tokens.add((String) token);
+                }
+            }
+        });
+        return tokens;
+    }
+
+    /**
+     * 每个分片一次管道往返，逐个 PEXPIREAT；键不存在时 Redis 直接忽略
+     */
+    @Override
+    public void expireLoginTokens(Map<String, Long> expireAtMillis) {
+        List<String> usernames = new ArrayList<>(expireAtMillis.keySet());
+        redisShardRouter.partition(usernames).forEach((shard, positions) ->
+                pipelined(shard, operations -> {
+                    for (int position : positions) {
+                        String username = usernames.get(position);
+                        operations.expireAt(RedisKeys.loginToken(username), new Date(expireAtMillis.get(username)));
+                    }
+                }));
+    }
+
+    /**
+     * 会话记录写入与过期设置走同一次管道；旧会话与新会话位于同一分片时顺带删除
+     */
+    @Override
+    public void putSession(String token, AuthSession session, Duration ttl, String replacedToken) {
+        String sessionKey = RedisKeys.sessionToken(token);
+        Map<String, String> record = Map.of(
+                FIELD_USERNAME, session.username(),
+                FIELD_ROLE, session.role(),
+                FIELD_EXPIRES, Long.toString(session.expiresAtMillis())
+        );
+
+        RedisTemplate<String, String> sessionShard = redisShardRouter.forToken(token);
+        boolean sameShard = replacedToken != null && redisShardRouter.forToken(replacedToken) == sessionShard;
+        pipelined(sessionShard, operations -> {
+            operations.opsForHash().putAll(sessionKey, record);
+            operations.expire(sessionKey, ttl);
+            if (sameShard) {
+                operations.delete(RedisKeys.sessionToken(replacedToken));
+            }
+        });
+        if (replacedToken != null && !sameShard) {
+            redisShardRouter.forToken(replacedToken).delete(RedisKeys.sessionToken(replacedToken));
+        }
+    }
+
+    @Override
+    public AuthSession getSession(String token) {
+        return toSession(redisShardRouter.forToken(token).opsForHash().entries(RedisKeys.sessionToken(token)));
+    }
+
+    /**
+     * 每个 Redis 分片一次管道往返取回该分片上的全部会话记录
+     */
+    @Override
+    public List<AuthSession> getSessions(List<String> tokens) {
+        AuthSession[] sessions = new AuthSession[tokens.size()];
+        redisShardRouter.partition(tokens).forEach((shard, positions) -> {
+            List<Object> records = pipelined(shard, operations -> {
+                for (int position : positions) {
+                    operations.opsForHash().entries(RedisKeys.sessionToken(tokens.get(position)));
+                }
+            });
+            for (int k = 0; k < positions.size(); k++) {
+                @SuppressWarnings("unchecked")
+                Map<Object, Object> record = (Map<Object, Object>) records.get(k);
+                sessions[positions.get(k)] = toSession(record);
+            }
+        });
+        return Arrays.asList(sessions);
+    }
+
+    @Override
+    public String removeSession(String token) {
+        String sessionKey = RedisKeys.sessionToken(token);
+        RedisTemplate<String, String> sessionShard = redisShardRouter.forToken(token);
+        Object username = sessionShard.opsForHash().get(sessionKey, FIELD_USERNAME);
+        sessionShard.delete(sessionKey);
+        return (String) username;
+    }
+
+    @Override
+    public long removeSessions(List<String> tokens) {
+        long removed = 0;
+        for (Map.Entry<RedisTemplate<String, String>, List<Integer>> entry
+                : redisShardRouter.partition(tokens).entrySet()) {
+            List<String> keys = entry.getValue().stream().map(p -> RedisKeys.sessionToken(tokens.get(p))).toList();
+            Long deleted = entry.getKey().delete(keys);
+            removed += deleted == null ? 0 : deleted;
+        }
+        return removed;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", "redis");
+        stats.put("sharded", redisShardRouter.isSharded());
+        stats.put("nodes", redisShardRouter.nodeNames());
+        stats.put("lookup", sessionLookupService.getStats());
+        return stats;
+    }
+
+    /**
+     * 将会话 Hash 还原为会话信息；记录不存在或已过期时返回 null
+     */
+    private static AuthSession toSession(Map<Object, Object> record) {
+        if (record == null || record.isEmpty()) {
+            return null;
+        }
+        long expiresAt = Long.parseLong((String) record.get(FIELD_EXPIRES));
+        if (expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        return new AuthSession((String) record.get(FIELD_USERNAME), (String) record.get(FIELD_ROLE), expiresAt);
+    }
+
+    /**
+     * 在分片上执行一次管道往返
+     *
+     * SessionCallback 的回调参数以 RedisOperations<K, V> 泛型声明，管道内实际就是该分片的
+     * RedisTemplate<String, String>，此处集中做一次类型转换，调用方拿到带类型的操作对象。
+     *
+     * @return 管道内各命令的结果，顺序与发出顺序一致
+     */
+    private static List<Object> pipelined(RedisTemplate<String, String> shard,
+                                          Consumer<RedisOperations<String, String>> commands) {
+        return shard.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package org.ash.webapp_backend.session;
+
+import org.ash.webapp_backend.security.AuthSession;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 会话存储接口
+ *
+ * 令牌服务只通过本接口读写会话，不直接依赖具体存储：
+ * - 登录登记：用户名 -> 当前令牌（对应 Redis 中的 login:token:{username}），用于登出失效与顶掉旧登录
+ * - 会话记录：不透明令牌 -> 用户名、角色、过期时间（对应 Redis 中的 session:token:{token}）
+ *
+ * 通过配置项 session.store 选择实现：
+ * - redis（默认）：{@link RedisSessionStore}，支持多节点共享与分片
+ * - embedded：{@link MappedSessionStore}，单节点内存映射文件，无需 Redis，重启后会话仍然有效
+ *
+ * 批量方法的返回列表与入参顺序一致。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+public interface SessionStore {
+
+    /**
+     * 读取用户当前登记的令牌
+     *
+     * @param username 用户名
+     * @return 登记的令牌，不存在时为 null
+     */
+    String getLoginToken(String username);
+
+    /**
+     * 批量读取登记的令牌
+     *
+     * @param usernames 用户名列表
+     * @return 登记的令牌，不存在的位置为 null
+     */
+    List<String> getLoginTokens(List<String> usernames);
+
+    /**
+     * 登记用户当前令牌（覆盖旧登记）
+     */
+    void putLoginToken(String username, String token, Duration ttl);
+
+    /**
+     * 登记用户当前令牌并返回被覆盖的旧令牌
+     *
+     * 写入新值、设置有效期与取回旧值必须是一次原子操作（Redis 为 SET key token EX ttl GET）：
+     * 分成 GETSET + EXPIRE 两步时，两步之间进程退出会留下没有过期时间的登记。
+     *
+     * @return 旧令牌，不存在时为 null
+     */
+    String swapLoginToken(String username, String token, Duration ttl);
+
+    /**
+     * 删除用户的登录登记
+     */
+    void removeLoginToken(String username);
+
+    /**
+     * 仅当登记的仍是该令牌时删除（避免误删同一用户之后的新登录）
+     */
+    void removeLoginToken(String username, String token);
+
+    /**
+     * 批量删除登录登记
+     *
+     * @return 实际删除的登记数
+     */
+    long removeLoginTokens(List<String> usernames);
+
+    /**
+     * 批量取出并删除登录登记
+     *
+     * @return 被删除的令牌（不含不存在的登记）
+     */
+    List<String> takeLoginTokens(List<String> usernames);
+
+    /**
+     * 批量修改登录登记的过期时间（滑动过期续期）
+     *
+     * 只修改仍然存在的登记，已注销或已过期的登记不会被复活。
+     *
+     * @param expireAtMillis 用户名 -> 新的过期时间（毫秒时间戳）
+     */
+    void expireLoginTokens(Map<String, Long> expireAtMillis);
+
+    /**
+     * 写入不透明令牌的会话记录
+     *
+     * @param token         令牌
+     * @param session       会话信息
+     * @param ttl           有效期
+     * @param replacedToken 同一用户被顶掉的旧令牌，其会话记录一并删除；没有时为 null
+     */
+    void putSession(String token, AuthSession session, Duration ttl, String replacedToken);
+
+    /**
+     * 读取会话记录
+     *
+     * @return 会话信息，不存在或已过期时返回 null
+     */
+    AuthSession getSession(String token);
+
+    /**
+     * 批量读取会话记录
+     *
+     * @return 会话信息，不存在或已过期的位置为 null
+     */
+    List<AuthSession> getSessions(List<String> tokens);
+
+    /**
+     * 删除会话记录
+     *
+     * @return 会话所属用户名，不存在时返回 null
+     */
+    String removeSession(String token);
+
+    /**
+     * 批量删除会话记录
+     *
+     * @return 实际删除的记录数
+     */
+    long removeSessions(List<String> tokens);
+
+    /**
+     * 存储类型与运行指标
+     */
+    Map<String, Object> getStats();
+}
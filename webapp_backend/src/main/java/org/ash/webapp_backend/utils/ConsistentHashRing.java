@@ -0,0 +1,115 @@
+package org.ash.webapp_backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一致性哈希环（带虚拟节点）
+ *
+ * 每个物理节点在环上放置若干虚拟节点（默认 160 个），键按哈希值顺时针落到第一个虚拟节点所属的物理节点。
+ * 增加或移除一个节点时，只有约 1/N 的键会改变归属，其余键保持不动。
+ *
+ * 哈希函数为 FNV-1a 64 位再经 MurmurHash3 fmix64 混合，分布均匀且不依赖 String.hashCode。
+ * 环在构造后不可变，查找为一次二分查找，可被多线程无锁共享；节点变更时整体重建即可。
+ *
+ * @param <T> 节点对象类型，例如 RedisTemplate
+ * @author Ash
+ * @date 2025/6/29
+ */
+public class ConsistentHashRing<T> {
+
+    private final long[] points;
+
+    private final int[] owners;
+
+    private final List<T> nodes;
+
+    private final List<String> names;
+
+    /**
+     * @param nodes        节点名 -> 节点对象，节点名决定虚拟节点位置，应保持稳定（如 host:port）
+     * @param virtualNodes 每个物理节点的虚拟节点数
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("一致性哈希环至少需要一个节点");
+        }
+        Map<String, T> ordered = new LinkedHashMap<>(nodes);
+        this.names = List.copyOf(ordered.keySet());
+        this.nodes = List.copyOf(ordered.values());
+
+        int total = names.size() * virtualNodes;
+        long[][] entries = new long[total][];
+        int n = 0;
+        for (int owner = 0; owner < names.size(); owner++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[n++] = new long[]{hash(names.get(owner) + "#" + v), owner};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[total];
+        this.owners = new int[total];
+        for (int i = 0; i < total; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    /**
+     * 查找键所属的节点
+     */
+    public T nodeFor(String key) {
+        return nodes.get(indexFor(key));
+    }
+
+    /**
+     * 查找键所属节点的名称
+     */
+    public String nameFor(String key) {
+        return names.get(indexFor(key));
+    }
+
+    /**
+     * 所有节点名称（按配置顺序）
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * 所有节点对象（按配置顺序）
+     */
+    public List<T> nodes() {
+        return nodes;
+    }
+
+    private int indexFor(String key) {
+        long h = hash(key);
+        int i = Arrays.binarySearch(points, h);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    /**
+     * FNV-1a 64 位哈希 + fmix64 混合
+     */
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,169 @@
+package org.ash.webapp_backend.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 带过期时间的紧凑 long 集合
+ *
+ * 使用两个并列的 long 数组做开放寻址哈希表（线性探测），每个元素仅占 16 字节，
+ * 负载因子不超过 0.5，即每个元素约 32 字节，无装箱、无链表节点。
+ *
+ * 并发模型：写少读多。
+ * - 写入在对象锁内完成；扩容或清理过期元素时构建新表，再整体替换引用
+ * - 读取无锁：只读取一次当前表引用，在同一张表内探测，不会出现越界或半更新状态；
+ *   key 以 release 语义写入、acquire 语义读取，读到 key 时对应的过期时间一定可见
+ *
+ * 元素过期后查询即视为不存在，过期元素在下一次重建表时被清除。
+ * key 为 0 保留为空槽标记，内部会映射为其他值。
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+public final class ExpiringLongSet {
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+
+    /** 当前表内已占用的槽位数（含已过期但尚未清理的元素） */
+    private int occupied;
+
+    /**
+     * 加入元素
+     *
+     * @param key            元素
+     * @param expireAtMillis 过期时间（毫秒时间戳），重复加入时取较晚者
+     */
+    public synchronized void add(long key, long expireAtMillis) {
+        if (expireAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if ((occupied + 1) * 2 > table.keys.length) {
+            rebuild();
+        }
+        if (table.put(normalize(key), expireAtMillis)) {
+            occupied++;
+        }
+    }
+
+    /**
+     * 判断元素是否存在且未过期
+     *
+     * @param key 元素
+     * @return 存在且未过期返回 true
+     */
+    public boolean contains(long key) {
+        Table t = table;
+        long k = normalize(key);
+        int index = t.indexOf(k);
+        return index >= 0 && t.expiries[index] > System.currentTimeMillis();
+    }
+
+    /**
+     * 当前未过期元素数量（遍历统计，仅用于监控）
+     */
+    public int size() {
+        Table t = table;
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (int i = 0; i < t.keys.length; i++) {
+            if (t.keys[i] != 0 && t.expiries[i] > now) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 清理过期元素，必要时扩容
+     */
+    public synchronized void purge() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        Table old = table;
+        long now = System.currentTimeMillis();
+        int live = 0;
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != 0 && old.expiries[i] > now) {
+                live++;
+            }
+        }
+
+        int capacity = MIN_CAPACITY;
+        while (capacity < (live + 1) * 4) {
+            capacity <<= 1;
+        }
+        Table fresh = new Table(capacity);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != 0 && old.expiries[i] > now) {
+                fresh.put(old.keys[i], old.expiries[i]);
+            }
+        }
+        occupied = live;
+        table = fresh;
+    }
+
+    private static long normalize(long key) {
+        return key == 0 ? 0x9E3779B97F4A7C15L : key;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+
+        private final long[] expiries;
+
+        private final int mask;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.expiries = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int indexOf(long key) {
+            int i = mix(key) & mask;
+            while (true) {
+                long k = (long) SLOT.getAcquire(keys, i);
+                if (k == key) {
+                    return i;
+                }
+                if (k == 0) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        /**
+         * @return 新占用一个槽位返回 true，更新已有元素返回 false
+         */
+        boolean put(long key, long expireAt) {
+            int i = mix(key) & mask;
+            while (true) {
+                long k = keys[i];
+                if (k == key) {
+                    expiries[i] = Math.max(expiries[i], expireAt);
+                    return false;
+                }
+                if (k == 0) {
+                    // 先写过期时间再以 release 语义发布 key
+                    expiries[i] = expireAt;
+                    SLOT.setRelease(keys, i, key);
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
+}
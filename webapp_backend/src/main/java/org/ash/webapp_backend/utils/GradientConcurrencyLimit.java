@@ -0,0 +1,208 @@
+package org.ash.webapp_backend.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发上限（梯度算法）
+ *
+ * 思路与 Netflix concurrency-limits 的 Gradient2 一致：
+ * - 长期 RTT：请求耗时的指数滑动平均，代表“健康时”的基线延迟
+ * - 短期 RTT：最近一个采样窗口内的平均耗时
+ * - 梯度 = 容忍系数 × 长期 RTT / 短期 RTT，限制在 [0.5, 1.0]
+ * - 新上限 = 当前上限 × 梯度 + sqrt(当前上限)（预留排队余量，使上限在健康时能持续缓慢增长）
+ *
+ * 下游（MySQL、Redis）变慢时短期 RTT 上升，梯度小于 1，上限按比例收缩；恢复后梯度回到 1，上限逐步增长。
+ * 只有在飞行中请求数达到上限的一半以上时才允许增长，避免低负载期间上限无意义地涨到最大值。
+ *
+ * 获取许可为无锁 CAS；采样累加到分段计数器（LongAdder / LongAccumulator），每个请求结束时没有全局锁。
+ * 窗口到期后由第一个 CAS 抢到更新标记的线程结算并更新上限，其他线程不等待、直接返回；
+ * 结算期间到达的样本计入下一个窗口。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+public class GradientConcurrencyLimit {
+
+    /** 长期 RTT 的平滑系数，约等于最近 600 个窗口的平均 */
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+
+    /** 上限更新的平滑系数，避免单个窗口的抖动导致上限剧烈变化 */
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final long windowNanos;
+
+    private final int minWindowSamples;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile int limit;
+
+    private final LongAdder windowRttSum = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final LongAccumulator windowMaxInflight = new LongAccumulator(Math::max, 0);
+
+    private volatile long windowStart = System.nanoTime();
+
+    /** 窗口结算标记，同一时刻只有一个线程结算 */
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    /** 以下字段只由持有结算标记的线程写入 */
+    private double estimatedLimit;
+
+    private volatile double longRttNanos;
+
+    private volatile long lastShortRttNanos;
+
+    /**
+     * @param initialLimit     初始并发上限
+     * @param minLimit         最小并发上限
+     * @param maxLimit         最大并发上限
+     * @param tolerance        延迟容忍系数，短期 RTT 超过长期 RTT 的该倍数才开始收缩（如 1.5）
+     * @param windowMillis     采样窗口长度（毫秒）
+     * @param minWindowSamples 窗口内最少样本数，样本不足时延长窗口
+     */
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    long windowMillis, int minWindowSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowMillis * 1_000_000;
+        this.minWindowSamples = minWindowSamples;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * 尝试获取一个许可
+     *
+     * @param fraction 可使用的上限比例（低优先级请求只能使用上限的一部分，更早被丢弃）
+     * @return 获取成功返回获取时的飞行中请求数（不含自身），失败返回 -1
+     */
+    public int tryAcquire(double fraction) {
+        int allowed = Math.max(1, (int) (limit * fraction));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * 释放许可并提交一个延迟样本
+     *
+     * @param rttNanos        请求耗时（纳秒）
+     * @param inflightAtStart 获取许可时的飞行中请求数
+     */
+    public void release(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        onSample(rttNanos, inflightAtStart + 1);
+    }
+
+    /**
+     * 释放许可但不提交延迟样本
+     *
+     * 用于耗时由自身计算量决定、不反映下游健康状况的请求（如登录的密码哈希），
+     * 这类请求仍占用并发许可，但不参与 RTT 基线与上限计算。
+     */
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    private void onSample(long rttNanos, int concurrency) {
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+        windowMaxInflight.accumulate(concurrency);
+
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || windowSamples.sum() < minWindowSamples) {
+            return;
+        }
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // 抢到标记前可能已有其他线程完成结算
+            if (now - windowStart < windowNanos) {
+                return;
+            }
+            long samples = windowSamples.sumThenReset();
+            if (samples < minWindowSamples) {
+                windowSamples.add(samples);
+                return;
+            }
+            long rttSum = windowRttSum.sumThenReset();
+            long maxInflight = windowMaxInflight.getThenReset();
+            windowStart = now;
+            updateLimit((double) rttSum / samples, maxInflight);
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    private void updateLimit(double shortRtt, long maxInflight) {
+        double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos * (1 - LONG_RTT_ALPHA) + shortRtt * LONG_RTT_ALPHA;
+        // 长期 RTT 明显偏高（如故障恢复后）时快速回落，避免以故障期的延迟为基线
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double next = estimatedLimit * gradient + queueSize;
+        next = estimatedLimit * (1 - LIMIT_SMOOTHING) + next * LIMIT_SMOOTHING;
+
+        // 负载不足一半上限时不增长，只允许收缩
+        if (next > estimatedLimit && maxInflight < estimatedLimit / 2) {
+            next = estimatedLimit;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+        lastShortRttNanos = (long) shortRtt;
+    }
+
+    /**
+     * 当前并发上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 当前飞行中请求数
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * 导出状态：limit、inflight、longRttMicros、shortRttMicros
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("limit", limit);
+        map.put("inflight", inflight.get());
+        map.put("minLimit", minLimit);
+        map.put("maxLimit", maxLimit);
+        map.put("longRttMicros", (long) (longRttNanos / 1000));
+        map.put("shortRttMicros", lastShortRttNanos / 1000);
+        return map;
+    }
+}
@@ -0,0 +1,51 @@
+package org.ash.webapp_backend.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 流式读取大结果集的语句创建工具
+ *
+ * 只读、仅向前的结果集（TYPE_FORWARD_ONLY + CONCUR_READ_ONLY），流式读取只作用于这一条语句：
+ * - MySQL Connector/J 只认 fetchSize = Integer.MIN_VALUE 为逐行流式读取；其他正数在未开启 useCursorFetch 时被忽略，
+ *   驱动会在回调第一行之前把整个结果集读入堆内存
+ * - 不在全局连接串上开启 useCursorFetch，其他查询仍按默认方式一次取回结果
+ * - 其他驱动按调用方给出的 fetchSize 分批拉取
+ *
+ * MySQL 流式结果集在读完或关闭之前，同一连接不能执行其他语句；提前放弃时应先 cancel() 语句，
+ * 否则关闭结果集时驱动会读完并丢弃剩余的所有行。
+ *
+ * @author Ash
+ * @date 2025/6/23
+ */
+public final class JdbcStreaming {
+
+    /** MySQL Connector/J 约定：仅向前只读语句的 fetchSize 为该值时逐行流式读取结果集 */
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private JdbcStreaming() {
+    }
+
+    /**
+     * 创建流式读取的查询语句
+     *
+     * @param con       数据库连接
+     * @param sql       查询语句
+     * @param fetchSize 非 MySQL 驱动下每次拉取的行数
+     * @return 已设置好结果集类型与 fetchSize 的语句
+     */
+    public static PreparedStatement prepare(Connection con, String sql, int fetchSize) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(isMySql(con) ? MYSQL_STREAMING_FETCH_SIZE : fetchSize);
+        return ps;
+    }
+
+    /**
+     * 当前连接是否为 MySQL
+     */
+    public static boolean isMySql(Connection con) throws SQLException {
+        return con.getMetaData().getURL().startsWith("jdbc:mysql:");
+    }
+}
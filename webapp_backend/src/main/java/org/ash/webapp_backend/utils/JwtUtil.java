@@ -1,16 +1,23 @@
 package org.ash.webapp_backend.utils;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.Setter;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.TokenRejectReason;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * JWT 工具类
@@ -35,6 +42,12 @@ import java.util.Map;
 @Setter
 public class JwtUtil {
 
+    /** 本服务签发的 Token 最短长度（header + 最小载荷 + HS256 签名），低于该值必然无效 */
+    private static final int MIN_TOKEN_LENGTH = 64;
+
+    /** Token 最大长度，超长值不做任何解析直接拒绝 */
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
     /** 从配置中读取 JWT 密钥 */
     @Value("${jwt.secret}")
     private String secret;
@@ -45,23 +58,48 @@ public class JwtUtil {
 
     private Algorithm algorithm;
 
+    /** 校验器不可变且线程安全，启动时构建一次即可复用 */
+    private JWTVerifier verifier;
+
+    /** 本服务签发的 Token 头部段（Base64URL），签发参数固定时头部恒定不变 */
+    private String expectedHeader;
+
     @PostConstruct
     public void init() {
         this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm).build();
+        String sample = generateToken("header-probe");
+        this.expectedHeader = sample.substring(0, sample.indexOf('.'));
     }
 
     /**
      * 生成带扩展信息的 Token（如用户 ID、角色）
      *
+     * 每个 Token 带有随机 jti（UUID），用于无状态注销模式下标识单个令牌。
+     *
      * @param username 用户名
      * @param claims 自定义 Claims，例如 Map.of("role", "admin")
      * @return JWT Token 字符串
      */
     public String generateToken(String username, Map<String, String> claims) {
+        return generateToken(username, claims, expiration);
+    }
+
+    /**
+     * 生成指定有效期的 Token
+     *
+     * @param username       用户名
+     * @param claims         自定义 Claims
+     * @param lifetimeMillis 有效期（毫秒），exp = iat + lifetimeMillis
+     * @return JWT Token 字符串
+     */
+    public String generateToken(String username, Map<String, String> claims, long lifetimeMillis) {
+        long now = System.currentTimeMillis();
         var builder = JWT.create()
                 .withSubject(username)
-                .withIssuedAt(new Date())
-                .withExpiresAt(new Date(System.currentTimeMillis() + expiration));
+                .withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(new Date(now))
+                .withExpiresAt(new Date(now + lifetimeMillis));
 
         // 添加自定义 Claims
         claims.forEach(builder::withClaim);
@@ -80,7 +118,82 @@ public class JwtUtil {
      * 解析并验证 Token
      */
     public DecodedJWT decodeToken(String token) {
-        return JWT.require(algorithm).build().verify(token);
+        return verifier.verify(token);
+    }
+
+    /**
+     * 结构预检 + 验签，失败时抛出无堆栈的 {@link InvalidTokenException}
+     *
+     * 结构预检只做长度、段数、字母表和头部比对，不涉及任何密码学运算与 JSON 解析，
+     * 垃圾令牌和伪造算法头的令牌在这一步就会被拒绝。
+     *
+     * @param token 待校验的 Token
+     * @return 验证通过的 Token
+     * @throws InvalidTokenException 结构不合法、签名错误、已过期或载荷无法解析
+     */
+    public DecodedJWT verify(String token) {
+        TokenRejectReason reason = checkStructure(token);
+        if (reason != null) {
+            throw InvalidTokenException.of(reason);
+        }
+        try {
+            return verifier.verify(token);
+        } catch (TokenExpiredException e) {
+            throw InvalidTokenException.of(TokenRejectReason.EXPIRED);
+        } catch (SignatureVerificationException e) {
+            throw InvalidTokenException.of(TokenRejectReason.SIGNATURE);
+        } catch (JWTVerificationException e) {
+            throw InvalidTokenException.of(TokenRejectReason.MALFORMED);
+        }
+    }
+
+    /**
+     * Token 结构预检
+     *
+     * @param token 待检查的 Token
+     * @return 不合法的原因；结构合法时返回 null
+     */
+    public TokenRejectReason checkStructure(String token) {
+        if (token == null || token.length() < MIN_TOKEN_LENGTH || token.length() > MAX_TOKEN_LENGTH) {
+            return TokenRejectReason.LENGTH;
+        }
+        int dots = 0;
+        int firstDot = -1;
+        int lastDot = -1;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (++dots > 2) {
+                    return TokenRejectReason.SEGMENTS;
+                }
+                if (firstDot < 0) {
+                    firstDot = i;
+                }
+                lastDot = i;
+            } else if (!isBase64Url(c)) {
+                return TokenRejectReason.ALPHABET;
+            }
+        }
+        if (dots != 2 || lastDot - firstDot < 2 || lastDot == token.length() - 1) {
+            return TokenRejectReason.SEGMENTS;
+        }
+        if (firstDot != expectedHeader.length() || !token.startsWith(expectedHeader)) {
+            return TokenRejectReason.HEADER;
+        }
+        return null;
+    }
+
+    /**
+     * 令牌是否为 JWT 形态（含 '.' 分隔的段），用于在 JWT 与不透明令牌之间分派，不做任何校验
+     *
+     * 不透明令牌是无填充的 Base64URL，不会包含 '.'。
+     */
+    public static boolean isJwtShaped(String token) {
+        return token != null && token.indexOf('.') >= 0;
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
     }
 
     /**
@@ -0,0 +1,110 @@
+package org.ash.webapp_backend.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 密码哈希成本校准工具
+ *
+ * 启动时在当前机器上实测哈希耗时，选出最接近目标耗时（如 50ms）的工作因子，
+ * 使登录延迟不再取决于部署到了哪种机型。
+ *
+ * - BCrypt：强度每 +1 耗时翻倍，先测一个较低强度的基准耗时，再按 log2 比例推算
+ * - Argon2id：固定内存与并行度，耗时与迭代次数近似线性，按单次迭代耗时推算
+ *
+ * 测量前会先空跑几次让 JIT 编译热点代码，避免冷启动时测得的耗时偏大而选出过低的成本。
+ * 计算结果只会向上收敛到配置的下限，不会因为机器慢而降低到不安全的强度。
+ *
+ * @author Ash
+ * @date 2025/6/20
+ */
+public final class PasswordHashCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    /** BCrypt 基准测量强度，足够快又能反映真实开销 */
+    private static final int BCRYPT_PROBE_STRENGTH = 8;
+
+    /** BCrypt 允许的最大强度（BCrypt 规范上限为 31，这里留出余量） */
+    private static final int BCRYPT_MAX_STRENGTH = 16;
+
+    /** Argon2id 盐长度（字节） */
+    private static final int ARGON2_SALT_LENGTH = 16;
+
+    /** Argon2id 哈希长度（字节） */
+    private static final int ARGON2_HASH_LENGTH = 32;
+
+    /** Argon2id 允许的最大迭代次数 */
+    private static final int ARGON2_MAX_ITERATIONS = 64;
+
+    /** 每个候选参数的测量次数，取最小值以排除 GC、调度抖动 */
+    private static final int SAMPLES = 5;
+
+    private static final String PROBE_PASSWORD = "calibration-probe-password";
+
+    private PasswordHashCalibrator() {
+    }
+
+    /**
+     * 计算在当前机器上最接近目标耗时的 BCrypt 强度
+     *
+     * @param targetMillis 单次哈希目标耗时（毫秒）
+     * @param minStrength  允许的最低强度
+     * @return BCrypt 强度（log rounds）
+     */
+    public static int calibrateBcryptStrength(long targetMillis, int minStrength) {
+        long probeNanos = measure(new BCryptPasswordEncoder(BCRYPT_PROBE_STRENGTH));
+        double ratio = (double) targetMillis * 1_000_000 / Math.max(probeNanos, 1);
+        int strength = BCRYPT_PROBE_STRENGTH + (int) Math.round(Math.log(ratio) / Math.log(2));
+        strength = Math.max(minStrength, Math.min(BCRYPT_MAX_STRENGTH, strength));
+
+        log.info("🧮 BCrypt 校准完成：强度 {} 基准耗时 {}μs，目标 {}ms，选定强度 {}",
+                BCRYPT_PROBE_STRENGTH, probeNanos / 1000, targetMillis, strength);
+        return strength;
+    }
+
+    /**
+     * 计算在当前机器上最接近目标耗时的 Argon2id 迭代次数
+     *
+     * @param targetMillis  单次哈希目标耗时（毫秒）
+     * @param memoryKib     内存成本（KiB）
+     * @param parallelism   并行度
+     * @param minIterations 允许的最低迭代次数
+     * @return 迭代次数
+     */
+    public static int calibrateArgon2Iterations(long targetMillis, int memoryKib, int parallelism, int minIterations) {
+        long oneIterationNanos = measure(argon2(memoryKib, parallelism, 1));
+        int iterations = (int) Math.round((double) targetMillis * 1_000_000 / Math.max(oneIterationNanos, 1));
+        iterations = Math.max(minIterations, Math.min(ARGON2_MAX_ITERATIONS, iterations));
+
+        log.info("🧮 Argon2id 校准完成：内存 {}KiB 并行度 {} 单次迭代耗时 {}μs，目标 {}ms，选定迭代次数 {}",
+                memoryKib, parallelism, oneIterationNanos / 1000, targetMillis, iterations);
+        return iterations;
+    }
+
+    /**
+     * 按给定参数创建 Argon2id 编码器
+     */
+    public static Argon2PasswordEncoder argon2(int memoryKib, int parallelism, int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, parallelism, memoryKib, iterations);
+    }
+
+    /**
+     * 预热后多次测量单次 encode 耗时，返回最小值（纳秒）
+     */
+    private static long measure(PasswordEncoder encoder) {
+        for (int i = 0; i < SAMPLES; i++) {
+            encoder.encode(PROBE_PASSWORD);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(PROBE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,85 @@
+package org.ash.webapp_backend.utils;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限频日志
+ *
+ * 同一类日志在一个时间间隔内最多输出一条，间隔内被抑制的条数会附在下一条输出中，
+ * 避免攻击流量或故障风暴把日志 I/O 打满。
+ *
+ * 判断是否输出只需一次 CAS，被抑制时不会格式化日志参数。
+ * 限频状态属于实例：不同类别的日志应各用一个实例，否则高频的一类会把低频的一类一起抑制。
+ *
+ * 示例用途：
+ * <pre>
+ *   private final RateLimitedLogger rejectLog = new RateLimitedLogger(log, 10_000);
+ *   rejectLog.warn("❌ 拒绝无效令牌，原因: {}", reason);
+ * </pre>
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+public class RateLimitedLogger {
+
+    private final Logger delegate;
+
+    private final long intervalNanos;
+
+    private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param delegate       实际输出日志的 Logger
+     * @param intervalMillis 两条日志之间的最小间隔（毫秒）
+     */
+    public RateLimitedLogger(Logger delegate, long intervalMillis) {
+        this.delegate = delegate;
+        this.intervalNanos = intervalMillis * 1_000_000;
+    }
+
+    /**
+     * 限频输出 WARN 日志
+     */
+    public void warn(String format, Object... args) {
+        if (!delegate.isWarnEnabled()) {
+            return;
+        }
+        long skipped = acquire();
+        if (skipped < 0) {
+            return;
+        }
+        if (skipped > 0) {
+            delegate.warn(format + "（期间另有 {} 条同类日志被抑制）", append(args, skipped));
+        } else {
+            delegate.warn(format, args);
+        }
+    }
+
+    /**
+     * @return 允许输出时返回此前被抑制的条数，不允许输出时返回 -1
+     */
+    private long acquire() {
+        long now = System.nanoTime();
+        long next = nextAllowed.get();
+        if (next != Long.MIN_VALUE && now - next < 0) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        if (!nextAllowed.compareAndSet(next, now + intervalNanos)) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+
+    private static Object[] append(Object[] args, Object extra) {
+        Object[] result = new Object[args.length + 1];
+        System.arraycopy(args, 0, result, 0, args.length);
+        result[args.length] = extra;
+        return result;
+    }
+}
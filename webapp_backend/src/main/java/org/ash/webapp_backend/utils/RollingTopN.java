@@ -0,0 +1,106 @@
+package org.ash.webapp_backend.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 滚动时间窗口内的 Top-N 统计表
+ *
+ * 将时间切分为固定长度的桶（例如 12 个 5 秒桶 = 最近 1 分钟），
+ * 每个桶内按 key 累计次数、总量与最大值，过期的桶在复用时清空。
+ * 查询时合并窗口内所有有效桶，按总量降序取前 N 项。
+ *
+ * 适合事件源单线程写入、少量线程读取的场景（如 JFR 事件流汇总），
+ * 写入与读取都在对象锁内完成，临界区很短。
+ *
+ * @author Ash
+ * @date 2025/6/25
+ */
+public class RollingTopN {
+
+    private final long bucketMillis;
+
+    private final Bucket[] buckets;
+
+    /**
+     * @param bucketMillis 每个桶覆盖的时长（毫秒）
+     * @param bucketCount  桶数量，窗口长度 = bucketMillis * bucketCount
+     */
+    public RollingTopN(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * 记录一次事件
+     *
+     * @param key    统计维度，例如类名、方法、主机
+     * @param amount 累计量，例如耗时纳秒、分配字节
+     */
+    public synchronized void record(String key, long amount) {
+        long epoch = System.currentTimeMillis() / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.epoch = epoch;
+            bucket.stats.clear();
+        }
+        Stat stat = bucket.stats.computeIfAbsent(key, k -> new Stat());
+        stat.count++;
+        stat.total += amount;
+        stat.max = Math.max(stat.max, amount);
+    }
+
+    /**
+     * 汇总窗口内数据，按总量降序返回前 N 项
+     *
+     * @param limit N
+     * @return 每项包含 key、count、total、max
+     */
+    public synchronized List<Map<String, Object>> top(int limit) {
+        long oldest = System.currentTimeMillis() / bucketMillis - buckets.length + 1;
+        Map<String, Stat> merged = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch < oldest) {
+                continue;
+            }
+            bucket.stats.forEach((key, stat) -> {
+                Stat m = merged.computeIfAbsent(key, k -> new Stat());
+                m.count += stat.count;
+                m.total += stat.total;
+                m.max = Math.max(m.max, stat.max);
+            });
+        }
+
+        List<Map.Entry<String, Stat>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().total, a.getValue().total));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            Map.Entry<String, Stat> entry = entries.get(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("key", entry.getKey());
+            row.put("count", entry.getValue().count);
+            row.put("total", entry.getValue().total);
+            row.put("max", entry.getValue().max);
+            result.add(row);
+        }
+        return result;
+    }
+
+    private static final class Bucket {
+        private long epoch = Long.MIN_VALUE;
+        private final Map<String, Stat> stats = new HashMap<>();
+    }
+
+    private static final class Stat {
+        private long count;
+        private long total;
+        private long max;
+    }
+}
@@ -0,0 +1,285 @@
+package org.ash.webapp_backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 用户名前缀索引（内存）
+ *
+ * 主体为启动时一次性构建的不可变有序数组，全部使用基本类型存储：
+ * - blob：所有用户名的 UTF-8 字节首尾相接
+ * - offsets：第 i 个用户名在 blob 中的起始位置（长度 n + 1）
+ * - ids：第 i 个用户名对应的用户 ID
+ *
+ * 排序与比较按 ASCII 大小写不敏感进行，前缀查询为一次二分查找定位下界，再顺序扫描至前缀不再匹配，
+ * 百万级用户下单次查询为微秒级。每个用户约占 用户名字节数 + 12 字节，无对象头开销。
+ *
+ * 构建之后新增的用户写入增量表（ConcurrentSkipListMap），查询时与主体归并；
+ * 增量表超过阈值时调用 {@link #compact()} 合并生成新的主体数组。
+ *
+ * 所有字段在构造后不再修改（增量表本身线程安全），可被多线程无锁读取。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+public class UsernamePrefixIndex {
+
+    /** 增量表中每个条目的估算内存（跳表节点、String、Long 等对象开销） */
+    private static final int DELTA_ENTRY_BYTES = 160;
+
+    private final byte[] blob;
+
+    private final int[] offsets;
+
+    private final long[] ids;
+
+    /** 增量表：折叠后的用户名 + '\0' + ID -> 匹配结果 */
+    private final ConcurrentSkipListMap<String, Match> delta = new ConcurrentSkipListMap<>();
+
+    /**
+     * 查询结果
+     *
+     * @param id       用户 ID
+     * @param username 用户名（原始大小写）
+     */
+    public record Match(long id, String username) {
+    }
+
+    private UsernamePrefixIndex(byte[] blob, int[] offsets, long[] ids) {
+        this.blob = blob;
+        this.offsets = offsets;
+        this.ids = ids;
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param expectedSize 预计用户数，用于预分配
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * 主体数组中的用户数
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 增量表中的用户数
+     */
+    public int deltaSize() {
+        return delta.size();
+    }
+
+    /**
+     * 新增用户（构建完成之后注册的用户）
+     */
+    public void add(long id, String username) {
+        delta.put(fold(username) + '\0' + id, new Match(id, username));
+    }
+
+    /**
+     * 前缀查询（大小写不敏感），按用户名字典序返回前 limit 个
+     *
+     * @param prefix 前缀
+     * @param limit  最大返回条数
+     * @return 匹配的用户
+     */
+    public List<Match> search(String prefix, int limit) {
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+        List<Match> base = new ArrayList<>(Math.min(limit, 64));
+        for (int i = lowerBound(p); i < ids.length && base.size() < limit && startsWith(i, p); i++) {
+            base.add(new Match(ids[i], new String(blob, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8)));
+        }
+        if (delta.isEmpty()) {
+            return base;
+        }
+
+        // 与增量表归并，按折叠后的用户名排序，并按 ID 去重
+        String folded = fold(prefix);
+        NavigableMap<String, Match> added = delta.subMap(folded, true, folded + Character.MAX_VALUE, false);
+        List<Match> merged = new ArrayList<>(Math.min(limit, base.size() + added.size()));
+        int b = 0;
+        var it = added.values().iterator();
+        Match next = it.hasNext() ? it.next() : null;
+        while (merged.size() < limit && (b < base.size() || next != null)) {
+            Match candidate;
+            if (next == null || (b < base.size() && fold(base.get(b).username()).compareTo(fold(next.username())) <= 0)) {
+                candidate = base.get(b++);
+            } else {
+                candidate = next;
+                next = it.hasNext() ? it.next() : null;
+            }
+            if (merged.stream().noneMatch(m -> m.id() == candidate.id())) {
+                merged.add(candidate);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 将增量表合并进主体数组，返回新的索引（原索引不变）
+     */
+    public UsernamePrefixIndex compact() {
+        Builder builder = new Builder(ids.length + delta.size());
+        for (int i = 0; i < ids.length; i++) {
+            builder.add(ids[i], Arrays.copyOfRange(blob, offsets[i], offsets[i + 1]));
+        }
+        for (Match match : delta.values()) {
+            builder.add(match.id(), match.username());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 内存占用估算（字节）
+     */
+    public Map<String, Object> memoryStats() {
+        long arrays = (long) blob.length + (long) offsets.length * Integer.BYTES + (long) ids.length * Long.BYTES;
+        long deltaBytes = (long) delta.size() * DELTA_ENTRY_BYTES;
+        long users = ids.length + delta.size();
+        return Map.of(
+                "users", users,
+                "deltaUsers", delta.size(),
+                "blobBytes", blob.length,
+                "arrayBytes", arrays,
+                "estimatedBytes", arrays + deltaBytes,
+                "bytesPerUser", users == 0 ? 0 : (arrays + deltaBytes) / users,
+                "estimatedBytesPerMillionUsers", ids.length == 0 ? 0 : arrays * 1_000_000 / ids.length);
+    }
+
+    private int lowerBound(byte[] prefix) {
+        int lo = 0;
+        int hi = ids.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(blob, offsets[mid], offsets[mid + 1], prefix, 0, prefix.length) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private boolean startsWith(int i, byte[] prefix) {
+        int start = offsets[i];
+        if (offsets[i + 1] - start < prefix.length) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length; k++) {
+            if (fold(blob[start + k]) != fold(prefix[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 大小写不敏感的无符号字节序比较（仅折叠 ASCII 字母）
+     */
+    private static int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        int aLen = aTo - aFrom;
+        int bLen = bTo - bFrom;
+        int n = Math.min(aLen, bLen);
+        for (int k = 0; k < n; k++) {
+            int x = fold(a[aFrom + k]) & 0xff;
+            int y = fold(b[bFrom + k]) & 0xff;
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return aLen - bLen;
+    }
+
+    private static byte fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    private static String fold(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (sb == null) {
+                    sb = new StringBuilder(s);
+                }
+                sb.setCharAt(i, (char) (c + 32));
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    /**
+     * 索引构建器：顺序追加后一次性排序打包
+     */
+    public static final class Builder {
+
+        private final List<Entry> entries;
+
+        private record Entry(byte[] username, long id) {
+        }
+
+        private Builder(int expectedSize) {
+            this.entries = new ArrayList<>(Math.max(16, expectedSize));
+        }
+
+        public Builder add(long id, String username) {
+            return add(id, username.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private Builder add(long id, byte[] username) {
+            entries.add(new Entry(username, id));
+            return this;
+        }
+
+        public int size() {
+            return entries.size();
+        }
+
+        public UsernamePrefixIndex build() {
+            entries.sort((x, y) -> {
+                int c = compare(x.username(), 0, x.username().length, y.username(), 0, y.username().length);
+                return c != 0 ? c : Long.compare(x.id(), y.id());
+            });
+            // 排序后相同用户名与 ID 的条目相邻（构建期间暂存的新用户可能已被扫描到），只保留一条
+            int unique = 0;
+            int total = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (unique > 0 && isSame(entries.get(unique - 1), entry)) {
+                    continue;
+                }
+                entries.set(unique++, entry);
+                total += entry.username().length;
+            }
+            entries.subList(unique, entries.size()).clear();
+            byte[] blob = new byte[total];
+            int[] offsets = new int[entries.size() + 1];
+            long[] ids = new long[entries.size()];
+            int pos = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                offsets[i] = pos;
+                ids[i] = entry.id();
+                System.arraycopy(entry.username(), 0, blob, pos, entry.username().length);
+                pos += entry.username().length;
+            }
+            offsets[entries.size()] = pos;
+            entries.clear();
+            return new UsernamePrefixIndex(blob, offsets, ids);
+        }
+
+        private static boolean isSame(Entry x, Entry y) {
+            return x.id() == y.id() && Arrays.equals(x.username(), y.username());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.ash.webapp_backend.audit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 审计环形缓冲区的写满处理、多生产者并发发布与按序消费
+ *
+ * 吞吐量测试依赖机器，标记为 benchmark，默认构建不运行，使用 -Dsurefire.excludedGroups= -Dgroups=benchmark 执行。
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+class AuditRingBufferTests {
+
+    @Test
+    void rejectsWhenFullAndReusesSlotsAfterDrain() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer(1000));
+
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.publish(i, AuditEventType.LOGIN_SUCCESS, "u" + i, "127.0.0.1", null, 0));
+        }
+        assertFalse(buffer.publish(4, AuditEventType.LOGIN_SUCCESS, "u4", "127.0.0.1", null, 0));
+        long start = System.nanoTime();
+        assertFalse(buffer.publish(4, AuditEventType.LOGIN_SUCCESS, "u4", "127.0.0.1", null,
+                TimeUnit.MILLISECONDS.toNanos(5)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(5));
+
+        List<String> names = new ArrayList<>();
+        assertEquals(3, buffer.drain((at, type, username, ip, detail) -> names.add(username), 3));
+        assertEquals(List.of("u0", "u1", "u2"), names);
+        assertEquals(1, buffer.size());
+
+        assertTrue(buffer.publish(4, AuditEventType.LOGOUT, "u4", null, null, 0));
+        assertEquals(2, buffer.drain((at, type, username, ip, detail) -> names.add(username), 10));
+        assertEquals(List.of("u0", "u1", "u2", "u3", "u4"), names);
+        assertEquals(0, buffer.drain((at, type, username, ip, detail) -> names.add(username), 10));
+    }
+
+    @Test
+    void concurrentProducersDeliverEveryEventOnceInPerProducerOrder() throws Exception {
+        runProducers(4, 50_000);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void publishThroughput() throws Exception {
+        int producers = 4;
+        int perProducer = 200_000;
+        double nanosPerEvent = (double) runProducers(producers, perProducer) / (producers * perProducer);
+
+        assertTrue(nanosPerEvent < 2_000,
+                String.format("%d 个生产者共 %d 个事件，%.1f ns/事件，应低于 2μs", producers, producers * perProducer, nanosPerEvent));
+    }
+
+    /**
+     * 多个生产者并发发布，当前线程消费并校验每个生产者的事件按序、恰好一次送达
+     *
+     * @return 从开始发布到全部消费完成的耗时（纳秒）
+     */
+    private static long runProducers(int producers, int perProducer) throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(1024);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String name = "p" + p;
+            Thread thread = new Thread(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    // 消费者足够快，BLOCK 等待最终一定能拿到空位
+                    while (!buffer.publish(i, AuditEventType.LOGIN_SUCCESS, name, null, null,
+                            TimeUnit.MILLISECONDS.toNanos(100))) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] next = new long[producers];
+        long[] received = {0};
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        long start = System.nanoTime();
+        ready.countDown();
+        while (received[0] < (long) producers * perProducer && System.nanoTime() < deadline) {
+            int n = buffer.drain((at, type, username, ip, detail) -> {
+                int p = username.charAt(1) - '0';
+                assertEquals(next[p], at, "生产者 " + username + " 的事件乱序或重复");
+                next[p]++;
+                received[0]++;
+            }, 500);
+            if (n == 0) {
+                buffer.awaitPublished(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals((long) producers * perProducer, received[0]);
+        for (long count : next) {
+            assertEquals(perProducer, count);
+        }
+        assertEquals(0, buffer.size());
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,57 @@
+package org.ash.webapp_backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 历史用户启用状态回填：只执行一次，之后被禁用的账号在重启时保持禁用（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+class EnabledUsersBackfillTests {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EnabledUsersBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:backfill-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(255) NOT NULL UNIQUE, enabled BOOLEAN NOT NULL)");
+
+        backfill = new EnabledUsersBackfill();
+        ReflectionTestUtils.setField(backfill, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(backfill, "transactionTemplate",
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(backfill, "backfillEnabled", true);
+    }
+
+    @Test
+    void legacyUsersAreEnabledOnlyOnce() {
+        jdbcTemplate.update("INSERT INTO users (username, enabled) VALUES ('legacy1', FALSE), ('legacy2', FALSE), ('new', TRUE)");
+
+        assertEquals(2, backfill.backfill());
+        assertEquals(3, enabledCount());
+
+        // 管理员之后禁用的账号在下次启动时不会被重新启用
+        jdbcTemplate.update("UPDATE users SET enabled = FALSE WHERE username = 'legacy1'");
+        backfill.afterSingletonsInstantiated();
+        assertEquals(-1, backfill.backfill());
+        assertEquals(2, enabledCount());
+    }
+
+    private int enabledCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE enabled = TRUE", Integer.class);
+    }
+}
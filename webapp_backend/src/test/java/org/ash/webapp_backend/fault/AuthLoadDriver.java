@@ -0,0 +1,160 @@
+package org.ash.webapp_backend.fault;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 场景测试用的认证接口压测驱动
+ *
+ * 业务失败同样返回 HTTP 200，只有响应体 code 为 200 才算成功。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+class AuthLoadDriver {
+
+    private static final Pattern TOKEN = Pattern.compile("\"data\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final String PASSWORD = "Passw0rd!";
+
+    private final String baseUrl;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicInteger userSequence = new AtomicInteger();
+
+    /**
+     * 一轮压测结果（毫秒）
+     */
+    record LoadResult(int total, int errors, long p50, long p99, long max) {
+
+        double errorRate() {
+            return total == 0 ? 0 : (double) errors / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("total=%d errors=%d (%.1f%%) p50=%dms p99=%dms max=%dms",
+                    total, errors, errorRate() * 100, p50, p99, max);
+        }
+    }
+
+    AuthLoadDriver(int port) {
+        this.baseUrl = "http://127.0.0.1:" + port + "/api/v1";
+    }
+
+    /**
+     * 注册一个新用户并返回用户名
+     */
+    String registerUser(String prefix) throws Exception {
+        String username = prefix + "-" + userSequence.incrementAndGet() + "-" + System.nanoTime() % 100_000;
+        if (!post("/auth/register", credentials(username), null).ok()) {
+            throw new IllegalStateException("注册失败：" + username);
+        }
+        return username;
+    }
+
+    /**
+     * 登录并返回令牌，失败返回 null
+     */
+    String login(String username) throws Exception {
+        Response response = post("/auth/login", credentials(username), null);
+        if (!response.ok()) {
+            return null;
+        }
+        Matcher matcher = TOKEN.matcher(response.body());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 携带令牌访问一个只读接口（不访问数据库）
+     */
+    boolean authenticatedCall(String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/monitor/limiter"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return new Response(response.statusCode(), response.body()).ok();
+    }
+
+    /**
+     * 以固定并发执行 total 次操作，统计耗时分位数与失败次数（异常也计为失败）
+     */
+    LoadResult run(int total, int concurrency, Callable<Boolean> operation) throws Exception {
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = operation.call();
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        latencies[i] = (System.nanoTime() - start) / 1_000_000;
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        Arrays.sort(latencies);
+        return new LoadResult(total, errors.get(), percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies[total - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static String credentials(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private Response post(String path, String json, String token) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return new Response(response.statusCode(), response.body());
+    }
+
+    private record Response(int status, String body) {
+
+        boolean ok() {
+            return status == 200 && body != null && body.contains("\"code\":200");
+        }
+    }
+}
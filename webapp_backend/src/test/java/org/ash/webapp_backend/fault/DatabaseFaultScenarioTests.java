@@ -0,0 +1,192 @@
+package org.ash.webapp_backend.fault;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 数据库退化场景下认证链路的尾延迟与错误预算
+ *
+ * MySQL 由 H2（MySQL 兼容模式，TCP 服务）替代，应用经 {@link FaultInjectingTcpProxy} 访问；
+ * 会话使用嵌入式存储，使已认证请求完全不依赖数据库，场景中可以单独观察数据库故障的影响。
+ * 密码哈希强度降到 4，耗时预算只反映依赖故障本身。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+@Tag("fault")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class DatabaseFaultScenarioTests {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseFaultScenarioTests.class);
+
+    private static Server h2;
+
+    private static FaultInjectingTcpProxy proxy;
+
+    @LocalServerPort
+    private int port;
+
+    private AuthLoadDriver driver;
+
+    private final List<String> users = new ArrayList<>();
+
+    private String token;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        int h2Port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            h2Port = probe.getLocalPort();
+        }
+        h2 = Server.createTcpServer("-tcpPort", String.valueOf(h2Port), "-ifNotExists", "-tcpDaemon").start();
+        proxy = new FaultInjectingTcpProxy("127.0.0.1", h2Port);
+        Path sessions = Files.createTempDirectory("fault-sessions").resolve("sessions.db");
+
+        registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://127.0.0.1:" + proxy.port()
+                + "/mem:auth;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.hikari.connection-timeout", () -> "2000");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "10");
+        registry.add("spring.datasource.hikari.exception-override-class-name", H2ConnectionLossOverride.class::getName);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.springframework.web", () -> "info");
+        registry.add("session.store", () -> "embedded");
+        registry.add("session.embedded.path", sessions::toString);
+        registry.add("warmup.enabled", () -> "false");
+        registry.add("frontend.static.enabled", () -> "false");
+        registry.add("security.password.calibrate", () -> "false");
+        registry.add("security.password.bcrypt-min-strength", () -> "4");
+    }
+
+    /**
+     * 测试类结束时停止外部服务
+     *
+     * 类级 Store 中的资源在全部 afterAll 回调之后才关闭，此时 Spring 上下文已按 @DirtiesContext 关闭（关闭时还会回写审计与登录统计），
+     * 不会在上下文关闭过程中访问已停止的服务。
+     */
+    @RegisterExtension
+    static final BeforeAllCallback STOP_SERVERS = context -> context.getStore(ExtensionContext.Namespace.GLOBAL)
+            .put("fault-servers", (ExtensionContext.Store.CloseableResource) () -> {
+                if (proxy != null) {
+                    proxy.close();
+                }
+                if (h2 != null) {
+                    h2.stop();
+                }
+            });
+
+    @BeforeEach
+    void setUp() throws Exception {
+        proxy.heal();
+        driver = new AuthLoadDriver(port);
+        for (int i = 0; i < 20; i++) {
+            users.add(driver.registerUser("db"));
+        }
+        // 同一用户重新登录会顶掉旧令牌，已认证请求使用不参与登录压测的独立用户
+        token = driver.login(driver.registerUser("db-reader"));
+        assertNotNull(token);
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.heal();
+    }
+
+    @Test
+    void healthyBaseline() throws Exception {
+        AuthLoadDriver.LoadResult login = driver.run(200, 4, this::loginRandomUser);
+        AuthLoadDriver.LoadResult authed = driver.run(500, 4, () -> driver.authenticatedCall(token));
+        log.info("[baseline] login {} | authenticated {}", login, authed);
+
+        assertEquals(0, login.errors());
+        assertTrue(login.p99() < 500, login.toString());
+        assertEquals(0, authed.errors());
+        assertTrue(authed.p99() < 200, authed.toString());
+    }
+
+    /**
+     * 数据库往返增加 40ms：登录按查询次数线性变慢，已认证请求不受影响
+     */
+    @Test
+    void databaseLatencyOnlyAffectsLogin() throws Exception {
+        proxy.latency(20);
+        AuthLoadDriver.LoadResult login = driver.run(100, 4, this::loginRandomUser);
+        AuthLoadDriver.LoadResult authed = driver.run(500, 4, () -> driver.authenticatedCall(token));
+        log.info("[db +40ms rtt] login {} | authenticated {}", login, authed);
+
+        assertEquals(0, login.errors());
+        assertTrue(login.p50() >= 40, "登录至少经过一次数据库往返：" + login);
+        assertTrue(login.p99() < 2_000, login.toString());
+        assertEquals(0, authed.errors());
+        assertTrue(authed.p99() < 200, "已认证请求不应访问数据库：" + authed);
+    }
+
+    /**
+     * 抖动与丢包停顿：中位数基本不变，尾延迟有上界，不产生错误
+     */
+    @Test
+    void jitterAndPacketLossStayWithinTailBudget() throws Exception {
+        proxy.jitter(10).loss(0.02, 200).bandwidth(256 * 1024);
+        AuthLoadDriver.LoadResult login = driver.run(200, 4, this::loginRandomUser);
+        log.info("[db jitter+loss] login {}", login);
+
+        assertEquals(0, login.errors());
+        assertTrue(login.p50() < 200, login.toString());
+        assertTrue(login.p99() < 3_000, login.toString());
+    }
+
+    /**
+     * 连接被重置：每条失效的池化连接最多导致一次失败，错误率在预算内，故障解除后立即恢复
+     */
+    @Test
+    void connectionDropsStayWithinErrorBudget() throws Exception {
+        proxy.resetRate(0.2);
+        AtomicInteger round = new AtomicInteger();
+        AuthLoadDriver.LoadResult degraded = driver.run(300, 4, () -> {
+            if (round.incrementAndGet() % 100 == 50) {
+                proxy.resetAll();
+            }
+            return loginRandomUser();
+        });
+        proxy.heal();
+        AuthLoadDriver.LoadResult recovered = driver.run(100, 4, this::loginRandomUser);
+        log.info("[db resets] login {} | after heal {} | resets={}", degraded, recovered, proxy.resetConnections());
+
+        assertTrue(degraded.errorRate() <= 0.10, "错误率超出预算：" + degraded);
+        assertTrue(degraded.p99() < 3_000, degraded.toString());
+        assertEquals(0, recovered.errors(), recovered.toString());
+        assertTrue(driver.authenticatedCall(token));
+    }
+
+    private boolean loginRandomUser() throws Exception {
+        return driver.login(users.get(ThreadLocalRandom.current().nextInt(users.size()))) != null;
+    }
+}
@@ -0,0 +1,311 @@
+package org.ash.webapp_backend.fault;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 故障注入 TCP 代理（仅测试使用）
+ *
+ * 监听本机随机端口，把每个连接转发到目标地址，测试中可随时调整故障参数，对之后转发的数据立即生效：
+ * - 延迟与抖动：每个数据块转发前等待 latency + [0, jitter) 毫秒（按方向分别设置）
+ * - 限速：每个连接每个方向按 bytesPerSecond 节流
+ * - 丢包：TCP 之上无法真正丢包，以概率 lossRate 让数据块额外停顿 lossStallMillis，模拟重传超时
+ * - 连接重置：新连接以概率 resetRate 被立即 RST；{@link #resetAll()} 重置当前全部连接
+ * - 黑洞：接受连接与数据但不转发，用于触发客户端超时
+ *
+ * 每个连接两个方向各一个虚拟线程，阻塞读写，不依赖任何第三方库。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+public class FaultInjectingTcpProxy implements Closeable {
+
+    /** 单次读取的最大字节数，也是延迟与丢包的作用粒度 */
+    private static final int CHUNK = 16 * 1024;
+
+    private final InetSocketAddress target;
+
+    private final ServerSocket server;
+
+    /** 客户端连接 -> 对应的上游连接 */
+    private final Map<Socket, Socket> connections = new ConcurrentHashMap<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+
+    private final AtomicLong resets = new AtomicLong();
+
+    private volatile long upstreamLatencyMillis;
+
+    private volatile long downstreamLatencyMillis;
+
+    private volatile long jitterMillis;
+
+    private volatile long bytesPerSecond;
+
+    private volatile double lossRate;
+
+    private volatile long lossStallMillis = 200;
+
+    private volatile double resetRate;
+
+    private volatile boolean blackhole;
+
+    private volatile boolean closed;
+
+    /**
+     * @param targetHost 目标主机
+     * @param targetPort 目标端口
+     */
+    public FaultInjectingTcpProxy(String targetHost, int targetPort) throws IOException {
+        this.target = new InetSocketAddress(targetHost, targetPort);
+        this.server = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("fault-proxy-accept-" + server.getLocalPort()).start(this::acceptLoop);
+    }
+
+    /**
+     * 代理监听端口，客户端连接该端口即经过代理
+     */
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * 双向固定延迟（毫秒），请求与响应各等待一次，往返增加 2 × millis
+     */
+    public FaultInjectingTcpProxy latency(long millis) {
+        return latency(millis, millis);
+    }
+
+    /**
+     * 按方向设置固定延迟（毫秒）
+     *
+     * @param upstreamMillis   客户端 → 目标
+     * @param downstreamMillis 目标 → 客户端
+     */
+    public FaultInjectingTcpProxy latency(long upstreamMillis, long downstreamMillis) {
+        this.upstreamLatencyMillis = upstreamMillis;
+        this.downstreamLatencyMillis = downstreamMillis;
+        return this;
+    }
+
+    /**
+     * 每个数据块额外的随机延迟上限（毫秒）
+     */
+    public FaultInjectingTcpProxy jitter(long millis) {
+        this.jitterMillis = millis;
+        return this;
+    }
+
+    /**
+     * 每个连接每个方向的带宽上限（字节/秒），0 表示不限速
+     */
+    public FaultInjectingTcpProxy bandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * 数据块停顿概率与停顿时长（模拟丢包重传）
+     */
+    public FaultInjectingTcpProxy loss(double rate, long stallMillis) {
+        this.lossRate = rate;
+        this.lossStallMillis = stallMillis;
+        return this;
+    }
+
+    /**
+     * 新连接被立即重置的概率
+     */
+    public FaultInjectingTcpProxy resetRate(double rate) {
+        this.resetRate = rate;
+        return this;
+    }
+
+    /**
+     * 是否吞掉所有数据（连接保持但不转发）
+     */
+    public FaultInjectingTcpProxy blackhole(boolean enabled) {
+        this.blackhole = enabled;
+        return this;
+    }
+
+    /**
+     * 清除全部故障
+     */
+    public FaultInjectingTcpProxy heal() {
+        upstreamLatencyMillis = 0;
+        downstreamLatencyMillis = 0;
+        jitterMillis = 0;
+        bytesPerSecond = 0;
+        lossRate = 0;
+        resetRate = 0;
+        blackhole = false;
+        return this;
+    }
+
+    /**
+     * 以 RST 方式断开当前全部连接
+     *
+     * @return 断开的连接数（按客户端连接计）
+     */
+    public int resetAll() {
+        int count = 0;
+        // 按连接对计数：断开客户端一侧后转发线程可能抢先关闭上游一侧
+        for (Map.Entry<Socket, Socket> connection : connections.entrySet()) {
+            if (abort(connection.getKey())) {
+                count++;
+            }
+            abort(connection.getValue());
+        }
+        resets.addAndGet(count);
+        return count;
+    }
+
+    public long acceptedConnections() {
+        return accepted.get();
+    }
+
+    public long resetConnections() {
+        return resets.get();
+    }
+
+    public int openConnections() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        connections.forEach((client, upstream) -> {
+            abort(client);
+            abort(upstream);
+        });
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+            accepted.incrementAndGet();
+            if (resetRate > 0 && ThreadLocalRandom.current().nextDouble() < resetRate) {
+                resets.incrementAndGet();
+                abort(client);
+                continue;
+            }
+            Thread.ofVirtual().start(() -> connect(client));
+        }
+    }
+
+    private void connect(Socket client) {
+        Socket upstream = new Socket();
+        try {
+            client.setTcpNoDelay(true);
+            upstream.setTcpNoDelay(true);
+            upstream.connect(target, 5_000);
+        } catch (IOException e) {
+            abort(client);
+            abort(upstream);
+            return;
+        }
+        connections.put(client, upstream);
+        Thread.ofVirtual().start(() -> pump(client, upstream, true));
+        Thread.ofVirtual().start(() -> pump(upstream, client, false));
+    }
+
+    /**
+     * 单方向转发，任一方向结束即关闭整条连接
+     */
+    private void pump(Socket from, Socket to, boolean upstream) {
+        byte[] buffer = new byte[CHUNK];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                if (blackhole) {
+                    continue;
+                }
+                delay(upstream ? upstreamLatencyMillis : downstreamLatencyMillis);
+                long rate = bytesPerSecond;
+                if (rate > 0) {
+                    // 按限速切成小块写出，使对端持续以限定速率收到数据
+                    int slice = (int) Math.max(1, Math.min(n, rate / 20));
+                    for (int offset = 0; offset < n; offset += slice) {
+                        int length = Math.min(slice, n - offset);
+                        out.write(buffer, offset, length);
+                        out.flush();
+                        sleep(length * 1000L / rate);
+                    }
+                } else {
+                    out.write(buffer, 0, n);
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+            // 对端关闭或被 resetAll 中断
+        } finally {
+            connections.remove(upstream ? from : to);
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private void delay(long latencyMillis) {
+        long jitter = jitterMillis;
+        long wait = latencyMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0);
+        double loss = lossRate;
+        if (loss > 0 && ThreadLocalRandom.current().nextDouble() < loss) {
+            wait += lossStallMillis;
+        }
+        sleep(wait);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * SO_LINGER=0 后关闭，内核发送 RST 而不是 FIN
+     */
+    private static boolean abort(Socket socket) {
+        try {
+            if (socket.isClosed()) {
+                return false;
+            }
+            socket.setSoLinger(true, 0);
+        } catch (SocketException ignored) {
+            // 未连接的套接字无法设置，直接关闭
+        }
+        closeQuietly(socket);
+        return true;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 关闭失败无需处理
+        }
+    }
+}
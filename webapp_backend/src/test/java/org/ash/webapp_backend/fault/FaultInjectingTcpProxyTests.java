@@ -0,0 +1,161 @@
+package org.ash.webapp_backend.fault;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 故障注入代理自检：以本地回显服务为目标，验证延迟、限速、重置与黑洞确实生效
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+class FaultInjectingTcpProxyTests {
+
+    private ServerSocket echo;
+
+    private FaultInjectingTcpProxy proxy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        echo = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(() -> {
+            while (!echo.isClosed()) {
+                try {
+                    Socket socket = echo.accept();
+                    Thread.ofVirtual().start(() -> {
+                        try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+                            in.transferTo(out);
+                        } catch (IOException ignored) {
+                            // 客户端断开
+                        }
+                    });
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        proxy = new FaultInjectingTcpProxy("127.0.0.1", echo.getLocalPort());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        proxy.close();
+        echo.close();
+    }
+
+    @Test
+    void forwardsTransparentlyWhenHealthy() throws IOException {
+        try (Socket socket = connect()) {
+            byte[] payload = "PING\r\n".getBytes();
+            assertArrayEquals(payload, roundTrip(socket, payload));
+        }
+        assertEquals(1, proxy.acceptedConnections());
+    }
+
+    @Test
+    void addsLatencyInBothDirections() throws IOException {
+        proxy.latency(50, 30);
+        try (Socket socket = connect()) {
+            long start = System.nanoTime();
+            roundTrip(socket, new byte[]{1});
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(millis >= 80 && millis < 1_000, "往返耗时 " + millis + "ms");
+
+            proxy.heal();
+            start = System.nanoTime();
+            roundTrip(socket, new byte[]{2});
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 50);
+        }
+    }
+
+    @Test
+    void capsBandwidth() throws IOException {
+        proxy.bandwidth(512 * 1024);
+        byte[] payload = new byte[128 * 1024];
+        Arrays.fill(payload, (byte) 7);
+        try (Socket socket = connect()) {
+            long start = System.nanoTime();
+            assertArrayEquals(payload, roundTrip(socket, payload));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            // 两个方向各 128KB，按 512KB/s 每个方向约 250ms，两个方向流水线重叠；最后一片写出后的等待不计入
+            assertTrue(millis >= 200, "限速后往返耗时 " + millis + "ms");
+        }
+    }
+
+    @Test
+    void resetsExistingAndNewConnections() throws IOException {
+        try (Socket socket = connect()) {
+            roundTrip(socket, new byte[]{1});
+            assertEquals(1, proxy.resetAll());
+            assertThrows(IOException.class, () -> {
+                for (int i = 0; i < 10; i++) {
+                    roundTrip(socket, new byte[]{2});
+                }
+            });
+        }
+
+        proxy.resetRate(1.0);
+        try (Socket socket = connect()) {
+            assertThrows(IOException.class, () -> roundTrip(socket, new byte[]{3}));
+        }
+        assertEquals(2, proxy.resetConnections());
+    }
+
+    @Test
+    void blackholeTriggersClientTimeout() throws IOException {
+        proxy.blackhole(true);
+        try (Socket socket = connect()) {
+            socket.setSoTimeout(200);
+            assertThrows(java.net.SocketTimeoutException.class, () -> roundTrip(socket, new byte[]{1}));
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), proxy.port());
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(5_000);
+        return socket;
+    }
+
+    private static byte[] roundTrip(Socket socket, byte[] payload) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        InputStream in = socket.getInputStream();
+        byte[] received = new byte[payload.length];
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                out.write(payload);
+                out.flush();
+            } catch (IOException ignored) {
+                // 由读取端报告
+            }
+        });
+        int read = 0;
+        while (read < received.length) {
+            int n = in.read(received, read, received.length - read);
+            if (n < 0) {
+                throw new IOException("连接已关闭");
+            }
+            read += n;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return received;
+    }
+}
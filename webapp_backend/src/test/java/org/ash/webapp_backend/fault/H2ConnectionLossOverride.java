@@ -0,0 +1,28 @@
+package org.ash.webapp_backend.fault;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * 让 HikariCP 把 H2 的断连错误识别为连接失效
+ *
+ * MySQL 驱动断连时报 SQLState 08S01，Hikari 据此驱逐连接；H2 的“连接已断开 / 已关闭”使用 9xxxx 状态码，
+ * 不加覆盖时失效连接会留在池中被反复借出，与生产行为不一致。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+public class H2ConnectionLossOverride implements SQLExceptionOverride {
+
+    /** 90067 连接已断开，90121 数据库（会话）已关闭 */
+    private static final int CONNECTION_BROKEN = 90067;
+
+    private static final int SESSION_CLOSED = 90121;
+
+    @java.lang.Override
+    public Override adjudicate(SQLException e) {
+        int code = e.getErrorCode();
+        return code == CONNECTION_BROKEN || code == SESSION_CLOSED ? Override.MUST_EVICT : Override.CONTINUE_EVICT;
+    }
+}
@@ -0,0 +1,249 @@
+package org.ash.webapp_backend.fault;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redis 退化场景下认证链路的尾延迟与错误预算
+ *
+ * 需要本机可执行的 redis-server（PATH 中或由环境变量 REDIS_SERVER 指定），找不到时整个类跳过。
+ * 测试启动一个不落盘的临时实例，应用经 {@link FaultInjectingTcpProxy} 访问；数据库使用直连的 H2，
+ * 场景中只有 Redis 一个故障源。
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+@Tag("fault")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@EnabledIf("redisServerAvailable")
+class RedisFaultScenarioTests {
+
+    /** 应用侧 Redis 命令超时（毫秒） */
+    private static final long REDIS_TIMEOUT_MS = 1_000;
+
+    /** 会话查询合并的等待上限（毫秒）：Redis 命令超时加排队余量，与 SessionLookupServiceImpl 一致 */
+    private static final long COALESCING_TIMEOUT_MS = REDIS_TIMEOUT_MS + 500;
+
+    private static final Logger log = LoggerFactory.getLogger(RedisFaultScenarioTests.class);
+
+    private static Process redis;
+
+    private static Server h2;
+
+    private static FaultInjectingTcpProxy proxy;
+
+    @LocalServerPort
+    private int port;
+
+    private AuthLoadDriver driver;
+
+    private final List<String> users = new ArrayList<>();
+
+    private String token;
+
+    static boolean redisServerAvailable() {
+        return redisServer() != null;
+    }
+
+    private static String redisServer() {
+        String configured = System.getenv("REDIS_SERVER");
+        if (configured != null && new File(configured).canExecute()) {
+            return configured;
+        }
+        for (String dir : System.getenv().getOrDefault("PATH", "").split(File.pathSeparator)) {
+            File candidate = new File(dir, "redis-server");
+            if (candidate.canExecute()) {
+                return candidate.getPath();
+            }
+        }
+        return null;
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws Exception {
+        int redisPort = freePort();
+        redis = new ProcessBuilder(redisServer(), "--port", String.valueOf(redisPort), "--bind", "127.0.0.1",
+                "--save", "", "--appendonly", "no")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        // 初始化失败、@AfterAll 未执行时由 JVM 退出兜底结束进程
+        Runtime.getRuntime().addShutdownHook(new Thread(redis::destroy));
+        awaitListening(redisPort);
+        proxy = new FaultInjectingTcpProxy("127.0.0.1", redisPort);
+
+        int h2Port = freePort();
+        h2 = Server.createTcpServer("-tcpPort", String.valueOf(h2Port), "-ifNotExists", "-tcpDaemon").start();
+        Path sessions = Files.createTempDirectory("fault-sessions").resolve("sessions.db");
+
+        registry.add("spring.data.redis.host", () -> "127.0.0.1");
+        registry.add("spring.data.redis.port", proxy::port);
+        registry.add("spring.data.redis.password", () -> "");
+        registry.add("spring.data.redis.timeout", () -> REDIS_TIMEOUT_MS + "ms");
+        registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://127.0.0.1:" + h2Port
+                + "/mem:auth-redis;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.springframework.web", () -> "info");
+        registry.add("session.store", () -> "redis");
+        registry.add("session.embedded.path", sessions::toString);
+        registry.add("auth.session.coalescing.enabled", () -> "true");
+        registry.add("warmup.enabled", () -> "false");
+        registry.add("frontend.static.enabled", () -> "false");
+        registry.add("security.password.calibrate", () -> "false");
+        registry.add("security.password.bcrypt-min-strength", () -> "4");
+    }
+
+    /**
+     * 测试类结束时停止外部服务
+     *
+     * 类级 Store 中的资源在全部 afterAll 回调之后才关闭，此时 Spring 上下文已按 @DirtiesContext 关闭（关闭时仍会访问 Redis 与数据库），
+     * 不会在上下文关闭过程中访问已停止的服务。
+     */
+    @RegisterExtension
+    static final BeforeAllCallback STOP_SERVERS = context -> context.getStore(ExtensionContext.Namespace.GLOBAL)
+            .put("fault-servers", (ExtensionContext.Store.CloseableResource) () -> {
+                if (proxy != null) {
+                    proxy.close();
+                }
+                if (h2 != null) {
+                    h2.stop();
+                }
+                if (redis != null) {
+                    redis.destroy();
+                }
+            });
+
+    @BeforeEach
+    void setUp() throws Exception {
+        proxy.heal();
+        driver = new AuthLoadDriver(port);
+        for (int i = 0; i < 20; i++) {
+            users.add(driver.registerUser("redis"));
+        }
+        token = driver.login(driver.registerUser("redis-reader"));
+        assertNotNull(token);
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.heal();
+    }
+
+    @Test
+    void healthyBaseline() throws Exception {
+        AuthLoadDriver.LoadResult authed = driver.run(500, 4, () -> driver.authenticatedCall(token));
+        log.info("[redis baseline] authenticated {}", authed);
+
+        assertEquals(0, authed.errors());
+        assertTrue(authed.p99() < 200, authed.toString());
+    }
+
+    /**
+     * Redis 往返增加 100ms：每个已认证请求恰好一次会话查询，延迟按往返叠加但远低于超时，不产生错误
+     */
+    @Test
+    void redisLatencyAddsOneRoundTripPerRequest() throws Exception {
+        proxy.latency(50);
+        AuthLoadDriver.LoadResult authed = driver.run(200, 4, () -> driver.authenticatedCall(token));
+        log.info("[redis +100ms rtt] authenticated {}", authed);
+
+        assertEquals(0, authed.errors());
+        assertTrue(authed.p50() >= 100, "已认证请求至少经过一次 Redis 往返：" + authed);
+        assertTrue(authed.p99() < REDIS_TIMEOUT_MS, authed.toString());
+    }
+
+    /**
+     * Redis 无响应：请求在超时之内失败而不是无限挂起；恢复并断开旧连接后，客户端重连，请求立即恢复
+     */
+    @Test
+    void blackholeFailsFastAndRecoversAfterReconnect() throws Exception {
+        proxy.blackhole(true);
+        AuthLoadDriver.LoadResult degraded = driver.run(20, 4, () -> driver.authenticatedCall(token));
+        // 黑洞期间发出的命令没有应答，旧连接上的应答顺序已不可信，断开后由客户端自动重连
+        proxy.heal();
+        proxy.resetAll();
+        Thread.sleep(500);
+        AuthLoadDriver.LoadResult recovered = driver.run(200, 4, () -> driver.authenticatedCall(token));
+        log.info("[redis blackhole] authenticated {} | after heal {}", degraded, recovered);
+
+        assertEquals(degraded.total(), degraded.errors(), "会话无法校验时必须拒绝：" + degraded);
+        assertTrue(degraded.max() < REDIS_TIMEOUT_MS + COALESCING_TIMEOUT_MS + 1_000,
+                "失败耗时应受超时约束：" + degraded);
+        assertEquals(0, recovered.errors(), recovered.toString());
+    }
+
+    /**
+     * 连接被反复重置：只有断开瞬间在途的命令失败，错误率在预算内，故障解除后立即恢复
+     */
+    @Test
+    void connectionResetsStayWithinErrorBudget() throws Exception {
+        AtomicInteger round = new AtomicInteger();
+        AuthLoadDriver.LoadResult degraded = driver.run(600, 4, () -> {
+            if (round.incrementAndGet() % 100 == 50) {
+                proxy.resetAll();
+            }
+            return ThreadLocalRandom.current().nextInt(4) == 0
+                    ? driver.login(users.get(ThreadLocalRandom.current().nextInt(users.size()))) != null
+                    : driver.authenticatedCall(token);
+        });
+        AuthLoadDriver.LoadResult recovered = driver.run(200, 4, () -> driver.authenticatedCall(token));
+        log.info("[redis resets] mixed {} | after {} | resets={}", degraded, recovered, proxy.resetConnections());
+
+        assertTrue(degraded.errorRate() <= 0.05, "错误率超出预算：" + degraded);
+        assertTrue(degraded.p99() < REDIS_TIMEOUT_MS + COALESCING_TIMEOUT_MS, degraded.toString());
+        assertEquals(0, recovered.errors(), recovered.toString());
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+
+    private static void awaitListening(int port) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            try {
+                new Socket("127.0.0.1", port).close();
+                return;
+            } catch (Exception e) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("redis-server 未能在 5 秒内启动", e);
+                }
+                Thread.sleep(50);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.ash.webapp_backend.filter;
+
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.security.AuthSession;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.RolePermissionRegistry;
+import org.ash.webapp_backend.security.TokenRejectReason;
+import org.ash.webapp_backend.security.TokenRejectStats;
+import org.ash.webapp_backend.service.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 鉴权过滤器：有效、已注销与无效令牌的处理结果及拒绝计数
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+class JwtAuthenticationFilterTests {
+
+    private final TokenRejectStats stats = new TokenRejectStats();
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenService", new StubTokenService());
+        ReflectionTestUtils.setField(filter, "rolePermissionRegistry", new RolePermissionRegistry());
+        ReflectionTestUtils.setField(filter, "tokenRejectStats", stats);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticates() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = send("valid", chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals("alice", SecurityContextHolder.getContext().getAuthentication().getName());
+        assertEquals(0L, stats.snapshot().get("total"));
+    }
+
+    @Test
+    void revokedTokenIsAnsweredWith401AndCounted() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = send("revoked", chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals(1L, stats.snapshot().get(TokenRejectReason.REVOKED.name()));
+    }
+
+    @Test
+    void invalidTokensAreCountedByReasonAndPassThroughUnauthenticated() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send("bad-signature", new MockFilterChain());
+        }
+        MockFilterChain chain = new MockFilterChain();
+        send("expired", chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        Map<String, Object> snapshot = stats.snapshot();
+        assertEquals(3L, snapshot.get(TokenRejectReason.SIGNATURE.name()));
+        assertEquals(1L, snapshot.get(TokenRejectReason.EXPIRED.name()));
+        assertEquals(0L, snapshot.get(TokenRejectReason.REVOKED.name()));
+        assertEquals(4L, snapshot.get("total"));
+    }
+
+    private MockHttpServletResponse send(String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/monitor/status");
+        request.setServletPath("/monitor/status");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    /**
+     * 按令牌内容返回固定结果
+     */
+    private static class StubTokenService implements TokenService {
+
+        @Override
+        public AuthSession resolve(String token) {
+            return switch (token) {
+                case "valid" -> new AuthSession("alice", "USER", System.currentTimeMillis() + 60_000);
+                case "revoked" -> null;
+                case "expired" -> throw InvalidTokenException.of(TokenRejectReason.EXPIRED);
+                default -> throw InvalidTokenException.of(TokenRejectReason.SIGNATURE);
+            };
+        }
+
+        @Override
+        public String issueToken(User user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String issueToken(User user, Format format) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String revoke(String token) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long revokeUsers(List<String> usernames) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<TokenIntrospection> introspect(List<String> tokens) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
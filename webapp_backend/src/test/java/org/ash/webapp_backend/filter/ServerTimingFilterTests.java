@@ -0,0 +1,82 @@
+package org.ash.webapp_backend.filter;
+
+import jakarta.servlet.FilterChain;
+import org.ash.webapp_backend.instrument.RequestTiming;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Server-Timing 过滤器：匿名请求不输出阶段耗时，具备监控权限的请求才输出
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+class ServerTimingFilterTests {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.setEnabled(false);
+    }
+
+    @Test
+    void anonymousLoginNeverSeesStageTimings() throws Exception {
+        ServerTimingFilter filter = newFilter();
+
+        // 登录请求执行了 bcrypt，但调用方未认证
+        MockHttpServletResponse response = send(filter, (req, res) -> {
+            RequestTiming.record(RequestTiming.Stage.BCRYPT, 80_000_000);
+            res.getWriter().write("{}");
+            res.flushBuffer();
+        });
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    @Test
+    void monitorUsersSeeStageTimings() throws Exception {
+        ServerTimingFilter filter = newFilter();
+
+        MockHttpServletResponse response = send(filter, (req, res) -> {
+            RequestTiming.allowHeader();
+            RequestTiming.record(RequestTiming.Stage.DB, 1_000_000);
+        });
+
+        String header = response.getHeader("Server-Timing");
+        assertNotNull(header);
+        assertTrue(header.startsWith("db;dur=1.000"), header);
+    }
+
+    @Test
+    void headerSwitchOffHidesTimingsFromEveryone() throws Exception {
+        ServerTimingFilter filter = newFilter();
+        ReflectionTestUtils.setField(filter, "exposeHeader", false);
+
+        MockHttpServletResponse response = send(filter, (req, res) -> RequestTiming.allowHeader());
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+
+    private static ServerTimingFilter newFilter() {
+        ServerTimingFilter filter = new ServerTimingFilter();
+        ReflectionTestUtils.setField(filter, "exposeHeader", true);
+        ReflectionTestUtils.setField(filter, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(filter, "slowMillis", 500L);
+        ReflectionTestUtils.setField(filter, "slowLogSize", 10);
+        filter.init();
+        return filter;
+    }
+
+    private static MockHttpServletResponse send(ServerTimingFilter filter, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
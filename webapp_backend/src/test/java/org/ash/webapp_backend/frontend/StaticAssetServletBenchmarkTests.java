@@ -0,0 +1,314 @@
+package org.ash.webapp_backend.frontend;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.servlets.DefaultServlet;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 同源托管（预压缩 + sendfile + immutable 缓存）与现有双源部署的页面加载对比
+ *
+ * 在本机启动两个内嵌 Tomcat：
+ * - 同源：根上下文为 {@link StaticAssetServlet}，/api/v1 为模拟接口
+ * - 双源：前端由独立端口上的 Tomcat DefaultServlet 提供（不压缩、无缓存策略），
+ *   带 Authorization 头的接口调用每次先发一次 CORS 预检
+ *
+ * 一次“页面加载”= index.html + 2 个带哈希的资源 + 3 次接口调用；“再次访问”带上浏览器已缓存的 ETag。
+ * 模拟构建产物只生成 .gz（JDK 没有 Brotli 编码器），br 变体走同一条代码路径。
+ *
+ * 协商、缓存与回退的功能测试随默认构建运行；页面加载对比依赖机器，标记为 benchmark，
+ * 使用 -Dsurefire.excludedGroups= -Dgroups=benchmark 执行。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+class StaticAssetServletBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticAssetServletBenchmarkTests.class);
+
+    private static final int ROUNDS = 300;
+
+    private static final List<String> ASSETS = List.of("/index.html", "/static/js/main.3f2a1b4c.js", "/static/css/main.8d7e6f5a.css");
+
+    private static final int API_CALLS = 3;
+
+    @TempDir
+    static Path dir;
+
+    private static Tomcat sameOrigin;
+
+    private static Tomcat frontendOrigin;
+
+    private static StaticAssetServlet servlet;
+
+    private static final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeAll
+    static void start() throws Exception {
+        Path build = Files.createDirectories(dir.resolve("build"));
+        writeBundle(build);
+
+        sameOrigin = newTomcat(dir.resolve("tomcat-a"));
+        Context root = sameOrigin.addContext("", build.toString());
+        Tomcat.addDefaultMimeTypeMappings(root);
+        servlet = new StaticAssetServlet(build, 48 * 1024, true);
+        Tomcat.addServlet(root, "frontend", servlet).setLoadOnStartup(1);
+        root.addServletMappingDecoded("/", "frontend");
+        Context api = sameOrigin.addContext("/api/v1", build.toString());
+        Tomcat.addServlet(api, "api", new ApiStub());
+        api.addServletMappingDecoded("/*", "api");
+        sameOrigin.start();
+
+        frontendOrigin = newTomcat(dir.resolve("tomcat-b"));
+        Context plain = frontendOrigin.addContext("", build.toString());
+        Tomcat.addDefaultMimeTypeMappings(plain);
+        Tomcat.addServlet(plain, "default", new DefaultServlet());
+        plain.addServletMappingDecoded("/", "default");
+        frontendOrigin.start();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        sameOrigin.stop();
+        sameOrigin.destroy();
+        frontendOrigin.stop();
+        frontendOrigin.destroy();
+    }
+
+    @Test
+    void negotiationCachingAndFallback() throws Exception {
+        String base = "http://localhost:" + sameOrigin.getConnector().getLocalPort();
+        HttpResponse<byte[]> js = get(base + ASSETS.get(1), Map.of("Accept-Encoding", "br;q=0, gzip"));
+        assertEquals(200, js.statusCode());
+        assertEquals("gzip", js.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(js.headers().firstValue("Cache-Control").orElse("").contains("immutable"));
+
+        String etag = js.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get(base + ASSETS.get(1), Map.of("Accept-Encoding", "gzip", "If-None-Match", etag)).statusCode());
+        assertEquals(200, get(base + ASSETS.get(1), Map.of("If-None-Match", etag)).statusCode());
+
+        HttpResponse<byte[]> route = get(base + "/home/settings", Map.of());
+        assertEquals(200, route.statusCode());
+        assertEquals("no-cache", route.headers().firstValue("Cache-Control").orElse(null));
+        assertEquals(404, get(base + "/static/js/missing.js", Map.of()).statusCode());
+        assertTrue(get(base + "/../tomcat-a/conf", Map.of()).statusCode() >= 400);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void pageLoadComparedWithTwoOrigins() throws Exception {
+        String a = "http://localhost:" + sameOrigin.getConnector().getLocalPort();
+        String b = "http://localhost:" + frontendOrigin.getConnector().getLocalPort();
+
+        Map<String, String> sameEtags = new HashMap<>();
+        Map<String, String> twoEtags = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            loadSameOrigin(a, new HashMap<>());
+            loadTwoOrigins(a, b, new HashMap<>());
+        }
+
+        long[] cold = {0, 0};
+        long[] coldBytes = {0, 0};
+        long[] warm = {0, 0};
+        long[] warmBytes = {0, 0};
+        int[] requests = new int[4];
+        for (int i = 0; i < ROUNDS; i++) {
+            // 首次访问没有任何缓存，再次访问带上首次访问拿到的 ETag
+            sameEtags.clear();
+            twoEtags.clear();
+            long start = System.nanoTime();
+            Load same = loadSameOrigin(a, sameEtags);
+            cold[0] += System.nanoTime() - start;
+            coldBytes[0] += same.bytes;
+            requests[0] = same.requests;
+
+            start = System.nanoTime();
+            Load two = loadTwoOrigins(a, b, twoEtags);
+            cold[1] += System.nanoTime() - start;
+            coldBytes[1] += two.bytes;
+            requests[1] = two.requests;
+
+            start = System.nanoTime();
+            same = loadSameOrigin(a, sameEtags);
+            warm[0] += System.nanoTime() - start;
+            warmBytes[0] += same.bytes;
+            requests[2] = same.requests;
+
+            start = System.nanoTime();
+            two = loadTwoOrigins(a, b, twoEtags);
+            warm[1] += System.nanoTime() - start;
+            warmBytes[1] += two.bytes;
+            requests[3] = two.requests;
+        }
+
+        String summary = String.format("页面加载（%d 轮平均，请求数 / 字节 / 耗时）首次访问：同源 %d / %d / %.0fμs，双源 %d / %d / %.0fμs；"
+                        + "再次访问：同源 %d / %d / %.0fμs，双源 %d / %d / %.0fμs", ROUNDS,
+                requests[0], coldBytes[0] / ROUNDS, cold[0] / 1000.0 / ROUNDS,
+                requests[1], coldBytes[1] / ROUNDS, cold[1] / 1000.0 / ROUNDS,
+                requests[2], warmBytes[0] / ROUNDS, warm[0] / 1000.0 / ROUNDS,
+                requests[3], warmBytes[1] / ROUNDS, warm[1] / 1000.0 / ROUNDS);
+        log.info("{}，同源托管运行指标 {}", summary, servlet.getStats());
+
+        assertTrue(coldBytes[0] < coldBytes[1], summary);
+        assertTrue(requests[2] < requests[3], summary);
+        assertTrue(warm[0] < warm[1], summary);
+        assertTrue((long) servlet.getStats().get("sendfile") > 0, summary);
+    }
+
+    private record Load(int requests, long bytes) {
+    }
+
+    /**
+     * 同源：资源按 gzip 协商；immutable 资源已缓存时不再请求；接口调用无需预检
+     */
+    private static Load loadSameOrigin(String origin, Map<String, String> etags) throws Exception {
+        int requests = 0;
+        long bytes = 0;
+        for (String asset : ASSETS) {
+            if (etags.containsKey(asset) && !asset.equals("/index.html")) {
+                continue;
+            }
+            HttpResponse<byte[]> response = conditionalGet(origin + asset, etags.get(asset));
+            etags.putIfAbsent(asset, response.headers().firstValue("ETag").orElse(""));
+            requests++;
+            bytes += response.body().length;
+        }
+        for (int i = 0; i < API_CALLS; i++) {
+            bytes += get(origin + "/api/v1/monitor/status", Map.of("Authorization", "Bearer x")).body().length;
+            requests++;
+        }
+        return new Load(requests, bytes);
+    }
+
+    /**
+     * 双源：资源不压缩，且没有缓存策略，每次都要条件请求；每次接口调用先发 CORS 预检
+     */
+    private static Load loadTwoOrigins(String api, String frontend, Map<String, String> etags) throws Exception {
+        int requests = 0;
+        long bytes = 0;
+        for (String asset : ASSETS) {
+            HttpResponse<byte[]> response = conditionalGet(frontend + asset, etags.get(asset));
+            etags.putIfAbsent(asset, response.headers().firstValue("ETag").orElse(""));
+            requests++;
+            bytes += response.body().length;
+        }
+        for (int i = 0; i < API_CALLS; i++) {
+            HttpRequest preflight = HttpRequest.newBuilder(URI.create(api + "/api/v1/monitor/status"))
+                    .method("OPTIONS", HttpRequest.BodyPublishers.noBody())
+                    .header("Origin", frontend)
+                    .header("Access-Control-Request-Method", "GET")
+                    .header("Access-Control-Request-Headers", "authorization")
+                    .build();
+            client.send(preflight, HttpResponse.BodyHandlers.discarding());
+            bytes += get(api + "/api/v1/monitor/status", Map.of("Authorization", "Bearer x", "Origin", frontend)).body().length;
+            requests += 2;
+        }
+        return new Load(requests, bytes);
+    }
+
+    private static HttpResponse<byte[]> conditionalGet(String url, String etag) throws Exception {
+        return etag == null || etag.isEmpty()
+                ? get(url, Map.of("Accept-Encoding", "gzip"))
+                : get(url, Map.of("Accept-Encoding", "gzip", "If-None-Match", etag));
+    }
+
+    private static HttpResponse<byte[]> get(String url, Map<String, String> headers) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+        headers.forEach(builder::header);
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static Tomcat newTomcat(Path baseDir) {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(0);
+        tomcat.getConnector();
+        return tomcat;
+    }
+
+    /**
+     * 模拟构建产物：文本内容有一定重复度，压缩率接近真实的打包结果
+     */
+    private static void writeBundle(Path build) throws IOException {
+        Random random = new Random(42);
+        String[] words = {"function", "return", "const", "props", "useState", "React", "createElement", "children",
+                "className", "onClick", "undefined", "Object", "assign", "prototype", "length", "push"};
+        StringBuilder js = new StringBuilder();
+        while (js.length() < 600_000) {
+            js.append(words[random.nextInt(words.length)]).append(random.nextInt(1000)).append(random.nextBoolean() ? "(" : ";");
+        }
+        StringBuilder css = new StringBuilder();
+        while (css.length() < 40_000) {
+            css.append(".c").append(random.nextInt(5000)).append("{margin:").append(random.nextInt(40)).append("px}");
+        }
+        String html = "<!doctype html><html><head><script src=\"/static/js/main.3f2a1b4c.js\"></script></head><body>"
+                + "<div id=\"root\"></div>" + "<!-- padding -->".repeat(100) + "</body></html>";
+
+        writeWithGzip(build.resolve("index.html"), html);
+        writeWithGzip(Files.createDirectories(build.resolve("static/js")).resolve("main.3f2a1b4c.js"), js.toString());
+        writeWithGzip(Files.createDirectories(build.resolve("static/css")).resolve("main.8d7e6f5a.css"), css.toString());
+    }
+
+    private static void writeWithGzip(Path file, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        Files.write(file, bytes);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file.resolveSibling(file.getFileName() + ".gz")))) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 模拟接口：按 Spring CorsConfig 的方式应答预检，GET 返回一段小 JSON
+     */
+    private static class ApiStub extends HttpServlet {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doOptions(HttpServletRequest request, HttpServletResponse response) {
+            response.setHeader("Access-Control-Allow-Origin", request.getHeader("Origin"));
+            response.setHeader("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
+            response.setHeader("Access-Control-Allow-Headers", "authorization");
+            response.setHeader("Access-Control-Allow-Credentials", "true");
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            if (request.getHeader("Origin") != null) {
+                response.setHeader("Access-Control-Allow-Origin", request.getHeader("Origin"));
+                response.setHeader("Access-Control-Allow-Credentials", "true");
+            }
+            response.setContentType("application/json");
+            response.getWriter().write("{\"code\":200,\"data\":{\"backend\":\"up\"}}");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.ash.webapp_backend.instrument;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 请求阶段计时：Server-Timing 头格式与未采样时的零分配
+ *
+ * @author Ash
+ * @date 2025/7/3
+ */
+class RequestTimingTests {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.end();
+        RequestTiming.setEnabled(false);
+    }
+
+    @Test
+    void accumulatesStagesIntoServerTimingHeader() {
+        RequestTiming.setEnabled(true);
+        RequestTiming timing = RequestTiming.begin();
+        RequestTiming.record(RequestTiming.Stage.JWT, 412_345);
+        RequestTiming.record(RequestTiming.Stage.DB, 1_000_000);
+        RequestTiming.record(RequestTiming.Stage.DB, 2_105_000);
+        long start = RequestTiming.start();
+        assertTrue(start != 0);
+        RequestTiming.stop(RequestTiming.Stage.BCRYPT, start);
+
+        String header = timing.toHeader();
+        assertTrue(header.startsWith("jwt;dur=0.412, db;dur=3.105;desc=\"x2\", bcrypt;dur="), header);
+        assertTrue(header.contains(", total;dur="), header);
+        assertEquals(2, timing.count(RequestTiming.Stage.DB));
+        assertEquals(0, timing.count(RequestTiming.Stage.SESSION));
+
+        // 线程内复用实例，下一个请求从零开始
+        RequestTiming next = RequestTiming.begin();
+        assertEquals(timing, next);
+        assertEquals(0, next.count(RequestTiming.Stage.DB));
+    }
+
+    @Test
+    void unsampledRequestsDoNotAllocate() {
+        RequestTiming.setEnabled(true);
+        RequestTiming.end();
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long checksum = 0;
+        for (int i = 0; i < 100_000; i++) {
+            checksum += spans();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum += spans();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(0, checksum);
+        // 允许测量本身的少量噪声，远小于每次调用 1 字节
+        assertTrue(allocated < 4096, "未采样时分配了 " + allocated + " 字节");
+    }
+
+    private static long spans() {
+        long start = RequestTiming.start();
+        RequestTiming.stop(RequestTiming.Stage.JWT, start);
+        RequestTiming.record(RequestTiming.Stage.DB, 1000);
+        return start;
+    }
+}
@@ -0,0 +1,90 @@
+package org.ash.webapp_backend.repository;
+
+import jakarta.annotation.Resource;
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.ash.webapp_backend.entity.AuditEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 审计事件游标分页：各过滤组合与翻页结果一致，同一时间戳的事件按 ID 连续翻页（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/7/2
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class AuditEventRepositoryTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 7, 2, 12, 0);
+
+    @Resource
+    private AuditEventRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            AuditEvent event = new AuditEvent();
+            // 每 3 个事件共用一个时间戳，翻页必须靠 ID 区分
+            event.setOccurredAt(BASE.plusSeconds(i / 3));
+            event.setType(i % 2 == 0 ? AuditEventType.LOGIN_SUCCESS : AuditEventType.LOGIN_FAILURE);
+            event.setUsername(i % 3 == 0 ? "alice" : "bob");
+            events.add(event);
+        }
+        repository.saveAll(events);
+    }
+
+    @Test
+    void pagesCoverEveryMatchingEventOnceInOrder() {
+        assertPagesMatch(null, null);
+        assertPagesMatch(AuditEventType.LOGIN_FAILURE, null);
+        assertPagesMatch(null, "alice");
+        assertPagesMatch(AuditEventType.LOGIN_SUCCESS, "bob");
+    }
+
+    @Test
+    void timeRangeIsHalfOpen() {
+        List<AuditEvent> page = repository.findPage(BASE.plusSeconds(2), BASE.plusSeconds(4), null, null,
+                null, null, Limit.of(100));
+
+        assertEquals(6, page.size());
+        assertEquals(BASE.plusSeconds(3), page.get(0).getOccurredAt());
+        assertEquals(BASE.plusSeconds(2), page.get(5).getOccurredAt());
+    }
+
+    /**
+     * 以每页 4 条翻完全部结果，与一次取回的结果逐条一致
+     */
+    private void assertPagesMatch(AuditEventType type, String username) {
+        LocalDateTime from = BASE;
+        LocalDateTime to = BASE.plusMinutes(1);
+        List<AuditEvent> all = repository.findPage(from, to, type, username, null, null, Limit.of(100));
+
+        List<Long> paged = new ArrayList<>();
+        List<AuditEvent> page = repository.findPage(from, to, type, username, null, null, Limit.of(4));
+        while (!page.isEmpty()) {
+            page.forEach(event -> paged.add(event.getId()));
+            AuditEvent last = page.get(page.size() - 1);
+            page = repository.findPage(from, to, type, username, last.getOccurredAt(), last.getId(), Limit.of(4));
+        }
+
+        assertEquals(all.stream().map(AuditEvent::getId).toList(), paged);
+        for (int i = 1; i < all.size(); i++) {
+            AuditEvent previous = all.get(i - 1);
+            AuditEvent current = all.get(i);
+            int order = current.getOccurredAt().compareTo(previous.getOccurredAt());
+            assertTrue(order < 0 || (order == 0 && current.getId() < previous.getId()), "排序错误：" + all);
+            assertTrue((type == null || current.getType() == type)
+                    && (username == null || username.equals(current.getUsername())));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.ash.webapp_backend.repository;
+
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import org.ash.webapp_backend.dto.UserSummary;
+import org.ash.webapp_backend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户游标分页：四种过滤组合各自分派到对应查询，翻页结果连续且不重不漏；密码哈希升级只写密码列（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class UserRepositoryTests {
+
+    private static final String[] ROLES = {"USER", "MANAGER", "ADMIN"};
+
+    @Resource
+    private UserRepository repository;
+
+    @Resource
+    private EntityManager entityManager;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 60; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("x");
+            user.setRole(ROLES[i % ROLES.length]);
+            // 启用状态与角色错开，使 (role, enabled) 各组合都有数据
+            user.setEnabled(i % 4 != 0);
+            users.add(user);
+        }
+        repository.saveAll(users);
+    }
+
+    @Test
+    void everyFilterCombinationPagesThroughAllMatches() {
+        assertPagesMatch(null, null);
+        assertPagesMatch("MANAGER", null);
+        assertPagesMatch(null, false);
+        assertPagesMatch("USER", true);
+        assertPagesMatch("ADMIN", false);
+    }
+
+    @Test
+    void eachFilterHasAnIndexEndingInId() {
+        @SuppressWarnings("unchecked")
+        List<String> columns = entityManager.createNativeQuery("""
+                SELECT LOWER(i.INDEX_NAME) || ':' || LOWER(c.COLUMN_NAME)
+                FROM INFORMATION_SCHEMA.INDEXES i
+                JOIN INFORMATION_SCHEMA.INDEX_COLUMNS c
+                  ON c.INDEX_NAME = i.INDEX_NAME AND c.TABLE_NAME = i.TABLE_NAME
+                WHERE LOWER(i.TABLE_NAME) = 'users'
+                ORDER BY i.INDEX_NAME, c.ORDINAL_POSITION
+                """).getResultList();
+
+        assertTrue(columns.containsAll(List.of("idx_users_role_id:role", "idx_users_role_id:id")), columns.toString());
+        assertTrue(columns.containsAll(List.of("idx_users_enabled_id:enabled", "idx_users_enabled_id:id")),
+                columns.toString());
+        assertTrue(columns.containsAll(List.of("idx_users_role_enabled_id:role", "idx_users_role_enabled_id:enabled",
+                "idx_users_role_enabled_id:id")), columns.toString());
+    }
+
+    @Test
+    void passwordHashUpgradeLeavesOtherColumnsAlone() {
+        User user = users.get(1);
+        // 登录读取实体之后，管理后台禁用了该用户并修改了角色
+        entityManager.createQuery("update User u set u.enabled = false, u.role = 'ADMIN' where u.id = :id")
+                .setParameter("id", user.getId())
+                .executeUpdate();
+
+        assertEquals(0, repository.updatePasswordHash(user.getId(), "stale", "new-hash"));
+        assertEquals(1, repository.updatePasswordHash(user.getId(), "x", "new-hash"));
+
+        entityManager.clear();
+        User reloaded = repository.findById(user.getId()).orElseThrow();
+        assertEquals("new-hash", reloaded.getPassword());
+        assertEquals("ADMIN", reloaded.getRole());
+        assertFalse(reloaded.isEnabled());
+    }
+
+    /**
+     * 以每页 3 条翻完全部结果，与按条件过滤的预期列表逐条一致
+     */
+    private void assertPagesMatch(String role, Boolean enabled) {
+        List<Long> expected = users.stream()
+                .filter(u -> role == null || role.equals(u.getRole()))
+                .filter(u -> enabled == null || enabled == u.isEnabled())
+                .map(User::getId)
+                .sorted()
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        long cursor = 0;
+        while (true) {
+            List<UserSummary> page = repository.findSummariesAfter(cursor, role, enabled, Limit.of(3));
+            for (UserSummary summary : page) {
+                assertTrue(role == null || role.equals(summary.getRole()), summary.toString());
+                assertTrue(enabled == null || enabled == summary.isEnabled(), summary.toString());
+                paged.add(summary.getId());
+            }
+            if (page.size() < 3) {
+                break;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        assertTrue(expected.size() > 3, "每种组合至少跨两页：" + role + "/" + enabled);
+        assertEquals(expected, paged, "过滤条件 " + role + "/" + enabled);
+    }
+}
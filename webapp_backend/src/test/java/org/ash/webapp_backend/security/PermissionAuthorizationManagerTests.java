@@ -0,0 +1,173 @@
+package org.ash.webapp_backend.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 权限位图鉴权：与等价的 @PreAuthorize SpEL 表达式逐一比对判断结果，并校验类级注解按目标类解析
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+class PermissionAuthorizationManagerTests {
+
+    private final RolePermissionRegistry registry = new RolePermissionRegistry();
+
+    private final PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+
+    private final PermissionAuthorizationManager bit = new PermissionAuthorizationManager();
+
+    @Test
+    void bitCheckAgreesWithSpelForEveryRoleAndPermission() {
+        Fixture fixture = new Fixture();
+        Set<Permission> covered = EnumSet.noneOf(Permission.class);
+        int cases = 0;
+
+        for (Method method : Fixture.class.getDeclaredMethods()) {
+            RequiresPermission required = method.getAnnotation(RequiresPermission.class);
+            covered.addAll(List.of(required.value()));
+            MethodInvocation call = new SimpleMethodInvocation(fixture, method);
+
+            for (Map.Entry<String, Supplier<Authentication>> principal : principals().entrySet()) {
+                boolean expected = spel.authorize(principal.getValue(), call).isGranted();
+                boolean actual = bit.authorize(principal.getValue(), call).isGranted();
+                assertEquals(expected, actual, () -> principal.getKey() + " 调用 " + method.getName()
+                        + "：SpEL 与权限位图判断不一致");
+                cases++;
+            }
+        }
+
+        assertEquals(EnumSet.allOf(Permission.class), covered, "Fixture 需要覆盖全部权限");
+        assertEquals(Fixture.class.getDeclaredMethods().length * principals().size(), cases);
+    }
+
+    @Test
+    void classLevelPermissionIsResolvedPerTargetClass() throws Exception {
+        // 两个子类继承同一个方法，invocation.getMethod() 相同，所需权限由各自的类级注解决定
+        Method operation = Base.class.getMethod("operation");
+        MethodInvocation readCall = new SimpleMethodInvocation(new ReadSide(), operation);
+        MethodInvocation adminCall = new SimpleMethodInvocation(new AdminSide(), operation);
+        Supplier<Authentication> manager = authentication("MANAGER");
+
+        assertTrue(bit.authorize(manager, readCall).isGranted());
+        assertFalse(bit.authorize(manager, adminCall).isGranted());
+        // 缓存命中后结果不变
+        assertTrue(bit.authorize(manager, readCall).isGranted());
+        assertFalse(bit.authorize(manager, adminCall).isGranted());
+        assertTrue(bit.authorize(authentication("ADMIN"), adminCall).isGranted());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deprecatedCheckDelegatesToAuthorize() throws Exception {
+        MethodInvocation call = new SimpleMethodInvocation(new Fixture(), Fixture.class.getMethod("adminAccess"));
+
+        assertTrue(bit.check(authentication("ADMIN"), call).isGranted());
+        assertFalse(bit.check(authentication("MANAGER"), call).isGranted());
+    }
+
+    private Map<String, Supplier<Authentication>> principals() {
+        Map<String, Supplier<Authentication>> principals = new LinkedHashMap<>();
+        for (SystemRole role : SystemRole.values()) {
+            principals.put(role.name(), authentication(role.name()));
+        }
+        principals.put("未定义角色", authentication("GUEST"));
+        Authentication unauthenticated = new UsernamePasswordAuthenticationToken("anonymous", null);
+        principals.put("未认证", () -> unauthenticated);
+        return principals;
+    }
+
+    private Supplier<Authentication> authentication(String role) {
+        Authentication auth = new UsernamePasswordAuthenticationToken(role.toLowerCase(), null,
+                new ArrayList<>(registry.authoritiesOf(role)));
+        return () -> auth;
+    }
+
+    /**
+     * 每个方法同时声明权限位图与按 {@link SystemRole} 继承关系手写的等价 SpEL
+     */
+    static class Fixture {
+
+        @PreAuthorize("hasRole('MANAGER')")
+        @RequiresPermission(Permission.USER_READ)
+        public void userRead() {
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        @RequiresPermission(Permission.USER_WRITE)
+        public void userWrite() {
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        @RequiresPermission(Permission.ADMIN_ACCESS)
+        public void adminAccess() {
+        }
+
+        @PreAuthorize("hasRole('USER')")
+        @RequiresPermission(Permission.MONITOR_READ)
+        public void monitorRead() {
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        @RequiresPermission(Permission.MONITOR_ADMIN)
+        public void monitorAdmin() {
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        @RequiresPermission(Permission.USER_EXPORT)
+        public void userExport() {
+        }
+
+        @PreAuthorize("hasRole('SERVICE')")
+        @RequiresPermission(Permission.TOKEN_INTROSPECT)
+        public void tokenIntrospect() {
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        @RequiresPermission(Permission.AUDIT_READ)
+        public void auditRead() {
+        }
+
+        @PreAuthorize("hasRole('USER') and hasRole('MANAGER')")
+        @RequiresPermission({Permission.MONITOR_READ, Permission.USER_READ})
+        public void monitorAndUserRead() {
+        }
+
+        @PreAuthorize("hasRole('SERVICE') and hasRole('ADMIN')")
+        @RequiresPermission({Permission.TOKEN_INTROSPECT, Permission.ADMIN_ACCESS})
+        public void unreachable() {
+        }
+    }
+
+    public static class Base {
+
+        public void operation() {
+        }
+    }
+
+    @RequiresPermission(Permission.USER_READ)
+    static class ReadSide extends Base {
+    }
+
+    @RequiresPermission(Permission.ADMIN_ACCESS)
+    static class AdminSide extends Base {
+    }
+}
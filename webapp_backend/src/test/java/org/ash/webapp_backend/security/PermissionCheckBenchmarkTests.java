@@ -0,0 +1,93 @@
+package org.ash.webapp_backend.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 权限位图鉴权与 @PreAuthorize SpEL 鉴权的对比微基准
+ *
+ * 不启动 Spring 容器，直接调用两种 AuthorizationManager 的 authorize 方法，
+ * 各自预热后测量单次鉴权耗时（ns/op），断言权限位图不慢于 SpEL。
+ * 判断结果的一致性由 {@link PermissionAuthorizationManagerTests} 覆盖。
+ *
+ * 计时结果受机器负载影响，标记为 benchmark，默认 test 阶段不执行：
+ * mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark
+ *
+ * @author Ash
+ * @date 2025/6/21
+ */
+@Tag("benchmark")
+class PermissionCheckBenchmarkTests {
+
+    private static final int WARMUP = 200_000;
+
+    private static final int ITERATIONS = 1_000_000;
+
+    private final RolePermissionRegistry registry = new RolePermissionRegistry();
+
+    @Test
+    void bitCheckMatchesSpelAndIsFaster() throws Exception {
+        Fixture fixture = new Fixture();
+        MethodInvocation spelCall = new SimpleMethodInvocation(fixture, Fixture.class.getMethod("spel"));
+        MethodInvocation bitCall = new SimpleMethodInvocation(fixture, Fixture.class.getMethod("bit"));
+
+        PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+        PermissionAuthorizationManager bit = new PermissionAuthorizationManager();
+
+        Supplier<Authentication> admin = authentication("ADMIN");
+        Supplier<Authentication> user = authentication("USER");
+
+        assertTrue(spel.authorize(admin, spelCall).isGranted());
+        assertTrue(bit.authorize(admin, bitCall).isGranted());
+        assertFalse(spel.authorize(user, spelCall).isGranted());
+        assertFalse(bit.authorize(user, bitCall).isGranted());
+
+        double spelNs = measure(spel, admin, spelCall);
+        double bitNs = measure(bit, admin, bitCall);
+        assertTrue(bitNs < spelNs, String.format("权限位图 %.1f ns/op 应快于 SpEL hasRole %.1f ns/op", bitNs, spelNs));
+    }
+
+    private Supplier<Authentication> authentication(String role) {
+        Authentication auth = new UsernamePasswordAuthenticationToken("bench", null, registry.authoritiesOf(role));
+        return () -> auth;
+    }
+
+    private static double measure(AuthorizationManager<MethodInvocation> manager,
+                                  Supplier<Authentication> auth, MethodInvocation call) {
+        int granted = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            granted += manager.authorize(auth, call).isGranted() ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            granted += manager.authorize(auth, call).isGranted() ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(WARMUP + ITERATIONS, granted);
+        return (double) elapsed / ITERATIONS;
+    }
+
+    static class Fixture {
+
+        @PreAuthorize("hasRole('ADMIN')")
+        public void spel() {
+        }
+
+        @RequiresPermission(Permission.ADMIN_ACCESS)
+        public void bit() {
+        }
+    }
+}
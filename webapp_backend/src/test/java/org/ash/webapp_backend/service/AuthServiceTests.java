@@ -0,0 +1,187 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.audit.AuditEventType;
+import org.ash.webapp_backend.common.Result;
+import org.ash.webapp_backend.common.ResultCode;
+import org.ash.webapp_backend.dto.LoginRequest;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.repository.UserRepository;
+import org.ash.webapp_backend.service.impl.AuthServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录：禁用账号在密码校验通过后才被拒绝，不签发令牌；启用账号正常签发；落后的密码哈希只按列升级；
+ * 登出：审计用户名取自被注销的令牌
+ *
+ * 依赖的仓库与服务用接口代理替代，不启动 Spring 上下文。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+class AuthServiceTests {
+
+    private final Map<String, User> users = new HashMap<>();
+
+    private final List<String> issued = new ArrayList<>();
+
+    private final List<String> audits = new ArrayList<>();
+
+    private final List<String> auditUsernames = new ArrayList<>();
+
+    private final List<String> hashUpdates = new ArrayList<>();
+
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        authService = new AuthServiceImpl();
+        ReflectionTestUtils.setField(authService, "userRepository", stub(UserRepository.class, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "findByUsername" -> Optional.ofNullable(users.get((String) args[0]));
+                    case "updatePasswordHash" -> {
+                        hashUpdates.add(args[0] + ":" + args[1] + "->" + args[2]);
+                        yield 1;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }));
+        ReflectionTestUtils.setField(authService, "passwordEncoder", new PlainPasswordEncoder());
+        ReflectionTestUtils.setField(authService, "tokenService", stub(TokenService.class, (proxy, method, args) -> {
+            if (method.getName().equals("issueToken")) {
+                String username = ((User) args[0]).getUsername();
+                issued.add(username);
+                return "token-" + username;
+            }
+            if (method.getName().equals("revoke")) {
+                String token = (String) args[0];
+                return token.startsWith("token-") ? token.substring("token-".length()) : null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }));
+        ReflectionTestUtils.setField(authService, "loginStatsService", stub(LoginStatsService.class, (proxy, method, args) -> null));
+        ReflectionTestUtils.setField(authService, "auditService", stub(AuditService.class, (proxy, method, args) -> {
+            audits.add(args[0] + ":" + args[3]);
+            auditUsernames.add((String) args[1]);
+            return null;
+        }));
+
+        users.put("alice", user(1, "alice", true));
+        users.put("bob", user(2, "bob", false));
+    }
+
+    @Test
+    void enabledUserReceivesToken() {
+        Result<String> result = authService.login(request("alice", "secret"), "127.0.0.1");
+
+        assertEquals(ResultCode.SUCCESS.getCode(), result.getCode());
+        assertEquals("token-alice", result.getData());
+        assertEquals(List.of(AuditEventType.LOGIN_SUCCESS + ":null"), audits);
+    }
+
+    @Test
+    void disabledUserIsRejectedWithoutToken() {
+        Result<String> result = authService.login(request("bob", "secret"), "127.0.0.1");
+
+        assertEquals(ResultCode.ERROR.getCode(), result.getCode());
+        assertEquals("账号已被禁用", result.getMessage());
+        assertTrue(issued.isEmpty());
+        assertEquals(List.of(AuditEventType.LOGIN_FAILURE + ":账号已禁用"), audits);
+    }
+
+    @Test
+    void disabledStateIsNotRevealedWithoutThePassword() {
+        Result<String> result = authService.login(request("bob", "wrong"), "127.0.0.1");
+
+        assertEquals("用户名或密码错误", result.getMessage());
+        assertTrue(issued.isEmpty());
+    }
+
+    @Test
+    void outdatedHashIsUpgradedWithoutSavingTheEntity() {
+        ReflectionTestUtils.setField(authService, "passwordEncoder", new PlainPasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "v2:" + rawPassword;
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return !encodedPassword.startsWith("v2:");
+            }
+        });
+
+        Result<String> result = authService.login(request("alice", "secret"), "127.0.0.1");
+
+        // 仓库代理不支持 save：写回整个实体会覆盖并发修改的 enabled、role
+        assertEquals(ResultCode.SUCCESS.getCode(), result.getCode());
+        assertEquals(List.of("1:secret->v2:secret"), hashUpdates);
+    }
+
+    @Test
+    void logoutAuditCarriesTheUsernameOfTheRevokedToken() {
+        // /auth/logout 不经过 JwtAuthenticationFilter，SecurityContext 中没有认证信息
+        authService.logout("token-alice", "127.0.0.1");
+
+        assertEquals(List.of(AuditEventType.LOGOUT + ":null"), audits);
+        assertEquals(List.of("alice"), auditUsernames);
+    }
+
+    @Test
+    void logoutOfAnUnknownTokenIsNotAudited() {
+        authService.logout("expired", "127.0.0.1");
+
+        assertTrue(audits.isEmpty());
+    }
+
+    private static LoginRequest request(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+
+    private static User user(long id, String username, boolean enabled) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRole("USER");
+        user.setEnabled(enabled);
+        return user;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                method.getDeclaringClass() == Object.class ? method.invoke(handler, args) : handler.invoke(proxy, method, args));
+    }
+
+    /**
+     * 明文比较，避免测试承担 BCrypt 开销
+     */
+    private static class PlainPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.ash.webapp_backend.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.RevokedTokenRegistry;
+import org.ash.webapp_backend.security.TokenRejectReason;
+import org.ash.webapp_backend.service.impl.JwtTokenServiceImpl;
+import org.ash.webapp_backend.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JWT 无状态注销模式：令牌有效期与缺少 jti 的令牌
+ *
+ * @author Ash
+ * @date 2025/6/28
+ */
+class JwtTokenServiceTests {
+
+    private static final String SECRET = "test-secret";
+
+    private JwtUtil jwtUtil;
+
+    private RevokedTokenRegistry registry;
+
+    private JwtTokenServiceImpl tokens;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        jwtUtil.setSecret(SECRET);
+        jwtUtil.setExpiration(Duration.ofDays(1).toMillis());
+        jwtUtil.init();
+
+        // 不调用 start()，只使用本地登记表
+        registry = new RevokedTokenRegistry();
+
+        tokens = new JwtTokenServiceImpl();
+        ReflectionTestUtils.setField(tokens, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(tokens, "revokedTokenRegistry", registry);
+        ReflectionTestUtils.setField(tokens, "sessionTtl", Duration.ofHours(1));
+    }
+
+    @Test
+    void statelessTokensExpireAfterTheSessionTtl() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setRole("USER");
+
+        DecodedJWT jwt = jwtUtil.verify(tokens.issueToken(user));
+
+        assertNotNull(jwt.getId());
+        assertEquals(Duration.ofHours(1).toMillis(), jwt.getExpiresAt().getTime() - jwt.getIssuedAt().getTime());
+        assertEquals("alice", tokens.resolve(jwtUtil.generateToken("alice")).username());
+    }
+
+    @Test
+    void tokensWithoutJtiAreRejected() {
+        long now = System.currentTimeMillis();
+        String legacy = JWT.create()
+                .withSubject("alice")
+                .withClaim("role", "USER")
+                .withIssuedAt(new Date(now))
+                .withExpiresAt(new Date(now + 60_000))
+                .sign(Algorithm.HMAC256(SECRET));
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class, () -> tokens.resolve(legacy));
+        assertEquals(TokenRejectReason.MISSING_JTI, e.getReason());
+        assertEquals(TokenIntrospection.Status.INVALID, tokens.introspect(List.of(legacy)).get(0).getStatus());
+        assertNull(assertDoesNotThrow(() -> tokens.revoke(legacy)));
+
+        assertTrue(registry.isRevoked(null));
+        assertThrows(IllegalArgumentException.class, () -> registry.revoke(null, now));
+    }
+}
@@ -0,0 +1,142 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.service.impl.LoginStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录统计写回缓冲：同一用户的合并、失败批次放回重试、达到阈值触发回写与关闭前清空（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+class LoginStatsServiceTests {
+
+    private FlakyJdbcTemplate jdbcTemplate;
+
+    private LoginStatsServiceImpl stats;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:login-stats-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new FlakyJdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, login_count BIGINT, "
+                + "last_login_at TIMESTAMP, last_login_ip VARCHAR(64))");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO users (id) VALUES (?)", id);
+        }
+
+        stats = new LoginStatsServiceImpl();
+        ReflectionTestUtils.setField(stats, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(stats, "flushThreshold", 1000);
+        ReflectionTestUtils.setField(stats, "batchSize", 2);
+    }
+
+    @Test
+    void repeatLoginsMergeIntoOneRow() {
+        stats.recordLogin(1, "10.0.0.1");
+        stats.recordLogin(1, "10.0.0.2");
+        stats.recordLogin(1, "10.0.0.3");
+        stats.recordLogin(2, "10.0.0.9");
+        assertEquals(2, stats.getBufferStats().get("queueDepth"));
+
+        stats.flush();
+
+        assertEquals(2L, stats.getBufferStats().get("flushedRows"));
+        assertEquals(0, stats.getBufferStats().get("queueDepth"));
+        assertRow(1, 3, "10.0.0.3");
+        assertRow(2, 1, "10.0.0.9");
+    }
+
+    @Test
+    void failedBatchIsRetriedAndMergedWithNewerLogins() {
+        stats.recordLogin(1, "10.0.0.1");
+        stats.recordLogin(2, "10.0.0.2");
+        jdbcTemplate.failures.set(1);
+
+        stats.flush();
+        assertEquals(1L, stats.getBufferStats().get("failedFlushes"));
+        assertEquals(2, stats.getBufferStats().get("queueDepth"));
+        assertRow(1, 0, null);
+
+        // 失败期间的新登录与放回的统计合并
+        stats.recordLogin(1, "10.0.0.5");
+        stats.flush();
+
+        assertEquals(0, stats.getBufferStats().get("queueDepth"));
+        assertRow(1, 2, "10.0.0.5");
+        assertRow(2, 1, "10.0.0.2");
+    }
+
+    @Test
+    void reachingThresholdFlushesInTheBackground() throws Exception {
+        ReflectionTestUtils.setField(stats, "flushThreshold", 3);
+        stats.recordLogin(1, "10.0.0.1");
+        stats.recordLogin(2, "10.0.0.2");
+        assertRow(1, 0, null);
+
+        stats.recordLogin(3, "10.0.0.3");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((Long) stats.getBufferStats().get("flushedRows") < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3L, stats.getBufferStats().get("flushedRows"));
+        assertRow(3, 1, "10.0.0.3");
+    }
+
+    @Test
+    void drainWritesEverythingBeforeShutdown() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            stats.recordLogin(id, "10.0.0." + id);
+        }
+
+        stats.drain();
+
+        assertEquals(0, stats.getBufferStats().get("queueDepth"));
+        for (long id = 1; id <= 5; id++) {
+            assertRow(id, 1, "10.0.0." + id);
+        }
+    }
+
+    private void assertRow(long id, long loginCount, String lastLoginIp) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(login_count, 0) AS c, last_login_at AS at, last_login_ip AS ip FROM users WHERE id = ?",
+                id);
+        assertEquals(loginCount, ((Number) row.get("c")).longValue(), "用户 " + id + " 的登录次数");
+        assertEquals(lastLoginIp, row.get("ip"), "用户 " + id + " 的最近登录 IP");
+        assertTrue(loginCount == 0 || row.get("at") != null, "用户 " + id + " 缺少最近登录时间");
+    }
+
+    /**
+     * 前 failures 次批量更新直接失败，模拟数据库短暂不可用
+     */
+    private static class FlakyJdbcTemplate extends JdbcTemplate {
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        FlakyJdbcTemplate(DriverManagerDataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+}
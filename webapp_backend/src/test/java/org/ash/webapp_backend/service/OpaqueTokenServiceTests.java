@@ -0,0 +1,136 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.dto.TokenIntrospection;
+import org.ash.webapp_backend.entity.User;
+import org.ash.webapp_backend.service.impl.JwtTokenServiceImpl;
+import org.ash.webapp_backend.service.impl.OpaqueTokenServiceImpl;
+import org.ash.webapp_backend.service.impl.SessionRenewalServiceImpl;
+import org.ash.webapp_backend.session.MappedSessionStore;
+import org.ash.webapp_backend.utils.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * opaque 模式：不透明令牌与 JWT 并存时的签发、解析、注销与批量校验
+ *
+ * @author Ash
+ * @date 2025/6/26
+ */
+class OpaqueTokenServiceTests {
+
+    @TempDir
+    Path dir;
+
+    private MappedSessionStore store;
+
+    private OpaqueTokenServiceImpl tokens;
+
+    private final User alice = user("alice", "ADMIN");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new MappedSessionStore();
+        ReflectionTestUtils.setField(store, "path", dir.resolve("sessions.db").toString());
+        ReflectionTestUtils.setField(store, "capacity", 1024);
+        ReflectionTestUtils.setField(store, "slotBytes", 512);
+        store.open();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        jwtUtil.setSecret("test-secret");
+        jwtUtil.setExpiration(Duration.ofDays(1).toMillis());
+        jwtUtil.init();
+
+        SessionRenewalServiceImpl renewal = new SessionRenewalServiceImpl();
+        ReflectionTestUtils.setField(renewal, "enabled", false);
+
+        JwtTokenServiceImpl jwt = new JwtTokenServiceImpl();
+        ReflectionTestUtils.setField(jwt, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(jwt, "sessionStore", store);
+        ReflectionTestUtils.setField(jwt, "sessionRenewalService", renewal);
+        ReflectionTestUtils.setField(jwt, "sessionTtl", Duration.ofHours(1));
+
+        tokens = new OpaqueTokenServiceImpl();
+        ReflectionTestUtils.setField(tokens, "sessionStore", store);
+        ReflectionTestUtils.setField(tokens, "jwtTokenService", jwt);
+        ReflectionTestUtils.setField(tokens, "sessionTtl", Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void jwtIsStillIssuedAndVerified() {
+        String jwt = tokens.issueToken(alice, TokenService.Format.JWT);
+
+        assertTrue(JwtUtil.isJwtShaped(jwt));
+        assertEquals("alice", tokens.resolve(jwt).username());
+        assertEquals("ADMIN", tokens.resolve(jwt).role());
+
+        assertEquals("alice", tokens.revoke(jwt));
+        assertNull(tokens.resolve(jwt));
+    }
+
+    @Test
+    void defaultFormatIsOpaque() {
+        String opaque = tokens.issueToken(alice, null);
+
+        assertFalse(JwtUtil.isJwtShaped(opaque));
+        assertEquals(43, opaque.length());
+        assertEquals("alice", tokens.resolve(opaque).username());
+
+        assertEquals("alice", tokens.revoke(opaque));
+        assertNull(tokens.resolve(opaque));
+        assertNull(tokens.revoke(opaque), "会话已删除，再次注销没有可注销的内容");
+    }
+
+    @Test
+    void reloginInEitherFormatEvictsThePreviousSession() {
+        String opaque = tokens.issueToken(alice);
+        String jwt = tokens.issueToken(alice, TokenService.Format.JWT);
+        assertNull(tokens.resolve(opaque));
+        assertNotNull(tokens.resolve(jwt));
+
+        String next = tokens.issueToken(alice);
+        assertNull(tokens.resolve(jwt));
+        assertNotNull(tokens.resolve(next));
+    }
+
+    @Test
+    void introspectDispatchesByTokenShape() {
+        User bob = user("bob", "USER");
+        String opaque = tokens.issueToken(alice);
+        String jwt = tokens.issueToken(bob, TokenService.Format.JWT);
+
+        List<TokenIntrospection> results = tokens.introspect(List.of(jwt, "not-a-token", opaque, jwt + "x"));
+
+        assertEquals(TokenIntrospection.Status.ACTIVE, results.get(0).getStatus());
+        assertEquals("bob", results.get(0).getSubject());
+        assertEquals(TokenIntrospection.Status.INVALID, results.get(1).getStatus());
+        assertEquals(TokenIntrospection.Status.ACTIVE, results.get(2).getStatus());
+        assertEquals("alice", results.get(2).getSubject());
+        assertEquals(TokenIntrospection.Status.INVALID, results.get(3).getStatus());
+    }
+
+    private static User user(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRole(role);
+        user.setEnabled(true);
+        return user;
+    }
+}
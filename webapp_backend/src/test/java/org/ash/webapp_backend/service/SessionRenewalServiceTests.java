@@ -0,0 +1,168 @@
+package org.ash.webapp_backend.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.ash.webapp_backend.service.impl.SessionRenewalServiceImpl;
+import org.ash.webapp_backend.session.MappedSessionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 会话滑动过期：阈值判断、并发去重、JWT 过期上限、批量写入与写入前的登记比对
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+class SessionRenewalServiceTests {
+
+    private static final long MINUTE = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private MappedSessionStore store;
+
+    private SessionRenewalServiceImpl renewal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new MappedSessionStore();
+        ReflectionTestUtils.setField(store, "path", dir.resolve("sessions.db").toString());
+        ReflectionTestUtils.setField(store, "capacity", 1024);
+        ReflectionTestUtils.setField(store, "slotBytes", 512);
+        store.open();
+
+        renewal = new SessionRenewalServiceImpl();
+        ReflectionTestUtils.setField(renewal, "sessionStore", store);
+        ReflectionTestUtils.setField(renewal, "enabled", true);
+        ReflectionTestUtils.setField(renewal, "sessionTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(renewal, "refreshBelow", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(renewal, "batchSize", 500);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void freshSessionsAreNotRenewed() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10_000; i++) {
+            renewal.onAccess("alice", now, now + 24 * 60 * MINUTE);
+        }
+        renewal.flush();
+
+        assertEquals(10_000L, stat("accesses"));
+        assertEquals(0L, stat("renewals"));
+        assertEquals(0L, stat("writtenRenewals"));
+    }
+
+    @Test
+    void concurrentAccessesRenewOnceAndWriteInOneBatch() throws Exception {
+        long now = System.currentTimeMillis();
+        long issuedAt = seconds(now - 40 * MINUTE);
+        for (int u = 0; u < 50; u++) {
+            store.putLoginToken("user" + u, token("user" + u, issuedAt), Duration.ofMinutes(20));
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    renewal.onAccess("user" + (i % 50), issuedAt, now + 24 * 60 * MINUTE);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        renewal.flush();
+
+        assertEquals(80_000L, stat("accesses"));
+        assertEquals(50L, stat("renewals"));
+        assertEquals(50L, stat("writtenRenewals"));
+        assertEquals(0, renewal.getStats().get("pending"));
+        assertEquals(token("user7", issuedAt), store.getLoginToken("user7"));
+
+        // 续期后剩余有效期回到约 1 小时，之后的访问不再续期
+        renewal.onAccess("user7", issuedAt, now + 24 * 60 * MINUTE);
+        assertEquals(50L, stat("renewals"));
+    }
+
+    @Test
+    void renewalIsCappedAtTokenExpiry() {
+        long now = System.currentTimeMillis();
+        // 登记推算还剩 20 分钟，但令牌 10 分钟后过期，续期没有意义
+        renewal.onAccess("alice", now - 40 * MINUTE, now + 10 * MINUTE);
+        assertEquals(0L, stat("renewals"));
+
+        // 令牌 25 分钟后过期：续期到令牌过期为止，之后不再续期
+        renewal.onAccess("bob", now - 40 * MINUTE, now + 25 * MINUTE);
+        renewal.onAccess("bob", now - 40 * MINUTE, now + 25 * MINUTE);
+        assertEquals(1L, stat("renewals"));
+    }
+
+    @Test
+    void revokedRegistrationIsNotResurrected() {
+        long now = System.currentTimeMillis();
+        long issuedAt = seconds(now - 40 * MINUTE);
+        store.putLoginToken("alice", token("alice", issuedAt), Duration.ofMinutes(20));
+        renewal.onAccess("alice", issuedAt, now + 24 * 60 * MINUTE);
+        store.removeLoginToken("alice");
+        renewal.flush();
+
+        assertEquals(0L, stat("writtenRenewals"));
+        assertEquals(1L, stat("staleRenewals"));
+        assertNull(store.getLoginToken("alice"));
+    }
+
+    @Test
+    void renewalOfReplacedLoginIsDropped() {
+        long now = System.currentTimeMillis();
+        long oldIssuedAt = seconds(now - 40 * MINUTE);
+        store.putLoginToken("alice", token("alice", oldIssuedAt), Duration.ofMinutes(20));
+        // 旧令牌 25 分钟后过期，续期上限随之被压低
+        renewal.onAccess("alice", oldIssuedAt, now + 25 * MINUTE);
+
+        // 写入前重新登录，新登记不应被旧令牌的续期改写
+        String relogin = token("alice", seconds(now));
+        store.putLoginToken("alice", relogin, Duration.ofHours(1));
+        renewal.flush();
+
+        assertEquals(1L, stat("renewals"));
+        assertEquals(0L, stat("writtenRenewals"));
+        assertEquals(1L, stat("staleRenewals"));
+        assertEquals(0, renewal.getStats().get("pending"));
+        assertEquals(relogin, store.getLoginToken("alice"));
+    }
+
+    /**
+     * 签发时间为 issuedAt 的 JWT（iat 只保留到秒）
+     */
+    private static String token(String username, long issuedAt) {
+        return JWT.create().withSubject(username).withIssuedAt(new Date(issuedAt)).sign(Algorithm.HMAC256("test-secret"));
+    }
+
+    private static long seconds(long millis) {
+        return millis / 1000 * 1000;
+    }
+
+    private long stat(String name) {
+        Map<String, Object> stats = renewal.getStats();
+        return (Long) stats.get(name);
+    }
+}
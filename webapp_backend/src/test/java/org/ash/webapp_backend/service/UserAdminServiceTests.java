@@ -0,0 +1,131 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.dto.BulkUserRequest;
+import org.ash.webapp_backend.dto.BulkUserResult;
+import org.ash.webapp_backend.service.impl.UserAdminServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量启用 / 禁用 / 变更角色：分块事务、跳过已处于目标状态的用户、会话注销失败按块计入结果（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+class UserAdminServiceTests {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserAdminServiceImpl adminService;
+
+    /** 每次 revokeUsers 收到的用户名 */
+    private final List<List<String>> revokeCalls = new ArrayList<>();
+
+    /** 第几次 revokeUsers 调用抛出异常（从 1 开始），0 表示不失败 */
+    private int failingCall;
+
+    private final List<String> statsEvents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:user-admin-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(255) NOT NULL UNIQUE, enabled BOOLEAN NOT NULL, role VARCHAR(255))");
+        for (int i = 1; i <= 5; i++) {
+            jdbcTemplate.update("INSERT INTO users (username, enabled, role) VALUES (?, TRUE, 'USER')", "user" + i);
+        }
+
+        adminService = new UserAdminServiceImpl();
+        ReflectionTestUtils.setField(adminService, "namedParameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(adminService, "transactionTemplate",
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(adminService, "chunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(adminService, "tokenService", AuthServiceTests.stub(TokenService.class, (proxy, method, args) -> {
+            @SuppressWarnings("unchecked")
+            List<String> usernames = (List<String>) args[0];
+            revokeCalls.add(usernames);
+            if (revokeCalls.size() == failingCall) {
+                throw new IllegalStateException("Redis 不可用");
+            }
+            return (long) usernames.size();
+        }));
+        ReflectionTestUtils.setField(adminService, "userStatsService", AuthServiceTests.stub(UserStatsService.class, (proxy, method, args) -> {
+            statsEvents.add(method.getName() + ":" + args[args.length - 1]);
+            return null;
+        }));
+    }
+
+    @Test
+    void disableRunsInChunksAndSkipsUsersAlreadyDisabled() {
+        jdbcTemplate.update("UPDATE users SET enabled = FALSE WHERE id = 2");
+
+        BulkUserResult result = adminService.bulkUpdate(request(BulkUserRequest.Action.DISABLE, 1L, 2L, 3L, 4L, 5L, 1L));
+
+        assertEquals(5, result.getRequested());
+        assertEquals(4, result.getUpdated());
+        assertEquals(3, result.getChunks());
+        assertEquals(4, result.getSessionsRevoked());
+        assertEquals(0, result.getRevokeFailedUsers());
+        assertEquals(List.of(List.of("user1"), List.of("user3", "user4"), List.of("user5")), revokeCalls);
+        assertEquals(0, count("enabled = TRUE"));
+        assertEquals(List.of("onEnabledChanged:1", "onEnabledChanged:2", "onEnabledChanged:1"), statsEvents);
+    }
+
+    @Test
+    void enableDoesNotRevokeSessions() {
+        jdbcTemplate.update("UPDATE users SET enabled = FALSE");
+
+        BulkUserResult result = adminService.bulkUpdate(request(BulkUserRequest.Action.ENABLE, 1L, 2L, 3L));
+
+        assertEquals(3, result.getUpdated());
+        assertEquals(2, result.getChunks());
+        assertEquals(0, result.getSessionsRevoked());
+        assertTrue(revokeCalls.isEmpty());
+        assertEquals(3, count("enabled = TRUE"));
+    }
+
+    @Test
+    void setRoleReportsChunksWhoseRevocationFailed() {
+        jdbcTemplate.update("UPDATE users SET role = 'MANAGER' WHERE id = 5");
+        failingCall = 2;
+
+        BulkUserResult result = adminService.bulkUpdate(request(BulkUserRequest.Action.SET_ROLE, 1L, 2L, 3L, 4L, 5L));
+
+        // 第二块注销失败：角色变更已提交，后续块继续执行
+        assertEquals(5, result.getUpdated());
+        assertEquals(3, revokeCalls.size());
+        assertEquals(3, result.getSessionsRevoked());
+        assertEquals(2, result.getRevokeFailedUsers());
+        assertEquals(5, count("role = 'ADMIN'"));
+    }
+
+    private static BulkUserRequest request(BulkUserRequest.Action action, Long... ids) {
+        BulkUserRequest request = new BulkUserRequest();
+        request.setAction(action);
+        request.setIds(List.of(ids));
+        if (action == BulkUserRequest.Action.SET_ROLE) {
+            request.setRole("ADMIN");
+        }
+        return request;
+    }
+
+    private int count(String where) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE " + where, Integer.class);
+    }
+}
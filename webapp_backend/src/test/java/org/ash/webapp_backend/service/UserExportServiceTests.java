@@ -0,0 +1,166 @@
+package org.ash.webapp_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ash.webapp_backend.service.impl.UserExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 用户导出：CSV 转义、NDJSON 输出，以及客户端中途断开时取消查询（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/6/23
+ */
+class UserExportServiceTests {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    private UserExportServiceImpl export;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:user-export-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(255) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL, enabled BOOLEAN NOT NULL, "
+                + "role VARCHAR(255))");
+
+        export = new UserExportServiceImpl();
+        ReflectionTestUtils.setField(export, "jdbcTemplate", new JdbcTemplate(countingCancels(dataSource)));
+        ReflectionTestUtils.setField(export, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(export, "fetchSize", 100);
+        ReflectionTestUtils.setField(export, "flushRows", 10);
+    }
+
+    @Test
+    void csvEscapesSeparatorsQuotesAndLineBreaks() throws Exception {
+        insert("plain", "USER", true);
+        insert("a,b", "USER", false);
+        insert("say \"hi\"", "ADMIN", true);
+        insert("two\nlines", null, true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = export.exportUsers(UserExportService.Format.CSV, out);
+
+        assertEquals(4, rows);
+        assertEquals("""
+                id,username,role,enabled
+                1,plain,USER,true
+                2,"a,b",USER,false
+                3,"say ""hi\""",ADMIN,true
+                4,"two
+                lines",,true
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        insert("alice", "USER", true);
+        insert("bob \"b\"", "MANAGER", false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = export.exportUsers(UserExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode second = new ObjectMapper().readTree(lines[1]);
+        assertEquals(2, second.get("id").asLong());
+        assertEquals("bob \"b\"", second.get("username").asText());
+        assertEquals("MANAGER", second.get("role").asText());
+        assertFalse(second.get("enabled").asBoolean());
+    }
+
+    @Test
+    void clientAbortCancelsTheQuery() {
+        for (int i = 0; i < 100; i++) {
+            insert("user" + i, "USER", true);
+        }
+        // 第二次 flush 时客户端已断开
+        OutputStream disconnecting = new OutputStream() {
+            private int flushes;
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (flushes >= 1) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+
+            @Override
+            public void flush() {
+                flushes++;
+            }
+        };
+
+        IOException e = assertThrows(IOException.class,
+                () -> export.exportUsers(UserExportService.Format.NDJSON, disconnecting));
+
+        assertEquals("Broken pipe", e.getMessage());
+        assertEquals(1, cancelled.get(), "客户端断开后应取消导出查询");
+        // 连接与数据库仍可正常使用
+        assertEquals(100L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+    }
+
+    private void insert(String username, String role, boolean enabled) {
+        jdbcTemplate.update("INSERT INTO users (username, password, enabled, role) VALUES (?, ?, ?, ?)",
+                username, "x", enabled, role);
+    }
+
+    /**
+     * 包装数据源，统计导出语句上的 cancel() 调用
+     */
+    private DataSource countingCancels(DataSource target) {
+        return delegate(DataSource.class, target, (method, result) -> result instanceof Connection con
+                ? delegate(Connection.class, con, (m, r) -> r instanceof PreparedStatement ps
+                        ? delegate(PreparedStatement.class, ps, (mm, rr) -> {
+                            if (mm.equals("cancel")) {
+                                cancelled.incrementAndGet();
+                            }
+                            return rr;
+                        })
+                        : r)
+                : result);
+    }
+
+    private interface ResultMapper {
+        Object map(String method, Object result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T delegate(Class<T> type, T target, ResultMapper mapper) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return mapper.map(method.getName(), method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
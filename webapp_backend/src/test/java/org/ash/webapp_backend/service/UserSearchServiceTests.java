@@ -0,0 +1,73 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.dto.UsernameSuggestion;
+import org.ash.webapp_backend.service.impl.UserSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 用户名联想索引：其他节点注册的用户经增量扫描补入，本节点已写入的用户不重复（H2 替代 MySQL）
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+class UserSearchServiceTests {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserSearchServiceImpl search;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:user-search-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE)");
+
+        search = new UserSearchServiceImpl();
+        ReflectionTestUtils.setField(search, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(search, "fetchSize", 100);
+        ReflectionTestUtils.setField(search, "indexEnabled", true);
+        ReflectionTestUtils.setField(search, "compactThreshold", 2);
+    }
+
+    @Test
+    void refreshPicksUpUsersRegisteredOnOtherNodes() {
+        insert("alice");
+        insert("bob");
+        ReflectionTestUtils.invokeMethod(search, "buildIndex");
+
+        // 本节点注册的用户直接写入索引
+        long local = insert("alex");
+        search.onUserCreated(local, "alex");
+        // 其他节点注册的用户只存在于数据库中
+        insert("alina");
+        insert("albert");
+        assertEquals(List.of("alex", "alice"), usernames("al"));
+
+        search.refresh();
+
+        assertEquals(List.of("albert", "alex", "alice", "alina"), usernames("al"));
+        assertEquals(3L, search.getIndexStats().get("lastRefreshAdded"));
+
+        search.refresh();
+        assertEquals(0L, search.getIndexStats().get("lastRefreshAdded"));
+        assertEquals(5, ((Number) search.getIndexStats().get("users")).intValue());
+    }
+
+    private List<String> usernames(String prefix) {
+        return search.searchByPrefix(prefix, 10).stream().map(UsernameSuggestion::getUsername).toList();
+    }
+
+    private long insert(String username) {
+        jdbcTemplate.update("INSERT INTO users (username) VALUES (?)", username);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+}
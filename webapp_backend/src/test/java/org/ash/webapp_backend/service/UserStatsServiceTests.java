@@ -0,0 +1,188 @@
+package org.ash.webapp_backend.service;
+
+import org.ash.webapp_backend.constant.RedisKeys;
+import org.ash.webapp_backend.dto.UserStats;
+import org.ash.webapp_backend.service.impl.UserStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户统计计数器：从数据库重建、增量更新与重建后的一致性（内存计数器模式，H2 替代 MySQL），以及多节点重建锁的释放
+ *
+ * @author Ash
+ * @date 2025/7/4
+ */
+class UserStatsServiceTests {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UserStatsServiceImpl stats;
+
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:user-stats-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "username VARCHAR(255) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL, enabled BOOLEAN NOT NULL, "
+                + "role VARCHAR(255), created_at TIMESTAMP)");
+
+        stats = new UserStatsServiceImpl();
+        ReflectionTestUtils.setField(stats, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(stats, "sessionStoreType", "embedded");
+        ReflectionTestUtils.setField(stats, "dailyDays", 30);
+    }
+
+    @Test
+    void rebuildsFromDatabaseOnFirstRead() {
+        LocalDateTime now = LocalDateTime.now();
+        insert("USER", true, now);
+        insert("USER", true, now.minusDays(1));
+        insert("USER", false, now.minusDays(1));
+        insert("ADMIN", true, now.minusDays(40));
+        // created_at 列加入前的历史用户
+        insert("MANAGER", true, null);
+
+        UserStats result = stats.getStats();
+
+        assertEquals(5, result.getTotal());
+        assertEquals(4, result.getEnabled());
+        assertEquals(1, result.getDisabled());
+        assertEquals(Map.of("USER", 3L, "ADMIN", 1L, "MANAGER", 1L), result.getByRole());
+        assertEquals(Map.of(LocalDate.now().toString(), 1L, LocalDate.now().minusDays(1).toString(), 2L),
+                result.getRegistrationsPerDay());
+        assertEquals("memory", result.getSource());
+        assertTrue(result.getRebuiltAt() > 0);
+    }
+
+    @Test
+    void incrementsMatchARebuild() {
+        insert("USER", true, LocalDateTime.now());
+        stats.rebuild();
+
+        // 注册两个用户，禁用其中一个，再把两个用户改为 MANAGER
+        insert("USER", true, LocalDateTime.now());
+        stats.onUserCreated("USER", true);
+        insert("USER", true, LocalDateTime.now());
+        stats.onUserCreated("USER", true);
+        jdbcTemplate.update("UPDATE users SET enabled = FALSE WHERE id = 2");
+        stats.onEnabledChanged(false, 1);
+        jdbcTemplate.update("UPDATE users SET role = 'MANAGER' WHERE id IN (2, 3)");
+        stats.onRoleChanged(Map.of("USER", 2L), "MANAGER", 2);
+        UserStats incremental = stats.getStats();
+
+        assertEquals(3, incremental.getTotal());
+        assertEquals(2, incremental.getEnabled());
+        assertEquals(1, incremental.getDisabled());
+        assertEquals(Map.of("USER", 1L, "MANAGER", 2L), incremental.getByRole());
+        assertEquals(Map.of(LocalDate.now().toString(), 3L), incremental.getRegistrationsPerDay());
+
+        stats.rebuild();
+        UserStats rebuilt = stats.getStats();
+        assertEquals(incremental.getTotal(), rebuilt.getTotal());
+        assertEquals(incremental.getEnabled(), rebuilt.getEnabled());
+        assertEquals(incremental.getDisabled(), rebuilt.getDisabled());
+        assertEquals(incremental.getByRole(), rebuilt.getByRole());
+        assertEquals(incremental.getRegistrationsPerDay(), rebuilt.getRegistrationsPerDay());
+    }
+
+    @Test
+    void incrementsBeforeFirstRebuildAreLeftToTheRebuild() {
+        insert("USER", true, LocalDateTime.now());
+        stats.onUserCreated("USER", true);
+
+        // 计数器尚不存在时的增量不生效，首次读取从数据库重建，不会重复计数
+        UserStats result = stats.getStats();
+        assertEquals(1, result.getTotal());
+        assertFalse(result.getByRole().containsKey("ADMIN"));
+    }
+
+    @Test
+    void rebuildReleasesOnlyItsOwnLock() {
+        insert("USER", true, LocalDateTime.now());
+        LockOnlyRedisTemplate redis = new LockOnlyRedisTemplate();
+        ReflectionTestUtils.setField(stats, "sessionStoreType", "redis");
+        ReflectionTestUtils.setField(stats, "redisTemplate", redis);
+
+        stats.rebuild();
+        assertNull(redis.values.get(RedisKeys.userStatsRebuildLock()), "重建结束后应释放自己的锁");
+
+        // 重建耗时超过锁有效期，锁过期后被其他节点取得
+        redis.duringRebuild = () -> redis.values.put(RedisKeys.userStatsRebuildLock(), "other-node");
+        stats.rebuild();
+        assertEquals("other-node", redis.values.get(RedisKeys.userStatsRebuildLock()), "不能删除其他节点持有的锁");
+    }
+
+    private void insert(String role, boolean enabled, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO users (username, password, enabled, role, created_at) VALUES (?, ?, ?, ?, ?)",
+                "user" + (++sequence), "x", enabled, role, createdAt == null ? null : Timestamp.valueOf(createdAt));
+    }
+
+    /**
+     * 只模拟重建用到的命令：SET NX 加锁、释放锁脚本（GET 比对后 DEL）、写临时 Hash 与 RENAME
+     */
+    private static class LockOnlyRedisTemplate extends RedisTemplate<String, String> {
+
+        final Map<String, String> values = new HashMap<>();
+
+        Runnable duringRebuild = () -> {
+        };
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return AuthServiceTests.stub(ValueOperations.class, (proxy, method, args) -> {
+                if (method.getName().equals("setIfAbsent")) {
+                    return values.putIfAbsent((String) args[0], (String) args[1]) == null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        @Override
+        public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+            return AuthServiceTests.stub(HashOperations.class, (proxy, method, args) -> {
+                duringRebuild.run();
+                return null;
+            });
+        }
+
+        @Override
+        public Boolean delete(String key) {
+            return values.remove(key) != null;
+        }
+
+        @Override
+        public void rename(String oldKey, String newKey) {
+        }
+
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            boolean owned = args[0].equals(values.get(keys.get(0)));
+            if (owned) {
+                values.remove(keys.get(0));
+            }
+            return script.getResultType().cast(owned ? 1L : 0L);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.ash.webapp_backend.session;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内存映射会话表的读写、过期、重启恢复与查询耗时
+ *
+ * 查询耗时依赖机器，标记为 benchmark，默认构建不运行，使用 -Dsurefire.excludedGroups= -Dgroups=benchmark 执行。
+ *
+ * @author Ash
+ * @date 2025/7/1
+ */
+class MappedHashTableTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void putGetRemoveAndExpire() throws Exception {
+        try (MappedHashTable table = new MappedHashTable(dir.resolve("s.db"), 1024, 256)) {
+            long future = System.currentTimeMillis() + 60_000;
+            assertNull(table.put("login:token:alice", "t1", future));
+            assertEquals("t1", table.put("login:token:alice", "t2", future));
+            assertEquals("t2", table.get("login:token:alice"));
+
+            assertNull(table.remove("login:token:alice", "t1"));
+            assertEquals("t2", table.remove("login:token:alice", "t2"));
+            assertNull(table.get("login:token:alice"));
+
+            table.put("login:token:bob", "t3", System.currentTimeMillis() - 1);
+            assertNull(table.get("login:token:bob"));
+            assertThrows(IllegalArgumentException.class, () -> table.put("k", "x".repeat(300), future));
+        }
+    }
+
+    @Test
+    void expireExtendsLiveEntriesOnly() throws Exception {
+        try (MappedHashTable table = new MappedHashTable(dir.resolve("s.db"), 1024, 256)) {
+            long now = System.currentTimeMillis();
+            table.put("login:token:alice", "t1", now + 50);
+            assertTrue(table.expire("login:token:alice", now + 60_000));
+            Thread.sleep(100);
+            assertEquals("t1", table.get("login:token:alice"));
+
+            // 已删除或已过期的条目不会被续期复活
+            table.remove("login:token:alice");
+            assertFalse(table.expire("login:token:alice", now + 60_000));
+            assertNull(table.get("login:token:alice"));
+            assertFalse(table.expire("login:token:nobody", now + 60_000));
+        }
+    }
+
+    @Test
+    void entriesSurviveReopen() throws Exception {
+        Path file = dir.resolve("s.db");
+        long future = System.currentTimeMillis() + 60_000;
+        try (MappedHashTable table = new MappedHashTable(file, 1024, 256)) {
+            for (int i = 0; i < 500; i++) {
+                table.put("session:token:" + i, "user" + i, future);
+            }
+        }
+        try (MappedHashTable table = new MappedHashTable(file, 1024, 256)) {
+            assertEquals(500, table.size());
+            assertEquals("user42", table.get("session:token:42"));
+        }
+        try (MappedHashTable table = new MappedHashTable(file, 1024, 512)) {
+            assertEquals(0, table.size());
+        }
+    }
+
+    @Test
+    void overwriteLeavesOneCompleteEntryAfterReopen() throws Exception {
+        Path file = dir.resolve("s.db");
+        long future = System.currentTimeMillis() + 60_000;
+        try (MappedHashTable table = new MappedHashTable(file, 1024, 256)) {
+            table.put("login:token:alice", "a-much-longer-token-value", future);
+            table.put("login:token:alice", "short", future + 1_000);
+        }
+        try (MappedHashTable table = new MappedHashTable(file, 1024, 256)) {
+            assertEquals(1, table.size());
+            assertEquals("short", table.get("login:token:alice"));
+        }
+    }
+
+    @Test
+    void fullBucketEvictsEarliestExpiry() throws Exception {
+        try (MappedHashTable table = new MappedHashTable(dir.resolve("s.db"), 8, 128)) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 8; i++) {
+                table.put("k" + i, "v" + i, now + 60_000 + i);
+            }
+            table.put("k8", "v8", now + 120_000);
+            assertEquals(1, table.evictions());
+            assertNull(table.get("k0"));
+            assertEquals("v8", table.get("k8"));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void lookupLatency() throws Exception {
+        int entries = 100_000;
+        try (MappedHashTable table = new MappedHashTable(dir.resolve("s.db"), entries * 2, 512)) {
+            long future = System.currentTimeMillis() + 60_000;
+            String token = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9." + "x".repeat(200);
+            for (int i = 0; i < entries; i++) {
+                table.put("login:token:user" + i, token, future);
+            }
+            for (int i = 0; i < 200_000; i++) {
+                table.get("login:token:user" + (i % entries));
+            }
+            int lookups = 1_000_000;
+            long start = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (table.get("login:token:user" + (i % entries)) != null) {
+                    hits++;
+                }
+            }
+            double nanos = (double) (System.nanoTime() - start) / lookups;
+            assertEquals(lookups, hits);
+            assertEquals(0, table.evictions());
+            assertTrue(nanos < 2_000, String.format("映射会话表 %d 条，单次查询 %.0fns，应低于 2μs", entries, nanos));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.ash.webapp_backend.session;
+
+import org.ash.webapp_backend.utils.LatencyHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 合并 MGET 与逐个 GET 的对比基准
+ *
+ * 需要本机 Redis（默认 localhost:6379，可通过 -Dbench.redis.port / -Dbench.redis.password 指定），
+ * 连接不上时跳过。模拟 64 个请求线程并发读取 login:token 键，断言合并后发往 Redis 的命令数少于读取次数，
+ * 并在日志中输出两种方式的每秒读取次数、命令数与单次读取耗时的 p99。
+ *
+ * 默认构建不运行，使用 -Dsurefire.excludedGroups= -Dgroups=benchmark 执行。
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+@Tag("benchmark")
+class MgetCoalescerBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(MgetCoalescerBenchmarkTests.class);
+
+    private static final int THREADS = 64;
+
+    private static final int LOOKUPS_PER_THREAD = 5_000;
+
+    private static final int USERS = 1_000;
+
+    private LettuceConnectionFactory factory;
+
+    private RedisTemplate<String, String> template;
+
+    @BeforeEach
+    void setUp() {
+        int port = Integer.getInteger("bench.redis.port", 6379);
+        assumeTrue(reachable(port), "本机 Redis 不可用，跳过基准");
+
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration("localhost", port);
+        String password = System.getProperty("bench.redis.password");
+        if (password != null) {
+            config.setPassword(password);
+        }
+        factory = new LettuceConnectionFactory(config);
+        factory.afterPropertiesSet();
+        factory.start();
+
+        template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
+        template.setDefaultSerializer(new StringRedisSerializer());
+        template.afterPropertiesSet();
+
+        Map<String, String> tokens = new HashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            tokens.put(key(i), "token-" + i);
+        }
+        template.opsForValue().multiSet(tokens);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (factory != null) {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void coalescedLookupsIssueFewerCommands() throws Exception {
+        // 预热
+        run(key -> template.opsForValue().get(key));
+
+        Result direct = run(key -> template.opsForValue().get(key));
+        long directCommands = (long) THREADS * LOOKUPS_PER_THREAD;
+
+        try (MgetCoalescer coalescer = new MgetCoalescer(template, 200, 128, 2, 4096, 5000, "bench-mget")) {
+            run(coalescer::get);
+            long before = (Long) coalescer.stats().get("redisCommands");
+            Result coalesced = run(coalescer::get);
+            long coalescedCommands = (Long) coalescer.stats().get("redisCommands") - before;
+
+            log.info("逐个 GET：{} ops/s，Redis 命令 {}，p99 {}μs",
+                    (long) direct.opsPerSecond, directCommands, direct.p99Micros);
+            log.info("合并 MGET：{} ops/s，Redis 命令 {}，p99 {}μs",
+                    (long) coalesced.opsPerSecond, coalescedCommands, coalesced.p99Micros);
+            assertEquals(0, coalesced.mismatches);
+            assertTrue(coalescedCommands < directCommands,
+                    "合并后的 Redis 命令数 " + coalescedCommands + " 应少于读取次数 " + directCommands);
+        }
+        assertEquals(0, direct.mismatches);
+    }
+
+    private record Result(double opsPerSecond, long p99Micros, long mismatches) {
+    }
+
+    private Result run(Function<String, String> lookup) throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder mismatches = new LongAdder();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int seed = t;
+            pool.execute(() -> {
+                for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+                    int user = (seed * 31 + i * 17) % USERS;
+                    long begin = System.nanoTime();
+                    String value = lookup.apply(key(user));
+                    histogram.record(System.nanoTime() - begin, false);
+                    if (!("token-" + user).equals(value)) {
+                        mismatches.increment();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        return new Result(THREADS * LOOKUPS_PER_THREAD / seconds,
+                (Long) histogram.snapshot().get("p99Micros"), mismatches.sum());
+    }
+
+    private static String key(int user) {
+        return "bench:login:token:user" + user;
+    }
+
+    private static boolean reachable(int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", port), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
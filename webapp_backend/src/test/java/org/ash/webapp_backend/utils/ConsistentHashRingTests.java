@@ -0,0 +1,83 @@
+package org.ash.webapp_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 一致性哈希环的分布均匀性与节点变更时的键迁移比例
+ *
+ * 使用 login:token 键的真实形态（按用户名路由），不依赖 Redis。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+class ConsistentHashRingTests {
+
+    private static final int KEYS = 100_000;
+
+    private static final int VIRTUAL_NODES = 160;
+
+    @Test
+    void keysAreSpreadEvenly() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes(4), VIRTUAL_NODES);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("user" + i), 1, Integer::sum);
+        }
+
+        assertEquals(4, counts.size());
+        double expected = KEYS / 4.0;
+        counts.values().forEach(count ->
+                assertTrue(Math.abs(count - expected) / expected < 0.15, "节点负载偏差过大：" + counts));
+    }
+
+    @Test
+    void addingNodeMovesOnlyItsShare() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(nodes(4), VIRTUAL_NODES);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes(5), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user" + i;
+            String from = before.nodeFor(key);
+            String to = after.nodeFor(key);
+            if (!from.equals(to)) {
+                moved++;
+                // 迁移的键只能流向新节点
+                assertEquals("localhost:6383", to);
+            }
+        }
+
+        double share = (double) moved / KEYS;
+        assertTrue(share > 0.12 && share < 0.28, "迁移比例应接近 1/5，实际 " + share);
+    }
+
+    @Test
+    void removingNodeMovesOnlyItsKeys() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(nodes(5), VIRTUAL_NODES);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes(4), VIRTUAL_NODES);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user" + i;
+            String from = before.nodeFor(key);
+            if (!from.equals("localhost:6383")) {
+                assertEquals(from, after.nodeFor(key));
+            }
+        }
+    }
+
+    private static Map<String, String> nodes(int count) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = "localhost:" + (6379 + i);
+            nodes.put(name, name);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,93 @@
+package org.ash.webapp_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 梯度并发上限：用合成 RTT 驱动上限的增长、收缩与低负载下的保持
+ *
+ * 采样窗口设为 0 毫秒，每 10 个样本结算一次，结果不依赖机器速度。
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+class GradientConcurrencyLimitTests {
+
+    private static final int SAMPLES_PER_WINDOW = 10;
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void limitGrowsWhileLatencyIsStableAndLoadIsHigh() {
+        GradientConcurrencyLimit limit = newLimit(20);
+
+        feed(limit, MILLIS, -1, 100);
+
+        assertTrue(limit.getLimit() > 100, "稳定延迟、满负载时上限应持续增长：" + limit.getLimit());
+    }
+
+    @Test
+    void limitShrinksTowardMinimumWhenLatencyJumps() {
+        GradientConcurrencyLimit limit = newLimit(20);
+        feed(limit, MILLIS, -1, 100);
+        int healthy = limit.getLimit();
+
+        // 下游变慢：短期 RTT 变为基线的 10 倍
+        feed(limit, 10 * MILLIS, -1, 10);
+        assertTrue(limit.getLimit() < healthy * 0.7, "延迟上升后上限应收缩：" + healthy + " -> " + limit.getLimit());
+
+        // 持续变慢：收缩到下界附近，且不低于下界
+        feed(limit, 10 * MILLIS, -1, 50);
+        assertTrue(limit.getLimit() >= 5 && limit.getLimit() < 10, "上限应收缩到下界附近：" + limit.getLimit());
+    }
+
+    @Test
+    void limitDoesNotGrowUnderLowLoad() {
+        GradientConcurrencyLimit limit = newLimit(20);
+
+        feed(limit, MILLIS, 1, 100);
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void concurrentSamplesKeepLimitWithinBounds() throws Exception {
+        GradientConcurrencyLimit limit = newLimit(20);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long rtt = (t % 2 == 0 ? 1 : 3) * MILLIS;
+            threads.add(Thread.ofPlatform().start(() -> feed(limit, rtt, -1, 5_000)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, limit.getInflight());
+        assertTrue(limit.getLimit() >= 5 && limit.getLimit() <= 1000, "上限越界：" + limit.getLimit());
+    }
+
+    private static GradientConcurrencyLimit newLimit(int initial) {
+        return new GradientConcurrencyLimit(initial, 5, 1000, 1.5, 0, SAMPLES_PER_WINDOW);
+    }
+
+    /**
+     * 提交若干个窗口的样本
+     *
+     * @param concurrency 样本的飞行中请求数，-1 表示取当前上限（满负载）
+     */
+    private static void feed(GradientConcurrencyLimit limit, long rttNanos, int concurrency, int windows) {
+        for (int i = 0; i < windows * SAMPLES_PER_WINDOW; i++) {
+            int inflightAtStart;
+            while ((inflightAtStart = limit.tryAcquire(1.0)) < 0) {
+                Thread.onSpinWait();
+            }
+            int sampled = concurrency < 0 ? limit.getLimit() : concurrency;
+            limit.release(rttNanos, Math.max(inflightAtStart, sampled - 1));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.ash.webapp_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 流式读取语句：MySQL 使用逐行流式的 fetchSize，其他驱动使用配置值，结果集均为只读、仅向前
+ *
+ * @author Ash
+ * @date 2025/6/23
+ */
+class JdbcStreamingTests {
+
+    @Test
+    void mysqlStreamsRowByRow() throws Exception {
+        List<Object> calls = new ArrayList<>();
+        JdbcStreaming.prepare(connection("jdbc:mysql://localhost:3306/testdb", calls), "SELECT 1", 1000);
+
+        assertEquals(List.of(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Integer.MIN_VALUE), calls);
+    }
+
+    @Test
+    void otherDriversUseTheConfiguredFetchSize() throws Exception {
+        List<Object> calls = new ArrayList<>();
+        JdbcStreaming.prepare(connection("jdbc:h2:mem:x", calls), "SELECT 1", 1000);
+
+        assertEquals(List.of(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 1000), calls);
+    }
+
+    /**
+     * 记录 prepareStatement 的结果集类型、并发模式与 setFetchSize 的参数
+     */
+    private static Connection connection(String url, List<Object> calls) {
+        DatabaseMetaData metaData = stub(DatabaseMetaData.class, (proxy, method, args) -> url);
+        PreparedStatement statement = stub(PreparedStatement.class, (proxy, method, args) -> {
+            calls.add(args[0]);
+            return null;
+        });
+        return stub(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getMetaData" -> metaData;
+            case "prepareStatement" -> {
+                calls.add(args[1]);
+                calls.add(args[2]);
+                yield statement;
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,94 @@
+package org.ash.webapp_backend.utils;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.ash.webapp_backend.security.InvalidTokenException;
+import org.ash.webapp_backend.security.TokenRejectReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 令牌结构预检：长度、段数、字母表、头部，以及验签阶段的拒绝原因
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+class JwtUtilTests {
+
+    private JwtUtil jwtUtil;
+
+    private String valid;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        jwtUtil.setSecret("test-secret");
+        jwtUtil.setExpiration(Duration.ofHours(1).toMillis());
+        jwtUtil.init();
+        valid = jwtUtil.generateToken("alice", Map.of("role", "USER"));
+    }
+
+    @Test
+    void acceptsTokensItIssued() {
+        assertNull(jwtUtil.checkStructure(valid));
+        assertEquals("alice", jwtUtil.verify(valid).getSubject());
+    }
+
+    @Test
+    void rejectsByLength() {
+        assertEquals(TokenRejectReason.LENGTH, jwtUtil.checkStructure(null));
+        assertEquals(TokenRejectReason.LENGTH, jwtUtil.checkStructure("a.b.c"));
+        assertEquals(TokenRejectReason.LENGTH, jwtUtil.checkStructure(valid + "A".repeat(4096)));
+    }
+
+    @Test
+    void rejectsBySegments() {
+        String[] parts = valid.split("\\.");
+        assertEquals(TokenRejectReason.SEGMENTS, jwtUtil.checkStructure(parts[0] + "." + parts[1] + parts[2]));
+        assertEquals(TokenRejectReason.SEGMENTS, jwtUtil.checkStructure(valid + ".extra"));
+        assertEquals(TokenRejectReason.SEGMENTS, jwtUtil.checkStructure(parts[0] + ".." + parts[1] + parts[2]));
+        assertEquals(TokenRejectReason.SEGMENTS, jwtUtil.checkStructure(parts[0] + "." + parts[1] + parts[2] + "."));
+    }
+
+    @Test
+    void rejectsByAlphabet() {
+        assertEquals(TokenRejectReason.ALPHABET, jwtUtil.checkStructure(valid.replaceFirst("\\.", "+.")));
+        assertEquals(TokenRejectReason.ALPHABET, jwtUtil.checkStructure(valid + "="));
+        assertEquals(TokenRejectReason.ALPHABET, jwtUtil.checkStructure(valid.substring(0, 10) + " " + valid.substring(11)));
+    }
+
+    @Test
+    void rejectsForeignHeaders() {
+        String payload = valid.split("\\.")[1];
+        String none = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\"}".getBytes());
+        assertEquals(TokenRejectReason.HEADER, jwtUtil.checkStructure(none + "." + payload + ".c2lnbmF0dXJl"));
+
+        String hs512 = JWT.create().withSubject("alice").sign(Algorithm.HMAC512("test-secret"));
+        assertEquals(TokenRejectReason.HEADER, jwtUtil.checkStructure(hs512));
+    }
+
+    @Test
+    void verifyMapsFailuresToSharedExceptions() {
+        String[] parts = valid.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+        InvalidTokenException signature = assertThrows(InvalidTokenException.class, () -> jwtUtil.verify(forged));
+        assertEquals(TokenRejectReason.SIGNATURE, signature.getReason());
+        assertSame(InvalidTokenException.of(TokenRejectReason.SIGNATURE), signature);
+
+        String expired = jwtUtil.generateToken("alice", Map.of(), -60_000);
+        assertEquals(TokenRejectReason.EXPIRED,
+                assertThrows(InvalidTokenException.class, () -> jwtUtil.verify(expired)).getReason());
+
+        assertEquals(TokenRejectReason.SEGMENTS,
+                assertThrows(InvalidTokenException.class, () -> jwtUtil.verify(valid + ".x")).getReason());
+    }
+}
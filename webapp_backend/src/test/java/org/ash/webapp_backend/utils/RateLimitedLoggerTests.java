@@ -0,0 +1,95 @@
+package org.ash.webapp_backend.utils;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限频日志：间隔内只输出一条，被抑制的条数附在下一条中，实例之间互不影响
+ *
+ * @author Ash
+ * @date 2025/6/29
+ */
+class RateLimitedLoggerTests {
+
+    private Logger logger;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        logger = (Logger) LoggerFactory.getLogger("rate-limited-" + System.nanoTime());
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void suppressesWithinIntervalAndReportsTheCountAfterwards() throws Exception {
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 100);
+        for (int i = 0; i < 5; i++) {
+            limited.warn("拒绝 {}", i);
+        }
+        assertEquals(1, appender.list.size());
+        assertEquals("拒绝 0", appender.list.get(0).getFormattedMessage());
+
+        Thread.sleep(150);
+        limited.warn("拒绝 {}", 5);
+        assertEquals(2, appender.list.size());
+        assertEquals("拒绝 5（期间另有 4 条同类日志被抑制）", appender.list.get(1).getFormattedMessage());
+    }
+
+    @Test
+    void instancesAreLimitedIndependently() {
+        RateLimitedLogger revoked = new RateLimitedLogger(logger, 60_000);
+        RateLimitedLogger invalid = new RateLimitedLogger(logger, 60_000);
+        for (int i = 0; i < 100; i++) {
+            invalid.warn("invalid");
+        }
+        revoked.warn("revoked");
+
+        List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(List.of("invalid", "revoked"), messages);
+    }
+
+    @Test
+    void concurrentCallersEmitOncePerInterval() throws Exception {
+        RateLimitedLogger limited = new RateLimitedLogger(logger, 60_000);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    limited.warn("burst");
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().startsWith("burst"));
+    }
+}
@@ -0,0 +1,97 @@
+package org.ash.webapp_backend.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用户名前缀索引的匹配正确性与百万用户规模下的内存占用、查询耗时
+ *
+ * @author Ash
+ * @date 2025/6/30
+ */
+class UsernamePrefixIndexTests {
+
+    private static final int USERS = 1_000_000;
+
+    @Test
+    void prefixSearchIsCaseInsensitiveAndSorted() {
+        UsernamePrefixIndex index = UsernamePrefixIndex.builder(4)
+                .add(1, "Alice")
+                .add(2, "alex")
+                .add(3, "bob")
+                .add(4, "ALINA")
+                .build();
+
+        List<String> names = index.search("al", 10).stream().map(UsernamePrefixIndex.Match::username).toList();
+        assertEquals(List.of("alex", "Alice", "ALINA"), names);
+        assertEquals(1, index.search("AL", 1).size());
+        assertTrue(index.search("carol", 10).isEmpty());
+    }
+
+    @Test
+    void deltaIsMergedIntoResultsAndCompacted() {
+        UsernamePrefixIndex index = UsernamePrefixIndex.builder(2)
+                .add(1, "anna")
+                .add(3, "anton")
+                .build();
+        index.add(2, "Anne");
+        index.add(3, "anton");
+
+        List<Long> ids = index.search("an", 10).stream().map(UsernamePrefixIndex.Match::id).toList();
+        assertEquals(List.of(1L, 2L, 3L), ids);
+
+        UsernamePrefixIndex compacted = index.compact();
+        assertEquals(0, compacted.deltaSize());
+        assertEquals(ids, compacted.search("an", 10).stream().map(UsernamePrefixIndex.Match::id).toList());
+    }
+
+    /**
+     * 内存占用只取决于数组长度，结果确定，随默认构建运行：用户名约 8 字节 + 偏移 4 字节 + ID 8 字节
+     */
+    @Test
+    void millionUsersFootprintStaysCompact() {
+        UsernamePrefixIndex index = millionUsers();
+
+        Map<String, Object> stats = index.memoryStats();
+        assertEquals(USERS, index.size());
+        assertEquals(10, index.search("user", 10).size());
+        long bytesPerUser = ((Number) stats.get("bytesPerUser")).longValue();
+        assertTrue(bytesPerUser <= 24, "每个用户的索引占用应不超过 24 字节：" + stats);
+    }
+
+    /**
+     * 查询耗时依赖机器，默认构建不运行，使用 -Dsurefire.excludedGroups= -Dgroups=benchmark 执行
+     */
+    @Test
+    @Tag("benchmark")
+    void millionUsersLookupLatency() {
+        UsernamePrefixIndex index = millionUsers();
+
+        String[] prefixes = {"user", "usera", "user1z", "userzz", "user9k3"};
+        for (int i = 0; i < 10_000; i++) {
+            index.search(prefixes[i % prefixes.length], 10);
+        }
+        int queries = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            index.search(prefixes[i % prefixes.length], 10);
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / queries;
+
+        assertTrue(micros < 50, String.format("百万用户下单次前缀查询 %.2fμs，应低于 50μs", micros));
+    }
+
+    private static UsernamePrefixIndex millionUsers() {
+        UsernamePrefixIndex.Builder builder = UsernamePrefixIndex.builder(USERS);
+        for (int i = 0; i < USERS; i++) {
+            builder.add(i, "user" + Integer.toString(i * 7919 % USERS, 36));
+        }
+        return builder.build();
+    }
+}